@@ -0,0 +1,94 @@
+package ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.benchmark;
+
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.index.BoundingBox;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.index.SubscriberAreaIndex;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.index.TargetArea;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Finding the connected subscribers inside a new alert's target area: the grid index against
+ * checking every subscriber. Most subscribers share a location, the rest a map viewport from
+ * street level up to the whole island, clustered around towns as SyntheticData places them.
+ *
+ * Only the match is measured; queuing the frame for each recipient is the same either way.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AlertFanoutBenchmark {
+
+    @Param({"10000", "50000", "100000"})
+    int subscribers;
+
+    // A flood warning for one town (5 km) or a district-wide polygon
+    @Param({"circle-5km", "district-polygon"})
+    String area;
+
+    private SubscriberAreaIndex index;
+    private double[][] points;
+    private BoundingBox[] viewports;
+    private List<TargetArea> alerts;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        index = new SubscriberAreaIndex();
+        List<double[]> located = new ArrayList<>();
+        List<BoundingBox> viewing = new ArrayList<>();
+        for (int i = 0; i < subscribers; i++) {
+            double[] p = SyntheticData.point(random);
+            String id = Integer.toString(i);
+            if (random.nextInt(10) < 8) {
+                index.placeAt(id, p[0], p[1]);
+                located.add(p);
+            } else {
+                // 0.01 degrees (a few streets) to ~3 (most of the island), weighted towards zoomed in
+                double span = 0.01 * Math.pow(300, random.nextDouble() * random.nextDouble());
+                BoundingBox viewport = new BoundingBox(p[1] - span, p[0] - span * 0.7, p[1] + span, p[0] + span * 0.7);
+                index.placeViewport(id, viewport);
+                viewing.add(viewport);
+            }
+        }
+        points = located.toArray(new double[0][]);
+        viewports = viewing.toArray(new BoundingBox[0]);
+
+        alerts = new ArrayList<>();
+        for (int i = 0; i < 256; i++) {
+            double[] c = SyntheticData.point(random);
+            if (area.equals("circle-5km")) {
+                alerts.add(new TargetArea.Circle(c[0], c[1], 5_000));
+            } else {
+                alerts.add(new TargetArea.Polygon(
+                        new double[]{c[0] - 0.2, c[0] - 0.15, c[0] + 0.2, c[0] + 0.25, c[0] + 0.05},
+                        new double[]{c[1] - 0.2, c[1] + 0.2, c[1] + 0.25, c[1] - 0.1, c[1] - 0.3}));
+            }
+        }
+    }
+
+    @Benchmark
+    public int matchIndexed() {
+        return index.match(alerts.get(next++ & 255)).size();
+    }
+
+    @Benchmark
+    public int matchByScan() {
+        TargetArea target = alerts.get(next++ & 255);
+        int matched = 0;
+        for (double[] p : points) {
+            if (target.contains(p[0], p[1])) matched++;
+        }
+        for (BoundingBox viewport : viewports) {
+            if (target.intersects(viewport)) matched++;
+        }
+        return matched;
+    }
+}
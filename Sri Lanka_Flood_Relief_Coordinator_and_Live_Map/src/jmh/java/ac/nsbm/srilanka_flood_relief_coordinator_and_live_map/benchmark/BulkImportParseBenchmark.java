@@ -0,0 +1,116 @@
+package ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.benchmark;
+
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.bulk.ImportFormat;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.bulk.ImportRow;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.bulk.ImportRows;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.bulk.RowReader;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.model.HelpRequest;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.model.MapMarker;
+import org.openjdk.jmh.annotations.*;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing and validation side of a bulk import, without the database. Scores are rows per second.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BulkImportParseBenchmark {
+
+    static final int ROWS = 10_000;
+
+    @Param({"csv", "ndjson"})
+    String format;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private ImportFormat importFormat;
+    private byte[] helpRequests;
+    private byte[] markers;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        importFormat = ImportFormat.resolve(format, null);
+        helpRequests = helpRequestFile(importFormat, ROWS, 42);
+        markers = markerFile(importFormat, ROWS, 42);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public long helpRequests() throws IOException {
+        long valid = 0;
+        try (RowReader reader = RowReader.open(importFormat, new ByteArrayInputStream(helpRequests), objectMapper)) {
+            ImportRow row;
+            while ((row = reader.next()) != null) {
+                HelpRequest request = ImportRows.toHelpRequest(row);
+                valid += request.getNeeds().size();
+            }
+        }
+        return valid;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public long markers() throws IOException {
+        long valid = 0;
+        try (RowReader reader = RowReader.open(importFormat, new ByteArrayInputStream(markers), objectMapper)) {
+            ImportRow row;
+            while ((row = reader.next()) != null) {
+                MapMarker marker = ImportRows.toMarker(row, "bench");
+                if (marker.getSeverity() != null) valid++;
+            }
+        }
+        return valid;
+    }
+
+    static byte[] helpRequestFile(ImportFormat format, int rows, long seed) {
+        Random random = new Random(seed);
+        StringBuilder out = new StringBuilder(rows * 120);
+        if (format == ImportFormat.CSV) out.append("name,phone,latitude,longitude,needs,details\n");
+        for (int i = 1; i <= rows; i++) {
+            double[] point = SyntheticData.point(random);
+            String needs = NEEDS[random.nextInt(NEEDS.length)];
+            if (format == ImportFormat.CSV) {
+                out.append("Family ").append(i).append(",07").append(10_000_000 + random.nextInt(89_999_999)).append(',')
+                        .append(point[0]).append(',').append(point[1]).append(',').append(needs.replace(',', ';'))
+                        .append(",\"Household of ").append(2 + random.nextInt(6)).append(", water to \"\"waist\"\" level\"\n");
+            } else {
+                out.append("{\"name\":\"Family ").append(i).append("\",\"phone\":\"07").append(10_000_000 + random.nextInt(89_999_999))
+                        .append("\",\"latitude\":").append(point[0]).append(",\"longitude\":").append(point[1])
+                        .append(",\"needs\":[\"").append(needs.replace(",", "\",\"")).append("\"]")
+                        .append(",\"details\":\"Household of ").append(2 + random.nextInt(6)).append(", water to \\\"waist\\\" level\"}\n");
+            }
+        }
+        return out.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    static byte[] markerFile(ImportFormat format, int rows, long seed) {
+        Random random = new Random(seed);
+        StringBuilder out = new StringBuilder(rows * 120);
+        if (format == ImportFormat.CSV) out.append("type,lat,lng,name,description,severity,capacity\n");
+        for (int i = 1; i <= rows; i++) {
+            double[] point = SyntheticData.point(random);
+            String type = SyntheticData.TYPES[random.nextInt(SyntheticData.TYPES.length)];
+            String severity = SyntheticData.SEVERITIES[random.nextInt(SyntheticData.SEVERITIES.length)];
+            if (format == ImportFormat.CSV) {
+                out.append(type).append(',').append(point[0]).append(',').append(point[1]).append(",Point ").append(i)
+                        .append(",Partner report ").append(i).append(',').append(severity).append(',').append(random.nextInt(300)).append('\n');
+            } else {
+                out.append("{\"type\":\"").append(type).append("\",\"lat\":").append(point[0]).append(",\"lng\":").append(point[1])
+                        .append(",\"name\":\"Point ").append(i).append("\",\"description\":\"Partner report ").append(i)
+                        .append("\",\"severity\":\"").append(severity).append("\",\"capacity\":").append(random.nextInt(300)).append("}\n");
+            }
+        }
+        return out.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static final String[] NEEDS = {"water", "food,water", "medicine", "shelter,food", "evacuation", "food,medicine,water"};
+}
@@ -0,0 +1,131 @@
+package ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.benchmark;
+
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.bulk.BulkInserts;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.bulk.IdBlockAllocator;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.bulk.ImportFormat;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.bulk.ImportRow;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.bulk.ImportRows;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.bulk.RowReader;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.model.HelpRequest;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.ByteArrayInputStream;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Help request import into MySQL, rows per second: the batched import path against the
+ * per-request path (one autocommitted IDENTITY insert per request plus one per need).
+ *
+ * Needs a scratch database; it drops and recreates help_requests, help_request_needs and
+ * help_requests_seq there. Configured through the environment so it reaches the forked JVMs:
+ *   BENCH_JDBC_URL=jdbc:mysql://localhost:3306/flood_bench?createDatabaseIfNotExist=true&rewriteBatchedStatements=true
+ *   BENCH_DB_USER=root BENCH_DB_PASSWORD=...
+ *
+ * The per-request baseline leaves out HTTP and Hibernate, so the real gap is wider.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class BulkInsertBenchmark {
+
+    static final int ROWS = 2_000;
+    static final int BATCH_SIZE = 500;
+
+    private DriverManagerDataSource dataSource;
+    private IdBlockAllocator allocator;
+    private BulkInserts inserts;
+    private TransactionTemplate transactionTemplate;
+    private List<HelpRequest> rows;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        String url = System.getenv("BENCH_JDBC_URL");
+        if (url == null) throw new IllegalStateException("Set BENCH_JDBC_URL to a scratch MySQL database");
+        dataSource = new DriverManagerDataSource(url, env("BENCH_DB_USER", "root"), env("BENCH_DB_PASSWORD", ""));
+
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("DROP TABLE IF EXISTS help_request_needs");
+        jdbc.execute("DROP TABLE IF EXISTS help_requests");
+        jdbc.execute("DROP TABLE IF EXISTS help_requests_seq");
+        jdbc.execute("CREATE TABLE help_requests (id BIGINT NOT NULL AUTO_INCREMENT PRIMARY KEY, name VARCHAR(255), phone VARCHAR(255), " +
+                "latitude DOUBLE NOT NULL, longitude DOUBLE NOT NULL, details VARCHAR(1000), created_at DATETIME(6), change_version BIGINT) ENGINE=InnoDB");
+        jdbc.execute("CREATE TABLE help_request_needs (help_request_id BIGINT NOT NULL, needs VARCHAR(255), " +
+                "FOREIGN KEY (help_request_id) REFERENCES help_requests (id)) ENGINE=InnoDB");
+        jdbc.execute("CREATE TABLE help_requests_seq (next_val BIGINT) ENGINE=InnoDB");
+
+        allocator = new IdBlockAllocator(dataSource, "help_requests_seq", "help_requests");
+        allocator.alignWithExistingRows();
+        inserts = new BulkInserts(jdbc);
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+
+        rows = new ArrayList<>(ROWS);
+        byte[] file = BulkImportParseBenchmark.helpRequestFile(ImportFormat.NDJSON, ROWS, 42);
+        try (RowReader reader = RowReader.open(ImportFormat.NDJSON, new ByteArrayInputStream(file), new ObjectMapper())) {
+            ImportRow row;
+            while ((row = reader.next()) != null) rows.add(ImportRows.toHelpRequest(row));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void batchedImport() throws Exception {
+        for (int from = 0; from < ROWS; from += BATCH_SIZE) {
+            List<HelpRequest> batch = rows.subList(from, Math.min(ROWS, from + BATCH_SIZE));
+            long firstId = allocator.reserve(batch.size());
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).setId(firstId + i);
+                batch.get(i).setChangeVersion(1L);
+            }
+            transactionTemplate.executeWithoutResult(status -> inserts.insertHelpRequests(batch));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void perRequestInserts() throws Exception {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement insert = connection.prepareStatement(
+                     "INSERT INTO help_requests (name, phone, latitude, longitude, details, change_version) VALUES (?, ?, ?, ?, ?, ?)",
+                     Statement.RETURN_GENERATED_KEYS);
+             PreparedStatement insertNeed = connection.prepareStatement(BulkInserts.INSERT_HELP_REQUEST_NEED)) {
+            for (HelpRequest r : rows) {
+                insert.setString(1, r.getName());
+                insert.setString(2, r.getPhone());
+                insert.setDouble(3, r.getLatitude());
+                insert.setDouble(4, r.getLongitude());
+                insert.setString(5, r.getDetails());
+                insert.setLong(6, 1L);
+                insert.executeUpdate();
+                long id;
+                try (ResultSet keys = insert.getGeneratedKeys()) {
+                    keys.next();
+                    id = keys.getLong(1);
+                }
+                for (String need : r.getNeeds()) {
+                    insertNeed.setLong(1, id);
+                    insertNeed.setString(2, need);
+                    insertNeed.executeUpdate();
+                }
+            }
+        }
+    }
+
+    private static String env(String name, String fallback) {
+        String value = System.getenv(name);
+        return value == null ? fallback : value;
+    }
+}
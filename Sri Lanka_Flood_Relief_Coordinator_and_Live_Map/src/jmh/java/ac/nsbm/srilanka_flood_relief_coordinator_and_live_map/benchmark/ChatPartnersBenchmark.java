@@ -0,0 +1,99 @@
+package ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.benchmark;
+
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.model.ConversationSummary;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.model.Message;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.repository.ConversationSummaryRepository;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.repository.MessageRepository;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.service.ConversationSummaryService;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.service.MessageService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * MessageService.getChatPartners for the admin inbox: the materialized summaries it reads
+ * today, against the original aggregation over every message (findAllByOrderByTimestampDesc).
+ *
+ * Both run in memory; the original also paid for loading every message from MySQL.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class ChatPartnersBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    int messages;
+
+    @Param({"100", "2000"})
+    int partners;
+
+    private List<Message> newestFirst;
+    private MessageService messageService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        newestFirst = SyntheticData.messages(messages, partners, 42);
+
+        // Summaries start empty, so the service backfills them from the messages like on first deploy
+        List<ConversationSummary> stored = new ArrayList<>();
+        ConversationSummaryService summaries = new ConversationSummaryService();
+        Wiring.inject(summaries, "summaryRepository", Wiring.stub(ConversationSummaryRepository.class, Map.of(
+                "saveAll", args -> {
+                    ((Iterable<?>) args[0]).forEach(s -> stored.add((ConversationSummary) s));
+                    return stored;
+                },
+                "findAll", args -> stored)));
+        MessageRepository messageRepository = Wiring.stub(MessageRepository.class, Map.of(
+                "count", args -> (long) newestFirst.size(),
+                "findAllByOrderByTimestampDesc", args -> newestFirst));
+        Wiring.inject(summaries, "messageRepository", messageRepository);
+        Wiring.call(summaries, "load");
+
+        messageService = new MessageService();
+        Wiring.inject(messageService, "conversationSummaryService", summaries);
+        Wiring.inject(messageService, "messageRepository", messageRepository);
+    }
+
+    @Benchmark
+    public List<Map<String, Object>> materializedSummaries() {
+        return messageService.getChatPartners("ADMIN", true);
+    }
+
+    @Benchmark
+    public List<Map<String, Object>> aggregateAllMessages() {
+        String currentUser = "ADMIN";
+        Set<String> uniquePartners = new LinkedHashSet<>();
+        Map<String, Integer> unreadMap = new HashMap<>();
+
+        for (Message m : newestFirst) {
+            String partner = null;
+            if (m.getSender().equals(currentUser)) {
+                partner = m.getRecipient();
+            } else if (m.getRecipient() != null && m.getRecipient().equals(currentUser)) {
+                partner = m.getSender();
+                if (!m.isRead()) {
+                    unreadMap.put(partner, unreadMap.getOrDefault(partner, 0) + 1);
+                }
+            }
+            if (partner != null) uniquePartners.add(partner);
+        }
+
+        List<Map<String, Object>> result = new ArrayList<>();
+        for (String name : uniquePartners) {
+            Map<String, Object> entry = new HashMap<>();
+            entry.put("name", name);
+            entry.put("unread", unreadMap.getOrDefault(name, 0));
+            result.add(entry);
+        }
+        return result;
+    }
+}
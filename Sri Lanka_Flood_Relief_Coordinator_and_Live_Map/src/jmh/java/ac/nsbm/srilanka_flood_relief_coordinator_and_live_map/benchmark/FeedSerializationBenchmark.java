@@ -0,0 +1,61 @@
+package ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.benchmark;
+
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.codec.CompactFeedCodec;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.model.Alert;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.model.MapMarker;
+import org.openjdk.jmh.annotations.*;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encoding the public feeds: Jackson JSON as served by /api/markers/approved and /api/alerts,
+ * and the compact binary format, each also gzipped as sent to clients that accept it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FeedSerializationBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    int size;
+
+    private final JsonMapper jsonMapper = JsonMapper.builder().build();
+    private List<MapMarker> markers;
+    private List<Alert> alerts;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        markers = SyntheticData.markers(size, 42);
+        alerts = SyntheticData.alerts(size, 42);
+    }
+
+    @Benchmark
+    public byte[] markersJson() {
+        return jsonMapper.writeValueAsBytes(markers);
+    }
+
+    @Benchmark
+    public byte[] markersJsonGzip() {
+        return CompactFeedCodec.gzip(jsonMapper.writeValueAsBytes(markers));
+    }
+
+    @Benchmark
+    public byte[] markersCompact() {
+        return CompactFeedCodec.encodeMarkers(markers);
+    }
+
+    @Benchmark
+    public byte[] alertsJson() {
+        return jsonMapper.writeValueAsBytes(alerts);
+    }
+
+    @Benchmark
+    public byte[] alertsCompact() {
+        return CompactFeedCodec.encodeAlerts(alerts);
+    }
+}
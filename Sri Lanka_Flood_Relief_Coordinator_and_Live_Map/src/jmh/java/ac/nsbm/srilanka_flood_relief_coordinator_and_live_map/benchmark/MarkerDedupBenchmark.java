@@ -0,0 +1,85 @@
+package ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.benchmark;
+
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.index.RecentReportIndex;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.model.MapMarker;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The dedup stage of reportIssue against a growing set of live reports: a duplicate of an
+ * existing report (merged), a report nowhere near anything (reserved, then dropped again so
+ * the set keeps its size), and the naive alternative of scanning every pending marker.
+ *
+ * Only the in-memory lookup is measured; the row insert or corroboration UPDATE that follows
+ * is the same with or without dedup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class MarkerDedupBenchmark {
+
+    private static final double RADIUS_METERS = 150;
+    private static final long WINDOW_MILLIS = TimeUnit.DAYS.toMillis(365);
+
+    @Param({"1000", "100000", "1000000"})
+    int pending;
+
+    private List<MapMarker> live;
+    private RecentReportIndex index;
+    private Random random;
+    private long now;
+    private long nextId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        live = SyntheticData.markers(pending, 42);
+        index = new RecentReportIndex(RADIUS_METERS, WINDOW_MILLIS);
+        now = System.currentTimeMillis();
+        for (MapMarker m : live) {
+            index.add(m.getId(), m.getType(), m.getLat(), m.getLng(), now);
+        }
+        random = new Random(7);
+        nextId = pending + 1L;
+    }
+
+    @Benchmark
+    public boolean duplicateReport() {
+        MapMarker original = live.get(random.nextInt(live.size()));
+        // A few tens of metres off, as two people standing at the same flooded junction would report it
+        double lat = original.getLat() + (random.nextDouble() - 0.5) * 0.0005;
+        double lng = original.getLng() + (random.nextDouble() - 0.5) * 0.0005;
+        return index.claim(original.getType(), lat, lng, now).isNew();
+    }
+
+    @Benchmark
+    public boolean freshReport() {
+        // A type nothing else has, so the lookup finds neighbours but no duplicate
+        MapMarker near = live.get(random.nextInt(live.size()));
+        RecentReportIndex.Claim claim = index.claim("bridge-collapse", near.getLat(), near.getLng(), now);
+        Long id = nextId++;
+        claim.complete(id);
+        index.remove(id);
+        return claim.isNew();
+    }
+
+    @Benchmark
+    public boolean scanAllPending() {
+        MapMarker original = live.get(random.nextInt(live.size()));
+        double lat = original.getLat() + (random.nextDouble() - 0.5) * 0.0005;
+        double lng = original.getLng() + (random.nextDouble() - 0.5) * 0.0005;
+        double cosLat = Math.cos(Math.toRadians(lat));
+        for (MapMarker m : live) {
+            if (!m.getType().equals(original.getType())) continue;
+            double dy = (m.getLat() - lat) * 111_320.0;
+            double dx = (m.getLng() - lng) * 111_320.0 * cosLat;
+            if (dx * dx + dy * dy <= RADIUS_METERS * RADIUS_METERS) return true;
+        }
+        return false;
+    }
+}
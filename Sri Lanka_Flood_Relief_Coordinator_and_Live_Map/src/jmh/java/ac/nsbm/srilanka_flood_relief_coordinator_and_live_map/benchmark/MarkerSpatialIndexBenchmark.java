@@ -0,0 +1,67 @@
+package ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.benchmark;
+
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.index.BoundingBox;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.index.MarkerSpatialIndex;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.model.MapMarker;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Viewport lookup through MarkerSpatialIndex versus the old path: every approved row
+ * (findByStatus) filtered afterwards for the viewport and types.
+ *
+ * The baseline only covers the in-memory part of the old path. It leaves out the MySQL
+ * round trip and the JSON for rows the client throws away, so the real gap is wider.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class MarkerSpatialIndexBenchmark {
+
+    @Param({"100000", "1000000"})
+    int markers;
+
+    @Param({"town", "district", "country"})
+    String viewport;
+
+    private final Set<String> types = Set.of("flood", "rescue-needed");
+
+    private List<MapMarker> table;
+    private MarkerSpatialIndex index;
+    private BoundingBox box;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        table = SyntheticData.markers(markers, 42);
+        index = new MarkerSpatialIndex();
+        for (MapMarker m : table) {
+            if ("approved".equals(m.getStatus())) index.upsert(m);
+        }
+        box = SyntheticData.viewport(viewport);
+    }
+
+    @Benchmark
+    public List<MapMarker> indexLookup() {
+        return index.query(box, types, null);
+    }
+
+    @Benchmark
+    public List<MapMarker> findByStatusThenFilter() {
+        List<MapMarker> approved = new ArrayList<>();
+        for (MapMarker m : table) {
+            if ("approved".equals(m.getStatus())) approved.add(m);
+        }
+        List<MapMarker> visible = new ArrayList<>();
+        for (MapMarker m : approved) {
+            if (box.contains(m.getLat(), m.getLng()) && types.contains(m.getType())) visible.add(m);
+        }
+        return visible;
+    }
+}
@@ -0,0 +1,69 @@
+package ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.benchmark;
+
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.index.MarkerSpatialIndex;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.model.MapMarker;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Picking markers of one status out of the whole table, as the moderation lists and the
+ * approved feed do: a plain loop, a stream, a status-partitioned map built up front, and
+ * (approved only) the MarkerSpatialIndex that now serves the public feed.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class MarkerStatusFilterBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    int markers;
+
+    @Param({"approved", "pending"})
+    String status;
+
+    private List<MapMarker> table;
+    private Map<String, List<MapMarker>> byStatus;
+    private MarkerSpatialIndex approvedIndex;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        table = SyntheticData.markers(markers, 42);
+        byStatus = table.stream().collect(Collectors.groupingBy(MapMarker::getStatus));
+        approvedIndex = new MarkerSpatialIndex();
+        for (MapMarker m : table) {
+            if ("approved".equals(m.getStatus())) approvedIndex.upsert(m);
+        }
+    }
+
+    @Benchmark
+    public List<MapMarker> loop() {
+        List<MapMarker> result = new ArrayList<>();
+        for (MapMarker m : table) {
+            if (status.equals(m.getStatus())) result.add(m);
+        }
+        return result;
+    }
+
+    @Benchmark
+    public List<MapMarker> stream() {
+        return table.stream().filter(m -> status.equals(m.getStatus())).toList();
+    }
+
+    @Benchmark
+    public List<MapMarker> partitioned() {
+        return new ArrayList<>(byStatus.getOrDefault(status, List.of()));
+    }
+
+    @Benchmark
+    public List<MapMarker> approvedIndex() {
+        return "approved".equals(status) ? approvedIndex.query(null, null, null) : List.of();
+    }
+}
@@ -0,0 +1,129 @@
+package ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.benchmark;
+
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.index.BoundingBox;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.model.Alert;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.model.MapMarker;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.model.Message;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Reproducible marker data spread over Sri Lanka. Most points cluster around the larger
+ * towns the way real flood reports do; the rest are scattered over the whole island.
+ */
+public final class SyntheticData {
+
+    static final String[] TYPES = {"flood", "landslide", "road-block", "safe-zone", "rescue-needed", "medical"};
+    static final String[] SEVERITIES = {"low", "medium", "high", "critical"};
+
+    // lat, lng of Colombo, Kandy, Galle, Jaffna, Batticaloa, Ratnapura, Kurunegala, Trincomalee
+    private static final double[][] TOWNS = {
+            {6.93, 79.85}, {7.29, 80.63}, {6.03, 80.22}, {9.66, 80.02},
+            {7.71, 81.69}, {6.68, 80.40}, {7.49, 80.36}, {8.57, 81.23}
+    };
+
+    static final BoundingBox ISLAND = new BoundingBox(79.65, 5.90, 81.90, 9.85);
+    static final BoundingBox COLOMBO_DISTRICT = new BoundingBox(79.82, 6.70, 80.22, 7.05);
+    static final BoundingBox COLOMBO_TOWN = new BoundingBox(79.84, 6.90, 79.88, 6.95);
+
+    private SyntheticData() {
+    }
+
+    static BoundingBox viewport(String name) {
+        return switch (name) {
+            case "town" -> COLOMBO_TOWN;
+            case "district" -> COLOMBO_DISTRICT;
+            default -> ISLAND;
+        };
+    }
+
+    /**
+     * Markers with ids 1..count. Roughly 70% approved, 20% pending, 10% rejected.
+     */
+    static List<MapMarker> markers(int count, long seed) {
+        Random random = new Random(seed);
+        List<MapMarker> markers = new ArrayList<>(count);
+        LocalDateTime start = LocalDateTime.of(2025, 11, 20, 0, 0);
+
+        for (int i = 1; i <= count; i++) {
+            double[] point = point(random);
+            MapMarker m = new MapMarker();
+            m.setId((long) i);
+            m.setLat(point[0]);
+            m.setLng(point[1]);
+            m.setType(TYPES[random.nextInt(TYPES.length)]);
+            m.setSeverity(SEVERITIES[random.nextInt(SEVERITIES.length)]);
+            int roll = random.nextInt(10);
+            m.setStatus(roll < 7 ? "approved" : roll < 9 ? "pending" : "rejected");
+            m.setName("Report " + i);
+            m.setDescription("Synthetic report " + i);
+            m.setSubmittedBy("user" + random.nextInt(5_000));
+            m.setTimestamp(start.plusSeconds(i * 7L));
+            markers.add(m);
+        }
+        return markers;
+    }
+
+    /**
+     * Alerts with ids 1..count, newest last, with bulletin-length text.
+     */
+    static List<Alert> alerts(int count, long seed) {
+        Random random = new Random(seed);
+        List<Alert> alerts = new ArrayList<>(count);
+        LocalDateTime start = LocalDateTime.of(2025, 11, 20, 0, 0);
+        String[] alertSeverities = {"low", "medium", "high"};
+
+        for (int i = 1; i <= count; i++) {
+            Alert a = new Alert();
+            a.setId((long) i);
+            a.setSeverity(alertSeverities[random.nextInt(alertSeverities.length)]);
+            a.setTitle("Flood warning " + i);
+            a.setContent("Water levels in the " + TYPES[random.nextInt(TYPES.length)] + " area are expected to rise over the next "
+                    + (6 + random.nextInt(42)) + " hours. Residents of low-lying areas should move to the nearest safe zone.");
+            a.setSource("Disaster Management Centre");
+            a.setTimestamp(start.plusMinutes(i * 3L));
+            a.setIcon("fa-water");
+            alerts.add(a);
+        }
+        return alerts;
+    }
+
+    /**
+     * Chat traffic between ADMIN and partners members, newest first like findAllByOrderByTimestampDesc.
+     * About a third of the messages to ADMIN are unread.
+     */
+    static List<Message> messages(int count, int partners, long seed) {
+        Random random = new Random(seed);
+        List<Message> messages = new ArrayList<>(count);
+        LocalDateTime start = LocalDateTime.of(2025, 11, 20, 0, 0);
+
+        for (int i = 0; i < count; i++) {
+            String member = "user" + random.nextInt(partners);
+            boolean fromMember = random.nextBoolean();
+            Message m = new Message();
+            m.setId((long) (count - i));
+            m.setSender(fromMember ? member : "ADMIN");
+            m.setRecipient(fromMember ? "ADMIN" : member);
+            m.setContent("Message " + i + " about the water level near our house");
+            m.setRole(fromMember ? "MEMBER" : "ADMIN");
+            m.setTimestamp(start.plusSeconds((long) (count - i) * 11));
+            m.setRead(!fromMember || random.nextInt(3) != 0);
+            messages.add(m);
+        }
+        return messages;
+    }
+
+    static double[] point(Random random) {
+        if (random.nextInt(4) == 0) {
+            return new double[]{
+                    ISLAND.minLat() + random.nextDouble() * (ISLAND.maxLat() - ISLAND.minLat()),
+                    ISLAND.minLng() + random.nextDouble() * (ISLAND.maxLng() - ISLAND.minLng())
+            };
+        }
+        double[] town = TOWNS[random.nextInt(TOWNS.length)];
+        return new double[]{town[0] + random.nextGaussian() * 0.08, town[1] + random.nextGaussian() * 0.08};
+    }
+}
@@ -0,0 +1,74 @@
+package ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.benchmark;
+
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.model.Role;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.model.User;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.repository.UserRepository;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.service.CustomUserDetailsService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * What a login costs on the server: CustomUserDetailsService.loadUserByUsername against an
+ * in-memory user table, alone and followed by the BCrypt check DaoAuthenticationProvider does.
+ * The repository lookup stands in for one indexed MySQL query.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserLoginBenchmark {
+
+    @Param({"1000", "100000"})
+    int users;
+
+    // 10 is what SecurityConfig's BCryptPasswordEncoder uses
+    @Param({"10", "12"})
+    int bcryptStrength;
+
+    private CustomUserDetailsService userDetailsService;
+    private BCryptPasswordEncoder passwordEncoder;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        passwordEncoder = new BCryptPasswordEncoder(bcryptStrength);
+        // Hashing every user would take minutes; the cost of matches() does not depend on which hash it is
+        String hash = passwordEncoder.encode("correct horse battery staple");
+
+        Map<String, User> table = new HashMap<>();
+        for (int i = 0; i < users; i++) {
+            User user = new User();
+            user.setId((long) i);
+            user.setUsername("user" + i);
+            user.setEmail("user" + i + "@example.org");
+            user.setPassword(hash);
+            user.setRole(i == 0 ? Role.ADMIN : Role.MEMBER);
+            table.put(user.getUsername(), user);
+        }
+
+        userDetailsService = new CustomUserDetailsService();
+        Wiring.inject(userDetailsService, "userRepository", Wiring.stub(UserRepository.class,
+                Map.of("findByUsername", args -> Optional.ofNullable(table.get((String) args[0])))));
+    }
+
+    @Benchmark
+    public UserDetails loadUserByUsername() {
+        next = (next + 7919) % users;
+        return userDetailsService.loadUserByUsername("user" + next);
+    }
+
+    @Benchmark
+    public boolean loadUserAndVerifyPassword() {
+        next = (next + 7919) % users;
+        UserDetails user = userDetailsService.loadUserByUsername("user" + next);
+        return passwordEncoder.matches("correct horse battery staple", user.getPassword());
+    }
+}
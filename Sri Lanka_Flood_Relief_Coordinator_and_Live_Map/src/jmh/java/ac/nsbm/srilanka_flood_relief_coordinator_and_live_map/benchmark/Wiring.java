@@ -0,0 +1,55 @@
+package ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.benchmark;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Builds services outside Spring: in-memory repository stubs and @Autowired field injection.
+ */
+final class Wiring {
+
+    private Wiring() {
+    }
+
+    /**
+     * A repository whose methods answer from the given map, by method name. Unlisted methods
+     * return null, 0 or false, so only the calls a benchmark reaches need an answer.
+     */
+    @SuppressWarnings("unchecked")
+    static <T> T stub(Class<T> type, Map<String, Function<Object[], Object>> answers) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            Function<Object[], Object> answer = answers.get(method.getName());
+            if (answer != null) return answer.apply(args);
+            if (method.getName().equals("toString")) return type.getSimpleName() + " stub";
+            Class<?> returns = method.getReturnType();
+            if (returns == long.class) return 0L;
+            if (returns == int.class) return 0;
+            if (returns == boolean.class) return false;
+            return null;
+        });
+    }
+
+    static void inject(Object target, String field, Object value) {
+        try {
+            Field f = target.getClass().getDeclaredField(field);
+            f.setAccessible(true);
+            f.set(target, value);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot set " + field + " on " + target.getClass().getSimpleName(), e);
+        }
+    }
+
+    // For package-private lifecycle methods such as @PostConstruct loaders
+    static void call(Object target, String method) {
+        try {
+            Method m = target.getClass().getDeclaredMethod(method);
+            m.setAccessible(true);
+            m.invoke(target);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot call " + method + " on " + target.getClass().getSimpleName(), e);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.loadtest;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free latency histogram with log-spaced buckets 5% wide, from 1 microsecond to about 10 minutes.
+ * Percentiles are therefore accurate to within 5%, which is plenty for finding a knee.
+ */
+final class LatencyHistogram {
+
+    private static final double GROWTH = 1.05;
+    private static final double LOG_GROWTH = Math.log(GROWTH);
+    private static final int BUCKETS = 1 + (int) Math.ceil(Math.log(600_000_000.0) / LOG_GROWTH);
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final AtomicLong total = new AtomicLong();
+    private final AtomicLong sumMicros = new AtomicLong();
+    private final AtomicLong maxMicros = new AtomicLong();
+
+    void record(long micros) {
+        long value = Math.max(1, micros);
+        int bucket = Math.min(BUCKETS - 1, (int) (Math.log(value) / LOG_GROWTH));
+        counts.incrementAndGet(bucket);
+        total.incrementAndGet();
+        sumMicros.addAndGet(value);
+        maxMicros.accumulateAndGet(value, Math::max);
+    }
+
+    long count() {
+        return total.get();
+    }
+
+    double meanMillis() {
+        long n = total.get();
+        return n == 0 ? 0 : sumMicros.get() / 1000.0 / n;
+    }
+
+    double maxMillis() {
+        return maxMicros.get() / 1000.0;
+    }
+
+    // Upper edge of the bucket holding the given percentile (0-100)
+    double percentileMillis(double percentile) {
+        long n = total.get();
+        if (n == 0) return 0;
+        long rank = (long) Math.ceil(n * percentile / 100.0);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= rank) return Math.min(Math.pow(GROWTH, i + 1), maxMicros.get()) / 1000.0;
+        }
+        return maxMillis();
+    }
+}
@@ -0,0 +1,124 @@
+package ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.loadtest;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Keeps the number of running virtual users on the ramp profile, once a second, and closes a
+ * timeline row every interval. Users that leave on a ramp down are the most recently started.
+ */
+final class LoadRunner {
+
+    private final String baseUrl;
+    private final LoadTestOptions options;
+    private final RampProfile profile;
+    private final Recorder recorder;
+    private final Map<Scenario, Integer> mix;
+    private final Random random;
+    private final Deque<Thread> threads = new ArrayDeque<>();
+    private final Deque<VirtualUser> active = new ArrayDeque<>();
+    private int started;
+
+    LoadRunner(String baseUrl, LoadTestOptions options, RampProfile profile, Recorder recorder) {
+        this.baseUrl = baseUrl;
+        this.options = options;
+        this.profile = profile;
+        this.recorder = recorder;
+        this.mix = parseMix(options.get("mix"));
+        this.random = new Random(options.getLong("seed") * 31 + 7);
+    }
+
+    static Map<Scenario, Integer> parseMix(String spec) {
+        Map<Scenario, Integer> mix = new EnumMap<>(Scenario.class);
+        for (String part : spec.split(",")) {
+            String[] fields = part.trim().split(":");
+            if (fields.length != 2) throw new IllegalArgumentException("Mix entries must be scenario:weight, got " + part);
+            int weight = Integer.parseInt(fields[1].trim());
+            if (weight < 0) throw new IllegalArgumentException("Negative weight in " + part);
+            mix.put(Scenario.valueOf(fields[0].trim().toUpperCase(Locale.ROOT)), weight);
+        }
+        if (mix.values().stream().mapToInt(Integer::intValue).sum() == 0) {
+            throw new IllegalArgumentException("The mix needs at least one positive weight");
+        }
+        return mix;
+    }
+
+    void run() throws InterruptedException {
+        ExecutorService httpExecutor = Executors.newCachedThreadPool(r -> {
+            Thread t = new Thread(r, "loadtest-http");
+            t.setDaemon(true);
+            return t;
+        });
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .executor(httpExecutor)
+                .build();
+
+        int intervalSeconds = options.getInt("interval");
+        long start = System.nanoTime();
+        long nextRow = intervalSeconds;
+        printHeader();
+        try {
+            for (int second = 0; second <= profile.totalSeconds(); second++) {
+                adjust(client, profile.usersAt(second));
+                if (second == nextRow) {
+                    print(recorder.closeInterval(second, active.size(), intervalSeconds));
+                    nextRow += intervalSeconds;
+                }
+                long wakeAt = start + (second + 1) * 1_000_000_000L;
+                long sleep = (wakeAt - System.nanoTime()) / 1_000_000;
+                if (sleep > 0) Thread.sleep(sleep);
+            }
+        } finally {
+            adjust(client, 0);
+            for (Thread t : threads) t.join(35_000);
+            httpExecutor.shutdownNow();
+        }
+    }
+
+    private void adjust(HttpClient client, int target) {
+        while (active.size() < target) {
+            Scenario scenario = pick();
+            String username = scenario == Scenario.MODERATION
+                    ? SriLankaDataset.ADMIN
+                    : SriLankaDataset.member(started % options.getInt("users"));
+            VirtualUser vu = new VirtualUser(baseUrl, client, recorder, scenario, username, random.nextLong(), options);
+            Thread thread = new Thread(vu, "vu-" + scenario.name().toLowerCase(Locale.ROOT) + "-" + started++);
+            thread.setDaemon(true);
+            thread.start();
+            active.push(vu);
+            threads.push(thread);
+        }
+        while (active.size() > target) {
+            active.pop().stop();
+        }
+    }
+
+    private Scenario pick() {
+        int total = mix.values().stream().mapToInt(Integer::intValue).sum();
+        int roll = random.nextInt(total);
+        for (Map.Entry<Scenario, Integer> e : mix.entrySet()) {
+            roll -= e.getValue();
+            if (roll < 0) return e.getKey();
+        }
+        throw new IllegalStateException("unreachable");
+    }
+
+    private static void printHeader() {
+        System.out.printf("%8s %6s %9s %7s %6s %9s %9s %9s%n", "time(s)", "users", "req/s", "errors", "shed", "p50(ms)", "p95(ms)", "p99(ms)");
+    }
+
+    private static void print(Recorder.TimelineRow row) {
+        System.out.printf(Locale.ROOT, "%8.0f %6d %9.1f %7d %6d %9.1f %9.1f %9.1f%n", row.atSeconds(), row.users(),
+                row.requestsPerSecond(), row.errors(), row.shed(), row.p50Millis(), row.p95Millis(), row.p99Millis());
+    }
+}
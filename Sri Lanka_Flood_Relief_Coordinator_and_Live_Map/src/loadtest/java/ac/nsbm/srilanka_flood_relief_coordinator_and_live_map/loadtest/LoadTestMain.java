@@ -0,0 +1,78 @@
+package ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.loadtest;
+
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.SriLankaFloodReliefCoordinatorAndLiveMapApplication;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Starts the application on an embedded in-memory database and a random port, seeds it with a
+ * synthetic Sri Lankan dataset, drives it with virtual users along a ramp profile and writes a
+ * JSON report.
+ *
+ * <pre>mvn -Ploadtest test-compile exec:exec -Dloadtest.args="--profile=spike --mix=map:80,sos:20"</pre>
+ */
+public final class LoadTestMain {
+
+    private LoadTestMain() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options = new LoadTestOptions(args);
+        RampProfile profile = RampProfile.of(options.get("profile"), options.get("stages"));
+        LoadRunner.parseMix(options.get("mix"));
+
+        Path work = Files.createTempDirectory("flood-loadtest");
+        // Passed as command-line arguments so they win over application.properties
+        List<String> boot = List.of(
+                // H2 in MySQL mode stands in for MySQL; the MySQL dialect keeps the id sequence tables the bulk importer reserves from
+                "--spring.datasource.url=jdbc:h2:mem:loadtest;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+                "--spring.datasource.driver-class-name=org.h2.Driver",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.datasource.hikari.maximum-pool-size=" + options.getInt("pool-size"),
+                // The migrations are MySQL DDL; H2 gets its schema from the entities instead
+                "--spring.flyway.enabled=false",
+                "--spring.jpa.hibernate.ddl-auto=create",
+                "--server.port=0",
+                "--logging.level.root=WARN",
+                "--app.attachments.dir=" + work.resolve("attachments"),
+                "--app.attachments.migrate-legacy=false",
+                "--app.surge.enabled=" + options.getBoolean("surge"),
+                "--app.surge.journal-dir=" + work.resolve("journal"),
+                "--app.chat.archive.dir=" + work.resolve("chat-archive"),
+                "--app.admission.enabled=" + options.getBoolean("admission"));
+
+        ConfigurableApplicationContext context = SpringApplication.run(
+                SriLankaFloodReliefCoordinatorAndLiveMapApplication.class, boot.toArray(String[]::new));
+        int exitCode = 0;
+        try {
+            String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+            SriLankaDataset.Counts seeded = new SriLankaDataset(options.getLong("seed")).seed(context, options);
+            System.out.printf("Seeded %s%nRunning %s (%d s) against %s%n%n", seeded, profile, profile.totalSeconds(), baseUrl);
+
+            Recorder recorder = new Recorder();
+            long started = System.nanoTime();
+            new LoadRunner(baseUrl, options, profile, recorder).run();
+            double seconds = (System.nanoTime() - started) / 1e9;
+
+            List<LoadTestReport.EndpointSummary> endpoints = LoadTestReport.endpoints(recorder, seconds);
+            List<Recorder.TimelineRow> timeline = recorder.timeline();
+            LoadTestReport.Saturation saturation = LoadTestReport.saturation(timeline,
+                    options.getLong("slo-p95-ms"), options.getInt("interval"));
+            LoadTestReport.print(endpoints, saturation);
+            Path report = Path.of(options.get("report"));
+            LoadTestReport.write(report, options, profile, seeded, endpoints, timeline, saturation);
+            System.out.println("Report written to " + report.toAbsolutePath());
+        } catch (Exception e) {
+            e.printStackTrace();
+            exitCode = 1;
+        } finally {
+            context.close();
+        }
+        System.exit(exitCode);
+    }
+}
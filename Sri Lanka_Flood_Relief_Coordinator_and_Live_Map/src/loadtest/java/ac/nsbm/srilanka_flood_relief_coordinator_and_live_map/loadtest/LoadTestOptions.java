@@ -0,0 +1,70 @@
+package ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.loadtest;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Command-line options, all as --name=value. Unknown names are rejected so typos do not
+ * silently run the defaults.
+ */
+final class LoadTestOptions {
+
+    private static final Map<String, String> DEFAULTS = new LinkedHashMap<>();
+
+    static {
+        DEFAULTS.put("profile", "step");      // step | ramp | spike | soak, or use --stages
+        DEFAULTS.put("stages", "");           // seconds:users,... ramped linearly, e.g. 60:100,120:100,60:400
+        DEFAULTS.put("mix", "map:55,chat:30,sos:8,report:5,moderation:2");
+        DEFAULTS.put("seed", "42");
+        DEFAULTS.put("users", "2000");
+        DEFAULTS.put("markers", "10000");
+        DEFAULTS.put("help-requests", "5000");
+        DEFAULTS.put("messages", "10000");
+        DEFAULTS.put("map-interval", "10");   // seconds between map refreshes
+        DEFAULTS.put("chat-interval", "3");   // chat.js polling fallback
+        DEFAULTS.put("interval", "10");       // seconds per timeline row
+        DEFAULTS.put("slo-p95-ms", "500");    // p95 above this marks saturation
+        DEFAULTS.put("pool-size", "10");      // Hikari connections
+        DEFAULTS.put("admission", "false");   // all load comes from one IP, which per-IP buckets would throttle
+        DEFAULTS.put("surge", "false");
+        DEFAULTS.put("report", "target/loadtest-report.json");
+    }
+
+    private final Map<String, String> values = new LinkedHashMap<>(DEFAULTS);
+
+    LoadTestOptions(String[] args) {
+        for (String arg : args) {
+            for (String token : arg.trim().split("\\s+")) {
+                if (token.isEmpty()) continue;
+                if (!token.startsWith("--") || !token.contains("=")) {
+                    throw new IllegalArgumentException("Expected --name=value, got " + token);
+                }
+                String name = token.substring(2, token.indexOf('='));
+                if (!DEFAULTS.containsKey(name)) {
+                    throw new IllegalArgumentException("Unknown option --" + name + "; known: " + DEFAULTS.keySet());
+                }
+                values.put(name, token.substring(token.indexOf('=') + 1));
+            }
+        }
+    }
+
+    String get(String name) {
+        return values.get(name);
+    }
+
+    int getInt(String name) {
+        return Integer.parseInt(values.get(name));
+    }
+
+    long getLong(String name) {
+        return Long.parseLong(values.get(name));
+    }
+
+    boolean getBoolean(String name) {
+        return Boolean.parseBoolean(values.get(name));
+    }
+
+    Map<String, String> asMap() {
+        return values;
+    }
+}
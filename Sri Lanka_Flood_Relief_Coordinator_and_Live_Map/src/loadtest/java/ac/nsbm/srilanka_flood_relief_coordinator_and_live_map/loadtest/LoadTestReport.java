@@ -0,0 +1,89 @@
+package ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.loadtest;
+
+import tools.jackson.databind.SerializationFeature;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Per-endpoint latency and throughput for the whole run, the timeline, and where the system
+ * saturated: the first interval whose p95 passed the SLO or whose error rate passed 1%.
+ */
+final class LoadTestReport {
+
+    record EndpointSummary(String endpoint, long requests, long errors, long shed, double requestsPerSecond,
+                           double meanMillis, double p50Millis, double p90Millis, double p95Millis,
+                           double p99Millis, double maxMillis) {
+    }
+
+    record Saturation(boolean reached, Double atSeconds, Integer atUsers, int maxUsersWithinSlo,
+                      double peakRequestsPerSecond, double sloP95Millis) {
+    }
+
+    private LoadTestReport() {
+    }
+
+    static List<EndpointSummary> endpoints(Recorder recorder, double seconds) {
+        List<EndpointSummary> summaries = new ArrayList<>();
+        recorder.endpoints().forEach((name, c) -> summaries.add(new EndpointSummary(name, c.latency.count(),
+                c.errors.get(), c.shed.get(), c.latency.count() / seconds, c.latency.meanMillis(),
+                c.latency.percentileMillis(50), c.latency.percentileMillis(90), c.latency.percentileMillis(95),
+                c.latency.percentileMillis(99), c.latency.maxMillis())));
+        summaries.sort((a, b) -> Long.compare(b.requests(), a.requests()));
+        return summaries;
+    }
+
+    static Saturation saturation(List<Recorder.TimelineRow> timeline, double sloP95Millis, int intervalSeconds) {
+        int maxWithin = 0;
+        double peak = 0;
+        for (Recorder.TimelineRow row : timeline) {
+            peak = Math.max(peak, row.requestsPerSecond());
+            double requests = row.requestsPerSecond() * intervalSeconds;
+            boolean breached = row.p95Millis() > sloP95Millis || (requests > 0 && row.errors() / requests > 0.01);
+            if (breached) {
+                return new Saturation(true, row.atSeconds(), row.users(), maxWithin, peak, sloP95Millis);
+            }
+            maxWithin = Math.max(maxWithin, row.users());
+        }
+        return new Saturation(false, null, null, maxWithin, peak, sloP95Millis);
+    }
+
+    static void write(Path file, LoadTestOptions options, RampProfile profile, SriLankaDataset.Counts seeded,
+                      List<EndpointSummary> endpoints, List<Recorder.TimelineRow> timeline, Saturation saturation)
+            throws IOException {
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("options", options.asMap());
+        report.put("stages", profile.toString());
+        report.put("seeded", seeded);
+        report.put("endpoints", endpoints);
+        report.put("timeline", timeline);
+        report.put("saturation", saturation);
+        if (file.getParent() != null) Files.createDirectories(file.getParent());
+        JsonMapper.builder().enable(SerializationFeature.INDENT_OUTPUT).build().writeValue(file.toFile(), report);
+    }
+
+    static void print(List<EndpointSummary> endpoints, Saturation saturation) {
+        System.out.printf("%n%-36s %9s %7s %6s %8s %9s %9s %9s %9s%n",
+                "endpoint", "requests", "errors", "shed", "req/s", "p50(ms)", "p95(ms)", "p99(ms)", "max(ms)");
+        for (EndpointSummary e : endpoints) {
+            System.out.printf(Locale.ROOT, "%-36s %9d %7d %6d %8.1f %9.1f %9.1f %9.1f %9.1f%n", e.endpoint(),
+                    e.requests(), e.errors(), e.shed(), e.requestsPerSecond(), e.p50Millis(), e.p95Millis(),
+                    e.p99Millis(), e.maxMillis());
+        }
+        if (saturation.reached()) {
+            System.out.printf(Locale.ROOT, "%nSaturated at %.0f s with %d users (p95 SLO %.0f ms); held the SLO up to %d users, peak %.1f req/s%n",
+                    saturation.atSeconds(), saturation.atUsers(), saturation.sloP95Millis(),
+                    saturation.maxUsersWithinSlo(), saturation.peakRequestsPerSecond());
+        } else {
+            System.out.printf(Locale.ROOT, "%nHeld the p95 SLO of %.0f ms for the whole run, up to %d users, peak %.1f req/s%n",
+                    saturation.sloP95Millis(), saturation.maxUsersWithinSlo(), saturation.peakRequestsPerSecond());
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.loadtest;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * How many virtual users should be active at each moment. A profile is a list of stages; each
+ * moves linearly from the previous stage's user count to its own over its duration, so
+ * "60:100,120:100" ramps to 100 users in a minute and then holds them for two.
+ */
+final class RampProfile {
+
+    record Stage(int seconds, int users) {
+    }
+
+    private final List<Stage> stages;
+
+    private RampProfile(List<Stage> stages) {
+        if (stages.isEmpty()) throw new IllegalArgumentException("A ramp profile needs at least one stage");
+        this.stages = stages;
+    }
+
+    static RampProfile of(String name, String stages) {
+        if (stages != null && !stages.isBlank()) return parse(stages);
+        return switch (name) {
+            // +50 users every 90 s up to 600: each step ramps for 30 s and holds for 60 s
+            case "step" -> {
+                StringBuilder steps = new StringBuilder();
+                for (int users = 50; users <= 600; users += 50) {
+                    steps.append(steps.isEmpty() ? "" : ",").append("30:").append(users).append(",60:").append(users);
+                }
+                yield parse(steps.toString());
+            }
+            case "ramp" -> parse("600:1000");
+            case "spike" -> parse("30:50,60:50,10:800,90:800,10:50,60:50");
+            case "soak" -> parse("60:200,1800:200");
+            default -> throw new IllegalArgumentException("Unknown profile " + name + "; use step, ramp, spike, soak or --stages");
+        };
+    }
+
+    static RampProfile parse(String spec) {
+        List<Stage> stages = new ArrayList<>();
+        for (String part : spec.split(",")) {
+            String[] fields = part.trim().split(":");
+            if (fields.length != 2) throw new IllegalArgumentException("Stage must be seconds:users, got " + part);
+            int seconds = Integer.parseInt(fields[0].trim());
+            int users = Integer.parseInt(fields[1].trim());
+            if (seconds <= 0 || users < 0) throw new IllegalArgumentException("Invalid stage " + part);
+            stages.add(new Stage(seconds, users));
+        }
+        return new RampProfile(stages);
+    }
+
+    int totalSeconds() {
+        return stages.stream().mapToInt(Stage::seconds).sum();
+    }
+
+    int usersAt(double elapsedSeconds) {
+        int from = 0;
+        double start = 0;
+        for (Stage stage : stages) {
+            if (elapsedSeconds < start + stage.seconds()) {
+                double progress = (elapsedSeconds - start) / stage.seconds();
+                return (int) Math.round(from + (stage.users() - from) * progress);
+            }
+            from = stage.users();
+            start += stage.seconds();
+        }
+        return from;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder out = new StringBuilder();
+        for (Stage s : stages) out.append(out.isEmpty() ? "" : ",").append(s.seconds()).append(':').append(s.users());
+        return out.toString();
+    }
+}
@@ -0,0 +1,70 @@
+package ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.loadtest;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Collects every request outcome twice: per endpoint for the whole run, and into the current
+ * timeline interval, which {@link #closeInterval} swaps out so each row covers only its own window.
+ */
+final class Recorder {
+
+    enum Outcome { OK, SHED, ERROR }
+
+    static final class Counters {
+        final LatencyHistogram latency = new LatencyHistogram();
+        final AtomicLong shed = new AtomicLong();
+        final AtomicLong errors = new AtomicLong();
+
+        void record(Outcome outcome, long micros) {
+            latency.record(micros);
+            if (outcome == Outcome.SHED) shed.incrementAndGet();
+            else if (outcome == Outcome.ERROR) errors.incrementAndGet();
+        }
+    }
+
+    record TimelineRow(double atSeconds, int users, double requestsPerSecond, long errors, long shed,
+                       double p50Millis, double p95Millis, double p99Millis) {
+    }
+
+    private final Map<String, Counters> endpoints = new ConcurrentHashMap<>();
+    private final AtomicReference<Counters> interval = new AtomicReference<>(new Counters());
+    private final List<TimelineRow> timeline = new ArrayList<>();
+
+    // 429 and 503 are the server protecting itself (admission control, full surge queue), not failures
+    static Outcome classify(int status) {
+        if (status == 429 || status == 503) return Outcome.SHED;
+        return status >= 400 ? Outcome.ERROR : Outcome.OK;
+    }
+
+    void record(String endpoint, Outcome outcome, long micros) {
+        endpoints.computeIfAbsent(endpoint, e -> new Counters()).record(outcome, micros);
+        interval.get().record(outcome, micros);
+    }
+
+    TimelineRow closeInterval(double atSeconds, int users, double intervalSeconds) {
+        Counters closed = interval.getAndSet(new Counters());
+        TimelineRow row = new TimelineRow(atSeconds, users, closed.latency.count() / intervalSeconds,
+                closed.errors.get(), closed.shed.get(), closed.latency.percentileMillis(50),
+                closed.latency.percentileMillis(95), closed.latency.percentileMillis(99));
+        synchronized (timeline) {
+            timeline.add(row);
+        }
+        return row;
+    }
+
+    List<TimelineRow> timeline() {
+        synchronized (timeline) {
+            return List.copyOf(timeline);
+        }
+    }
+
+    Map<String, Counters> endpoints() {
+        return new LinkedHashMap<>(endpoints);
+    }
+}
@@ -0,0 +1,126 @@
+package ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.loadtest;
+
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.model.MapMarker;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * What each kind of user does per iteration, modelled on the browser pages: the public map
+ * refreshing its feeds, chat.js on its polling fallback, residents sending SOS requests and
+ * reports, and admins working the moderation queue.
+ */
+enum Scenario {
+
+    // index.html: approved markers and alerts, both conditional on the last ETag
+    MAP(false) {
+        @Override
+        void iterate(VirtualUser vu) throws InterruptedException {
+            vu.getConditional("GET /api/markers/approved", "/api/markers/approved");
+            vu.getConditional("GET /api/alerts", "/api/alerts");
+        }
+
+        @Override
+        long thinkMillis(VirtualUser vu) {
+            return jitter(vu, vu.options.getLong("map-interval") * 1000);
+        }
+    },
+
+    // chat.js without SSE: partners, the open conversation and the badge every few seconds, sometimes a reply
+    CHAT(true) {
+        @Override
+        void iterate(VirtualUser vu) throws InterruptedException {
+            vu.get("GET /api/messages/partners", "/api/messages/partners");
+            vu.get("GET /api/messages/conversation", "/api/messages/conversation?partner=" + SriLankaDataset.ADMIN);
+            vu.get("GET /api/messages/unread-count", "/api/messages/unread-count");
+            if (vu.random.nextInt(10) == 0) {
+                vu.post("POST /api/messages", "/api/messages", JSON.writeValueAsString(Map.of(
+                        "recipient", SriLankaDataset.ADMIN,
+                        "content", "Any update on the boats for our area?",
+                        "role", "MEMBER")));
+            }
+        }
+
+        @Override
+        long thinkMillis(VirtualUser vu) {
+            return jitter(vu, vu.options.getLong("chat-interval") * 1000);
+        }
+    },
+
+    SOS(true) {
+        @Override
+        void iterate(VirtualUser vu) throws InterruptedException {
+            vu.post("POST /api/help-requests", "/api/help-requests",
+                    JSON.writeValueAsString(SriLankaDataset.helpRequest(vu.random, vu.username)));
+        }
+
+        @Override
+        long thinkMillis(VirtualUser vu) {
+            return jitter(vu, 30_000);
+        }
+    },
+
+    REPORT(true) {
+        @Override
+        void iterate(VirtualUser vu) throws InterruptedException {
+            MapMarker m = SriLankaDataset.marker(vu.random, vu.username);
+            Map<String, Object> body = new LinkedHashMap<>();
+            body.put("type", m.getType());
+            body.put("lat", m.getLat());
+            body.put("lng", m.getLng());
+            body.put("name", m.getName());
+            body.put("description", m.getDescription());
+            body.put("severity", m.getSeverity());
+            body.put("submittedBy", m.getSubmittedBy());
+            vu.post("POST /api/markers/report", "/api/markers/report", JSON.writeValueAsString(body));
+        }
+
+        @Override
+        long thinkMillis(VirtualUser vu) {
+            return jitter(vu, 20_000);
+        }
+    },
+
+    // admin.html: one page of the pending queue, then decide a handful of them
+    MODERATION(true) {
+        @Override
+        void iterate(VirtualUser vu) throws InterruptedException {
+            VirtualUser.Response page = vu.get("GET /api/markers/pending", "/api/markers/pending?limit=50");
+            if (page == null || page.status() != 200) return;
+            int decided = 0;
+            for (JsonNode item : JSON.readTree(page.body()).path("items")) {
+                if (decided++ == 5) break;
+                String action = vu.random.nextInt(5) == 0 ? "reject" : "approve";
+                vu.put("PUT /api/markers/{id}/" + action, "/api/markers/" + item.path("id").asLong() + "/" + action);
+            }
+        }
+
+        @Override
+        long thinkMillis(VirtualUser vu) {
+            return jitter(vu, 5_000);
+        }
+    };
+
+    static final JsonMapper JSON = JsonMapper.builder().build();
+
+    private final boolean needsLogin;
+
+    Scenario(boolean needsLogin) {
+        this.needsLogin = needsLogin;
+    }
+
+    boolean needsLogin() {
+        return needsLogin;
+    }
+
+    abstract void iterate(VirtualUser vu) throws InterruptedException;
+
+    abstract long thinkMillis(VirtualUser vu);
+
+    // +-25%, so users that started together drift apart instead of polling in lockstep
+    static long jitter(VirtualUser vu, long millis) {
+        return (long) (millis * (0.75 + vu.random.nextDouble() * 0.5));
+    }
+}
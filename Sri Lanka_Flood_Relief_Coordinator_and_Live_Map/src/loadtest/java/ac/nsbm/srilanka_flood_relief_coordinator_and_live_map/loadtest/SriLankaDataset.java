@@ -0,0 +1,193 @@
+package ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.loadtest;
+
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.bulk.ImportFormat;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.model.Alert;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.model.MapMarker;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.model.Message;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.model.Role;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.model.User;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.moderation.BulkModerationRequest;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.repository.MapMarkerRepository;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.repository.UserRepository;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.service.AlertService;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.service.BulkImportService;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.service.MapMarkerService;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.service.MessageService;
+import org.springframework.context.ApplicationContext;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Synthetic flood data clustered around Sri Lankan district towns, seeded through the application's
+ * own services so caches, indexes and unread counters start consistent with the database.
+ * The same seed always produces the same dataset.
+ */
+final class SriLankaDataset {
+
+    static final String ADMIN = "ADMIN";
+    static final String PASSWORD = "loadtest";
+
+    // District towns, lat/lng; the Western and Southern river basins flood most, so they come first and twice
+    static final double[][] TOWNS = {
+            {6.9271, 79.8612}, {6.9271, 79.8612}, {6.8868, 79.9187}, {7.0873, 79.9990}, {6.5854, 79.9607},
+            {6.6828, 80.3992}, {6.0535, 80.2210}, {5.9549, 80.5550}, {6.1241, 81.1185}, {7.2906, 80.6337},
+            {6.9497, 80.7891}, {7.4863, 80.3647}, {7.2513, 80.3464}, {8.3114, 80.4037}, {7.9403, 81.0188},
+            {7.7310, 81.6747}, {8.5874, 81.2152}, {9.6615, 80.0255}, {8.7542, 80.4982}, {6.9934, 81.0550},
+            {7.7102, 81.6924}, {8.0408, 79.8394}, {6.6920, 80.1600}, {6.9896, 81.0567}, {9.3803, 80.3770}
+    };
+    static final String[] TYPES = {"flood", "landslide", "road-block", "safe-zone", "rescue-needed", "medical"};
+    static final String[] SEVERITIES = {"low", "medium", "high", "critical"};
+    static final String[] NEEDS = {"food", "water", "medicine", "shelter", "evacuation", "boat"};
+
+    private final long seed;
+
+    SriLankaDataset(long seed) {
+        this.seed = seed;
+    }
+
+    static String member(int index) {
+        return "lt-user" + index;
+    }
+
+    static double[] point(Random random) {
+        double[] town = TOWNS[random.nextInt(TOWNS.length)];
+        return new double[]{town[0] + random.nextGaussian() * 0.06, town[1] + random.nextGaussian() * 0.06};
+    }
+
+    static MapMarker marker(Random random, String submittedBy) {
+        double[] p = point(random);
+        MapMarker m = new MapMarker();
+        m.setType(TYPES[random.nextInt(TYPES.length)]);
+        m.setLat(p[0]);
+        m.setLng(p[1]);
+        m.setName("Report near " + String.format(Locale.ROOT, "%.3f,%.3f", p[0], p[1]));
+        m.setDescription("Water rising along the road, about knee deep");
+        m.setSeverity(SEVERITIES[random.nextInt(SEVERITIES.length)]);
+        m.setSubmittedBy(submittedBy);
+        return m;
+    }
+
+    static Map<String, Object> helpRequest(Random random, String name) {
+        double[] p = point(random);
+        Map<String, Object> request = new LinkedHashMap<>();
+        request.put("name", name);
+        request.put("phone", String.format(Locale.ROOT, "07%08d", random.nextInt(100_000_000)));
+        request.put("latitude", p[0]);
+        request.put("longitude", p[1]);
+        request.put("needs", List.of(NEEDS[random.nextInt(NEEDS.length)], NEEDS[random.nextInt(NEEDS.length)]));
+        request.put("details", "Family of " + (2 + random.nextInt(6)) + ", ground floor flooded");
+        return request;
+    }
+
+    private static int moderate(MapMarkerService markerService, List<Long> ids, String status) {
+        int changed = 0;
+        for (int from = 0; from < ids.size(); from += MapMarkerService.MAX_BULK_MARKERS) {
+            List<Long> chunk = ids.subList(from, Math.min(ids.size(), from + MapMarkerService.MAX_BULK_MARKERS));
+            changed += markerService.moderate(new BulkModerationRequest(chunk, null, null, null, null), status).changed().size();
+        }
+        return changed;
+    }
+
+    record Counts(int users, int markers, int approvedMarkers, int helpRequests, int messages, int alerts, long millis) {
+    }
+
+    Counts seed(ApplicationContext context, LoadTestOptions options) throws IOException {
+        long started = System.currentTimeMillis();
+        Random random = new Random(seed);
+        int users = options.getInt("users");
+
+        // One hash for everybody: BCrypt at the default strength would take minutes for a few thousand users
+        String hash = context.getBean(PasswordEncoder.class).encode(PASSWORD);
+        UserRepository userRepository = context.getBean(UserRepository.class);
+        List<User> accounts = new ArrayList<>(users + 1);
+        accounts.add(user(ADMIN, Role.ADMIN, hash));
+        for (int i = 0; i < users; i++) accounts.add(user(member(i), Role.MEMBER, hash));
+        userRepository.saveAll(accounts);
+
+        // Markers and help requests go through the bulk importer: same ids, versions and events as live writes
+        BulkImportService importer = context.getBean(BulkImportService.class);
+        StringBuilder ndjson = new StringBuilder();
+        for (int i = 0; i < options.getInt("markers"); i++) {
+            MapMarker m = marker(random, member(random.nextInt(users)));
+            ndjson.append(String.format(Locale.ROOT,
+                    "{\"type\":\"%s\",\"lat\":%.6f,\"lng\":%.6f,\"name\":\"%s\",\"description\":\"%s\",\"severity\":\"%s\"}\n",
+                    m.getType(), m.getLat(), m.getLng(), m.getName(), m.getDescription(), m.getSeverity()));
+        }
+        int markers = (int) importer.importMarkers(bytes(ndjson), ImportFormat.NDJSON, ADMIN).imported();
+
+        // About 70% approved, 10% rejected, the rest left for the moderation scenario
+        MapMarkerService markerService = context.getBean(MapMarkerService.class);
+        List<Long> toApprove = new ArrayList<>();
+        List<Long> toReject = new ArrayList<>();
+        for (MapMarker m : context.getBean(MapMarkerRepository.class).findAll()) {
+            int roll = random.nextInt(10);
+            if (roll < 7) {
+                toApprove.add(m.getId());
+            } else if (roll == 7) {
+                toReject.add(m.getId());
+            }
+        }
+        int approved = moderate(markerService, toApprove, "approved");
+        moderate(markerService, toReject, "rejected");
+
+        ndjson.setLength(0);
+        for (int i = 0; i < options.getInt("help-requests"); i++) {
+            Map<String, Object> r = helpRequest(random, member(random.nextInt(users)));
+            @SuppressWarnings("unchecked")
+            List<String> needs = (List<String>) r.get("needs");
+            ndjson.append(String.format(Locale.ROOT,
+                    "{\"name\":\"%s\",\"phone\":\"%s\",\"latitude\":%.6f,\"longitude\":%.6f,\"needs\":[\"%s\",\"%s\"],\"details\":\"%s\"}\n",
+                    r.get("name"), r.get("phone"), r.get("latitude"), r.get("longitude"), needs.get(0), needs.get(1), r.get("details")));
+        }
+        int helpRequests = (int) importer.importHelpRequests(bytes(ndjson), ImportFormat.NDJSON).imported();
+
+        MessageService messageService = context.getBean(MessageService.class);
+        int messages = options.getInt("messages");
+        for (int i = 0; i < messages; i++) {
+            String member = member(random.nextInt(users));
+            boolean fromMember = random.nextBoolean();
+            Message m = new Message();
+            m.setSender(fromMember ? member : ADMIN);
+            m.setRecipient(fromMember ? ADMIN : member);
+            m.setRole(fromMember ? "MEMBER" : "ADMIN");
+            m.setContent("Is the road to the camp still open?");
+            messageService.sendMessage(m);
+        }
+
+        AlertService alertService = context.getBean(AlertService.class);
+        int alerts = 25;
+        for (int i = 0; i < alerts; i++) {
+            Alert a = new Alert();
+            a.setSeverity(SEVERITIES[random.nextInt(3)]);
+            a.setTitle("Flood warning " + (i + 1));
+            a.setContent("River levels are expected to rise over the next 24 hours.");
+            a.setSource("Disaster Management Centre");
+            alertService.createAlert(a);
+        }
+
+        return new Counts(accounts.size(), markers, approved, helpRequests, messages, alerts,
+                System.currentTimeMillis() - started);
+    }
+
+    private static User user(String username, Role role, String hash) {
+        User user = new User();
+        user.setUsername(username);
+        user.setEmail(username.toLowerCase(Locale.ROOT) + "@loadtest.invalid");
+        user.setPassword(hash);
+        user.setRole(role);
+        return user;
+    }
+
+    private static ByteArrayInputStream bytes(StringBuilder text) {
+        return new ByteArrayInputStream(text.toString().getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,130 @@
+package ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.loadtest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * One simulated person: a thread that logs in if its scenario needs to, then repeats the
+ * scenario with think time in between until the ramp controller stops it. Cookies are kept
+ * per user by hand so every user can share one HttpClient and its connection pool.
+ */
+final class VirtualUser implements Runnable {
+
+    record Response(int status, String body, Map<String, String> headers) {
+    }
+
+    private final String baseUrl;
+    private final HttpClient client;
+    private final Recorder recorder;
+    final Scenario scenario;
+    final String username;
+    final Random random;
+    final LoadTestOptions options;
+
+    // Remembered per URL so feed polls can send If-None-Match like the browser does
+    final Map<String, String> etags = new HashMap<>();
+    private String sessionCookie;
+    private volatile boolean running = true;
+
+    VirtualUser(String baseUrl, HttpClient client, Recorder recorder, Scenario scenario, String username,
+                long seed, LoadTestOptions options) {
+        this.baseUrl = baseUrl;
+        this.client = client;
+        this.recorder = recorder;
+        this.scenario = scenario;
+        this.username = username;
+        this.random = new Random(seed);
+        this.options = options;
+    }
+
+    void stop() {
+        running = false;
+    }
+
+    boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public void run() {
+        try {
+            // Spread the first requests so a ramp step does not arrive as one burst
+            pause(random.nextInt(1000));
+            if (scenario.needsLogin() && !login()) return;
+            while (running) {
+                scenario.iterate(this);
+                pause(scenario.thinkMillis(this));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private boolean login() throws InterruptedException {
+        String body = "{\"username\":\"" + username + "\",\"password\":\"" + SriLankaDataset.PASSWORD + "\"}";
+        Response response = send("POST /api/auth/login", "POST", "/api/auth/login", body, null);
+        return response != null && response.status() == 200;
+    }
+
+    Response get(String endpoint, String path) throws InterruptedException {
+        return send(endpoint, "GET", path, null, null);
+    }
+
+    Response getConditional(String endpoint, String path) throws InterruptedException {
+        Response response = send(endpoint, "GET", path, null, etags.get(path));
+        if (response != null && response.headers().containsKey("etag")) etags.put(path, response.headers().get("etag"));
+        return response;
+    }
+
+    Response post(String endpoint, String path, String json) throws InterruptedException {
+        return send(endpoint, "POST", path, json, null);
+    }
+
+    Response put(String endpoint, String path) throws InterruptedException {
+        return send(endpoint, "PUT", path, "", null);
+    }
+
+    private Response send(String endpoint, String method, String path, String json, String ifNoneMatch)
+            throws InterruptedException {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(30))
+                .header("Accept-Encoding", "identity");
+        if (sessionCookie != null) request.header("Cookie", sessionCookie);
+        if (ifNoneMatch != null) request.header("If-None-Match", ifNoneMatch);
+        if (json != null) {
+            request.header("Content-Type", "application/json").method(method, HttpRequest.BodyPublishers.ofString(json));
+        } else {
+            request.method(method, HttpRequest.BodyPublishers.noBody());
+        }
+
+        long started = System.nanoTime();
+        try {
+            HttpResponse<String> response = client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+            recorder.record(endpoint, Recorder.classify(response.statusCode()), (System.nanoTime() - started) / 1000);
+            response.headers().firstValue("set-cookie")
+                    .filter(c -> c.startsWith("JSESSIONID="))
+                    .ifPresent(c -> sessionCookie = c.substring(0, c.indexOf(';') < 0 ? c.length() : c.indexOf(';')));
+            Map<String, String> headers = new HashMap<>();
+            response.headers().firstValue("etag").ifPresent(v -> headers.put("etag", v));
+            return new Response(response.statusCode(), response.body(), headers);
+        } catch (IOException e) {
+            recorder.record(endpoint, Recorder.Outcome.ERROR, (System.nanoTime() - started) / 1000);
+            return null;
+        }
+    }
+
+    private void pause(long millis) throws InterruptedException {
+        long until = System.currentTimeMillis() + millis;
+        // Short sleeps so a stopped user leaves promptly when the ramp goes down
+        while (running && System.currentTimeMillis() < until) {
+            Thread.sleep(Math.max(1, Math.min(200, until - System.currentTimeMillis())));
+        }
+    }
+}
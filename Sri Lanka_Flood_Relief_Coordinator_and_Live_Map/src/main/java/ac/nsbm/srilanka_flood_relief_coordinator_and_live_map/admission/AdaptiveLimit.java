@@ -0,0 +1,69 @@
+package ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.admission;
+
+/**
+ * Concurrency limit that follows latency: Vegas-style growth with an AIMD backstop.
+ *
+ * The no-load latency is learned from requests that completed while few others were running.
+ * Under load, the number of queued requests is estimated as limit * (1 - noLoad / smoothedRtt).
+ * Few queued: the limit grows by one. Many queued: it shrinks by one. A failure, or a
+ * response slower than maxLatency, cuts it by 10%, at most once per smoothed round trip.
+ *
+ * Starts fully open at max, so a cold start never sheds a burst.
+ */
+public class AdaptiveLimit {
+
+    private static final double ALPHA = 3;
+    private static final double BETA = 6;
+    private static final double BACKOFF = 0.9;
+    private static final double SMOOTHING = 0.05;
+
+    private final int min;
+    private final int max;
+    private final long maxLatencyNanos;
+    private double limit;
+    private double noLoadNanos;
+    private double smoothedNanos;
+    private long lastBackoff;
+
+    public AdaptiveLimit(int min, int max, long maxLatencyNanos) {
+        this.min = min;
+        this.max = max;
+        this.maxLatencyNanos = maxLatencyNanos;
+        this.limit = max;
+    }
+
+    public synchronized int getLimit() {
+        return (int) limit;
+    }
+
+    /**
+     * @param inFlight requests running when this one finished, including itself
+     * @param failed   the request errored
+     */
+    public synchronized void onSample(long rttNanos, int inFlight, boolean failed) {
+        smoothedNanos = smoothedNanos == 0 ? rttNanos : smoothedNanos + (rttNanos - smoothedNanos) * SMOOTHING;
+
+        if (failed || rttNanos > maxLatencyNanos) {
+            long now = System.nanoTime();
+            if (now - lastBackoff >= smoothedNanos) {
+                limit = Math.max(min, limit * BACKOFF);
+                lastBackoff = now;
+            }
+            return;
+        }
+
+        if (inFlight <= Math.max(2, limit / 8)) {
+            noLoadNanos = noLoadNanos == 0 ? rttNanos : noLoadNanos + (rttNanos - noLoadNanos) * SMOOTHING;
+            return;
+        }
+        // Nothing learned yet, or hardly used: latency says nothing about whether more would fit
+        if (noLoadNanos == 0 || inFlight * 2 < limit) return;
+
+        double queued = limit * (1 - noLoadNanos / smoothedNanos);
+        if (queued < ALPHA) {
+            limit = Math.min(max, limit + 1);
+        } else if (queued > BETA) {
+            limit = Math.max(min, limit - 1);
+        }
+    }
+}
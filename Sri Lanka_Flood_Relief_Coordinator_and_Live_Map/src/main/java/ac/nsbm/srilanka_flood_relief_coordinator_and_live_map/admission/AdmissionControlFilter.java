@@ -0,0 +1,67 @@
+package ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.admission;
+
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.service.AdmissionService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Runs after authorization, so the caller is known and rejected logins never take a slot.
+ * Turned-away requests get a short plain-text answer with Retry-After and never reach a controller.
+ */
+public class AdmissionControlFilter extends OncePerRequestFilter {
+
+    private final AdmissionService admissionService;
+
+    public AdmissionControlFilter(AdmissionService admissionService) {
+        this.admissionService = admissionService;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        PriorityClass priorityClass = admissionService.isEnabled()
+                ? EndpointClassifier.classify(request.getMethod(), request.getRequestURI().substring(request.getContextPath().length()))
+                : null;
+        if (priorityClass == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        AdmissionService.Ticket ticket;
+        try {
+            ticket = admissionService.admit(priorityClass, callerKey(request));
+        } catch (AdmissionRejectedException e) {
+            response.setStatus(e.getStatus());
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()));
+            response.setContentType("text/plain;charset=UTF-8");
+            response.getWriter().write(e.getMessage());
+            return;
+        }
+
+        boolean failed = true;
+        try {
+            chain.doFilter(request, response);
+            failed = response.getStatus() >= 500;
+        } finally {
+            ticket.release(failed);
+        }
+    }
+
+    // The client's address is the forwarded one behind a proxy (server.forward-headers-strategy)
+    private static String callerKey(HttpServletRequest request) {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth != null && auth.isAuthenticated() && !(auth instanceof AnonymousAuthenticationToken)) {
+            return "user:" + auth.getName();
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+}
@@ -0,0 +1,24 @@
+package ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.admission;
+
+// Thrown by AdmissionService when a request should be turned away; status is 429 or 503
+public class AdmissionRejectedException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int status;
+    private final long retryAfterSeconds;
+
+    public AdmissionRejectedException(int status, long retryAfterSeconds, String message) {
+        super(message);
+        this.status = status;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
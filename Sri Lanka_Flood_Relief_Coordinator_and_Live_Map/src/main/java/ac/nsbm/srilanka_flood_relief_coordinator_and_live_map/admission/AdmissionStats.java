@@ -0,0 +1,6 @@
+package ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.admission;
+
+public record AdmissionStats(String priorityClass, int limit, int maxConcurrency, int inFlight,
+                             long admitted, long shed, long rateLimited, double avgLatencyMillis,
+                             int trackedCallers) {
+}
@@ -0,0 +1,45 @@
+package ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.admission;
+
+/**
+ * Maps a request to its priority class, or null for requests that bypass admission control:
+ * static files, and SSE streams, which would otherwise hold a slot for as long as they are open.
+ */
+public final class EndpointClassifier {
+
+    private EndpointClassifier() {
+    }
+
+    public static PriorityClass classify(String method, String path) {
+        if (!path.startsWith("/api/") || path.endsWith("/stream")) return null;
+        boolean read = "GET".equals(method) || "HEAD".equals(method);
+
+        // SOS submissions, hazard reports, responder lookups and alert broadcasts
+        if (!read && (path.equals("/api/help-requests") || path.equals("/api/markers/report") || path.equals("/api/alerts"))) {
+            return PriorityClass.LIFE_SAFETY;
+        }
+        if (path.equals("/api/help-requests/nearest") || path.startsWith("/api/help-requests/submissions/")) {
+            return PriorityClass.LIFE_SAFETY;
+        }
+
+        if (path.startsWith("/api/analytics") || path.equals("/api/cache/stats")
+                || path.equals("/api/admission/stats") || path.equals("/api/help-requests/queue")) {
+            return PriorityClass.ANALYTICS;
+        }
+        if (path.startsWith("/api/messages")) return PriorityClass.CHAT;
+        // Alert stream subscribers reporting where they are
+        if (path.startsWith("/api/alerts/stream/")) return PriorityClass.PUBLIC_READ;
+
+        if (path.startsWith("/api/import") || path.startsWith("/api/reports")
+                || path.equals("/api/markers/pending") || path.equals("/api/markers/rejected")
+                || path.endsWith("/approve") || path.endsWith("/reject")
+                || (!read && path.startsWith("/api/alerts/"))) {
+            return PriorityClass.MODERATION;
+        }
+
+        if (read && (path.startsWith("/api/markers") || path.startsWith("/api/alerts")
+                || path.startsWith("/api/sync") || path.startsWith("/api/help-requests"))) {
+            return PriorityClass.PUBLIC_READ;
+        }
+        return PriorityClass.STANDARD;
+    }
+}
@@ -0,0 +1,66 @@
+package ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.admission;
+
+/**
+ * Endpoint classes for admission control, most important first. Defaults can be overridden
+ * per class with app.admission.&lt;property-key&gt;.* (see AdmissionService).
+ *
+ * globalShare is the fraction of the global in-flight budget a class may use. Lower classes
+ * stop being admitted first as the server fills up, which keeps headroom for SOS writes.
+ */
+public enum PriorityClass {
+
+    //                 maxConcurrency, minConcurrency, ratePerSecond, burst, globalShare, maxLatencyMillis
+    LIFE_SAFETY("life-safety", 64, 8, 2, 20, 1.0, 2000),
+    MODERATION("moderation", 32, 4, 20, 40, 0.9, 3000),
+    PUBLIC_READ("public-read", 64, 8, 20, 50, 0.8, 1000),
+    STANDARD("standard", 32, 4, 10, 30, 0.8, 2000),
+    CHAT("chat", 32, 4, 5, 20, 0.6, 1000),
+    ANALYTICS("analytics", 8, 2, 1, 5, 0.5, 10000);
+
+    private final String propertyKey;
+    private final int maxConcurrency;
+    private final int minConcurrency;
+    private final double ratePerSecond;
+    private final int burst;
+    private final double globalShare;
+    private final long maxLatencyMillis;
+
+    PriorityClass(String propertyKey, int maxConcurrency, int minConcurrency, double ratePerSecond, int burst,
+                  double globalShare, long maxLatencyMillis) {
+        this.propertyKey = propertyKey;
+        this.maxConcurrency = maxConcurrency;
+        this.minConcurrency = minConcurrency;
+        this.ratePerSecond = ratePerSecond;
+        this.burst = burst;
+        this.globalShare = globalShare;
+        this.maxLatencyMillis = maxLatencyMillis;
+    }
+
+    public String getPropertyKey() {
+        return propertyKey;
+    }
+
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    public int getMinConcurrency() {
+        return minConcurrency;
+    }
+
+    public double getRatePerSecond() {
+        return ratePerSecond;
+    }
+
+    public int getBurst() {
+        return burst;
+    }
+
+    public double getGlobalShare() {
+        return globalShare;
+    }
+
+    public long getMaxLatencyMillis() {
+        return maxLatencyMillis;
+    }
+}
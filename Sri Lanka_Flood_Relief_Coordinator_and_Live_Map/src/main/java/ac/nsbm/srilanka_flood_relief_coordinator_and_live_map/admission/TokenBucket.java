@@ -0,0 +1,38 @@
+package ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.admission;
+
+/**
+ * Per-caller rate limit: holds up to burst tokens and refills at ratePerSecond.
+ */
+public class TokenBucket {
+
+    private final double ratePerNano;
+    private final double burst;
+    private double tokens;
+    private long lastRefill;
+
+    public TokenBucket(double ratePerSecond, int burst, long nowNanos) {
+        this.ratePerNano = ratePerSecond / 1_000_000_000.0;
+        this.burst = burst;
+        this.tokens = burst;
+        this.lastRefill = nowNanos;
+    }
+
+    /**
+     * Takes a token if there is one.
+     *
+     * @return 0 when taken, otherwise nanoseconds until a token will be available
+     */
+    public synchronized long tryAcquire(long nowNanos) {
+        tokens = Math.min(burst, tokens + (nowNanos - lastRefill) * ratePerNano);
+        lastRefill = nowNanos;
+        if (tokens >= 1) {
+            tokens -= 1;
+            return 0;
+        }
+        return (long) Math.ceil((1 - tokens) / ratePerNano);
+    }
+
+    public synchronized long getLastUsed() {
+        return lastRefill;
+    }
+}
@@ -0,0 +1,21 @@
+package ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.analytics;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Everything the analysis dashboard and its PDF export show. Incident counts cover approved
+ * markers only; markersByStatus covers every report. Time buckets are oldest first.
+ */
+public record AnalyticsSummary(long approvedIncidents,
+                               long highRiskIncidents,
+                               Map<String, Long> incidentsByType,
+                               Map<String, Long> incidentsBySeverity,
+                               Map<String, Long> markersByStatus,
+                               long helpRequests,
+                               Map<String, Long> needs,
+                               List<TimeBucket> hourly,
+                               List<TimeBucket> daily,
+                               LocalDateTime generatedAt) {
+}
@@ -0,0 +1,7 @@
+package ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.analytics;
+
+import java.time.LocalDateTime;
+
+// One hour or one day of activity, starting at start (server local time)
+public record TimeBucket(LocalDateTime start, long markersReported, long helpRequests) {
+}
@@ -0,0 +1,432 @@
+package ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.archive;
+
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.model.Message;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.CRC32;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Cold storage for old chat messages: immutable, gzip-compressed segment files, each holding
+ * one or more blocks per conversation. A footer in every segment lists its blocks with the
+ * conversation and key range they cover; the footers are loaded at startup, so a read only
+ * opens the blocks of the conversation it asks for, newest first, and stops once it has enough.
+ *
+ * Messages are ordered by (timestamp, id), the same key the chat cursor uses. The same
+ * message may end up in two blocks (archived, then the run crashed before its rows were
+ * deleted); readers drop the repeat.
+ *
+ * Segment layout: MAGIC, gzip blocks back to back, footer, then long footer offset, int
+ * CRC32 of the footer, MAGIC. A segment is written to a temp file and moved into place, so
+ * a crash never leaves half of one behind.
+ */
+public class MessageArchive {
+
+    public static final Comparator<Message> ORDER = Comparator
+            .comparing(Message::getTimestamp, Comparator.nullsFirst(Comparator.<LocalDateTime>naturalOrder()))
+            .thenComparing(Message::getId);
+
+    // Where one conversation's block sits; first/last are its smallest and largest (timestamp, id)
+    private record Block(long segment, long offset, int length, int count,
+                         LocalDateTime firstTimestamp, long firstId,
+                         LocalDateTime lastTimestamp, long lastId, long maxId) {
+    }
+
+    private static final String PREFIX = "messages-";
+    private static final String SUFFIX = ".seg";
+    private static final int MAGIC = 0x464C4D41; // "FLMA"
+    private static final int TRAILER_BYTES = 16;
+
+    private final Path dir;
+    private final int cachedBlocks;
+
+    // Conversation key -> its blocks, the one with the newest last message first; guarded by this
+    private final Map<String, List<Block>> index = new HashMap<>();
+    private long nextSegment;
+    private long archivedCount;
+    private final List<Path> unreadable = new ArrayList<>();
+
+    // Recently decoded blocks, so scrolling back through one conversation does not re-inflate them
+    private final Map<Block, List<Message>> cache;
+
+    public MessageArchive(Path dir, int cachedBlocks) throws IOException {
+        this.dir = dir;
+        this.cachedBlocks = cachedBlocks;
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Block, List<Message>> eldest) {
+                return size() > MessageArchive.this.cachedBlocks;
+            }
+        };
+        Files.createDirectories(dir);
+        loadFooters();
+    }
+
+    public static String conversationKey(String user1, String user2) {
+        return user1.compareTo(user2) <= 0 ? user1 + '\u0000' + user2 : user2 + '\u0000' + user1;
+    }
+
+    /**
+     * Writes the messages into a new segment, split into blocks of at most blockSize per
+     * conversation. When this returns the segment is durable and visible to readers, and the
+     * rows may be deleted from the table.
+     */
+    public void write(List<Message> messages, int blockSize) throws IOException {
+        Map<String, List<Message>> byConversation = new TreeMap<>();
+        for (Message m : messages) {
+            byConversation.computeIfAbsent(conversationKey(m.getSender(), m.getRecipient()), k -> new ArrayList<>()).add(m);
+        }
+
+        long segment;
+        synchronized (this) {
+            segment = nextSegment++;
+        }
+        Path temp = dir.resolve(PREFIX + String.format("%010d", segment) + ".tmp");
+        Map<String, List<Block>> written = new LinkedHashMap<>();
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            long offset = writeFully(channel, ByteBuffer.allocate(4).putInt(0, MAGIC));
+            for (Map.Entry<String, List<Message>> conversation : byConversation.entrySet()) {
+                List<Message> sorted = new ArrayList<>(conversation.getValue());
+                sorted.sort(ORDER);
+                for (int from = 0; from < sorted.size(); from += blockSize) {
+                    List<Message> chunk = sorted.subList(from, Math.min(sorted.size(), from + blockSize));
+                    byte[] bytes = encode(chunk);
+                    writeFully(channel, ByteBuffer.wrap(bytes));
+                    written.computeIfAbsent(conversation.getKey(), k -> new ArrayList<>())
+                            .add(blockOf(segment, offset, bytes.length, chunk));
+                    offset += bytes.length;
+                }
+            }
+            byte[] footer = encodeFooter(written);
+            CRC32 crc = new CRC32();
+            crc.update(footer);
+            writeFully(channel, ByteBuffer.wrap(footer));
+            writeFully(channel, ByteBuffer.allocate(TRAILER_BYTES)
+                    .putLong(0, offset).putInt(8, (int) crc.getValue()).putInt(12, MAGIC));
+            channel.force(true);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        try {
+            Files.move(temp, segmentPath(segment), StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, segmentPath(segment));
+        }
+
+        synchronized (this) {
+            written.forEach(this::register);
+            archivedCount += messages.size();
+        }
+    }
+
+    /**
+     * Up to count messages of the conversation that sort before (timestamp, id), newest first.
+     * A null timestamp means "from the newest". Blocks that lie entirely at or below the floor
+     * key are not opened; pass null when there is no floor.
+     */
+    public List<Message> before(String user1, String user2, LocalDateTime timestamp, Long id, int count,
+                                Message floor) throws IOException {
+        List<Message> found = new ArrayList<>();
+        for (Block block : blocksOf(user1, user2)) {
+            if (floor != null && compare(block.lastTimestamp(), block.lastId(), floor.getTimestamp(), floor.getId()) <= 0) break;
+            if (timestamp != null && compare(block.firstTimestamp(), block.firstId(), timestamp, id) >= 0) continue;
+            // Blocks come newest first, so once count messages newer than this whole block are in hand we are done
+            if (found.size() >= count) {
+                found.sort(ORDER.reversed());
+                List<Message> top = distinct(found, count);
+                Message last = top.get(top.size() - 1);
+                if (top.size() == count && compare(block.lastTimestamp(), block.lastId(), last.getTimestamp(), last.getId()) < 0) break;
+            }
+            for (Message m : read(block)) {
+                if (timestamp == null || compare(m.getTimestamp(), m.getId(), timestamp, id) < 0) found.add(m);
+            }
+        }
+        found.sort(ORDER.reversed());
+        return distinct(found, count);
+    }
+
+    // Up to count messages of the conversation with an id above afterId, oldest first
+    public List<Message> after(String user1, String user2, long afterId, int count) throws IOException {
+        List<Message> found = new ArrayList<>();
+        for (Block block : blocksOf(user1, user2)) {
+            if (block.maxId() <= afterId) continue;
+            for (Message m : read(block)) {
+                if (m.getId() > afterId) found.add(m);
+            }
+        }
+        found.sort(Comparator.comparing(Message::getId));
+        return distinct(found, count);
+    }
+
+    // The conversation's whole archived history, oldest first
+    public List<Message> all(String user1, String user2) throws IOException {
+        List<Message> found = new ArrayList<>();
+        for (Block block : blocksOf(user1, user2)) {
+            found.addAll(read(block));
+        }
+        found.sort(ORDER);
+        return distinct(found, Integer.MAX_VALUE);
+    }
+
+    public synchronized long getArchivedCount() {
+        return archivedCount;
+    }
+
+    public synchronized int getSegmentCount() {
+        return (int) index.values().stream().flatMap(List::stream).mapToLong(Block::segment).distinct().count();
+    }
+
+    // Segments whose footer could not be read at startup; their messages are not served
+    public synchronized List<Path> getUnreadableSegments() {
+        return List.copyOf(unreadable);
+    }
+
+    private synchronized List<Block> blocksOf(String user1, String user2) {
+        List<Block> blocks = index.get(conversationKey(user1, user2));
+        return blocks == null ? List.of() : List.copyOf(blocks);
+    }
+
+    // Caller holds the lock
+    private void register(String conversation, List<Block> blocks) {
+        List<Block> list = index.computeIfAbsent(conversation, k -> new ArrayList<>());
+        list.addAll(blocks);
+        list.sort((a, b) -> compare(b.lastTimestamp(), b.lastId(), a.lastTimestamp(), a.lastId()));
+    }
+
+    private List<Message> read(Block block) throws IOException {
+        synchronized (cache) {
+            List<Message> cached = cache.get(block);
+            if (cached != null) return cached;
+        }
+        ByteBuffer bytes = ByteBuffer.allocate(block.length());
+        try (FileChannel channel = FileChannel.open(segmentPath(block.segment()), StandardOpenOption.READ)) {
+            while (bytes.hasRemaining()) {
+                if (channel.read(bytes, block.offset() + bytes.position()) < 0) {
+                    throw new IOException("Archive segment " + block.segment() + " is truncated");
+                }
+            }
+        }
+        List<Message> messages = decode(bytes.array(), block.count());
+        synchronized (cache) {
+            cache.put(block, messages);
+        }
+        return messages;
+    }
+
+    private void loadFooters() throws IOException {
+        TreeMap<Long, Path> files = new TreeMap<>();
+        try (var listing = Files.list(dir)) {
+            for (Path path : (Iterable<Path>) listing::iterator) {
+                String name = path.getFileName().toString();
+                if (!name.startsWith(PREFIX)) continue;
+                if (name.endsWith(".tmp")) {
+                    // A write that never finished; its rows are still in the table
+                    Files.deleteIfExists(path);
+                } else if (name.endsWith(SUFFIX)) {
+                    try {
+                        files.put(Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length())), path);
+                    } catch (NumberFormatException ignored) {
+                        // Not one of ours
+                    }
+                }
+            }
+        }
+
+        nextSegment = files.isEmpty() ? 1 : files.lastKey() + 1;
+        for (Map.Entry<Long, Path> file : files.entrySet()) {
+            try {
+                Map<String, List<Block>> blocks = readFooter(file.getKey(), file.getValue());
+                blocks.forEach(this::register);
+                for (List<Block> list : blocks.values()) {
+                    for (Block block : list) archivedCount += block.count();
+                }
+            } catch (IOException | RuntimeException e) {
+                unreadable.add(file.getValue());
+            }
+        }
+    }
+
+    private Map<String, List<Block>> readFooter(long segment, Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < 4 + TRAILER_BYTES) throw new IOException("Segment too short");
+            ByteBuffer trailer = ByteBuffer.allocate(TRAILER_BYTES);
+            readFully(channel, trailer, size - TRAILER_BYTES);
+            long footerOffset = trailer.getLong(0);
+            int checksum = trailer.getInt(8);
+            if (trailer.getInt(12) != MAGIC || footerOffset < 4 || footerOffset > size - TRAILER_BYTES) {
+                throw new IOException("Bad segment trailer");
+            }
+            ByteBuffer footer = ByteBuffer.allocate((int) (size - TRAILER_BYTES - footerOffset));
+            readFully(channel, footer, footerOffset);
+            CRC32 crc = new CRC32();
+            crc.update(footer.array());
+            if ((int) crc.getValue() != checksum) throw new IOException("Segment footer checksum mismatch");
+            return decodeFooter(segment, footer.array());
+        }
+    }
+
+    private static Block blockOf(long segment, long offset, int length, List<Message> sorted) {
+        Message first = sorted.get(0);
+        Message last = sorted.get(sorted.size() - 1);
+        long maxId = 0;
+        for (Message m : sorted) maxId = Math.max(maxId, m.getId());
+        return new Block(segment, offset, length, sorted.size(),
+                first.getTimestamp(), first.getId(), last.getTimestamp(), last.getId(), maxId);
+    }
+
+    private static byte[] encode(List<Message> messages) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new GZIPOutputStream(buffer)))) {
+            for (Message m : messages) {
+                out.writeLong(m.getId());
+                writeString(out, m.getSender());
+                writeString(out, m.getRecipient());
+                writeString(out, m.getContent());
+                writeString(out, m.getRole());
+                writeTime(out, m.getTimestamp());
+                out.writeBoolean(m.isRead());
+            }
+        }
+        return buffer.toByteArray();
+    }
+
+    private static List<Message> decode(byte[] bytes, int count) throws IOException {
+        List<Message> messages = new ArrayList<>(count);
+        try (InputStream raw = new GZIPInputStream(new ByteArrayInputStream(bytes));
+             DataInputStream in = new DataInputStream(new BufferedInputStream(raw))) {
+            for (int i = 0; i < count; i++) {
+                Message m = new Message();
+                m.setId(in.readLong());
+                m.setSender(readString(in));
+                m.setRecipient(readString(in));
+                m.setContent(readString(in));
+                m.setRole(readString(in));
+                m.setTimestamp(readTime(in));
+                m.setRead(in.readBoolean());
+                messages.add(m);
+            }
+        }
+        return messages;
+    }
+
+    private static byte[] encodeFooter(Map<String, List<Block>> blocks) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(buffer)) {
+            out.writeInt(blocks.values().stream().mapToInt(List::size).sum());
+            for (Map.Entry<String, List<Block>> conversation : blocks.entrySet()) {
+                for (Block block : conversation.getValue()) {
+                    writeString(out, conversation.getKey());
+                    out.writeLong(block.offset());
+                    out.writeInt(block.length());
+                    out.writeInt(block.count());
+                    writeTime(out, block.firstTimestamp());
+                    out.writeLong(block.firstId());
+                    writeTime(out, block.lastTimestamp());
+                    out.writeLong(block.lastId());
+                    out.writeLong(block.maxId());
+                }
+            }
+        }
+        return buffer.toByteArray();
+    }
+
+    private static Map<String, List<Block>> decodeFooter(long segment, byte[] bytes) throws IOException {
+        Map<String, List<Block>> blocks = new LinkedHashMap<>();
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes))) {
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                String conversation = readString(in);
+                Block block = new Block(segment, in.readLong(), in.readInt(), in.readInt(),
+                        readTime(in), in.readLong(), readTime(in), in.readLong(), in.readLong());
+                blocks.computeIfAbsent(conversation, k -> new ArrayList<>()).add(block);
+            }
+        }
+        return blocks;
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) return null;
+        return new String(in.readNBytes(length), StandardCharsets.UTF_8);
+    }
+
+    // Archived messages always have a timestamp (only rows older than the cutoff are archived)
+    private static void writeTime(DataOutputStream out, LocalDateTime time) throws IOException {
+        out.writeLong(time.toEpochSecond(ZoneOffset.UTC));
+        out.writeInt(time.getNano());
+    }
+
+    private static LocalDateTime readTime(DataInputStream in) throws IOException {
+        long seconds = in.readLong();
+        return LocalDateTime.ofEpochSecond(seconds, in.readInt(), ZoneOffset.UTC);
+    }
+
+    // Sorted input, so a message archived twice sits next to its copy
+    private static List<Message> distinct(List<Message> sorted, int max) {
+        List<Message> result = new ArrayList<>(Math.min(sorted.size(), max));
+        for (Message m : sorted) {
+            if (!result.isEmpty() && result.get(result.size() - 1).getId().equals(m.getId())) continue;
+            result.add(m);
+            if (result.size() == max) break;
+        }
+        return result;
+    }
+
+    private static int compare(LocalDateTime t1, long id1, LocalDateTime t2, long id2) {
+        int byTime = t1.compareTo(t2);
+        return byTime != 0 ? byTime : Long.compare(id1, id2);
+    }
+
+    private static long writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        long written = 0;
+        while (buffer.hasRemaining()) written += channel.write(buffer);
+        return written;
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) throw new IOException("Unexpected end of segment");
+        }
+    }
+
+    private Path segmentPath(long segment) {
+        return dir.resolve(PREFIX + String.format("%010d", segment) + SUFFIX);
+    }
+}
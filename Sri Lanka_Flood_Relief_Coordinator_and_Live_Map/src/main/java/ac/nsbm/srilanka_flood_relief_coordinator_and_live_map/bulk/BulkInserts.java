@@ -0,0 +1,74 @@
+package ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.bulk;
+
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.model.HelpRequest;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.model.MapMarker;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Multi-row JDBC inserts for imports. Entities must already carry their ids
+ * (see IdBlockAllocator); nothing here reads generated keys, so the driver can
+ * rewrite each batch into a single INSERT statement.
+ */
+public class BulkInserts {
+
+    public static final String INSERT_HELP_REQUEST =
+            "INSERT INTO help_requests (id, name, phone, latitude, longitude, details, created_at, change_version) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+    public static final String INSERT_HELP_REQUEST_NEED =
+            "INSERT INTO help_request_needs (help_request_id, needs) VALUES (?, ?)";
+    public static final String INSERT_MARKER =
+            "INSERT INTO map_markers (id, type, lat, lng, name, description, severity, status, submitted_by, timestamp, capacity, contact, change_version) " +
+                    "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public BulkInserts(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public void insertHelpRequests(List<HelpRequest> requests) {
+        jdbcTemplate.batchUpdate(INSERT_HELP_REQUEST, requests, requests.size(), (ps, r) -> {
+            ps.setLong(1, r.getId());
+            ps.setString(2, r.getName());
+            ps.setString(3, r.getPhone());
+            ps.setDouble(4, r.getLatitude());
+            ps.setDouble(5, r.getLongitude());
+            ps.setString(6, r.getDetails());
+            ps.setTimestamp(7, r.getCreatedAt() == null ? null : Timestamp.valueOf(r.getCreatedAt()));
+            ps.setObject(8, r.getChangeVersion(), Types.BIGINT);
+        });
+
+        List<Object[]> needs = new ArrayList<>();
+        for (HelpRequest r : requests) {
+            if (r.getNeeds() == null) continue;
+            for (String need : r.getNeeds()) {
+                needs.add(new Object[]{r.getId(), need});
+            }
+        }
+        if (!needs.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_HELP_REQUEST_NEED, needs);
+        }
+    }
+
+    public void insertMarkers(List<MapMarker> markers) {
+        jdbcTemplate.batchUpdate(INSERT_MARKER, markers, markers.size(), (ps, m) -> {
+            ps.setLong(1, m.getId());
+            ps.setString(2, m.getType());
+            ps.setDouble(3, m.getLat());
+            ps.setDouble(4, m.getLng());
+            ps.setString(5, m.getName());
+            ps.setString(6, m.getDescription());
+            ps.setString(7, m.getSeverity());
+            ps.setString(8, m.getStatus());
+            ps.setString(9, m.getSubmittedBy());
+            ps.setTimestamp(10, m.getTimestamp() == null ? null : Timestamp.valueOf(m.getTimestamp()));
+            ps.setObject(11, m.getCapacity(), Types.INTEGER);
+            ps.setString(12, m.getContact());
+            ps.setObject(13, m.getChangeVersion(), Types.BIGINT);
+        });
+    }
+}
@@ -0,0 +1,149 @@
+package ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.bulk;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * RFC 4180 CSV with a header row. Quoted cells may contain commas, doubled quotes and newlines.
+ * Header names are matched case-insensitively, ignoring spaces, dashes and underscores,
+ * so "Submitted By" and "submitted_by" both map to submittedBy.
+ */
+class CsvRowReader implements RowReader {
+
+    private final Reader in;
+    private final Map<String, Integer> columns = new HashMap<>();
+    // Field name as asked for -> column, so normalize() runs once per field rather than per cell
+    private final Map<String, Integer> lookups = new HashMap<>();
+    private long number;
+    private boolean eof;
+
+    CsvRowReader(Reader in) throws IOException {
+        this.in = in;
+        List<String> header = readRecord();
+        if (header == null) {
+            eof = true;
+            return;
+        }
+        for (int i = 0; i < header.size(); i++) {
+            columns.putIfAbsent(normalize(header.get(i)), i);
+        }
+    }
+
+    @Override
+    public ImportRow next() throws IOException {
+        while (!eof) {
+            List<String> cells;
+            try {
+                cells = readRecord();
+            } catch (MalformedCsvException e) {
+                return new Row(++number, e.getMessage(), List.of());
+            }
+            if (cells == null) return null;
+            // Blank lines between records are not rows
+            if (cells.size() == 1 && cells.get(0).isBlank()) continue;
+            return new Row(++number, null, cells);
+        }
+        return null;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    private List<String> readRecord() throws IOException {
+        List<String> cells = new ArrayList<>();
+        StringBuilder cell = new StringBuilder();
+        boolean quoted = false, any = false;
+
+        int c;
+        while ((c = in.read()) != -1) {
+            any = true;
+            if (quoted) {
+                if (c == '"') {
+                    in.mark(1);
+                    int next = in.read();
+                    if (next == '"') {
+                        cell.append('"');
+                    } else {
+                        quoted = false;
+                        if (next != -1) in.reset();
+                    }
+                } else {
+                    cell.append((char) c);
+                }
+            } else if (c == '"' && cell.isEmpty()) {
+                quoted = true;
+            } else if (c == ',') {
+                cells.add(cell.toString());
+                cell.setLength(0);
+            } else if (c == '\n') {
+                break;
+            } else if (c != '\r') {
+                cell.append((char) c);
+            }
+        }
+        if (c == -1) {
+            eof = true;
+            if (quoted) throw new MalformedCsvException("Unterminated quoted cell");
+            if (!any) return null;
+        }
+        cells.add(cell.toString());
+        return cells;
+    }
+
+    private static String normalize(String name) {
+        return name.replaceAll("[\\s_\\-]", "").toLowerCase(Locale.ROOT).replace("\uFEFF", "");
+    }
+
+    private final class Row implements ImportRow {
+        private final long number;
+        private final String parseError;
+        private final List<String> cells;
+
+        Row(long number, String parseError, List<String> cells) {
+            this.number = number;
+            this.parseError = parseError;
+            this.cells = cells;
+        }
+
+        @Override
+        public long number() {
+            return number;
+        }
+
+        @Override
+        public String parseError() {
+            return parseError;
+        }
+
+        @Override
+        public String get(String field) {
+            int index = lookups.computeIfAbsent(field, f -> columns.getOrDefault(normalize(f), -1));
+            if (index < 0 || index >= cells.size()) return null;
+            String value = cells.get(index).trim();
+            return value.isEmpty() ? null : value;
+        }
+
+        @Override
+        public List<String> getList(String field) {
+            String value = get(field);
+            if (value == null) return List.of();
+            return Arrays.stream(value.split("[;|]")).map(String::trim).filter(s -> !s.isEmpty()).toList();
+        }
+    }
+
+    private static final class MalformedCsvException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        MalformedCsvException(String message) {
+            super(message);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.bulk;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Reserves blocks of ids from one of Hibernate's table-backed sequences (e.g. help_requests_seq),
+ * using the same protocol as its pooled-lo optimizer: next_val is the first unreserved id, and
+ * a reservation locks the row and advances it. JDBC batch inserts and Hibernate can therefore
+ * share the sequence without ever handing out the same id.
+ *
+ * Runs on its own connection and commits immediately, so a reservation never waits on (or rolls
+ * back with) the insert that uses it. Ids from a failed batch are simply skipped.
+ */
+public class IdBlockAllocator {
+
+    private final DataSource dataSource;
+    private final String sequenceTable;
+    private final String entityTable;
+
+    public IdBlockAllocator(DataSource dataSource, String sequenceTable, String entityTable) {
+        this.dataSource = dataSource;
+        this.sequenceTable = sequenceTable;
+        this.entityTable = entityTable;
+    }
+
+    /**
+     * Moves the sequence past every id already in the entity table. Needed once for tables
+     * whose rows were created with AUTO_INCREMENT before the sequence existed.
+     */
+    public void alignWithExistingRows() throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try (Statement statement = connection.createStatement()) {
+                long firstFree;
+                try (ResultSet rs = statement.executeQuery("SELECT COALESCE(MAX(id), 0) + 1 FROM " + entityTable)) {
+                    rs.next();
+                    firstFree = rs.getLong(1);
+                }
+                Long current = lockCurrent(connection);
+                if (current == null) {
+                    try (PreparedStatement insert = connection.prepareStatement("INSERT INTO " + sequenceTable + " (next_val) VALUES (?)")) {
+                        insert.setLong(1, firstFree);
+                        insert.executeUpdate();
+                    }
+                } else if (current < firstFree) {
+                    update(connection, current, firstFree);
+                }
+            }
+            connection.commit();
+        }
+    }
+
+    // First id of a block of count consecutive ids that belong to the caller alone
+    public long reserve(int count) throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try {
+                Long current = lockCurrent(connection);
+                if (current == null) throw new SQLException(sequenceTable + " has no row; call alignWithExistingRows first");
+                update(connection, current, current + count);
+                connection.commit();
+                return current;
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            }
+        }
+    }
+
+    private Long lockCurrent(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT next_val FROM " + sequenceTable + " FOR UPDATE")) {
+            return rs.next() ? rs.getLong(1) : null;
+        }
+    }
+
+    private void update(Connection connection, long current, long next) throws SQLException {
+        try (PreparedStatement update = connection.prepareStatement(
+                "UPDATE " + sequenceTable + " SET next_val = ? WHERE next_val = ?")) {
+            update.setLong(1, next);
+            update.setLong(2, current);
+            if (update.executeUpdate() != 1) throw new SQLException(sequenceTable + " changed while locked");
+        }
+    }
+}
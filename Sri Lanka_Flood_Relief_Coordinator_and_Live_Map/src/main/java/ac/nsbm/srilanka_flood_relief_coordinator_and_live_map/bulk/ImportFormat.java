@@ -0,0 +1,21 @@
+package ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.bulk;
+
+import java.util.Locale;
+
+public enum ImportFormat {
+    CSV, NDJSON;
+
+    public static final String NDJSON_MEDIA_TYPE = "application/x-ndjson";
+
+    /**
+     * Picks the format from an explicit ?format= value, falling back to the Content-Type.
+     *
+     * @throws IllegalArgumentException if neither names a supported format
+     */
+    public static ImportFormat resolve(String format, String contentType) {
+        String hint = (format != null ? format : contentType == null ? "" : contentType).toLowerCase(Locale.ROOT);
+        if (hint.contains("csv")) return CSV;
+        if (hint.contains("ndjson") || hint.contains("jsonl") || hint.contains("json-seq")) return NDJSON;
+        throw new IllegalArgumentException("Send text/csv or " + NDJSON_MEDIA_TYPE + ", or pass format=csv|ndjson");
+    }
+}
@@ -0,0 +1,15 @@
+package ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.bulk;
+
+import java.util.List;
+
+/**
+ * Outcome of one import. errors lists at most MAX_ERRORS rows; rejected counts all of them.
+ */
+public record ImportReport(long received, long imported, long rejected, long durationMillis,
+                           double rowsPerSecond, List<RowError> errors, boolean errorsTruncated) {
+
+    public static final int MAX_ERRORS = 1000;
+
+    public record RowError(long row, String message) {
+    }
+}
@@ -0,0 +1,20 @@
+package ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.bulk;
+
+import java.util.List;
+
+/**
+ * One record of an import file. number is 1-based and counts data records, not header lines.
+ * A row that could not be parsed at all carries a parseError and no values.
+ */
+public interface ImportRow {
+
+    long number();
+
+    String parseError();
+
+    // Trimmed value, or null when absent or blank
+    String get(String field);
+
+    // A JSON array, or a CSV cell separated by ';' or '|'
+    List<String> getList(String field);
+}
@@ -0,0 +1,101 @@
+package ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.bulk;
+
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.model.HelpRequest;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.model.MapMarker;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Validates import rows and turns them into entities. Problems are reported as
+ * IllegalArgumentException with a message fit for the per-row error report.
+ */
+public final class ImportRows {
+
+    private static final int TEXT = 255;
+    private static final int LONG_TEXT = 1000;
+
+    private ImportRows() {
+    }
+
+    public static HelpRequest toHelpRequest(ImportRow row) {
+        checkParsed(row);
+        HelpRequest request = new HelpRequest();
+        request.setName(required(row, "name", TEXT));
+        request.setPhone(optional(row, "phone", TEXT));
+        request.setLatitude(coordinate(row, -90, 90, "latitude", "lat"));
+        request.setLongitude(coordinate(row, -180, 180, "longitude", "lng"));
+        request.setDetails(optional(row, "details", LONG_TEXT));
+
+        List<String> needs = new ArrayList<>();
+        for (String need : row.getList("needs")) {
+            if (need.length() > TEXT) throw new IllegalArgumentException("A need is longer than " + TEXT + " characters");
+            needs.add(need);
+        }
+        request.setNeeds(needs);
+        request.setCreatedAt(LocalDateTime.now());
+        return request;
+    }
+
+    // Imported markers go through moderation like reported ones
+    public static MapMarker toMarker(ImportRow row, String submittedBy) {
+        checkParsed(row);
+        MapMarker marker = new MapMarker();
+        marker.setType(MapMarker.checkType(required(row, "type", TEXT)));
+        marker.setLat(coordinate(row, -90, 90, "lat", "latitude"));
+        marker.setLng(coordinate(row, -180, 180, "lng", "longitude"));
+        marker.setName(optional(row, "name", TEXT));
+        marker.setDescription(optional(row, "description", LONG_TEXT));
+        marker.setContact(optional(row, "contact", TEXT));
+
+        marker.setSeverity(MapMarker.checkSeverity(optional(row, "severity", TEXT)));
+
+        String capacity = row.get("capacity");
+        if (capacity != null) {
+            try {
+                marker.setCapacity(Integer.valueOf(capacity));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("capacity is not a whole number: " + capacity);
+            }
+        }
+
+        marker.setStatus("pending");
+        marker.setSubmittedBy(submittedBy);
+        marker.setTimestamp(LocalDateTime.now());
+        return marker;
+    }
+
+    private static void checkParsed(ImportRow row) {
+        if (row.parseError() != null) throw new IllegalArgumentException(row.parseError());
+    }
+
+    private static String required(ImportRow row, String field, int maxLength) {
+        String value = optional(row, field, maxLength);
+        if (value == null) throw new IllegalArgumentException(field + " is required");
+        return value;
+    }
+
+    private static String optional(ImportRow row, String field, int maxLength) {
+        String value = row.get(field);
+        if (value != null && value.length() > maxLength) {
+            throw new IllegalArgumentException(field + " is longer than " + maxLength + " characters");
+        }
+        return value;
+    }
+
+    private static double coordinate(ImportRow row, double min, double max, String field, String alias) {
+        String value = row.get(field);
+        if (value == null) value = row.get(alias);
+        if (value == null) throw new IllegalArgumentException(field + " is required");
+        try {
+            double parsed = Double.parseDouble(value);
+            if (Double.isNaN(parsed) || parsed < min || parsed > max) {
+                throw new IllegalArgumentException(field + " must be between " + (int) min + " and " + (int) max);
+            }
+            return parsed;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(field + " is not a number: " + value);
+        }
+    }
+}
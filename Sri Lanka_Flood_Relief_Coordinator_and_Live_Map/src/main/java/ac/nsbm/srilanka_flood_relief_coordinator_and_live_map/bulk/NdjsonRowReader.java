@@ -0,0 +1,74 @@
+package ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.bulk;
+
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * One JSON object per line. A line that is not a JSON object becomes a row with a parse error;
+ * the rest of the file is still read.
+ */
+class NdjsonRowReader implements RowReader {
+
+    private final BufferedReader in;
+    private final ObjectMapper objectMapper;
+    private long number;
+
+    NdjsonRowReader(BufferedReader in, ObjectMapper objectMapper) {
+        this.in = in;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public ImportRow next() throws IOException {
+        String line;
+        while ((line = in.readLine()) != null) {
+            if (line.isBlank()) continue;
+            number++;
+            try {
+                JsonNode node = objectMapper.readTree(line);
+                if (!node.isObject()) return new Row(number, "Expected a JSON object", null);
+                return new Row(number, null, node);
+            } catch (JacksonException e) {
+                return new Row(number, "Invalid JSON: " + e.getOriginalMessage(), null);
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    private record Row(long number, String parseError, JsonNode node) implements ImportRow {
+
+        @Override
+        public String get(String field) {
+            JsonNode value = node == null ? null : node.get(field);
+            if (value == null || value.isNull() || !value.isValueNode()) return null;
+            String text = value.asString().trim();
+            return text.isEmpty() ? null : text;
+        }
+
+        @Override
+        public List<String> getList(String field) {
+            JsonNode value = node == null ? null : node.get(field);
+            if (value == null || value.isNull()) return List.of();
+            if (value.isArray()) {
+                List<String> items = new ArrayList<>();
+                for (JsonNode item : value) {
+                    if (item.isValueNode() && !item.asString().isBlank()) items.add(item.asString().trim());
+                }
+                return items;
+            }
+            return Arrays.stream(value.asString().split("[;|]")).map(String::trim).filter(s -> !s.isEmpty()).toList();
+        }
+    }
+}
@@ -0,0 +1,4 @@
+package ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.cache;
+
+public record CacheStats(String name, long version, long hits, long misses, long invalidations) {
+}
@@ -0,0 +1,68 @@
+package ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.cache;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Read-through holder for one derived view, tagged with the database change version (see
+ * ChangeVersionService) its data is known to include. The tag depends only on that version, so
+ * an ETag stays valid on every instance and across restarts. The value is rebuilt on the first
+ * read after the version moves, never on a timer.
+ *
+ * A load is tagged with the version current when it started, so a move during a rebuild
+ * leaves the entry stale and the next read rebuilds again.
+ */
+public class VersionedCache<T> {
+
+    private final String name;
+    private final Supplier<T> loader;
+
+    private final AtomicLong version = new AtomicLong();
+    private volatile Entry<T> current;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    public VersionedCache(String name, Supplier<T> loader) {
+        this.name = name;
+        this.loader = loader;
+    }
+
+    public Entry<T> get() {
+        Entry<T> entry = current;
+        if (entry != null && entry.version() == version.get()) {
+            hits.increment();
+            return entry;
+        }
+        synchronized (this) {
+            // Another request may have rebuilt it while we waited
+            long wanted = version.get();
+            if (current != null && current.version() == wanted) {
+                hits.increment();
+                return current;
+            }
+            misses.increment();
+            current = new Entry<>(wanted, name + "-" + wanted, loader.get());
+            return current;
+        }
+    }
+
+    // The data changed at this change version; an older or equal one is ignored
+    public void advanceTo(long changeVersion) {
+        if (version.getAndAccumulate(changeVersion, Math::max) < changeVersion) {
+            invalidations.increment();
+        }
+    }
+
+    public CacheStats getStats() {
+        return new CacheStats(name, version.get(), hits.sum(), misses.sum(), invalidations.sum());
+    }
+
+    /**
+     * A cached value and the version it was built for. etag is unquoted.
+     */
+    public record Entry<T>(long version, String etag, T value) {
+    }
+}
@@ -0,0 +1,217 @@
+package ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.codec;
+
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.model.Alert;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.model.MapMarker;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Binary encoding of the public marker and alert feeds for low-bandwidth clients
+ * (media type {@value #MEDIA_TYPE}).
+ *
+ * Layout, all integers as unsigned LEB128 varints, "svarint" = zig-zag varint:
+ * <pre>
+ * markers: 'F' 'R' 'M' 1
+ *          count, dictionary, then per marker (ascending id):
+ *          svarint id delta, svarint lat delta, svarint lng delta   (coordinates in 1e-6 degrees)
+ *          varint type, varint severity, varint status              (dictionary index + 1, 0 = null)
+ *          varint flags                                             (which optional fields follow)
+ *          [svarint timestamp delta] [svarint capacity] [str name] [str description]
+ *          [str submittedBy] [str contact]
+ *
+ * alerts:  'F' 'R' 'A' 1
+ *          count, dictionary, then per alert (newest first, as /api/alerts returns them):
+ *          svarint id delta, varint severity, varint source, varint icon, varint flags
+ *          [svarint timestamp delta] [str title] [str content]
+ *
+ * dictionary: count, then count strings
+ * str:        varint byte length, UTF-8 bytes
+ * timestamps: epoch seconds of the stored wall-clock time; the first is relative to 0
+ * </pre>
+ */
+public final class CompactFeedCodec {
+
+    public static final String MEDIA_TYPE = "application/x-flood-compact";
+
+    private static final int HAS_TIMESTAMP = 1;
+    private static final int HAS_CAPACITY = 1 << 1;
+    private static final int HAS_NAME = 1 << 2;
+    private static final int HAS_DESCRIPTION = 1 << 3;
+    private static final int HAS_SUBMITTED_BY = 1 << 4;
+    private static final int HAS_CONTACT = 1 << 5;
+    private static final int HAS_TITLE = 1 << 6;
+    private static final int HAS_CONTENT = 1 << 7;
+
+    private static final double MICRO_DEGREES = 1_000_000.0;
+
+    private CompactFeedCodec() {
+    }
+
+    public static byte[] encodeMarkers(List<MapMarker> markers) {
+        List<MapMarker> sorted = new ArrayList<>(markers);
+        sorted.sort(Comparator.comparing(MapMarker::getId));
+
+        Dictionary dictionary = new Dictionary();
+        for (MapMarker m : sorted) {
+            dictionary.add(m.getType());
+            dictionary.add(m.getSeverity());
+            dictionary.add(m.getStatus());
+        }
+
+        Writer out = new Writer();
+        out.bytes('F', 'R', 'M', 1);
+        out.varint(sorted.size());
+        dictionary.writeTo(out);
+
+        long prevId = 0, prevLat = 0, prevLng = 0, prevTime = 0;
+        for (MapMarker m : sorted) {
+            long lat = Math.round(m.getLat() * MICRO_DEGREES);
+            long lng = Math.round(m.getLng() * MICRO_DEGREES);
+            out.svarint(m.getId() - prevId);
+            out.svarint(lat - prevLat);
+            out.svarint(lng - prevLng);
+            prevId = m.getId();
+            prevLat = lat;
+            prevLng = lng;
+
+            out.varint(dictionary.ref(m.getType()));
+            out.varint(dictionary.ref(m.getSeverity()));
+            out.varint(dictionary.ref(m.getStatus()));
+
+            int flags = (m.getTimestamp() != null ? HAS_TIMESTAMP : 0)
+                    | (m.getCapacity() != null ? HAS_CAPACITY : 0)
+                    | (m.getName() != null ? HAS_NAME : 0)
+                    | (m.getDescription() != null ? HAS_DESCRIPTION : 0)
+                    | (m.getSubmittedBy() != null ? HAS_SUBMITTED_BY : 0)
+                    | (m.getContact() != null ? HAS_CONTACT : 0);
+            out.varint(flags);
+
+            if (m.getTimestamp() != null) {
+                long time = epochSeconds(m.getTimestamp());
+                out.svarint(time - prevTime);
+                prevTime = time;
+            }
+            if (m.getCapacity() != null) out.svarint(m.getCapacity());
+            if (m.getName() != null) out.string(m.getName());
+            if (m.getDescription() != null) out.string(m.getDescription());
+            if (m.getSubmittedBy() != null) out.string(m.getSubmittedBy());
+            if (m.getContact() != null) out.string(m.getContact());
+        }
+        return out.toByteArray();
+    }
+
+    public static byte[] encodeAlerts(List<Alert> alerts) {
+        Dictionary dictionary = new Dictionary();
+        for (Alert a : alerts) {
+            dictionary.add(a.getSeverity());
+            dictionary.add(a.getSource());
+            dictionary.add(a.getIcon());
+        }
+
+        Writer out = new Writer();
+        out.bytes('F', 'R', 'A', 1);
+        out.varint(alerts.size());
+        dictionary.writeTo(out);
+
+        long prevId = 0, prevTime = 0;
+        for (Alert a : alerts) {
+            out.svarint(a.getId() - prevId);
+            prevId = a.getId();
+
+            out.varint(dictionary.ref(a.getSeverity()));
+            out.varint(dictionary.ref(a.getSource()));
+            out.varint(dictionary.ref(a.getIcon()));
+
+            int flags = (a.getTimestamp() != null ? HAS_TIMESTAMP : 0)
+                    | (a.getTitle() != null ? HAS_TITLE : 0)
+                    | (a.getContent() != null ? HAS_CONTENT : 0);
+            out.varint(flags);
+
+            if (a.getTimestamp() != null) {
+                long time = epochSeconds(a.getTimestamp());
+                out.svarint(time - prevTime);
+                prevTime = time;
+            }
+            if (a.getTitle() != null) out.string(a.getTitle());
+            if (a.getContent() != null) out.string(a.getContent());
+        }
+        return out.toByteArray();
+    }
+
+    public static byte[] gzip(byte[] raw) {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(Math.max(64, raw.length / 3));
+        try (GZIPOutputStream gzip = new GZIPOutputStream(buffer)) {
+            gzip.write(raw);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return buffer.toByteArray();
+    }
+
+    private static long epochSeconds(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    private static final class Dictionary {
+        private final Map<String, Integer> index = new HashMap<>();
+        private final List<String> values = new ArrayList<>();
+
+        void add(String value) {
+            if (value != null && !index.containsKey(value)) {
+                index.put(value, values.size());
+                values.add(value);
+            }
+        }
+
+        int ref(String value) {
+            return value == null ? 0 : index.get(value) + 1;
+        }
+
+        void writeTo(Writer out) {
+            out.varint(values.size());
+            for (String value : values) {
+                out.string(value);
+            }
+        }
+    }
+
+    private static final class Writer extends ByteArrayOutputStream {
+
+        Writer() {
+            super(4096);
+        }
+
+        void bytes(int... values) {
+            for (int b : values) write(b);
+        }
+
+        void varint(long value) {
+            while ((value & ~0x7FL) != 0) {
+                write((int) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            write((int) value);
+        }
+
+        void svarint(long value) {
+            varint((value << 1) ^ (value >> 63));
+        }
+
+        void string(String value) {
+            byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+            varint(utf8.length);
+            write(utf8, 0, utf8.length);
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.config;
+
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.storage.AttachmentStore;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.storage.LocalAttachmentStore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+@Configuration
+public class AttachmentConfig {
+
+    // Local disk for now; swap this bean to keep attachments somewhere else
+    @Bean
+    public AttachmentStore attachmentStore(@Value("${app.attachments.dir:data/attachments}") String dir) throws IOException {
+        return new LocalAttachmentStore(Path.of(dir));
+    }
+}
@@ -0,0 +1,52 @@
+package ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.config;
+
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.metrics.MetricRegistry;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.metrics.PoolMetricsTracker;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.metrics.RepositoryMetricsInterceptor;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.metrics.RequestMetricsFilter;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public MetricRegistry metricRegistry() {
+        return new MetricRegistry();
+    }
+
+    // Ahead of the security filters, so rejected requests are timed as well
+    @Bean
+    public FilterRegistrationBean<RequestMetricsFilter> requestMetricsFilter(MetricRegistry registry) {
+        FilterRegistrationBean<RequestMetricsFilter> registration = new FilterRegistrationBean<>(new RequestMetricsFilter(registry));
+        registration.addUrlPatterns("/api/*");
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+
+    // Hooks the connection pool and every repository as they are created
+    @Bean
+    public static BeanPostProcessor metricsInstrumentation(ObjectProvider<MetricRegistry> registry, Environment environment) {
+        long slowMillis = environment.getProperty("app.metrics.slow-query-ms", Long.class, 200L);
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof HikariDataSource dataSource) {
+                    dataSource.setMetricsTrackerFactory(new PoolMetricsTracker(registry.getObject()));
+                } else if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> factoryBean) {
+                    factoryBean.addRepositoryFactoryCustomizer(factory -> factory.addRepositoryProxyPostProcessor(
+                            (proxy, info) -> proxy.addAdvice(new RepositoryMetricsInterceptor(
+                                    registry.getObject(), info.getRepositoryInterface().getSimpleName(), slowMillis))));
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,27 @@
+package ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.config;
+
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.metrics.MetricRegistry;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.realtime.SseWriterPool;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+@Configuration
+@EnableScheduling
+public class RealtimeConfig {
+
+    // Shared pool that drains the per-client SSE buffers; a write blocked past the deadline drops its client
+    @Bean
+    public SseWriterPool sseWriterPool(@Value("${app.realtime.writer-threads:8}") int threads,
+                                       @Value("${app.realtime.max-writer-threads:64}") int maxThreads,
+                                       @Value("${app.realtime.write-deadline-ms:5000}") long deadlineMillis,
+                                       MetricRegistry registry) {
+        SseWriterPool pool = new SseWriterPool(threads, maxThreads, deadlineMillis);
+        registry.gauge("flood_sse_writes_stalled", "SSE writes blocked past the deadline, each holding a writer thread",
+                pool::getStalledWrites);
+        registry.functionCounter("flood_sse_writes_stalled_total", "SSE clients dropped because a write passed the deadline",
+                pool::getStalledWritesTotal);
+        return pool;
+    }
+}
@@ -0,0 +1,110 @@
+package ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.config;
+
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.datasource.ReadWriteRoutingDataSource;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.datasource.ReplicaLagMonitor;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.datasource.ReplicaPinFilter;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.datasource.ReplicaRoutingTransactionManager;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.metrics.MetricRegistry;
+import com.zaxxer.hikari.HikariDataSource;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.hibernate.autoconfigure.HibernatePropertiesCustomizer;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.boot.jdbc.autoconfigure.DataSourceProperties;
+import org.springframework.boot.transaction.autoconfigure.TransactionManagerCustomizers;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.Ordered;
+import org.springframework.orm.jpa.JpaTransactionManager;
+
+/**
+ * Read replica, active only when app.datasource.replica.url is set. The primary pool is built
+ * from spring.datasource.* as before; the replica pool from app.datasource.replica.* (username
+ * and password each default to the primary's when left empty, pool settings under
+ * app.datasource.replica.hikari.*). The application, Flyway included, sees the routing
+ * DataSource, which uses the replica only for ReplicaRead transactions.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "app.datasource.replica", name = "url")
+public class ReplicaDataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    @ConfigurationProperties("app.datasource.replica.hikari")
+    public HikariDataSource replicaDataSource(DataSourceProperties primary,
+                                              @Value("${app.datasource.replica.url}") String url,
+                                              @Value("${app.datasource.replica.username:}") String username,
+                                              @Value("${app.datasource.replica.password:}") String password) {
+        HikariDataSource dataSource = DataSourceBuilder.create().type(HikariDataSource.class)
+                .url(url)
+                .username(username.isEmpty() ? primary.determineUsername() : username)
+                .password(password.isEmpty() ? primary.determinePassword() : password)
+                .build();
+        dataSource.setPoolName("replica");
+        // A write that ends up here fails instead of diverging from the primary
+        dataSource.setReadOnly(true);
+        // Fail over to the primary quickly rather than after the default 30 s
+        dataSource.setConnectionTimeout(1000);
+        return dataSource;
+    }
+
+    @Bean
+    public ReplicaLagMonitor replicaLagMonitor(@Qualifier("primaryDataSource") HikariDataSource primary,
+                                               @Qualifier("replicaDataSource") HikariDataSource replica,
+                                               @Value("${app.datasource.replica.max-lag-ms:5000}") long maxLagMillis,
+                                               MetricRegistry registry) {
+        ReplicaLagMonitor monitor = new ReplicaLagMonitor(primary, replica, maxLagMillis);
+        registry.gauge("flood_db_replica_usable", "1 while reads may go to the replica", () -> monitor.isUsable() ? 1 : 0);
+        registry.gauge("flood_db_replica_lag_seconds", "Replica lag at the last check (-1 if unknown)",
+                () -> monitor.getLagMillis() < 0 ? -1 : monitor.getLagMillis() / 1000.0);
+        return monitor;
+    }
+
+    @Bean
+    @Primary
+    public ReadWriteRoutingDataSource dataSource(@Qualifier("primaryDataSource") HikariDataSource primary,
+                                                 @Qualifier("replicaDataSource") HikariDataSource replica,
+                                                 ReplicaLagMonitor monitor, MetricRegistry registry) {
+        return new ReadWriteRoutingDataSource(primary, replica, monitor, registry);
+    }
+
+    // Ahead of everything that may open a transaction in the request
+    @Bean
+    public FilterRegistrationBean<ReplicaPinFilter> replicaPinFilter(ReplicaLagMonitor monitor,
+                                                                   @Value("${app.datasource.replica.check-interval-ms:1000}") long checkIntervalMillis) {
+        FilterRegistrationBean<ReplicaPinFilter> registration =
+                new FilterRegistrationBean<>(new ReplicaPinFilter(monitor.getMaxLagMillis(), checkIntervalMillis));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 1);
+        return registration;
+    }
+
+    // Replaces Boot's JpaTransactionManager so the routing knows which transactions are ReplicaRead ones
+    @Bean
+    public JpaTransactionManager transactionManager(ObjectProvider<TransactionManagerCustomizers> customizers) {
+        JpaTransactionManager transactionManager = new ReplicaRoutingTransactionManager();
+        customizers.ifAvailable(c -> c.customize(transactionManager));
+        return transactionManager;
+    }
+
+    // The request-wide EntityManager (open-in-view) would otherwise keep the first connection it got,
+    // replica or primary, for every later transaction of the request
+    @Bean
+    public HibernatePropertiesCustomizer releaseConnectionAfterTransaction() {
+        return properties -> properties.put(AvailableSettings.CONNECTION_HANDLING,
+                PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION);
+    }
+}
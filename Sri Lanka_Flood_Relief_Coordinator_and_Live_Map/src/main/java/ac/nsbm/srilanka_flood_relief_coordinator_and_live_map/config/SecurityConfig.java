@@ -1,15 +1,23 @@
 package ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.config;
 
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.admission.AdmissionControlFilter;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.service.AdmissionService;
 import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.service.CustomUserDetailsService;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.service.TokenService;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.token.BearerTokenFilter;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.access.intercept.AuthorizationFilter;
+import org.springframework.security.web.authentication.AnonymousAuthenticationFilter;
 import org.springframework.security.web.context.HttpSessionSecurityContextRepository;
 import org.springframework.web.cors.CorsConfiguration;
 
@@ -25,8 +33,26 @@ public class SecurityConfig {
         this.userDetailsService = userDetailsService;
     }
 
+    // Prometheus cannot log in through the form, so the scrape endpoint also takes an admin's HTTP Basic credentials
     @Bean
-    public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+    @Order(1)
+    public SecurityFilterChain metricsFilterChain(HttpSecurity http, TokenService tokenService) throws Exception {
+        http
+                .securityMatcher("/api/metrics")
+                .csrf(csrf -> csrf.disable())
+                .securityContext(context -> context
+                        .securityContextRepository(new HttpSessionSecurityContextRepository())
+                )
+                .authorizeHttpRequests(auth -> auth.anyRequest().hasAnyAuthority("ADMIN", "ROLE_ADMIN"))
+                .addFilterBefore(new BearerTokenFilter(tokenService), AnonymousAuthenticationFilter.class)
+                .httpBasic(Customizer.withDefaults());
+
+        return http.build();
+    }
+
+    @Bean
+    public SecurityFilterChain securityFilterChain(HttpSecurity http, AdmissionService admissionService,
+                                                   TokenService tokenService) throws Exception {
         http
                 // FIX: Allow CORS from everywhere for development
                 .cors(cors -> cors.configurationSource(request -> {
@@ -46,14 +72,23 @@ public class SecurityConfig {
                         .requestMatchers("/", "/index.html", "/login.html", "/register.html",
                                 "/css/**", "/js/**", "/images/**", "/chat.html").permitAll() // Added chat.html
                         .requestMatchers("/api/auth/**").permitAll()
-                        .requestMatchers("/api/markers/approved").permitAll()
-                        .requestMatchers("/api/alerts").permitAll()
+                        .requestMatchers("/api/markers/approved", "/api/markers/clusters", "/api/markers/stream").permitAll()
+                        // Reading alerts is public, writing them is not; a stream's area is moved by whoever holds its random id
+                        .requestMatchers(org.springframework.http.HttpMethod.GET, "/api/alerts", "/api/alerts/stream").permitAll()
+                        .requestMatchers(org.springframework.http.HttpMethod.PUT, "/api/alerts/stream/*/area").permitAll()
                         .requestMatchers(org.springframework.http.HttpMethod.OPTIONS, "/**").permitAll()
 
                         // Admin Only
                         .requestMatchers("/admin.html").hasAnyAuthority("ADMIN", "ROLE_ADMIN")
                         .requestMatchers("/api/reports").hasAnyAuthority("ADMIN", "ROLE_ADMIN")
-                        .requestMatchers("/api/markers/*/approve", "/api/markers/*/reject").hasAnyAuthority("ADMIN", "ROLE_ADMIN")
+                        .requestMatchers("/api/cache/**").hasAnyAuthority("ADMIN", "ROLE_ADMIN")
+                        .requestMatchers("/api/import/**").hasAnyAuthority("ADMIN", "ROLE_ADMIN")
+                        .requestMatchers("/api/help-requests/queue").hasAnyAuthority("ADMIN", "ROLE_ADMIN")
+                        .requestMatchers("/api/admission/**").hasAnyAuthority("ADMIN", "ROLE_ADMIN")
+                        .requestMatchers("/api/analytics/**").hasAnyAuthority("ADMIN", "ROLE_ADMIN")
+                        .requestMatchers(org.springframework.http.HttpMethod.POST, "/api/alerts").hasAnyAuthority("ADMIN", "ROLE_ADMIN")
+                        .requestMatchers(org.springframework.http.HttpMethod.DELETE, "/api/alerts/*").hasAnyAuthority("ADMIN", "ROLE_ADMIN")
+                        .requestMatchers("/api/markers/*/approve", "/api/markers/*/reject", "/api/markers/bulk/**").hasAnyAuthority("ADMIN", "ROLE_ADMIN")
 
                         // Authenticated Endpoints
                         .requestMatchers("/api/markers/pending").authenticated()
@@ -65,6 +100,10 @@ public class SecurityConfig {
 
                         .anyRequest().authenticated()
                 )
+                // Token mode alongside sessions: a Bearer header authenticates just that request
+                .addFilterBefore(new BearerTokenFilter(tokenService), AnonymousAuthenticationFilter.class)
+                // Not a bean, so Boot does not also register it as a plain servlet filter
+                .addFilterAfter(new AdmissionControlFilter(admissionService), AuthorizationFilter.class)
                 .logout(logout -> logout
                         .logoutUrl("/api/auth/logout")
                         .logoutSuccessHandler((req, res, auth) -> res.setStatus(200))
@@ -0,0 +1,24 @@
+package ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.controller;
+
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.admission.AdmissionStats;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.service.AdmissionService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/admission")
+public class AdmissionStatsController {
+
+    @Autowired
+    private AdmissionService admissionService;
+
+    // Admin: current limit, in-flight, admitted/shed/rate-limited counts per priority class
+    @GetMapping("/stats")
+    public List<AdmissionStats> getAdmissionStats() {
+        return admissionService.getStats();
+    }
+}
@@ -1,10 +1,18 @@
 package ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.controller;
 
 import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.model.Alert;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.page.CursorPage;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.service.AlertFeedService;
 import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.service.AlertService;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.service.FeedSnapshotService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-import java.util.List;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 @RestController
 @RequestMapping("/api/alerts")
@@ -13,18 +21,71 @@ public class AlertController {
     @Autowired
     private AlertService alertService;
 
+    @Autowired
+    private FeedSnapshotService feedSnapshotService;
+
+    @Autowired
+    private AlertFeedService alertFeedService;
+
+    // Accept: application/x-flood-compact selects the compact binary encoding instead of JSON.
+    // Served from a cache with an ETag; If-None-Match gets a 304 until an alert is created or deleted.
     @GetMapping
-    public List<Alert> getAllAlerts() {
-        return alertService.getAllAlerts();
+    public ResponseEntity<byte[]> getAllAlerts(@RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+                                               @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+                                               @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        boolean compact = FeedResponses.compactRequested(accept);
+        return FeedResponses.cached(feedSnapshotService.getAlerts(compact), compact, acceptEncoding, ifNoneMatch);
+    }
+
+    // One page of alerts, newest first. Pass nextCursor back as cursor.
+    @GetMapping(params = "limit")
+    public ResponseEntity<?> getAlertPage(@RequestParam int limit,
+                                          @RequestParam(required = false) String cursor) {
+        try {
+            return ResponseEntity.ok(alertService.getAlertPage(cursor, CursorPage.clamp(limit)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("Invalid cursor: " + e.getMessage());
+        }
     }
 
     @PostMapping
-    public Alert createAlert(@RequestBody Alert alert) {
-        return alertService.createAlert(alert);
+    public ResponseEntity<?> createAlert(@RequestBody Alert alert) {
+        try {
+            return ResponseEntity.ok(alertService.createAlert(alert));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("Invalid alert: " + e.getMessage());
+        }
+    }
+
+    // Live alerts. With lat/lng or bbox (west,south,east,north), alerts aimed at an area only arrive when it covers that spot.
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamAlerts(@RequestParam(required = false) Double lat,
+                                   @RequestParam(required = false) Double lng,
+                                   @RequestParam(required = false) String bbox) {
+        try {
+            return alertFeedService.subscribe(lat, lng, bbox);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid area: " + e.getMessage());
+        }
+    }
+
+    // Moves a stream (id from its "subscribed" event) as the user moves or pans the map
+    @PutMapping("/stream/{id}/area")
+    public ResponseEntity<?> updateStreamArea(@PathVariable String id,
+                                              @RequestParam(required = false) Double lat,
+                                              @RequestParam(required = false) Double lng,
+                                              @RequestParam(required = false) String bbox) {
+        try {
+            return alertFeedService.updateArea(id, lat, lng, bbox)
+                    ? ResponseEntity.ok().build()
+                    : ResponseEntity.notFound().build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("Invalid area: " + e.getMessage());
+        }
     }
 
     @DeleteMapping("/{id}")
     public void deleteAlert(@PathVariable Long id) {
-        // You may want to add a delete method in AlertService calling repository
+        alertService.deleteAlert(id);
     }
 }
\ No newline at end of file
@@ -0,0 +1,27 @@
+package ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.controller;
+
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.analytics.AnalyticsSummary;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.service.AnalyticsService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/analytics")
+public class AnalyticsController {
+
+    private static final int MAX_HOURS = 24 * 14;
+    private static final int MAX_DAYS = 366;
+
+    @Autowired
+    private AnalyticsService analyticsService;
+
+    // Admin: counts by type, severity, status and need, plus hourly and daily activity, for the analysis page
+    @GetMapping("/summary")
+    public AnalyticsSummary getSummary(@RequestParam(defaultValue = "48") int hours,
+                                       @RequestParam(defaultValue = "30") int days) {
+        return analyticsService.getSummary(Math.max(1, Math.min(MAX_HOURS, hours)), Math.max(1, Math.min(MAX_DAYS, days)));
+    }
+}
@@ -0,0 +1,162 @@
+package ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.controller;
+
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.model.Report;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.storage.AttachmentStore;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Optional;
+
+// Streams report attachments with ETag revalidation and single byte-range support
+final class AttachmentDownloads {
+
+    // Tomcat's sendfile hand-off: the connector writes the file after the servlet returns
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private AttachmentDownloads() {
+    }
+
+    static void write(HttpServletRequest request, HttpServletResponse response,
+                      Report report, AttachmentStore store) throws IOException {
+        String hash = report.getAttachmentHash();
+        if (hash == null) {
+            writeLegacy(response, report);
+            return;
+        }
+        if (!store.exists(hash)) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        String etag = ETags.quote(hash);
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+
+        if (ETags.matches(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        try (SeekableByteChannel channel = store.open(hash)) {
+            long size = channel.size();
+            long start = 0, end = size - 1;
+
+            String range = request.getHeader(HttpHeaders.RANGE);
+            String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+            if (range != null && (ifRange == null || ifRange.equals(etag))) {
+                long[] parsed = parseRange(range, size);
+                if (parsed == UNSATISFIABLE) {
+                    response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + size);
+                    response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                    return;
+                }
+                if (parsed != null) {
+                    start = parsed[0];
+                    end = parsed[1];
+                    response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                    response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + size);
+                }
+            }
+
+            long length = end - start + 1;
+            setEntityHeaders(response, report);
+            response.setContentLengthLong(Math.max(0, length));
+            if (length <= 0 || "HEAD".equals(request.getMethod())) return;
+
+            Optional<Path> file = store.localPath(hash);
+            if (file.isPresent() && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+                request.setAttribute(SENDFILE_FILENAME, file.get().toString());
+                request.setAttribute(SENDFILE_START, start);
+                request.setAttribute(SENDFILE_END, end + 1);
+                return;
+            }
+
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            if (channel instanceof FileChannel fileChannel) {
+                long position = start, remaining = length;
+                while (remaining > 0) {
+                    long sent = fileChannel.transferTo(position, remaining, out);
+                    if (sent <= 0) break;
+                    position += sent;
+                    remaining -= sent;
+                }
+            } else {
+                channel.position(start);
+                ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+                long remaining = length;
+                while (remaining > 0) {
+                    buffer.clear().limit((int) Math.min(buffer.capacity(), remaining));
+                    int read = channel.read(buffer);
+                    if (read < 0) break;
+                    buffer.flip();
+                    while (buffer.hasRemaining()) out.write(buffer);
+                    remaining -= read;
+                }
+            }
+        }
+    }
+
+    // Rows not yet moved by AttachmentMigrationService
+    private static void writeLegacy(HttpServletResponse response, Report report) throws IOException {
+        byte[] data = report.getData();
+        if (data == null) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        setEntityHeaders(response, report);
+        response.setContentLength(data.length);
+        response.getOutputStream().write(data);
+    }
+
+    private static void setEntityHeaders(HttpServletResponse response, Report report) {
+        response.setContentType(report.getFileType() != null ? report.getFileType() : MediaType.APPLICATION_OCTET_STREAM_VALUE);
+        String name = report.getFileName() != null ? report.getFileName() : "report-" + report.getId();
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                ContentDisposition.attachment().filename(name, StandardCharsets.UTF_8).build().toString());
+    }
+
+    private static final long[] UNSATISFIABLE = new long[0];
+
+    /**
+     * Parses a single "bytes=a-b", "bytes=a-" or "bytes=-n" range into inclusive offsets.
+     * Returns null when the header should be ignored (malformed or several ranges),
+     * in which case the whole file is sent.
+     */
+    private static long[] parseRange(String header, long size) {
+        if (!header.startsWith("bytes=") || header.indexOf(',') >= 0) return null;
+        String spec = header.substring(6).trim();
+        int dash = spec.indexOf('-');
+        if (dash < 0) return null;
+        try {
+            String first = spec.substring(0, dash).trim();
+            String last = spec.substring(dash + 1).trim();
+            if (first.isEmpty()) {
+                if (last.isEmpty()) return null;
+                long suffix = Long.parseLong(last);
+                if (suffix <= 0 || size == 0) return UNSATISFIABLE;
+                return new long[]{Math.max(0, size - suffix), size - 1};
+            }
+            long start = Long.parseLong(first);
+            long end = last.isEmpty() ? size - 1 : Math.min(Long.parseLong(last), size - 1);
+            if (start >= size) return UNSATISFIABLE;
+            if (end < start) return null;
+            return new long[]{start, end};
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -3,10 +3,12 @@ package ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.controller;
 import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.model.Role;
 import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.model.User;
 import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.repository.UserRepository;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.service.TokenService;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import jakarta.servlet.http.HttpSession;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
@@ -18,6 +20,8 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.context.HttpSessionSecurityContextRepository;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.Map;
+
 @RestController
 @RequestMapping("/api/auth")
 public class AuthController {
@@ -31,6 +35,9 @@ public class AuthController {
     @Autowired
     private AuthenticationManager authenticationManager;
 
+    @Autowired
+    private TokenService tokenService;
+
     @PostMapping("/register")
     public ResponseEntity<?> registerUser(@RequestBody User user) {
         if (userRepository.existsByUsername(user.getUsername())) {
@@ -70,4 +77,41 @@ public class AuthController {
             return ResponseEntity.status(401).body("Invalid username or password");
         }
     }
-}
\ No newline at end of file
+
+    // Token mode: same credentials as /login, but answers with signed tokens instead of starting a session.
+    // Send the access token as "Authorization: Bearer ..." and exchange the refresh token at /refresh.
+    @PostMapping("/token")
+    public ResponseEntity<?> issueToken(@RequestBody User loginRequest) {
+        try {
+            Authentication authentication = authenticationManager.authenticate(
+                    new UsernamePasswordAuthenticationToken(loginRequest.getUsername(), loginRequest.getPassword())
+            );
+            return ResponseEntity.ok(tokenService.issue(authentication));
+        } catch (AuthenticationException e) {
+            return ResponseEntity.status(401).body("Invalid username or password");
+        }
+    }
+
+    // Refresh tokens are single use: the answer carries a new one
+    @PostMapping("/refresh")
+    public ResponseEntity<?> refreshToken(@RequestBody Map<String, String> body) {
+        try {
+            return ResponseEntity.ok(tokenService.refresh(body.get("refreshToken")));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(401).body("Invalid refresh token: " + e.getMessage());
+        }
+    }
+
+    // Token logout: revokes the refresh token in the body and the access token in the header, if given
+    @PostMapping("/revoke")
+    public ResponseEntity<?> revokeToken(@RequestBody(required = false) Map<String, String> body,
+                                         @RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization) {
+        if (body != null && body.get("refreshToken") != null) {
+            tokenService.revoke(body.get("refreshToken"));
+        }
+        if (authorization != null && authorization.regionMatches(true, 0, "Bearer ", 0, 7)) {
+            tokenService.revoke(authorization.substring(7).trim());
+        }
+        return ResponseEntity.ok("Token revoked");
+    }
+}
@@ -0,0 +1,45 @@
+package ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.controller;
+
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.bulk.ImportFormat;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.service.BulkImportService;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.security.Principal;
+
+// Admin-only bulk loads from partner spreadsheets. The body is read as a stream, never buffered whole.
+@RestController
+@RequestMapping("/api/import")
+public class BulkImportController {
+
+    @Autowired
+    private BulkImportService bulkImportService;
+
+    @PostMapping("/help-requests")
+    public ResponseEntity<?> importHelpRequests(HttpServletRequest request,
+                                                @RequestParam(required = false) String format) throws IOException {
+        ImportFormat resolved;
+        try {
+            resolved = ImportFormat.resolve(format, request.getContentType());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("Invalid format: " + e.getMessage());
+        }
+        return ResponseEntity.ok(bulkImportService.importHelpRequests(request.getInputStream(), resolved));
+    }
+
+    @PostMapping("/markers")
+    public ResponseEntity<?> importMarkers(HttpServletRequest request,
+                                           @RequestParam(required = false) String format,
+                                           Principal principal) throws IOException {
+        ImportFormat resolved;
+        try {
+            resolved = ImportFormat.resolve(format, request.getContentType());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("Invalid format: " + e.getMessage());
+        }
+        return ResponseEntity.ok(bulkImportService.importMarkers(request.getInputStream(), resolved, principal.getName()));
+    }
+}
@@ -0,0 +1,24 @@
+package ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.controller;
+
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.cache.CacheStats;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.service.FeedSnapshotService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/cache")
+public class CacheStatsController {
+
+    @Autowired
+    private FeedSnapshotService feedSnapshotService;
+
+    // Admin: hit/miss/invalidation counters of the public feed caches
+    @GetMapping("/stats")
+    public List<CacheStats> getCacheStats() {
+        return feedSnapshotService.getCacheStats();
+    }
+}
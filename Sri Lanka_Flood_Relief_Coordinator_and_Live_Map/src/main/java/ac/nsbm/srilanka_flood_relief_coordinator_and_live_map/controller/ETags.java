@@ -0,0 +1,23 @@
+package ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.controller;
+
+// If-None-Match handling shared by the cached feeds and attachment downloads
+final class ETags {
+
+    private ETags() {
+    }
+
+    static String quote(String tag) {
+        return "\"" + tag + "\"";
+    }
+
+    // Weak comparison, as RFC 9110 requires for If-None-Match
+    static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) return false;
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) tag = tag.substring(2);
+            if (tag.equals("*") || tag.equals(etag)) return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,65 @@
+package ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.controller;
+
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.cache.VersionedCache;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.codec.CompactFeedCodec;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.service.FeedSnapshotService.Snapshot;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+// Writes feed bodies (JSON or compact), using the gzipped copy when the client accepts it
+final class FeedResponses {
+
+    private FeedResponses() {
+    }
+
+    // Only an explicit Accept selects the binary format; */* keeps getting JSON
+    static boolean compactRequested(String accept) {
+        return accept != null && accept.contains(CompactFeedCodec.MEDIA_TYPE);
+    }
+
+    /**
+     * Serves a cached snapshot with a version-derived ETag. Clients revalidate on every use
+     * (no-cache) and get a bodiless 304 until the feed changes.
+     */
+    static ResponseEntity<byte[]> cached(VersionedCache.Entry<Snapshot> entry, boolean compact,
+                                         String acceptEncoding, String ifNoneMatch) {
+        boolean gzip = acceptsGzip(acceptEncoding);
+        // Each representation needs its own tag
+        String etag = ETags.quote(entry.etag() + (gzip ? "-gz" : ""));
+
+        boolean notModified = ETags.matches(ifNoneMatch, etag);
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(notModified ? HttpStatus.NOT_MODIFIED : HttpStatus.OK)
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache())
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING);
+        if (notModified) {
+            return response.build();
+        }
+        return body(response, compact, gzip, entry.value().raw(), entry.value().gzipped());
+    }
+
+    // For filtered compact views that are not worth caching
+    static ResponseEntity<byte[]> encodeNow(byte[] raw, String acceptEncoding) {
+        boolean gzip = acceptsGzip(acceptEncoding);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING);
+        return body(response, true, gzip, raw, gzip ? CompactFeedCodec.gzip(raw) : null);
+    }
+
+    private static ResponseEntity<byte[]> body(ResponseEntity.BodyBuilder response, boolean compact, boolean gzip,
+                                               byte[] raw, byte[] gzipped) {
+        response.contentType(compact ? MediaType.parseMediaType(CompactFeedCodec.MEDIA_TYPE) : MediaType.APPLICATION_JSON);
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(gzip ? gzipped : raw);
+    }
+
+    private static boolean acceptsGzip(String acceptEncoding) {
+        return acceptEncoding != null && acceptEncoding.contains("gzip");
+    }
+}
@@ -1,26 +1,91 @@
 package ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.controller;
 
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.ingest.IngestStats;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.ingest.SubmissionReceipt;
 import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.model.HelpRequest;
-import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.repository.HelpRequestRepository;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.page.CursorPage;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.service.HelpRequestService;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.service.SurgeIngestService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.net.URI;
 import java.util.List;
 
 @RestController
 @RequestMapping("/api/help-requests")
 public class HelpRequestController {
 
+    private static final int MAX_NEAREST = 500;
+
+    @Autowired
+    private HelpRequestService helpRequestService;
+
     @Autowired
-    private HelpRequestRepository helpRequestRepository;
+    private SurgeIngestService surgeIngestService;
 
+    // In surge mode the request is journaled and saved later: 202 with a tracking id instead of the saved row
     @PostMapping
-    public HelpRequest submitHelpRequest(@RequestBody HelpRequest request) {
-        return helpRequestRepository.save(request);
+    public ResponseEntity<?> submitHelpRequest(@RequestBody HelpRequest request) {
+        try {
+            if (!surgeIngestService.isEnabled()) {
+                return ResponseEntity.ok(helpRequestService.submitHelpRequest(request));
+            }
+            SubmissionReceipt receipt = surgeIngestService.submit(request);
+            return ResponseEntity.accepted()
+                    .location(URI.create("/api/help-requests/submissions/" + receipt.trackingId()))
+                    .body(receipt);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("Invalid help request: " + e.getMessage());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "5")
+                    .body("Could not accept request: " + e.getMessage());
+        }
+    }
+
+    @GetMapping("/submissions/{trackingId}")
+    public ResponseEntity<SubmissionReceipt> getSubmission(@PathVariable String trackingId) {
+        return surgeIngestService.getReceipt(trackingId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    // Admin: surge queue depth, journal fsyncs and flush latency
+    @GetMapping("/queue")
+    public IngestStats getQueueStats() {
+        return surgeIngestService.getStats();
     }
 
     @GetMapping
     public List<HelpRequest> getAllHelpRequests() {
-        return helpRequestRepository.findAll();
+        return helpRequestService.getAllHelpRequests();
+    }
+
+    // One page of help requests, newest first. Pass nextCursor back as cursor.
+    @GetMapping(params = "limit")
+    public ResponseEntity<?> getHelpRequestPage(@RequestParam int limit,
+                                                @RequestParam(required = false) String cursor) {
+        try {
+            return ResponseEntity.ok(helpRequestService.getHelpRequestPage(cursor, CursorPage.clamp(limit)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("Invalid cursor: " + e.getMessage());
+        }
+    }
+
+    // Responders: the k closest requests to a point, optionally only those asking for one of the given needs
+    @GetMapping("/nearest")
+    public ResponseEntity<?> getNearestHelpRequests(@RequestParam double lat,
+                                                    @RequestParam double lng,
+                                                    @RequestParam(defaultValue = "10") int k,
+                                                    @RequestParam(required = false) List<String> needs) {
+        if (lat < -90 || lat > 90 || lng < -180 || lng > 180) {
+            return ResponseEntity.badRequest().body("Invalid coordinates");
+        }
+        int limit = Math.max(1, Math.min(MAX_NEAREST, k));
+        return ResponseEntity.ok(helpRequestService.findNearest(lat, lng, limit, needs));
     }
-}
\ No newline at end of file
+}
@@ -1,11 +1,22 @@
 package ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.controller;
 
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.codec.CompactFeedCodec;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.index.BoundingBox;
 import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.model.MapMarker;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.moderation.BulkModerationRequest;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.page.CursorPage;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.service.FeedSnapshotService;
 import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.service.MapMarkerService;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.service.MarkerFeedService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
 
@@ -16,10 +27,55 @@ public class MapController {
     @Autowired
     private MapMarkerService mapMarkerService;
 
-    // Public: Only Approved markers
+    @Autowired
+    private MarkerFeedService markerFeedService;
+
+    @Autowired
+    private FeedSnapshotService feedSnapshotService;
+
+    // Public: Only Approved markers, optionally limited to a viewport (bbox=west,south,east,north)
+    // and to comma-separated types / severity values.
+    // Clients sending Accept: application/x-flood-compact get the compact binary encoding instead of JSON.
+    // The unfiltered feed is served from a cache with an ETag; If-None-Match gets a 304 until markers change.
     @GetMapping("/approved")
-    public List<MapMarker> getPublicMarkers() {
-        return mapMarkerService.getApprovedMarkers();
+    public ResponseEntity<?> getPublicMarkers(@RequestParam(required = false) String bbox,
+                                              @RequestParam(required = false) List<String> types,
+                                              @RequestParam(required = false) List<String> severity,
+                                              @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+                                              @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+                                              @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        boolean compact = FeedResponses.compactRequested(accept);
+        if (bbox == null && types == null && severity == null) {
+            return FeedResponses.cached(feedSnapshotService.getApprovedMarkers(compact), compact, acceptEncoding, ifNoneMatch);
+        }
+        try {
+            BoundingBox box = bbox == null ? null : BoundingBox.parse(bbox);
+            List<MapMarker> markers = mapMarkerService.getApprovedMarkers(box, types, severity);
+            if (compact) {
+                return FeedResponses.encodeNow(CompactFeedCodec.encodeMarkers(markers), acceptEncoding);
+            }
+            return ResponseEntity.ok().header(HttpHeaders.VARY, HttpHeaders.ACCEPT).body(markers);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("Invalid bbox: " + e.getMessage());
+        }
+    }
+
+    // Public: Approved markers grouped for the given zoom level. Single-marker clusters carry markerId.
+    @GetMapping("/clusters")
+    public ResponseEntity<?> getMarkerClusters(@RequestParam int zoom,
+                                               @RequestParam(required = false) String bbox) {
+        try {
+            BoundingBox box = bbox == null ? null : BoundingBox.parse(bbox);
+            return ResponseEntity.ok(mapMarkerService.getApprovedClusters(zoom, box));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("Invalid bbox: " + e.getMessage());
+        }
+    }
+
+    // Public: Live feed of approved markers (snapshot, then add/update/remove events)
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamPublicMarkers() {
+        return markerFeedService.subscribe();
     }
 
     // Member: Get my own reports (so I can see my pending ones on the map)
@@ -33,8 +89,12 @@ public class MapController {
 
     // Member: Submit a report
     @PostMapping("/report")
-    public MapMarker reportIssue(@RequestBody MapMarker marker) {
-        return mapMarkerService.reportIssue(marker);
+    public ResponseEntity<?> reportIssue(@RequestBody MapMarker marker) {
+        try {
+            return ResponseEntity.ok(mapMarkerService.reportIssue(marker));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("Invalid report: " + e.getMessage());
+        }
     }
 
     // Admin: Get all pending
@@ -49,15 +109,67 @@ public class MapController {
         return mapMarkerService.getRejectedMarkers();
     }
 
+    // Admin: One page of pending markers, newest first. Pass nextCursor back as cursor.
+    @GetMapping(value = "/pending", params = "limit")
+    public ResponseEntity<?> getPendingMarkerPage(@RequestParam int limit,
+                                                  @RequestParam(required = false) String cursor) {
+        return markerPage("pending", cursor, limit);
+    }
+
+    // Admin: One page of rejected markers, newest first
+    @GetMapping(value = "/rejected", params = "limit")
+    public ResponseEntity<?> getRejectedMarkerPage(@RequestParam int limit,
+                                                   @RequestParam(required = false) String cursor) {
+        return markerPage("rejected", cursor, limit);
+    }
+
+    private ResponseEntity<?> markerPage(String status, String cursor, int limit) {
+        try {
+            return ResponseEntity.ok(mapMarkerService.getMarkerPage(status, cursor, CursorPage.clamp(limit)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("Invalid cursor: " + e.getMessage());
+        }
+    }
+
+    // 409 if someone else moderated the marker first (or changed it after asOfVersion, when given)
     @PutMapping("/{id}/approve")
-    public ResponseEntity<?> approveMarker(@PathVariable Long id) {
-        mapMarkerService.approveMarker(id);
-        return ResponseEntity.ok("Marker Approved");
+    public ResponseEntity<?> approveMarker(@PathVariable Long id, @RequestParam(required = false) Long asOfVersion) {
+        try {
+            mapMarkerService.approveMarker(id, asOfVersion);
+            return ResponseEntity.ok("Marker Approved");
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body("Marker not approved: " + e.getMessage());
+        }
     }
 
     @PutMapping("/{id}/reject")
-    public ResponseEntity<?> rejectMarker(@PathVariable Long id) {
-        mapMarkerService.rejectMarker(id);
-        return ResponseEntity.ok("Marker Rejected");
+    public ResponseEntity<?> rejectMarker(@PathVariable Long id, @RequestParam(required = false) Long asOfVersion) {
+        try {
+            mapMarkerService.rejectMarker(id, asOfVersion);
+            return ResponseEntity.ok("Marker Rejected");
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body("Marker not rejected: " + e.getMessage());
+        }
+    }
+
+    // Admin: approve many markers at once. Body: {"ids": [...]} or {"bbox": "w,s,e,n", "types": [...]},
+    // plus optional "from" (default pending) and "asOfVersion" (the sync version the admin's list shows)
+    @PutMapping("/bulk/approve")
+    public ResponseEntity<?> approveMarkers(@RequestBody BulkModerationRequest request) {
+        return moderate(request, "approved");
+    }
+
+    // Admin: reject many markers at once, same body as bulk approve
+    @PutMapping("/bulk/reject")
+    public ResponseEntity<?> rejectMarkers(@RequestBody BulkModerationRequest request) {
+        return moderate(request, "rejected");
+    }
+
+    private ResponseEntity<?> moderate(BulkModerationRequest request, String status) {
+        try {
+            return ResponseEntity.ok(mapMarkerService.moderate(request, status));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("Invalid moderation request: " + e.getMessage());
+        }
     }
 }
\ No newline at end of file
@@ -1,10 +1,17 @@
 package ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.controller;
 
 import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.model.Message;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.page.CursorPage;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.service.ChatStreamService;
 import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.service.MessageService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
 import java.util.Map;
@@ -17,15 +24,20 @@ public class MessageController {
     @Autowired
     private MessageService messageService;
 
+    @Autowired
+    private ChatStreamService chatStreamService;
+
     // --- UPDATED RETURN TYPE ---
     @GetMapping("/partners")
-    public List<Map<String, Object>> getChatPartners(Authentication authentication) {
+    public List<Map<String, Object>> getChatPartners(@RequestParam(defaultValue = "0") int page,
+                                                     @RequestParam(required = false) Integer size,
+                                                     Authentication authentication) {
         if (authentication == null) return List.of();
         String username = authentication.getName();
         boolean isAdmin = authentication.getAuthorities().stream()
                 .anyMatch(a -> a.getAuthority().equals("ROLE_ADMIN") || a.getAuthority().equals("ADMIN"));
 
-        return messageService.getChatPartners(username, isAdmin);
+        return messageService.getChatPartners(username, isAdmin, page, size);
     }
 
     @GetMapping("/conversation")
@@ -38,6 +50,40 @@ public class MessageController {
         return messageService.getConversation(currentUser, partner);
     }
 
+    // Newest messages first; nextCursor pages further back. Only the first page marks the conversation read.
+    @GetMapping(value = "/conversation", params = {"limit", "!after"})
+    public ResponseEntity<?> getConversationPage(@RequestParam String partner,
+                                                 @RequestParam int limit,
+                                                 @RequestParam(required = false) String cursor,
+                                                 Authentication authentication) {
+        if (authentication == null) throw new ResponseStatusException(HttpStatus.UNAUTHORIZED);
+        String currentUser = authentication.getName();
+        try {
+            CursorPage<Message> page = messageService.getConversationPage(currentUser, partner, cursor, CursorPage.clamp(limit));
+            if (cursor == null) {
+                messageService.markConversationAsRead(currentUser, partner);
+            }
+            return ResponseEntity.ok(page);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("Invalid cursor: " + e.getMessage());
+        }
+    }
+
+    // Polling: messages newer than the client's last one (by id), oldest first
+    @GetMapping(value = "/conversation", params = "after")
+    public List<Message> getConversationAfter(@RequestParam String partner,
+                                              @RequestParam long after,
+                                              @RequestParam(defaultValue = "" + CursorPage.MAX_LIMIT) int limit,
+                                              Authentication authentication) {
+        if (authentication == null) throw new ResponseStatusException(HttpStatus.UNAUTHORIZED);
+        String currentUser = authentication.getName();
+        List<Message> messages = messageService.getConversationAfter(currentUser, partner, after, CursorPage.clamp(limit));
+        if (messages.stream().anyMatch(m -> partner.equals(m.getSender()))) {
+            messageService.markConversationAsRead(currentUser, partner);
+        }
+        return messages;
+    }
+
     @PostMapping
     public Message sendMessage(@RequestBody Message message, Authentication authentication) {
         if (authentication != null) {
@@ -46,6 +92,13 @@ public class MessageController {
         return messageService.sendMessage(message);
     }
 
+    // Push channel: "message" events for new chat messages, "unread" events for badge totals
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamMessages(Authentication authentication) {
+        if (authentication == null) throw new ResponseStatusException(HttpStatus.UNAUTHORIZED);
+        return chatStreamService.subscribe(authentication.getName());
+    }
+
     @GetMapping("/unread-count")
     public long getUnreadCount(Authentication authentication) {
         if (authentication == null) return 0;
@@ -0,0 +1,21 @@
+package ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.controller;
+
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.service.MetricsService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/metrics")
+public class MetricsController {
+
+    @Autowired
+    private MetricsService metricsService;
+
+    // Admin: Prometheus scrape endpoint (text exposition format 0.0.4)
+    @GetMapping(produces = "text/plain; version=0.0.4; charset=utf-8")
+    public String scrape() {
+        return metricsService.scrape();
+    }
+}
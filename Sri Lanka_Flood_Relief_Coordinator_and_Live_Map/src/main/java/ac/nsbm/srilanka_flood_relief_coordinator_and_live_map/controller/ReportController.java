@@ -1,14 +1,18 @@
 package ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.controller;
 
 import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.model.Report;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.page.CursorPage;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.repository.ReportSummary;
 import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.service.ReportService;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.storage.AttachmentStore;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
 import java.util.List;
 
 @RestController
@@ -18,6 +22,9 @@ public class ReportController {
     @Autowired
     private ReportService reportService;
 
+    @Autowired
+    private AttachmentStore attachmentStore;
+
     @PostMapping("/upload")
     public ResponseEntity<?> uploadReport(@RequestParam("file") MultipartFile file,
                                           @RequestParam("title") String title,
@@ -32,17 +39,27 @@ public class ReportController {
     }
 
     @GetMapping
-    public List<Report> getAllReports() {
+    public List<ReportSummary> getAllReports() {
         return reportService.getAllReports();
     }
 
+    // One page of reports, newest first. Pass nextCursor back as cursor.
+    @GetMapping(params = "limit")
+    public ResponseEntity<?> getReportPage(@RequestParam int limit,
+                                           @RequestParam(required = false) String cursor) {
+        try {
+            return ResponseEntity.ok(reportService.getReportPage(cursor, CursorPage.clamp(limit)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("Invalid cursor: " + e.getMessage());
+        }
+    }
+
+    // Streams from the attachment store; supports If-None-Match and single byte ranges
     @GetMapping("/{id}/download")
-    public ResponseEntity<byte[]> downloadReportFile(@PathVariable Long id) {
+    public void downloadReportFile(@PathVariable Long id,
+                                   HttpServletRequest request,
+                                   HttpServletResponse response) throws IOException {
         Report report = reportService.getReport(id);
-
-        return ResponseEntity.ok()
-                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + report.getFileName() + "\"")
-                .contentType(MediaType.parseMediaType(report.getFileType()))
-                .body(report.getData());
+        AttachmentDownloads.write(request, response, report, attachmentStore);
     }
-}
\ No newline at end of file
+}
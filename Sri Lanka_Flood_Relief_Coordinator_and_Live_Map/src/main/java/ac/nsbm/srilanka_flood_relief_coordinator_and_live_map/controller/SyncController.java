@@ -0,0 +1,31 @@
+package ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.controller;
+
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.service.SyncService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/sync")
+public class SyncController {
+
+    @Autowired
+    private SyncService syncService;
+
+    // Markers, alerts and help requests changed since the given version, plus deletions.
+    // Omit since (or send 0) for a full snapshot; then send back the returned version.
+    @GetMapping
+    public SyncService.ChangeSet getChanges(@RequestParam(defaultValue = "0") long since) {
+        return syncService.getChangesSince(since);
+    }
+
+    // Current version only, for clients that load their first view from the list endpoints
+    @GetMapping("/version")
+    public Map<String, Long> getVersion() {
+        return Map.of("version", syncService.getCurrentVersion());
+    }
+}
@@ -0,0 +1,59 @@
+package ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.datasource;
+
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.metrics.Counter;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.metrics.MetricRegistry;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * The application's DataSource when a replica is configured. A connection for a ReplicaRead
+ * transaction comes from the replica if the monitor says it is usable and neither this thread
+ * nor the signed-in user has committed a write the replica has not caught up with yet (so a
+ * user reads back their own writes, in the same request or a later one); every other
+ * connection, including those outside a transaction, comes from the primary.
+ *
+ * If the replica cannot hand out a connection, the read falls back to the primary and the
+ * replica stays out until the monitor's next successful check.
+ */
+public class ReadWriteRoutingDataSource extends AbstractDataSource {
+
+    private final DataSource primary;
+    private final DataSource replica;
+    private final ReplicaLagMonitor monitor;
+    private final Counter servedByReplica;
+    private final Counter servedByPrimary;
+
+    public ReadWriteRoutingDataSource(DataSource primary, DataSource replica, ReplicaLagMonitor monitor, MetricRegistry registry) {
+        this.primary = primary;
+        this.replica = replica;
+        this.monitor = monitor;
+        this.servedByReplica = registry.counter("flood_db_replica_reads_total", "Replica-eligible transactions by the database that served them", "served_by", "replica");
+        this.servedByPrimary = registry.counter("flood_db_replica_reads_total", "Replica-eligible transactions by the database that served them", "served_by", "primary");
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (!ReplicaRouting.isReplicaRead()) {
+            return primary.getConnection();
+        }
+        if (monitor.isUsable() && !ReplicaRouting.wroteSince(monitor.getReplicatedUpToMillis())) {
+            try {
+                Connection connection = replica.getConnection();
+                servedByReplica.increment();
+                return connection;
+            } catch (SQLException e) {
+                monitor.markDown(e);
+            }
+        }
+        servedByPrimary.increment();
+        return primary.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return primary.getConnection(username, password);
+    }
+}
@@ -0,0 +1,118 @@
+package ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.datasource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Decides whether the replica may serve reads. Each check writes the current time to the
+ * replica_heartbeat row on the primary and reads the row back from the replica; the age of
+ * what the replica returns is its lag, overestimated by at most one check interval.
+ *
+ * The heartbeat read back also tells how far the replica has got: a write committed before
+ * that time is on it, so ReplicaRouting stops pinning the writer's reads to the primary.
+ *
+ * The replica is usable while the last check succeeded with a lag within maxLagMillis, and
+ * until a connection to it fails. It starts out unusable, so reads go to the primary until
+ * the first check passes. Instances sharing a primary share the row, so their clocks are
+ * assumed to agree well within the tolerance.
+ */
+public class ReplicaLagMonitor {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaLagMonitor.class);
+    private static final int QUERY_TIMEOUT_SECONDS = 2;
+
+    private final DataSource primary;
+    private final DataSource replica;
+    private final long maxLagMillis;
+
+    private volatile boolean usable;
+    private volatile long lagMillis = -1;
+    private volatile long replicatedUpToMillis = Long.MAX_VALUE;
+
+    public ReplicaLagMonitor(DataSource primary, DataSource replica, long maxLagMillis) {
+        this.primary = primary;
+        this.replica = replica;
+        this.maxLagMillis = maxLagMillis;
+    }
+
+    @Scheduled(fixedDelayString = "${app.datasource.replica.check-interval-ms:1000}")
+    public void check() {
+        try {
+            writeHeartbeat(System.currentTimeMillis());
+        } catch (SQLException e) {
+            // Without a fresh heartbeat the lag cannot be told; keep the last verdict
+            log.warn("Could not write the replica heartbeat on the primary: {}", e.getMessage());
+            return;
+        }
+        long beat;
+        try {
+            beat = readHeartbeat();
+        } catch (SQLException e) {
+            markDown(e);
+            return;
+        }
+        long lag = Math.max(0, System.currentTimeMillis() - beat);
+        lagMillis = lag;
+        replicatedUpToMillis = beat;
+        if (lag <= maxLagMillis) {
+            if (!usable) log.info("Replica is {} ms behind the primary; serving reads from it", lag);
+            usable = true;
+        } else {
+            if (usable) log.warn("Replica is {} ms behind the primary (limit {} ms); reading from the primary", lag, maxLagMillis);
+            usable = false;
+        }
+    }
+
+    // A failed connection or query: reads go to the primary until a check passes again
+    public void markDown(SQLException e) {
+        if (usable) log.warn("Replica unreachable; reading from the primary: {}", e.getMessage());
+        usable = false;
+        lagMillis = -1;
+    }
+
+    public boolean isUsable() {
+        return usable;
+    }
+
+    // -1 while unknown
+    public long getLagMillis() {
+        return lagMillis;
+    }
+
+    // The primary's time at the newest heartbeat seen on the replica; no use while the replica is not usable
+    public long getReplicatedUpToMillis() {
+        return replicatedUpToMillis;
+    }
+
+    public long getMaxLagMillis() {
+        return maxLagMillis;
+    }
+
+    private void writeHeartbeat(long now) throws SQLException {
+        try (Connection connection = primary.getConnection();
+             PreparedStatement update = connection.prepareStatement("UPDATE replica_heartbeat SET beat_at_ms = ? WHERE id = 1")) {
+            update.setQueryTimeout(QUERY_TIMEOUT_SECONDS);
+            update.setLong(1, now);
+            update.executeUpdate();
+            if (!connection.getAutoCommit()) connection.commit();
+        }
+    }
+
+    private long readHeartbeat() throws SQLException {
+        try (Connection connection = replica.getConnection();
+             PreparedStatement select = connection.prepareStatement("SELECT beat_at_ms FROM replica_heartbeat WHERE id = 1")) {
+            select.setQueryTimeout(QUERY_TIMEOUT_SECONDS);
+            try (ResultSet rs = select.executeQuery()) {
+                if (!rs.next()) throw new SQLException("replica_heartbeat has no row; is the replica migrated?");
+                return rs.getLong(1);
+            }
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.datasource;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseCookie;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Keeps a client's reads on the primary after its writes, whichever instance serves them. The
+ * time of the client's last committed write travels in a cookie; each request starts its
+ * routing state from it (and from nothing else an earlier request left on the thread), and a
+ * write renews it. The cookie expires once the replica would be caught up or out of use anyway.
+ */
+public class ReplicaPinFilter extends OncePerRequestFilter {
+
+    static final String COOKIE = "replica_pin";
+
+    private final long maxAgeSeconds;
+
+    public ReplicaPinFilter(long maxLagMillis, long checkIntervalMillis) {
+        this.maxAgeSeconds = Math.max(1, (maxLagMillis + checkIntervalMillis + 999) / 1000);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        ReplicaRouting.startRequest(pin(request), millis -> {
+            if (response.isCommitted()) return;
+            response.addHeader(HttpHeaders.SET_COOKIE, ResponseCookie.from(COOKIE, Long.toString(millis))
+                    .path("/")
+                    .httpOnly(true)
+                    .secure(request.isSecure())
+                    .sameSite("Lax")
+                    .maxAge(maxAgeSeconds)
+                    .build().toString());
+        });
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            ReplicaRouting.endRequest();
+        }
+    }
+
+    // Null without a usable cookie; a time in the future counts as now, so no client pins itself for long
+    private static Long pin(HttpServletRequest request) {
+        Cookie[] cookies = request.getCookies();
+        if (cookies == null) return null;
+        for (Cookie cookie : cookies) {
+            if (!COOKIE.equals(cookie.getName())) continue;
+            try {
+                return Math.min(Long.parseLong(cookie.getValue()), System.currentTimeMillis());
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+        return null;
+    }
+}
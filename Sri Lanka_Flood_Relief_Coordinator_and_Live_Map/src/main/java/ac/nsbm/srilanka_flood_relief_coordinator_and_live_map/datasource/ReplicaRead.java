@@ -0,0 +1,25 @@
+package ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.datasource;
+
+import org.springframework.transaction.annotation.Transactional;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * A read-only transaction that may run on the read replica, when one is configured and is
+ * within app.datasource.replica.max-lag-ms of the primary. Without a replica it is an ordinary
+ * read-only transaction.
+ *
+ * Only for reads that can be slightly behind: not for reading back what the caller has just
+ * written, nor for results cached until the next change. Plain read-only transactions,
+ * including the repositories' own, stay on the primary.
+ */
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@Transactional(readOnly = true, label = ReplicaRouting.LABEL)
+public @interface ReplicaRead {
+}
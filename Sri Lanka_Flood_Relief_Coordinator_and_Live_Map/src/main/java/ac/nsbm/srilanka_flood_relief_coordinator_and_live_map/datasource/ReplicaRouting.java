@@ -0,0 +1,86 @@
+package ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.datasource;
+
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.interceptor.TransactionAttribute;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.function.LongConsumer;
+
+/**
+ * Routing state of the current thread, kept by the transaction manager: whether the transaction
+ * being started may read from the replica, and when a write was last committed. In a request,
+ * ReplicaPinFilter starts the state from the time the client's last write was committed, on
+ * whichever instance, and hears of new writes so the client can carry them to its next request.
+ * Outside requests, such as scheduled jobs, the thread's own writes pin its later reads.
+ *
+ * A stack rather than a flag, because a REQUIRES_NEW transaction suspends the one around it
+ * and that one resumes when it ends.
+ */
+final class ReplicaRouting {
+
+    static final String LABEL = "replica-read";
+
+    private static final ThreadLocal<Deque<Scope>> SCOPES = ThreadLocal.withInitial(ArrayDeque::new);
+    private static final ThreadLocal<Long> LAST_WRITE_MILLIS = new ThreadLocal<>();
+    private static final ThreadLocal<LongConsumer> WRITE_LISTENER = new ThreadLocal<>();
+
+    private ReplicaRouting() {
+    }
+
+    // Nothing from an earlier request on this thread carries over; lastWriteMillis may be null
+    static void startRequest(Long lastWriteMillis, LongConsumer onWrite) {
+        SCOPES.remove();
+        if (lastWriteMillis == null) LAST_WRITE_MILLIS.remove();
+        else LAST_WRITE_MILLIS.set(lastWriteMillis);
+        WRITE_LISTENER.set(onWrite);
+    }
+
+    static void endRequest() {
+        SCOPES.remove();
+        LAST_WRITE_MILLIS.remove();
+        WRITE_LISTENER.remove();
+    }
+
+    // Called before the transaction gets its connection
+    static void begin(TransactionDefinition definition) {
+        boolean replica = definition.isReadOnly()
+                && definition instanceof TransactionAttribute attribute
+                && attribute.getLabels().contains(LABEL);
+        SCOPES.get().push(new Scope(definition.isReadOnly(), replica));
+    }
+
+    // Called once the transaction begun last has committed
+    static void committed() {
+        Scope scope = SCOPES.get().peek();
+        if (scope == null || scope.readOnly()) return;
+        // Taken after the commit, so a heartbeat written later than this is replicated after the write
+        long now = System.currentTimeMillis();
+        LAST_WRITE_MILLIS.set(now);
+        LongConsumer listener = WRITE_LISTENER.get();
+        if (listener != null) listener.accept(now);
+    }
+
+    static void end() {
+        SCOPES.get().poll();
+    }
+
+    static boolean isReplicaRead() {
+        Scope scope = SCOPES.get().peek();
+        return scope != null && scope.replica();
+    }
+
+    // Whether a write this thread or request knows of may not be on the replica yet
+    static boolean wroteSince(long replicatedUpToMillis) {
+        Long last = LAST_WRITE_MILLIS.get();
+        return last != null && last >= replicatedUpToMillis;
+    }
+
+    // Forgets this thread's routing state; for tests that run one after another
+    static void clear() {
+        endRequest();
+    }
+
+    private record Scope(boolean readOnly, boolean replica) {
+    }
+}
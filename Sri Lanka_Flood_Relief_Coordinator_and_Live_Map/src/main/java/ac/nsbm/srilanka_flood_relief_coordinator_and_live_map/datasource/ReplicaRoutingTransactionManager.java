@@ -0,0 +1,42 @@
+package ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.datasource;
+
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+
+/**
+ * JpaTransactionManager that tells ReadWriteRoutingDataSource which transactions are
+ * ReplicaRead ones. The connection is taken during or after doBegin, so the flag is set first.
+ */
+public class ReplicaRoutingTransactionManager extends JpaTransactionManager {
+
+    private static final long serialVersionUID = 1L;
+
+    @Override
+    protected void doBegin(Object transaction, TransactionDefinition definition) {
+        ReplicaRouting.begin(definition);
+        try {
+            super.doBegin(transaction, definition);
+        } catch (RuntimeException | Error e) {
+            // No cleanup callback follows a failed begin
+            ReplicaRouting.end();
+            throw e;
+        }
+    }
+
+    // Only a commit pins later reads; a rollback or a failed begin left nothing for the replica to catch up on
+    @Override
+    protected void doCommit(DefaultTransactionStatus status) {
+        super.doCommit(status);
+        ReplicaRouting.committed();
+    }
+
+    @Override
+    protected void doCleanupAfterCompletion(Object transaction) {
+        try {
+            super.doCleanupAfterCompletion(transaction);
+        } finally {
+            ReplicaRouting.end();
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.event;
+
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.model.Alert;
+
+/**
+ * Published by AlertService after an alert is created or deleted.
+ * alert is null for deletions.
+ */
+public record AlertChangedEvent(Long alertId, Alert alert) {
+
+    public boolean isDeleted() {
+        return alert == null;
+    }
+}
@@ -0,0 +1,9 @@
+package ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.event;
+
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.model.HelpRequest;
+
+/**
+ * Published by HelpRequestService after a new help request is saved.
+ */
+public record HelpRequestSubmittedEvent(HelpRequest request) {
+}
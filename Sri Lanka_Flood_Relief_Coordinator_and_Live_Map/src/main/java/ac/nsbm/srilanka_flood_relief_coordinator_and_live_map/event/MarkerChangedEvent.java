@@ -0,0 +1,18 @@
+package ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.event;
+
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.model.MapMarker;
+
+/**
+ * Published by MapMarkerService after a marker has been saved.
+ * previousStatus is null when the marker was just created.
+ */
+public record MarkerChangedEvent(MapMarker marker, String previousStatus) {
+
+    public boolean wasApproved() {
+        return "approved".equals(previousStatus);
+    }
+
+    public boolean isApproved() {
+        return "approved".equals(marker.getStatus());
+    }
+}
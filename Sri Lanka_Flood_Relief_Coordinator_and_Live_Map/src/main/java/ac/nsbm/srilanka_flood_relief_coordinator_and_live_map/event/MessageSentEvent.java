@@ -0,0 +1,10 @@
+package ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.event;
+
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.model.Message;
+
+/**
+ * Published by MessageService once a chat message is stored.
+ * recipientUnread is the recipient's unread total including this message.
+ */
+public record MessageSentEvent(Message message, long recipientUnread) {
+}
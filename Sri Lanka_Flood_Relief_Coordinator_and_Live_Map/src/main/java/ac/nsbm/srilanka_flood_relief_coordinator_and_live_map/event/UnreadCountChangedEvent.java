@@ -0,0 +1,5 @@
+package ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.event;
+
+// Published when a user's unread total drops, e.g. after opening a conversation
+public record UnreadCountChangedEvent(String username, long unread) {
+}
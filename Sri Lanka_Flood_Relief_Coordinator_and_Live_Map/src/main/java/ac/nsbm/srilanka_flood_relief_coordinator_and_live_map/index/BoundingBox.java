@@ -0,0 +1,30 @@
+package ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.index;
+
+/**
+ * Map viewport in degrees. Parsed from Leaflet's toBBoxString() order: west,south,east,north.
+ */
+public record BoundingBox(double minLng, double minLat, double maxLng, double maxLat) {
+
+    public BoundingBox {
+        if (minLat > maxLat || minLng > maxLng) {
+            throw new IllegalArgumentException("bbox corners are reversed");
+        }
+    }
+
+    public static BoundingBox parse(String bbox) {
+        String[] parts = bbox.split(",");
+        if (parts.length != 4) {
+            throw new IllegalArgumentException("bbox must be west,south,east,north");
+        }
+        try {
+            return new BoundingBox(Double.parseDouble(parts[0].trim()), Double.parseDouble(parts[1].trim()),
+                    Double.parseDouble(parts[2].trim()), Double.parseDouble(parts[3].trim()));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("bbox must contain four numbers");
+        }
+    }
+
+    public boolean contains(double lat, double lng) {
+        return lat >= minLat && lat <= maxLat && lng >= minLng && lng <= maxLng;
+    }
+}
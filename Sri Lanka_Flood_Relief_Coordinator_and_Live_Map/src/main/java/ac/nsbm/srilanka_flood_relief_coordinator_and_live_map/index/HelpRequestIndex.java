@@ -0,0 +1,194 @@
+package ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.index;
+
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.model.HelpRequest;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Grid index over help requests for nearest-neighbour lookups.
+ *
+ * A k-NN query searches rings of cells outward from the caller's cell and stops as soon
+ * as the k-th best haversine distance is closer than anything the next ring could hold,
+ * so cost depends on local density rather than on how many requests exist overall.
+ * Needs are dictionary-coded into a bitmask for cheap filtering.
+ */
+public class HelpRequestIndex {
+
+    private static final double CELL_DEGREES = 0.05;
+    private static final double EARTH_RADIUS_KM = 6371.0088;
+    private static final double KM_PER_DEGREE = Math.PI * EARTH_RADIUS_KM / 180.0;
+    private static final long ROW_STRIDE = 1L << 16;
+    private static final int INITIAL_CAPACITY = 1024;
+    // Needs past the 63rd distinct value share the top bit and are re-checked by name
+    private static final int OVERFLOW_BIT = 63;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private double[] lats = new double[INITIAL_CAPACITY];
+    private double[] lngs = new double[INITIAL_CAPACITY];
+    private long[] needMasks = new long[INITIAL_CAPACITY];
+    private HelpRequest[] requests = new HelpRequest[INITIAL_CAPACITY];
+    private int size;
+
+    private final Map<Long, MarkerSpatialIndex.IntList> cells = new HashMap<>();
+    private final Map<String, Integer> needBits = new HashMap<>();
+
+    // Occupied extent in cell coordinates, so a sparse filter cannot search forever
+    private long minRow = Long.MAX_VALUE, maxRow = Long.MIN_VALUE;
+    private long minCol = Long.MAX_VALUE, maxCol = Long.MIN_VALUE;
+
+    public void add(HelpRequest request) {
+        lock.writeLock().lock();
+        try {
+            if (size == requests.length) {
+                int capacity = size * 2;
+                lats = Arrays.copyOf(lats, capacity);
+                lngs = Arrays.copyOf(lngs, capacity);
+                needMasks = Arrays.copyOf(needMasks, capacity);
+                requests = Arrays.copyOf(requests, capacity);
+            }
+            int slot = size++;
+            lats[slot] = request.getLatitude();
+            lngs[slot] = request.getLongitude();
+            needMasks[slot] = maskOf(request.getNeeds(), true);
+            requests[slot] = request;
+
+            long row = row(request.getLatitude()), col = col(request.getLongitude());
+            cells.computeIfAbsent(row * ROW_STRIDE + col, k -> new MarkerSpatialIndex.IntList()).add(slot);
+            minRow = Math.min(minRow, row);
+            maxRow = Math.max(maxRow, row);
+            minCol = Math.min(minCol, col);
+            maxCol = Math.max(maxCol, col);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Up to k requests closest to (lat, lng), nearest first. When needs is non-empty, only
+     * requests asking for at least one of those needs are considered.
+     */
+    public List<NearbyHelpRequest> nearest(double lat, double lng, int k, Collection<String> needs) {
+        if (k <= 0) return List.of();
+
+        lock.readLock().lock();
+        try {
+            if (size == 0) return List.of();
+
+            long filter = needs == null || needs.isEmpty() ? 0 : maskOf(needs, false);
+            if (needs != null && !needs.isEmpty() && filter == 0) return List.of();
+
+            // Max-heap on distance holding the best k so far
+            PriorityQueue<NearbyHelpRequest> best =
+                    new PriorityQueue<>(k, Comparator.comparingDouble(NearbyHelpRequest::distanceKm).reversed());
+
+            long centerRow = row(lat), centerCol = col(lng);
+            long maxRing = Math.max(Math.max(Math.abs(centerRow - minRow), Math.abs(maxRow - centerRow)),
+                    Math.max(Math.abs(centerCol - minCol), Math.abs(maxCol - centerCol)));
+            // Narrowest side of a cell around here, so ring r is at least (r - 1) cells away
+            double cellKm = CELL_DEGREES * KM_PER_DEGREE * Math.max(0.01, Math.cos(Math.toRadians(Math.abs(lat) + CELL_DEGREES)));
+
+            for (long ring = 0; ring <= maxRing; ring++) {
+                if (best.size() == k && best.peek().distanceKm() <= (ring - 1) * cellKm) break;
+
+                for (long r = centerRow - ring; r <= centerRow + ring; r++) {
+                    boolean edgeRow = r == centerRow - ring || r == centerRow + ring;
+                    long step = edgeRow ? 1 : 2 * ring;
+                    for (long c = centerCol - ring; c <= centerCol + ring; c += Math.max(1, step)) {
+                        MarkerSpatialIndex.IntList slots = cells.get(r * ROW_STRIDE + c);
+                        if (slots != null) scan(slots, lat, lng, k, filter, needs, best);
+                    }
+                }
+            }
+
+            List<NearbyHelpRequest> result = new ArrayList<>(best);
+            result.sort(Comparator.comparingDouble(NearbyHelpRequest::distanceKm));
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void scan(MarkerSpatialIndex.IntList slots, double lat, double lng, int k, long filter,
+                      Collection<String> needs, PriorityQueue<NearbyHelpRequest> best) {
+        for (int i = 0; i < slots.size; i++) {
+            int slot = slots.values[i];
+            if (filter != 0 && !matchesNeeds(slot, filter, needs)) continue;
+
+            double distance = haversineKm(lat, lng, lats[slot], lngs[slot]);
+            if (best.size() < k) {
+                best.add(new NearbyHelpRequest(requests[slot], distance));
+            } else if (distance < best.peek().distanceKm()) {
+                best.poll();
+                best.add(new NearbyHelpRequest(requests[slot], distance));
+            }
+        }
+    }
+
+    private boolean matchesNeeds(int slot, long filter, Collection<String> needs) {
+        long hit = needMasks[slot] & filter;
+        if (hit == 0) return false;
+        if (hit != 1L << OVERFLOW_BIT) return true;
+
+        // Only the shared overflow bit matched; compare the actual names
+        List<String> own = requests[slot].getNeeds();
+        if (own == null) return false;
+        for (String need : own) {
+            for (String wanted : needs) {
+                if (normalize(need).equals(normalize(wanted))) return true;
+            }
+        }
+        return false;
+    }
+
+    private long maskOf(Collection<String> needs, boolean register) {
+        if (needs == null) return 0;
+        long mask = 0;
+        for (String need : needs) {
+            String key = normalize(need);
+            Integer bit = register
+                    ? needBits.computeIfAbsent(key, n -> Math.min(needBits.size(), OVERFLOW_BIT))
+                    : needBits.get(key);
+            if (bit != null) mask |= 1L << bit;
+        }
+        return mask;
+    }
+
+    private static String normalize(String need) {
+        return need == null ? "" : need.trim().toLowerCase(Locale.ROOT);
+    }
+
+    public static double haversineKm(double lat1, double lng1, double lat2, double lng2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLng = Math.toRadians(lng2 - lng1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * Math.sin(dLng / 2) * Math.sin(dLng / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+
+    private static long row(double lat) {
+        return (long) Math.floor((Math.max(-90, Math.min(90, lat)) + 90) / CELL_DEGREES);
+    }
+
+    private static long col(double lng) {
+        return (long) Math.floor((Math.max(-180, Math.min(180, lng)) + 180) / CELL_DEGREES);
+    }
+}
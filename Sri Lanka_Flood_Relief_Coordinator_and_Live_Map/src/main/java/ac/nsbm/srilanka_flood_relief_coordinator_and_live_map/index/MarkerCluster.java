@@ -0,0 +1,11 @@
+package ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.index;
+
+import java.util.Map;
+
+/**
+ * One point on a clustered map. lat/lng is the centroid of the markers it stands for;
+ * markerId is only set when the cluster holds a single marker.
+ */
+public record MarkerCluster(double lat, double lng, int count, Map<String, Integer> types,
+                            String worstSeverity, Long markerId) {
+}
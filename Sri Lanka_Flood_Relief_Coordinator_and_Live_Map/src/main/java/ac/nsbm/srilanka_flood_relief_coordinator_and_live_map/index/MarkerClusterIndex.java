@@ -0,0 +1,194 @@
+package ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.index;
+
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.model.MapMarker;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Hierarchical grid clusters, one grid per zoom level.
+ *
+ * Cells are square on screen (Web Mercator, CELL_PIXELS wide at that zoom), so a cluster
+ * covers the same visual area at every level. Each cell keeps running sums rather than
+ * member lists, so adding or removing a marker touches one cell per level and nothing
+ * is ever rebuilt. Severity is kept as counts per rank so the worst one survives removals.
+ */
+public class MarkerClusterIndex {
+
+    public static final int MIN_ZOOM = 0;
+    public static final int MAX_ZOOM = 16;
+
+    private static final int CELL_PIXELS = 64;
+    private static final int TILE_PIXELS = 256;
+    private static final String[] SEVERITY_BY_RANK = {null, "low", "medium", "high", "critical"};
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // One grid per zoom level, indexed by zoom
+    private final List<Map<Long, Cell>> levels = new ArrayList<>(MAX_ZOOM + 1);
+
+    // What each marker contributed, so an update can take back the old values
+    private final Map<Long, Point> points = new HashMap<>();
+
+    public MarkerClusterIndex() {
+        for (int z = MIN_ZOOM; z <= MAX_ZOOM; z++) {
+            levels.add(new HashMap<>());
+        }
+    }
+
+    public void upsert(MapMarker marker) {
+        Point point = new Point(marker.getId(), marker.getLat(), marker.getLng(),
+                marker.getType(), severityRank(marker.getSeverity()));
+
+        lock.writeLock().lock();
+        try {
+            Point previous = points.put(marker.getId(), point);
+            if (previous != null) apply(previous, -1);
+            apply(point, +1);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean remove(Long id) {
+        lock.writeLock().lock();
+        try {
+            Point previous = points.remove(id);
+            if (previous == null) return false;
+            apply(previous, -1);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Clusters at the given zoom whose centroid lies in the box (null box = everywhere).
+     * Zoom is clamped to [MIN_ZOOM, MAX_ZOOM].
+     */
+    public List<MarkerCluster> query(int zoom, BoundingBox bbox) {
+        int z = Math.max(MIN_ZOOM, Math.min(MAX_ZOOM, zoom));
+
+        lock.readLock().lock();
+        try {
+            Map<Long, Cell> level = levels.get(z);
+            List<MarkerCluster> result = new ArrayList<>();
+
+            if (bbox != null) {
+                long cellsPerSide = cellsPerSide(z);
+                long minCol = cellIndex(mercatorX(bbox.minLng()), cellsPerSide);
+                long maxCol = cellIndex(mercatorX(bbox.maxLng()), cellsPerSide);
+                // Mercator y grows southwards
+                long minRow = cellIndex(mercatorY(bbox.maxLat()), cellsPerSide);
+                long maxRow = cellIndex(mercatorY(bbox.minLat()), cellsPerSide);
+
+                if ((maxRow - minRow + 1) * (maxCol - minCol + 1) <= level.size()) {
+                    for (long row = minRow; row <= maxRow; row++) {
+                        for (long col = minCol; col <= maxCol; col++) {
+                            Cell cell = level.get(row * cellsPerSide + col);
+                            if (cell != null) addIfInside(cell, bbox, result);
+                        }
+                    }
+                    return result;
+                }
+            }
+
+            for (Cell cell : level.values()) {
+                addIfInside(cell, bbox, result);
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static void addIfInside(Cell cell, BoundingBox bbox, List<MarkerCluster> result) {
+        double lat = cell.sumLat / cell.count;
+        double lng = cell.sumLng / cell.count;
+        if (bbox == null || bbox.contains(lat, lng)) {
+            result.add(cell.toCluster(lat, lng));
+        }
+    }
+
+    private void apply(Point point, int delta) {
+        double x = mercatorX(point.lng);
+        double y = mercatorY(point.lat);
+
+        for (int z = MIN_ZOOM; z <= MAX_ZOOM; z++) {
+            long cellsPerSide = cellsPerSide(z);
+            long key = cellIndex(y, cellsPerSide) * cellsPerSide + cellIndex(x, cellsPerSide);
+
+            Map<Long, Cell> level = levels.get(z);
+            Cell cell = level.computeIfAbsent(key, k -> new Cell());
+            cell.add(point, delta);
+            if (cell.count == 0) level.remove(key);
+        }
+    }
+
+    private static long cellsPerSide(int zoom) {
+        return (1L << zoom) * (TILE_PIXELS / CELL_PIXELS);
+    }
+
+    private static long cellIndex(double unit, long cellsPerSide) {
+        return Math.max(0, Math.min(cellsPerSide - 1, (long) (unit * cellsPerSide)));
+    }
+
+    private static double mercatorX(double lng) {
+        return (lng + 180.0) / 360.0;
+    }
+
+    private static double mercatorY(double lat) {
+        double clamped = Math.max(-85.05112878, Math.min(85.05112878, lat));
+        double sin = Math.sin(Math.toRadians(clamped));
+        return 0.5 - Math.log((1 + sin) / (1 - sin)) / (4 * Math.PI);
+    }
+
+    private static int severityRank(String severity) {
+        if (severity == null) return 0;
+        return switch (severity.trim().toLowerCase(Locale.ROOT)) {
+            case "low" -> 1;
+            case "medium" -> 2;
+            case "high" -> 3;
+            case "critical" -> 4;
+            default -> 0;
+        };
+    }
+
+    private record Point(Long id, double lat, double lng, String type, int severityRank) {
+    }
+
+    private static final class Cell {
+        int count;
+        double sumLat;
+        double sumLng;
+        final int[] severityCounts = new int[SEVERITY_BY_RANK.length];
+        final Map<String, Integer> typeCounts = new HashMap<>();
+        // Sum of ids; equals the single member's id whenever count == 1
+        long idSum;
+
+        void add(Point p, int delta) {
+            count += delta;
+            sumLat += delta * p.lat;
+            sumLng += delta * p.lng;
+            severityCounts[p.severityRank] += delta;
+            idSum += delta * p.id;
+            String type = p.type == null ? "unknown" : p.type;
+            typeCounts.merge(type, delta, (a, b) -> a + b == 0 ? null : a + b);
+        }
+
+        MarkerCluster toCluster(double lat, double lng) {
+            String worst = null;
+            for (int rank = severityCounts.length - 1; rank > 0; rank--) {
+                if (severityCounts[rank] > 0) {
+                    worst = SEVERITY_BY_RANK[rank];
+                    break;
+                }
+            }
+            return new MarkerCluster(lat, lng, count, Map.copyOf(typeCounts), worst, count == 1 ? idSum : null);
+        }
+    }
+}
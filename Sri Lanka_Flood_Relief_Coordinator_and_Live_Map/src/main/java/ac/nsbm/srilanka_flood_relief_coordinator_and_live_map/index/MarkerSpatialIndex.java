@@ -0,0 +1,262 @@
+package ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.index;
+
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.model.MapMarker;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory grid index over map markers.
+ *
+ * Coordinates, type and severity live in parallel primitive arrays addressed by slot, and
+ * each grid cell (about 5 km square) holds the slots that fall inside it. A viewport query
+ * only visits overlapping cells; when a viewport covers more cells than are occupied, the
+ * occupied cells are walked instead. Type and severity are dictionary-coded so filtering
+ * is an array lookup rather than a string compare.
+ */
+public class MarkerSpatialIndex {
+
+    static final double CELL_DEGREES = 0.05;
+    private static final long ROW_STRIDE = 1L << 16;
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Slot-addressed columns; a slot is reused once its marker leaves the index
+    private double[] lats = new double[INITIAL_CAPACITY];
+    private double[] lngs = new double[INITIAL_CAPACITY];
+    private int[] typeCodes = new int[INITIAL_CAPACITY];
+    private int[] severityCodes = new int[INITIAL_CAPACITY];
+    private long[] cellKeys = new long[INITIAL_CAPACITY];
+    private MapMarker[] markers = new MapMarker[INITIAL_CAPACITY];
+    private int highWater;
+    private final IntList freeSlots = new IntList();
+
+    private final Map<Long, Integer> slotById = new HashMap<>();
+    private final Map<Long, IntList> cells = new HashMap<>();
+    private final Dictionary types = new Dictionary();
+    private final Dictionary severities = new Dictionary();
+
+    public void upsert(MapMarker marker) {
+        lock.writeLock().lock();
+        try {
+            Integer existing = slotById.remove(marker.getId());
+            if (existing != null) {
+                release(existing);
+            }
+
+            int slot = allocate();
+            long cell = cellKey(marker.getLat(), marker.getLng());
+            lats[slot] = marker.getLat();
+            lngs[slot] = marker.getLng();
+            typeCodes[slot] = types.code(marker.getType());
+            severityCodes[slot] = severities.code(marker.getSeverity());
+            cellKeys[slot] = cell;
+            markers[slot] = marker;
+
+            cells.computeIfAbsent(cell, k -> new IntList()).add(slot);
+            slotById.put(marker.getId(), slot);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean remove(Long id) {
+        lock.writeLock().lock();
+        try {
+            Integer slot = slotById.remove(id);
+            if (slot == null) return false;
+            release(slot);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            Arrays.fill(markers, null);
+            highWater = 0;
+            freeSlots.clear();
+            slotById.clear();
+            cells.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return slotById.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Markers inside the box whose type and severity are in the given sets.
+     * A null argument means "no restriction" for that dimension.
+     */
+    public List<MapMarker> query(BoundingBox bbox, Collection<String> typeFilter, Collection<String> severityFilter) {
+        lock.readLock().lock();
+        try {
+            boolean[] allowedTypes = types.mask(typeFilter);
+            boolean[] allowedSeverities = severities.mask(severityFilter);
+            Matcher matcher = new Matcher(bbox, allowedTypes, allowedSeverities);
+            List<MapMarker> result = new ArrayList<>();
+
+            if (bbox == null) {
+                for (int slot = 0; slot < highWater; slot++) {
+                    if (markers[slot] != null && matcher.matches(slot)) result.add(markers[slot]);
+                }
+                return result;
+            }
+
+            long minRow = row(bbox.minLat()), maxRow = row(bbox.maxLat());
+            long minCol = col(bbox.minLng()), maxCol = col(bbox.maxLng());
+            long cellsInBox = (maxRow - minRow + 1) * (maxCol - minCol + 1);
+
+            if (cellsInBox > cells.size()) {
+                // Wide viewport: cheaper to walk the occupied cells
+                for (Map.Entry<Long, IntList> entry : cells.entrySet()) {
+                    long key = entry.getKey();
+                    long r = key / ROW_STRIDE, c = key % ROW_STRIDE;
+                    if (r >= minRow && r <= maxRow && c >= minCol && c <= maxCol) {
+                        collect(entry.getValue(), matcher, result);
+                    }
+                }
+            } else {
+                for (long r = minRow; r <= maxRow; r++) {
+                    for (long c = minCol; c <= maxCol; c++) {
+                        IntList slots = cells.get(r * ROW_STRIDE + c);
+                        if (slots != null) collect(slots, matcher, result);
+                    }
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void collect(IntList slots, Matcher matcher, List<MapMarker> result) {
+        for (int i = 0; i < slots.size; i++) {
+            int slot = slots.values[i];
+            if (matcher.matches(slot)) result.add(markers[slot]);
+        }
+    }
+
+    private int allocate() {
+        if (freeSlots.size > 0) {
+            return freeSlots.values[--freeSlots.size];
+        }
+        if (highWater == markers.length) {
+            int capacity = markers.length * 2;
+            lats = Arrays.copyOf(lats, capacity);
+            lngs = Arrays.copyOf(lngs, capacity);
+            typeCodes = Arrays.copyOf(typeCodes, capacity);
+            severityCodes = Arrays.copyOf(severityCodes, capacity);
+            cellKeys = Arrays.copyOf(cellKeys, capacity);
+            markers = Arrays.copyOf(markers, capacity);
+        }
+        return highWater++;
+    }
+
+    private void release(int slot) {
+        IntList cell = cells.get(cellKeys[slot]);
+        cell.removeValue(slot);
+        if (cell.size == 0) {
+            cells.remove(cellKeys[slot]);
+        }
+        markers[slot] = null;
+        freeSlots.add(slot);
+    }
+
+    static long cellKey(double lat, double lng) {
+        return row(lat) * ROW_STRIDE + col(lng);
+    }
+
+    private static long row(double lat) {
+        return (long) Math.floor((Math.max(-90, Math.min(90, lat)) + 90) / CELL_DEGREES);
+    }
+
+    private static long col(double lng) {
+        return (long) Math.floor((Math.max(-180, Math.min(180, lng)) + 180) / CELL_DEGREES);
+    }
+
+    private final class Matcher {
+        private final BoundingBox bbox;
+        private final boolean[] allowedTypes;
+        private final boolean[] allowedSeverities;
+
+        Matcher(BoundingBox bbox, boolean[] allowedTypes, boolean[] allowedSeverities) {
+            this.bbox = bbox;
+            this.allowedTypes = allowedTypes;
+            this.allowedSeverities = allowedSeverities;
+        }
+
+        boolean matches(int slot) {
+            if (allowedTypes != null && !allowedTypes[typeCodes[slot]]) return false;
+            if (allowedSeverities != null && !allowedSeverities[severityCodes[slot]]) return false;
+            return bbox == null || bbox.contains(lats[slot], lngs[slot]);
+        }
+    }
+
+    // Case-insensitive string -> small int codes; code 0 is reserved for null/blank
+    private static final class Dictionary {
+        private final Map<String, Integer> codes = new HashMap<>();
+
+        Dictionary() {
+            codes.put("", 0);
+        }
+
+        int code(String value) {
+            return codes.computeIfAbsent(normalize(value), k -> codes.size());
+        }
+
+        boolean[] mask(Collection<String> values) {
+            if (values == null) return null;
+            boolean[] mask = new boolean[codes.size()];
+            for (String value : values) {
+                Integer code = codes.get(normalize(value));
+                if (code != null) mask[code] = true;
+            }
+            return mask;
+        }
+
+        private static String normalize(String value) {
+            return value == null ? "" : value.trim().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    static final class IntList {
+        int[] values = new int[4];
+        int size;
+
+        void add(int value) {
+            if (size == values.length) values = Arrays.copyOf(values, size * 2);
+            values[size++] = value;
+        }
+
+        void removeValue(int value) {
+            for (int i = 0; i < size; i++) {
+                if (values[i] == value) {
+                    values[i] = values[--size];
+                    return;
+                }
+            }
+        }
+
+        void clear() {
+            size = 0;
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.index;
+
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.model.HelpRequest;
+
+/**
+ * A help request together with its great-circle distance from the query point.
+ */
+public record NearbyHelpRequest(HelpRequest request, double distanceKm) {
+}
@@ -0,0 +1,231 @@
+package ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.index;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Recent marker reports on a grid whose cells are one dedup radius wide, for finding the
+ * report a new one duplicates: same type, within the radius, and last seen inside the window.
+ *
+ * A lookup visits the few cells around the point, so its cost depends on how many reports
+ * are nearby rather than on how many are pending overall. Reports that fall out of the
+ * window are evicted oldest first as new ones arrive.
+ *
+ * claim() looks up and reserves in one step: two reports of the same incident arriving
+ * together get one canonical marker, even though its row has not been saved yet.
+ */
+public class RecentReportIndex {
+
+    private static final double METERS_PER_DEGREE = 111_320.0;
+
+    private final double radiusMeters;
+    private final double cellDegrees;
+    private final long windowMillis;
+
+    // One grid per type, so a lookup never walks past reports it could not merge with
+    private final Map<String, Map<Long, List<Report>>> grids = new HashMap<>();
+    private final Map<Long, Report> byMarkerId = new HashMap<>();
+    // Roughly oldest first; a report seen again since it was queued is moved to the back instead of evicted
+    private final ArrayDeque<Report> timeline = new ArrayDeque<>();
+    private int size;
+
+    public RecentReportIndex(double radiusMeters, long windowMillis) {
+        if (radiusMeters < 1 || windowMillis <= 0) {
+            throw new IllegalArgumentException("dedup radius must be at least 1 m and the window positive");
+        }
+        this.radiusMeters = radiusMeters;
+        this.cellDegrees = radiusMeters / METERS_PER_DEGREE;
+        this.windowMillis = windowMillis;
+    }
+
+    /**
+     * The live report this one duplicates, marked as seen at atMillis; or, if there is none,
+     * a new reservation the caller must complete() with the saved marker's id or abandon().
+     */
+    public synchronized Claim claim(String type, double lat, double lng, long atMillis) {
+        evictBefore(atMillis - windowMillis);
+        Report match = nearest(normalize(type), lat, lng, atMillis - windowMillis);
+        if (match != null) {
+            match.lastSeen = Math.max(match.lastSeen, atMillis);
+            return new Claim(match, false);
+        }
+        return new Claim(insert(normalize(type), lat, lng, atMillis), true);
+    }
+
+    // Loads a report that is already saved, e.g. at startup
+    public synchronized void add(Long markerId, String type, double lat, double lng, long atMillis) {
+        if (byMarkerId.containsKey(markerId)) return;
+        Report report = insert(normalize(type), lat, lng, atMillis);
+        report.markerId.complete(markerId);
+        byMarkerId.put(markerId, report);
+    }
+
+    // The marker can no longer absorb reports (rejected); later duplicates start a new one
+    public synchronized boolean remove(Long markerId) {
+        Report report = byMarkerId.remove(markerId);
+        if (report == null) return false;
+        unlink(report);
+        return true;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    private Report nearest(String type, double lat, double lng, long notBefore) {
+        double cosLat = Math.max(0.01, Math.cos(Math.toRadians(lat)));
+        long minRow = row(lat - cellDegrees), maxRow = row(lat + cellDegrees);
+        long minCol = col(lng - cellDegrees / cosLat), maxCol = col(lng + cellDegrees / cosLat);
+
+        Map<Long, List<Report>> cells = grids.get(type);
+        if (cells == null) return null;
+        Report best = null;
+        double bestDistance = radiusMeters * radiusMeters;
+        for (long r = minRow; r <= maxRow; r++) {
+            for (long c = minCol; c <= maxCol; c++) {
+                List<Report> reports = cells.get(key(r, c));
+                if (reports == null) continue;
+                for (Report report : reports) {
+                    if (report.lastSeen < notBefore) continue;
+                    double dy = (report.lat - lat) * METERS_PER_DEGREE;
+                    double dx = (report.lng - lng) * METERS_PER_DEGREE * cosLat;
+                    double distance = dx * dx + dy * dy;
+                    if (distance <= bestDistance) {
+                        best = report;
+                        bestDistance = distance;
+                    }
+                }
+            }
+        }
+        return best;
+    }
+
+    private Report insert(String type, double lat, double lng, long atMillis) {
+        Report report = new Report(type, lat, lng, key(row(lat), col(lng)), atMillis);
+        grids.computeIfAbsent(type, k -> new HashMap<>())
+                .computeIfAbsent(report.cell, k -> new ArrayList<>(4)).add(report);
+        timeline.addLast(report);
+        size++;
+        return report;
+    }
+
+    private void evictBefore(long cutoff) {
+        Report head;
+        while ((head = timeline.peekFirst()) != null && (head.removed || head.queuedAt < cutoff)) {
+            timeline.pollFirst();
+            if (head.removed) continue;
+            if (head.lastSeen >= cutoff) {
+                // Corroborated since it was queued: still live, so it goes to the back
+                head.queuedAt = head.lastSeen;
+                timeline.addLast(head);
+                continue;
+            }
+            if (head.markerId.isDone()) {
+                Long id = head.markerId.getNow(null);
+                if (id != null) byMarkerId.remove(id, head);
+            }
+            unlink(head);
+        }
+    }
+
+    private void unlink(Report report) {
+        if (report.removed) return;
+        report.removed = true;
+        size--;
+        Map<Long, List<Report>> cells = grids.get(report.type);
+        List<Report> reports = cells.get(report.cell);
+        reports.remove(report);
+        if (reports.isEmpty()) cells.remove(report.cell);
+    }
+
+    private long row(double lat) {
+        return (long) Math.floor((Math.max(-90, Math.min(90, lat)) + 90) / cellDegrees);
+    }
+
+    private long col(double lng) {
+        return (long) Math.floor((Math.max(-180, Math.min(180, lng)) + 180) / cellDegrees);
+    }
+
+    private static long key(long row, long col) {
+        return (row << 32) | col;
+    }
+
+    private static String normalize(String type) {
+        return type == null ? "" : type.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static final class Report {
+        final String type;
+        final double lat;
+        final double lng;
+        final long cell;
+        final CompletableFuture<Long> markerId = new CompletableFuture<>();
+        long lastSeen;
+        long queuedAt;
+        boolean removed;
+
+        Report(String type, double lat, double lng, long cell, long lastSeen) {
+            this.type = type;
+            this.lat = lat;
+            this.lng = lng;
+            this.cell = cell;
+            this.lastSeen = lastSeen;
+            this.queuedAt = lastSeen;
+        }
+    }
+
+    /**
+     * Result of claim(). For a duplicate, markerId() waits until the canonical marker's
+     * row exists, in case it was claimed moments earlier and is still being saved.
+     */
+    public final class Claim {
+        private final Report report;
+        private final boolean created;
+
+        private Claim(Report report, boolean created) {
+            this.report = report;
+            this.created = created;
+        }
+
+        public boolean isNew() {
+            return created;
+        }
+
+        public void complete(Long markerId) {
+            synchronized (RecentReportIndex.this) {
+                if (!report.removed) byMarkerId.put(markerId, report);
+            }
+            report.markerId.complete(markerId);
+        }
+
+        // The save failed: drop the reservation so waiting duplicates save their own marker
+        public void abandon() {
+            synchronized (RecentReportIndex.this) {
+                unlink(report);
+            }
+            report.markerId.complete(null);
+        }
+
+        /**
+         * Id of the canonical marker, or null if its save was abandoned or did not finish in time.
+         */
+        public Long markerId(long timeout, TimeUnit unit) {
+            try {
+                return report.markerId.get(timeout, unit);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            } catch (ExecutionException | TimeoutException e) {
+                return null;
+            }
+        }
+    }
+}
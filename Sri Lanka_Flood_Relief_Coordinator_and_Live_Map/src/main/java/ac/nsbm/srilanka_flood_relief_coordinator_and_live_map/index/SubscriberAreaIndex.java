@@ -0,0 +1,242 @@
+package ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.index;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Where connected alert subscribers are: a location (a point) or the map viewport they are
+ * looking at. match() returns the subscribers inside an alert's target area.
+ *
+ * Points and small viewports sit on a fine grid, larger viewports on a coarse one, and
+ * viewports too big for either (a whole-country view) on a short list checked every time.
+ * A match therefore visits only the cells under the area plus that list, however many
+ * subscribers are connected elsewhere.
+ */
+public class SubscriberAreaIndex {
+
+    // About 5.5 km and 90 km at Sri Lankan latitudes
+    private static final double FINE_CELL_DEGREES = 0.05;
+    private static final double COARSE_CELL_DEGREES = 0.8;
+    private static final int MAX_CELLS = 16;
+    // Below this many entries, checking each is cheaper than testing whether the area covers the cell
+    private static final int COVER_CHECK_MIN = 8;
+
+    private final Grid fine = new Grid(FINE_CELL_DEGREES);
+    private final Grid coarse = new Grid(COARSE_CELL_DEGREES);
+    private final Set<Entry> wide = new LinkedHashSet<>();
+    private final Map<String, Entry> byId = new HashMap<>();
+
+    public synchronized void placeAt(String id, double lat, double lng) {
+        remove(id);
+        Entry entry = new Entry(id, null);
+        entry.grid = fine;
+        byId.put(id, entry);
+        fine.addPoint(entry, lat, lng);
+    }
+
+    public synchronized void placeViewport(String id, BoundingBox viewport) {
+        remove(id);
+        Entry entry = new Entry(id, viewport);
+        byId.put(id, entry);
+        if (fine.cellCount(viewport) <= MAX_CELLS) {
+            entry.grid = fine;
+        } else if (coarse.cellCount(viewport) <= MAX_CELLS) {
+            entry.grid = coarse;
+        } else {
+            wide.add(entry);
+            return;
+        }
+        entry.grid.addViewport(entry);
+    }
+
+    public synchronized boolean remove(String id) {
+        Entry entry = byId.remove(id);
+        if (entry == null) return false;
+        if (entry.grid == null) {
+            wide.remove(entry);
+        } else if (entry.viewport == null) {
+            entry.grid.removePoint(entry);
+        } else {
+            entry.grid.removeViewport(entry);
+        }
+        return true;
+    }
+
+    public synchronized boolean contains(String id) {
+        return byId.containsKey(id);
+    }
+
+    public synchronized int size() {
+        return byId.size();
+    }
+
+    // Ids of subscribers whose location is inside the area, or whose viewport overlaps it
+    public synchronized List<String> match(TargetArea area) {
+        List<String> matched = new ArrayList<>();
+        fine.match(area, matched);
+        coarse.match(area, matched);
+        for (Entry entry : wide) {
+            if (area.intersects(entry.viewport)) matched.add(entry.id);
+        }
+        return matched;
+    }
+
+    private static final class Entry {
+        final String id;
+        final BoundingBox viewport;
+        Grid grid;
+        // For a point: its cell and position in it
+        Cell cell;
+        int slot;
+        // For a viewport: its first cell
+        long minRow;
+        long minCol;
+
+        Entry(String id, BoundingBox viewport) {
+            this.id = id;
+            this.viewport = viewport;
+        }
+    }
+
+    // Points are kept in flat arrays, so checking a crowded town-centre cell is a plain loop
+    private static final class Cell {
+        final long row;
+        final long col;
+        double[] lats = new double[4];
+        double[] lngs = new double[4];
+        Entry[] points = new Entry[4];
+        int pointCount;
+        final List<Entry> viewports = new ArrayList<>(0);
+
+        Cell(long row, long col) {
+            this.row = row;
+            this.col = col;
+        }
+
+        boolean isEmpty() {
+            return pointCount == 0 && viewports.isEmpty();
+        }
+    }
+
+    private static final class Grid {
+        private final double cellDegrees;
+        private final Map<Long, Cell> cells = new HashMap<>();
+
+        Grid(double cellDegrees) {
+            this.cellDegrees = cellDegrees;
+        }
+
+        long cellCount(BoundingBox box) {
+            return (row(box.maxLat()) - row(box.minLat()) + 1) * (col(box.maxLng()) - col(box.minLng()) + 1);
+        }
+
+        void addPoint(Entry entry, double lat, double lng) {
+            long r = row(lat), c = col(lng);
+            Cell cell = cells.computeIfAbsent(key(r, c), k -> new Cell(r, c));
+            if (cell.pointCount == cell.points.length) {
+                int size = cell.points.length * 2;
+                cell.lats = Arrays.copyOf(cell.lats, size);
+                cell.lngs = Arrays.copyOf(cell.lngs, size);
+                cell.points = Arrays.copyOf(cell.points, size);
+            }
+            int slot = cell.pointCount++;
+            cell.lats[slot] = lat;
+            cell.lngs[slot] = lng;
+            cell.points[slot] = entry;
+            entry.cell = cell;
+            entry.slot = slot;
+        }
+
+        // The cell's last point takes over the removed one's slot
+        void removePoint(Entry entry) {
+            Cell cell = entry.cell;
+            int last = --cell.pointCount;
+            if (entry.slot != last) {
+                cell.lats[entry.slot] = cell.lats[last];
+                cell.lngs[entry.slot] = cell.lngs[last];
+                cell.points[entry.slot] = cell.points[last];
+                cell.points[entry.slot].slot = entry.slot;
+            }
+            cell.points[last] = null;
+            if (cell.isEmpty()) cells.remove(key(cell.row, cell.col));
+        }
+
+        void addViewport(Entry entry) {
+            BoundingBox box = entry.viewport;
+            entry.minRow = row(box.minLat());
+            entry.minCol = col(box.minLng());
+            for (long r = entry.minRow; r <= row(box.maxLat()); r++) {
+                for (long c = entry.minCol; c <= col(box.maxLng()); c++) {
+                    long cellRow = r, cellCol = c;
+                    cells.computeIfAbsent(key(r, c), k -> new Cell(cellRow, cellCol)).viewports.add(entry);
+                }
+            }
+        }
+
+        void removeViewport(Entry entry) {
+            BoundingBox box = entry.viewport;
+            for (long r = row(box.minLat()); r <= row(box.maxLat()); r++) {
+                for (long c = col(box.minLng()); c <= col(box.maxLng()); c++) {
+                    Cell cell = cells.get(key(r, c));
+                    if (cell == null) continue;
+                    cell.viewports.remove(entry);
+                    if (cell.isEmpty()) cells.remove(key(r, c));
+                }
+            }
+        }
+
+        void match(TargetArea area, List<String> matched) {
+            BoundingBox bounds = area.bounds();
+            long minRow = row(bounds.minLat()), maxRow = row(bounds.maxLat());
+            long minCol = col(bounds.minLng()), maxCol = col(bounds.maxLng());
+            if ((maxRow - minRow + 1) * (maxCol - minCol + 1) > cells.size()) {
+                // An area wider than the occupied cells: walk those instead of every cell under it
+                for (Cell cell : cells.values()) {
+                    if (cell.row >= minRow && cell.row <= maxRow && cell.col >= minCol && cell.col <= maxCol) {
+                        match(cell, area, minRow, minCol, matched);
+                    }
+                }
+                return;
+            }
+            for (long r = minRow; r <= maxRow; r++) {
+                for (long c = minCol; c <= maxCol; c++) {
+                    Cell cell = cells.get(key(r, c));
+                    if (cell != null) match(cell, area, minRow, minCol, matched);
+                }
+            }
+        }
+
+        private void match(Cell cell, TargetArea area, long minRow, long minCol, List<String> matched) {
+            // A cell wholly inside the area matches everything in it: every point, and every viewport
+            // since each overlaps the cells it is listed in
+            boolean covered = cell.pointCount + cell.viewports.size() >= COVER_CHECK_MIN
+                    && area.covers(new BoundingBox(cell.col * cellDegrees - 180, cell.row * cellDegrees - 90,
+                    (cell.col + 1) * cellDegrees - 180, (cell.row + 1) * cellDegrees - 90));
+            for (int i = 0; i < cell.pointCount; i++) {
+                if (covered || area.contains(cell.lats[i], cell.lngs[i])) matched.add(cell.points[i].id);
+            }
+            for (Entry entry : cell.viewports) {
+                // A viewport spans several cells; only the first one it shares with the area reports it
+                if (Math.max(entry.minRow, minRow) != cell.row || Math.max(entry.minCol, minCol) != cell.col) continue;
+                if (covered || area.intersects(entry.viewport)) matched.add(entry.id);
+            }
+        }
+
+        private long row(double lat) {
+            return (long) Math.floor((Math.max(-90, Math.min(90, lat)) + 90) / cellDegrees);
+        }
+
+        private long col(double lng) {
+            return (long) Math.floor((Math.max(-180, Math.min(180, lng)) + 180) / cellDegrees);
+        }
+
+        private static long key(long row, long col) {
+            return (row << 32) | col;
+        }
+    }
+}
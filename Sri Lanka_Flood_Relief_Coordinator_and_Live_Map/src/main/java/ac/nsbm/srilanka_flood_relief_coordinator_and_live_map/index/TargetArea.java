@@ -0,0 +1,226 @@
+package ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.index;
+
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.model.Alert;
+
+import java.util.List;
+
+/**
+ * Area an alert is meant for: a circle or a polygon in degrees. Distances use the same
+ * flat-earth approximation as the rest of the map code, which is plenty at district scale.
+ */
+public sealed interface TargetArea permits TargetArea.Circle, TargetArea.Polygon {
+
+    double METERS_PER_DEGREE = 111_320.0;
+
+    BoundingBox bounds();
+
+    boolean contains(double lat, double lng);
+
+    // Whether any part of the viewport lies inside the area
+    boolean intersects(BoundingBox viewport);
+
+    // Whether the whole box lies inside the area, so everything in it matches without checking
+    boolean covers(BoundingBox box);
+
+    /**
+     * The alert's target area, or null if it is for everyone.
+     *
+     * @throws IllegalArgumentException if the target fields are incomplete or out of range
+     */
+    static TargetArea of(Alert alert) {
+        boolean circle = alert.getTargetLat() != null || alert.getTargetLng() != null || alert.getTargetRadiusMeters() != null;
+        List<List<Double>> points = alert.getTargetPolygon();
+        boolean polygon = points != null && !points.isEmpty();
+        if (circle && polygon) {
+            throw new IllegalArgumentException("give either a target circle or a target polygon, not both");
+        }
+        if (circle) {
+            if (alert.getTargetLat() == null || alert.getTargetLng() == null || alert.getTargetRadiusMeters() == null) {
+                throw new IllegalArgumentException("a target circle needs targetLat, targetLng and targetRadiusMeters");
+            }
+            return new Circle(alert.getTargetLat(), alert.getTargetLng(), alert.getTargetRadiusMeters());
+        }
+        if (polygon) {
+            double[] lats = new double[points.size()];
+            double[] lngs = new double[points.size()];
+            for (int i = 0; i < points.size(); i++) {
+                List<Double> point = points.get(i);
+                if (point == null || point.size() != 2 || point.get(0) == null || point.get(1) == null) {
+                    throw new IllegalArgumentException("targetPolygon points must be [lat, lng] pairs");
+                }
+                lats[i] = point.get(0);
+                lngs[i] = point.get(1);
+            }
+            return new Polygon(lats, lngs);
+        }
+        return null;
+    }
+
+    private static void checkPoint(double lat, double lng) {
+        if (!(lat >= -90 && lat <= 90 && lng >= -180 && lng <= 180)) {
+            throw new IllegalArgumentException("target coordinates out of range");
+        }
+    }
+
+    // Not a record, so the cosine is worked out once rather than per subscriber checked
+    final class Circle implements TargetArea {
+
+        private final double lat;
+        private final double lng;
+        private final double radiusMeters;
+        private final double lngScale;
+        private final double radiusSquared;
+
+        public Circle(double lat, double lng, double radiusMeters) {
+            checkPoint(lat, lng);
+            if (!(radiusMeters > 0 && radiusMeters <= 1_000_000)) {
+                throw new IllegalArgumentException("targetRadiusMeters must be between 0 and 1000 km");
+            }
+            this.lat = lat;
+            this.lng = lng;
+            this.radiusMeters = radiusMeters;
+            this.lngScale = Math.cos(Math.toRadians(lat));
+            this.radiusSquared = radiusMeters * radiusMeters;
+        }
+
+        public double lat() {
+            return lat;
+        }
+
+        public double lng() {
+            return lng;
+        }
+
+        public double radiusMeters() {
+            return radiusMeters;
+        }
+
+        @Override
+        public BoundingBox bounds() {
+            double dLat = radiusMeters / METERS_PER_DEGREE;
+            double dLng = dLat / Math.max(0.01, lngScale);
+            return new BoundingBox(Math.max(-180, lng - dLng), Math.max(-90, lat - dLat),
+                    Math.min(180, lng + dLng), Math.min(90, lat + dLat));
+        }
+
+        @Override
+        public boolean contains(double pointLat, double pointLng) {
+            double dy = (pointLat - lat) * METERS_PER_DEGREE;
+            double dx = (pointLng - lng) * METERS_PER_DEGREE * lngScale;
+            return dx * dx + dy * dy <= radiusSquared;
+        }
+
+        @Override
+        public boolean intersects(BoundingBox viewport) {
+            // The viewport point nearest the centre
+            return contains(Math.max(viewport.minLat(), Math.min(viewport.maxLat(), lat)),
+                    Math.max(viewport.minLng(), Math.min(viewport.maxLng(), lng)));
+        }
+
+        @Override
+        public boolean covers(BoundingBox box) {
+            // The box corner farthest from the centre
+            return contains(box.maxLat() - lat > lat - box.minLat() ? box.maxLat() : box.minLat(),
+                    box.maxLng() - lng > lng - box.minLng() ? box.maxLng() : box.minLng());
+        }
+    }
+
+    // A class rather than a record so the bounds are worked out once, not per subscriber checked
+    final class Polygon implements TargetArea {
+
+        private final double[] lats;
+        private final double[] lngs;
+        private final BoundingBox bounds;
+
+        public Polygon(double[] lats, double[] lngs) {
+            if (lats.length < 3 || lats.length > 1000 || lngs.length != lats.length) {
+                throw new IllegalArgumentException("targetPolygon needs 3 to 1000 points");
+            }
+            double minLat = 90, maxLat = -90, minLng = 180, maxLng = -180;
+            for (int i = 0; i < lats.length; i++) {
+                checkPoint(lats[i], lngs[i]);
+                minLat = Math.min(minLat, lats[i]);
+                maxLat = Math.max(maxLat, lats[i]);
+                minLng = Math.min(minLng, lngs[i]);
+                maxLng = Math.max(maxLng, lngs[i]);
+            }
+            this.lats = lats.clone();
+            this.lngs = lngs.clone();
+            this.bounds = new BoundingBox(minLng, minLat, maxLng, maxLat);
+        }
+
+        @Override
+        public BoundingBox bounds() {
+            return bounds;
+        }
+
+        // Ray casting; points exactly on an edge may fall either way
+        @Override
+        public boolean contains(double lat, double lng) {
+            if (!bounds.contains(lat, lng)) return false;
+            boolean inside = false;
+            for (int i = 0, j = lats.length - 1; i < lats.length; j = i++) {
+                if ((lats[i] > lat) != (lats[j] > lat)
+                        && lng < (lngs[j] - lngs[i]) * (lat - lats[i]) / (lats[j] - lats[i]) + lngs[i]) {
+                    inside = !inside;
+                }
+            }
+            return inside;
+        }
+
+        @Override
+        public boolean intersects(BoundingBox viewport) {
+            if (bounds.maxLat() < viewport.minLat() || bounds.minLat() > viewport.maxLat()
+                    || bounds.maxLng() < viewport.minLng() || bounds.minLng() > viewport.maxLng()) {
+                return false;
+            }
+            // A corner of the polygon in the viewport, or the viewport (partly) inside the polygon
+            for (int i = 0; i < lats.length; i++) {
+                if (viewport.contains(lats[i], lngs[i])) return true;
+            }
+            if (contains(viewport.minLat(), viewport.minLng())) return true;
+            // Otherwise they overlap only if an edge of the polygon crosses an edge of the viewport
+            return edgeCrosses(viewport);
+        }
+
+        // Inside with no corner of the polygon in the box and no edge through it
+        @Override
+        public boolean covers(BoundingBox box) {
+            if (box.minLat() < bounds.minLat() || box.maxLat() > bounds.maxLat()
+                    || box.minLng() < bounds.minLng() || box.maxLng() > bounds.maxLng()) {
+                return false;
+            }
+            if (!contains(box.minLat(), box.minLng())) return false;
+            for (int i = 0; i < lats.length; i++) {
+                if (box.contains(lats[i], lngs[i])) return false;
+            }
+            return !edgeCrosses(box);
+        }
+
+        private boolean edgeCrosses(BoundingBox box) {
+            double s = box.minLat(), w = box.minLng(), n = box.maxLat(), e = box.maxLng();
+            for (int i = 0, j = lats.length - 1; i < lats.length; j = i++) {
+                if (segmentsCross(lats[j], lngs[j], lats[i], lngs[i], s, w, s, e)
+                        || segmentsCross(lats[j], lngs[j], lats[i], lngs[i], s, e, n, e)
+                        || segmentsCross(lats[j], lngs[j], lats[i], lngs[i], n, e, n, w)
+                        || segmentsCross(lats[j], lngs[j], lats[i], lngs[i], n, w, s, w)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private static boolean segmentsCross(double y1, double x1, double y2, double x2,
+                                             double y3, double x3, double y4, double x4) {
+            double d1 = cross(x3, y3, x4, y4, x1, y1);
+            double d2 = cross(x3, y3, x4, y4, x2, y2);
+            double d3 = cross(x1, y1, x2, y2, x3, y3);
+            double d4 = cross(x1, y1, x2, y2, x4, y4);
+            return ((d1 > 0) != (d2 > 0)) && ((d3 > 0) != (d4 > 0));
+        }
+
+        private static double cross(double ax, double ay, double bx, double by, double px, double py) {
+            return (bx - ax) * (py - ay) - (by - ay) * (px - ax);
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.ingest;
+
+/**
+ * Surge queue counters. Latencies are averages since startup; endToEnd runs from
+ * acceptance to the MySQL commit.
+ */
+public record IngestStats(boolean enabled, int queueDepth, int queueCapacity,
+                          long accepted, long rejected, long saved, long flushFailures, long deadLetters,
+                          int journalSegments, long fsyncs, double avgFsyncMillis,
+                          long batches, double avgBatchMillis,
+                          double avgEndToEndMillis, long maxEndToEndMillis) {
+}
@@ -0,0 +1,7 @@
+package ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.ingest;
+
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.model.HelpRequest;
+
+// What the journal stores for each accepted help request
+public record QueuedSubmission(String trackingId, long acceptedAtMillis, HelpRequest request) {
+}
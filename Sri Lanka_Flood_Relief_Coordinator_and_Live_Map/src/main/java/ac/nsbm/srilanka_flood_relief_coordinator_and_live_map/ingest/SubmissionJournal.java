@@ -0,0 +1,294 @@
+package ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.ingest;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only journal of accepted submissions, split into numbered segment files.
+ *
+ * append() returns only once its record has been fsynced. Appends are written by a single
+ * thread that takes everything queued since its last fsync and syncs it as one group, so under
+ * load many submissions share one fsync instead of paying for their own. A record is either
+ * withdrawn by a timed-out append() before the writer takes it, or written and acknowledged;
+ * never written after its caller was told it failed.
+ *
+ * A segment is deleted once it is no longer being written to and every record in it has been
+ * marked flushed. Whatever is left on disk at startup is handed back by replay().
+ *
+ * Record layout: int length, int CRC32 of the payload, payload. A torn record at the end of a
+ * segment (crash mid-write, so never acknowledged) ends replay of that segment.
+ */
+public class SubmissionJournal implements Closeable {
+
+    public record Record(long segment, byte[] payload) {
+    }
+
+    // taken is claimed once: by the writer to write the record, or by append() to withdraw it
+    private record PendingAppend(byte[] payload, CompletableFuture<Long> done, AtomicBoolean taken) {
+
+        PendingAppend(byte[] payload) {
+            this(payload, new CompletableFuture<>(), new AtomicBoolean());
+        }
+    }
+
+    private static final String PREFIX = "submissions-";
+    private static final String SUFFIX = ".log";
+    private static final int MAX_GROUP = 1024;
+    // Queued by close(); interrupting the writer instead would close the channel under it
+    private static final PendingAppend STOP = new PendingAppend(new byte[0]);
+
+    private final Path dir;
+    private final long segmentBytes;
+    private final LinkedBlockingQueue<PendingAppend> pending = new LinkedBlockingQueue<>();
+    private final Thread writer;
+    private volatile boolean closed;
+
+    // segment -> {appended, flushed}; guarded by this
+    private final TreeMap<Long, long[]> segments = new TreeMap<>();
+    private long activeSegment;
+    private FileChannel active;
+
+    private final LongAdder fsyncs = new LongAdder();
+    private final LongAdder fsyncNanos = new LongAdder();
+    private final List<Record> recovered;
+
+    public SubmissionJournal(Path dir, long segmentBytes) throws IOException {
+        this.dir = dir;
+        this.segmentBytes = segmentBytes;
+        Files.createDirectories(dir);
+
+        recovered = readExisting();
+        // Never append to a segment left by an earlier run; its tail may be torn
+        activeSegment = segments.isEmpty() ? 1 : segments.lastKey() + 1;
+        openActive();
+
+        writer = new Thread(this::writeLoop, "submission-journal");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    // Records left by the previous run, oldest first. Only meaningful right after construction.
+    public List<Record> replay() {
+        return recovered;
+    }
+
+    /**
+     * Appends a record and waits until it is durable. If the writer has not picked the record up
+     * within timeoutMillis (or the caller is interrupted) it is withdrawn and this throws; if the
+     * writer already has it, this waits for that write to finish instead, since the record may
+     * already be on disk.
+     *
+     * @return the segment holding the record, to pass to markFlushed later
+     * @throws IOException if the record was not written and never will be
+     */
+    public long append(byte[] payload, long timeoutMillis) throws IOException {
+        if (closed) throw new IOException("Journal is closed");
+        PendingAppend append = new PendingAppend(payload);
+        pending.add(append);
+        boolean interrupted = false;
+        try {
+            return append.done().get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            throw new IOException("Journal write failed", e.getCause());
+        } catch (InterruptedException | TimeoutException e) {
+            interrupted = e instanceof InterruptedException;
+            if (append.taken().compareAndSet(false, true)) {
+                pending.remove(append);
+                throw new IOException(interrupted ? "Interrupted while waiting for the journal" : "Journal write timed out", e);
+            }
+            try {
+                return append.done().join();
+            } catch (CompletionException failed) {
+                throw new IOException("Journal write failed", failed.getCause());
+            }
+        } finally {
+            if (interrupted) Thread.currentThread().interrupt();
+        }
+    }
+
+    // The record's data is safely in MySQL; its segment can go once all its records are
+    public synchronized void markFlushed(long segment) {
+        long[] counts = segments.get(segment);
+        if (counts == null) return;
+        counts[1]++;
+        deleteIfDone(segment, counts);
+    }
+
+    public synchronized int getSegmentCount() {
+        return segments.size();
+    }
+
+    public long getFsyncCount() {
+        return fsyncs.sum();
+    }
+
+    public double getAverageFsyncMillis() {
+        long count = fsyncs.sum();
+        return count == 0 ? 0 : fsyncNanos.sum() / 1_000_000.0 / count;
+    }
+
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        pending.add(STOP);
+        try {
+            writer.join(5_000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (this) {
+            active.close();
+        }
+        PendingAppend left;
+        while ((left = pending.poll()) != null) {
+            left.done().completeExceptionally(new IOException("Journal is closed"));
+        }
+    }
+
+    private void writeLoop() {
+        List<PendingAppend> group = new ArrayList<>();
+        boolean stopping = false;
+        while (!stopping) {
+            try {
+                group.add(pending.take());
+            } catch (InterruptedException e) {
+                break;
+            }
+            pending.drainTo(group, MAX_GROUP - 1);
+            stopping = group.remove(STOP);
+            // Skip appends whose callers gave up; from here on theirs cannot
+            group.removeIf(append -> !append.taken().compareAndSet(false, true));
+            if (group.isEmpty()) continue;
+            try {
+                long segment = writeGroup(group);
+                for (PendingAppend append : group) append.done().complete(segment);
+            } catch (IOException | RuntimeException e) {
+                for (PendingAppend append : group) append.done().completeExceptionally(e);
+            }
+            group.clear();
+        }
+    }
+
+    private long writeGroup(List<PendingAppend> group) throws IOException {
+        int bytes = 0;
+        for (PendingAppend append : group) bytes += 8 + append.payload().length;
+        ByteBuffer buffer = ByteBuffer.allocate(bytes);
+        CRC32 crc = new CRC32();
+        for (PendingAppend append : group) {
+            crc.reset();
+            crc.update(append.payload());
+            buffer.putInt(append.payload().length).putInt((int) crc.getValue()).put(append.payload());
+        }
+        buffer.flip();
+
+        synchronized (this) {
+            while (buffer.hasRemaining()) active.write(buffer);
+            long started = System.nanoTime();
+            active.force(false);
+            fsyncNanos.add(System.nanoTime() - started);
+            fsyncs.increment();
+
+            long segment = activeSegment;
+            segments.get(segment)[0] += group.size();
+            if (active.position() >= segmentBytes) roll();
+            return segment;
+        }
+    }
+
+    // Caller holds the lock
+    private void roll() throws IOException {
+        long finished = activeSegment;
+        active.close();
+        activeSegment++;
+        openActive();
+        deleteIfDone(finished, segments.get(finished));
+    }
+
+    private void openActive() throws IOException {
+        active = FileChannel.open(segmentPath(activeSegment),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        segments.put(activeSegment, new long[2]);
+    }
+
+    private void deleteIfDone(long segment, long[] counts) {
+        if (segment == activeSegment || counts[1] < counts[0]) return;
+        segments.remove(segment);
+        try {
+            Files.deleteIfExists(segmentPath(segment));
+        } catch (IOException ignored) {
+            // Left behind; replay skips rows that were already saved
+        }
+    }
+
+    private List<Record> readExisting() throws IOException {
+        Map<Long, Path> files = new TreeMap<>();
+        try (var listing = Files.list(dir)) {
+            listing.forEach(path -> {
+                String name = path.getFileName().toString();
+                if (name.startsWith(PREFIX) && name.endsWith(SUFFIX)) {
+                    try {
+                        files.put(Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length())), path);
+                    } catch (NumberFormatException ignored) {
+                        // Not one of ours
+                    }
+                }
+            });
+        }
+
+        List<Record> records = new ArrayList<>();
+        for (Map.Entry<Long, Path> file : files.entrySet()) {
+            long segment = file.getKey();
+            long count = 0;
+            try (InputStream raw = Files.newInputStream(file.getValue());
+                 DataInputStream in = new DataInputStream(new BufferedInputStream(raw))) {
+                CRC32 crc = new CRC32();
+                while (true) {
+                    int length = in.readInt();
+                    int checksum = in.readInt();
+                    if (length < 0 || length > 16 * 1024 * 1024) break;
+                    byte[] payload = in.readNBytes(length);
+                    if (payload.length < length) break;
+                    crc.reset();
+                    crc.update(payload);
+                    if ((int) crc.getValue() != checksum) break;
+                    records.add(new Record(segment, payload));
+                    count++;
+                }
+            } catch (EOFException endOfSegment) {
+                // Normal end, or a torn length/checksum header
+            }
+            if (count == 0) {
+                Files.deleteIfExists(file.getValue());
+            } else {
+                segments.put(segment, new long[]{count, 0});
+            }
+        }
+        return records;
+    }
+
+    private Path segmentPath(long segment) {
+        return dir.resolve(PREFIX + String.format("%010d", segment) + SUFFIX);
+    }
+}
@@ -0,0 +1,14 @@
+package ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.ingest;
+
+/**
+ * Returned with 202 Accepted in surge mode and by the tracking lookup.
+ * id is set once the request has been saved. FAILED means MySQL kept rejecting it and it was
+ * set aside in the dead-letter file, or, if that could not be written, left in the journal
+ * to be tried again after a restart.
+ */
+public record SubmissionReceipt(String trackingId, String status, Long id) {
+
+    public static final String QUEUED = "QUEUED";
+    public static final String SAVED = "SAVED";
+    public static final String FAILED = "FAILED";
+}
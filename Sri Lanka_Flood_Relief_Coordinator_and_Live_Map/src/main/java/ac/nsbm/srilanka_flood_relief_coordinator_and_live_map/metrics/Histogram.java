@@ -0,0 +1,55 @@
+package ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.metrics;
+
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Fixed-bucket histogram. Buckets are counted individually and made cumulative only when
+ * scraped, so an observation is one bucket search and three adder increments.
+ */
+public class Histogram {
+
+    private final double[] bounds;
+    private final LongAdder[] buckets;
+    private final LongAdder count = new LongAdder();
+    private final DoubleAdder sum = new DoubleAdder();
+
+    Histogram(double[] bounds) {
+        this.bounds = bounds.clone();
+        this.buckets = new LongAdder[bounds.length + 1];
+        for (int i = 0; i < buckets.length; i++) buckets[i] = new LongAdder();
+    }
+
+    public void observe(double value) {
+        int i = 0;
+        while (i < bounds.length && value > bounds[i]) i++;
+        buckets[i].increment();
+        count.increment();
+        sum.add(value);
+    }
+
+    public void observeNanos(long nanos) {
+        observe(nanos / 1e9);
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public double getSum() {
+        return sum.sum();
+    }
+
+    void writeTo(StringBuilder out, String name, String labels) {
+        String prefix = labels.isEmpty() ? "" : labels + ",";
+        long cumulative = 0;
+        for (int i = 0; i < bounds.length; i++) {
+            cumulative += buckets[i].sum();
+            MetricRegistry.sample(out, name + "_bucket", prefix + "le=\"" + MetricRegistry.format(bounds[i]) + "\"", cumulative);
+        }
+        cumulative += buckets[bounds.length].sum();
+        MetricRegistry.sample(out, name + "_bucket", prefix + "le=\"+Inf\"", cumulative);
+        MetricRegistry.sample(out, name + "_sum", labels, sum.sum());
+        MetricRegistry.sample(out, name + "_count", labels, cumulative);
+    }
+}
@@ -0,0 +1,34 @@
+package ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Events in the last 60 minutes, counted in one-minute slots. Each slot remembers which minute it
+ * holds, so slots from an earlier hour are skipped on read and reset on the next write.
+ */
+public class HourlyWindow {
+
+    private static final int SLOTS = 60;
+
+    private final AtomicLongArray counts = new AtomicLongArray(SLOTS);
+    private final AtomicLongArray minutes = new AtomicLongArray(SLOTS);
+
+    public void record(long nowMillis) {
+        long minute = nowMillis / 60_000;
+        int slot = (int) (minute % SLOTS);
+        long held = minutes.get(slot);
+        if (held != minute && minutes.compareAndSet(slot, held, minute)) {
+            counts.set(slot, 0);
+        }
+        counts.incrementAndGet(slot);
+    }
+
+    public long count(long nowMillis) {
+        long minute = nowMillis / 60_000;
+        long total = 0;
+        for (int slot = 0; slot < SLOTS; slot++) {
+            if (minute - minutes.get(slot) < SLOTS) total += counts.get(slot);
+        }
+        return total;
+    }
+}
@@ -0,0 +1,49 @@
+package ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.metrics;
+
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+
+/**
+ * Hikari pool occupancy and connection wait times. Threads waiting for a connection, and
+ * acquire times climbing towards the connection timeout, mean the pool is saturated.
+ */
+public class PoolMetricsTracker implements MetricsTrackerFactory {
+
+    private final MetricRegistry registry;
+
+    public PoolMetricsTracker(MetricRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public IMetricsTracker create(String poolName, PoolStats stats) {
+        registry.gauge("flood_db_pool_connections", "Connections in the pool by state", stats::getActiveConnections, "pool", poolName, "state", "active");
+        registry.gauge("flood_db_pool_connections", "Connections in the pool by state", stats::getIdleConnections, "pool", poolName, "state", "idle");
+        registry.gauge("flood_db_pool_max_connections", "Configured maximum pool size", stats::getMaxConnections, "pool", poolName);
+        registry.gauge("flood_db_pool_pending_threads", "Threads waiting for a connection", stats::getPendingThreads, "pool", poolName);
+
+        Histogram acquire = registry.histogram("flood_db_pool_acquire_seconds", "Time to get a connection from the pool",
+                MetricRegistry.LATENCY_BUCKETS, "pool", poolName);
+        Histogram usage = registry.histogram("flood_db_pool_usage_seconds", "Time a connection is held before being returned",
+                MetricRegistry.LATENCY_BUCKETS, "pool", poolName);
+        Counter timeouts = registry.counter("flood_db_pool_timeouts_total", "Connection requests that timed out", "pool", poolName);
+
+        return new IMetricsTracker() {
+            @Override
+            public void recordConnectionAcquiredNanos(long nanos) {
+                acquire.observeNanos(nanos);
+            }
+
+            @Override
+            public void recordConnectionUsageMillis(long millis) {
+                usage.observe(millis / 1000.0);
+            }
+
+            @Override
+            public void recordConnectionTimeout() {
+                timeouts.increment();
+            }
+        };
+    }
+}
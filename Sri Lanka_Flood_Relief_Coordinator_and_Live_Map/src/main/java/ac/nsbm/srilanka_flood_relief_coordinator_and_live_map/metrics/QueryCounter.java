@@ -0,0 +1,25 @@
+package ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.metrics;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Counts the SQL statements Hibernate prepares on each thread, so a repository call can tell
+ * how many it caused. Registered through hibernate.session_factory.statement_inspector;
+ * Hibernate creates the instance, hence the static counter.
+ */
+public class QueryCounter implements StatementInspector {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final ThreadLocal<long[]> STATEMENTS = ThreadLocal.withInitial(() -> new long[1]);
+
+    @Override
+    public String inspect(String sql) {
+        STATEMENTS.get()[0]++;
+        return sql;
+    }
+
+    public static long current() {
+        return STATEMENTS.get()[0];
+    }
+}
@@ -0,0 +1,54 @@
+package ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.metrics;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Times every call on one Spring Data repository and counts the statements it issued and the
+ * calls slower than the slow-query threshold, per repository method. Statements flushed later,
+ * at commit or by lazy loading, are not attributed to the call.
+ */
+public class RepositoryMetricsInterceptor implements MethodInterceptor {
+
+    private record Instruments(Histogram latency, Counter queries, Counter slow) {
+    }
+
+    private final MetricRegistry registry;
+    private final String repository;
+    private final long slowNanos;
+    private final Map<Method, Instruments> instruments = new ConcurrentHashMap<>();
+
+    public RepositoryMetricsInterceptor(MetricRegistry registry, String repository, long slowMillis) {
+        this.registry = registry;
+        this.repository = repository;
+        this.slowNanos = slowMillis * 1_000_000;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        long statementsBefore = QueryCounter.current();
+        long started = System.nanoTime();
+        try {
+            return invocation.proceed();
+        } finally {
+            long nanos = System.nanoTime() - started;
+            Instruments i = instruments.computeIfAbsent(invocation.getMethod(), this::register);
+            i.latency().observeNanos(nanos);
+            i.queries().add(QueryCounter.current() - statementsBefore);
+            if (nanos > slowNanos) i.slow().increment();
+        }
+    }
+
+    private Instruments register(Method method) {
+        String[] labels = {"repository", repository, "method", method.getName()};
+        return new Instruments(
+                registry.histogram("flood_repository_call_seconds", "Time spent in repository methods",
+                        MetricRegistry.LATENCY_BUCKETS, labels),
+                registry.counter("flood_repository_statements_total", "SQL statements issued during repository calls", labels),
+                registry.counter("flood_repository_slow_calls_total", "Repository calls slower than app.metrics.slow-query-ms", labels));
+    }
+}
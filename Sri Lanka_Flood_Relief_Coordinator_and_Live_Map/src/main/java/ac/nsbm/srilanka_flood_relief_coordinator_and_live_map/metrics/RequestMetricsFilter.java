@@ -0,0 +1,44 @@
+package ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.metrics;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Latency of every API request by method, route pattern and status. Runs ahead of Spring Security
+ * so requests it turns away (401, 403, 429) are counted too; they have no route and are labelled
+ * "unmatched". Streams are left out because their duration is the length of the subscription.
+ */
+public class RequestMetricsFilter extends OncePerRequestFilter {
+
+    private final MetricRegistry registry;
+
+    public RequestMetricsFilter(MetricRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        long started = System.nanoTime();
+        int status = 500;
+        try {
+            chain.doFilter(request, response);
+            status = response.getStatus();
+        } finally {
+            if (!request.isAsyncStarted()) {
+                Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+                registry.histogram("flood_http_request_seconds", "API request latency", MetricRegistry.LATENCY_BUCKETS,
+                                "method", request.getMethod(),
+                                "route", pattern == null ? "unmatched" : pattern.toString(),
+                                "status", Integer.toString(status))
+                        .observeNanos(System.nanoTime() - started);
+            }
+        }
+    }
+}
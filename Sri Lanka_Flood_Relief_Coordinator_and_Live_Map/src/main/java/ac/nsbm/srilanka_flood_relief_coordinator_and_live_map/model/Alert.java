@@ -3,9 +3,13 @@ package ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.model;
 import jakarta.persistence.*;
 import lombok.Data;
 import java.time.LocalDateTime;
+import java.util.List;
 
 @Entity
-@Table(name = "alerts")
+@Table(name = "alerts", indexes = {
+        @Index(name = "idx_alerts_change_version", columnList = "changeVersion"),
+        @Index(name = "idx_alerts_timestamp", columnList = "timestamp, id")
+})
 @Data
 public class Alert {
     @Id
@@ -21,4 +25,17 @@ public class Alert {
     private String source;
     private LocalDateTime timestamp;
     private String icon;
+
+    // Bumped on every write; /api/sync returns rows changed after a client's last version
+    private Long changeVersion;
+
+    // Optional target area, pushed live only to subscribers inside it: either a circle
+    // (targetLat, targetLng, targetRadiusMeters) or a polygon of [lat, lng] points. Neither = everyone.
+    private Double targetLat;
+    private Double targetLng;
+    private Double targetRadiusMeters;
+
+    @Convert(converter = LatLngListConverter.class)
+    @Column(columnDefinition = "TEXT")
+    private List<List<Double>> targetPolygon;
 }
\ No newline at end of file
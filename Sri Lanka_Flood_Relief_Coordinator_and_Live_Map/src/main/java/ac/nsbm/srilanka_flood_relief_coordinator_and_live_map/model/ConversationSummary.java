@@ -0,0 +1,26 @@
+package ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import java.time.LocalDateTime;
+
+// One row per (user, partner) chat thread, kept current by MessageService
+@Entity
+@Table(name = "conversation_summaries",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"username", "partner"}))
+@Data
+public class ConversationSummary {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    private String username;
+    private String partner;
+    private LocalDateTime lastActivity;
+
+    @Column(length = 120)
+    private String lastMessagePreview;
+
+    // Messages from partner that username has not read yet
+    private long unread;
+}
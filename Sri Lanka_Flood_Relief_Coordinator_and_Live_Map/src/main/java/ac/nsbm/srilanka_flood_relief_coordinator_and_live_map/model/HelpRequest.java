@@ -2,14 +2,22 @@ package ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.model;
 
 import jakarta.persistence.*;
 import lombok.Data;
+import org.hibernate.annotations.BatchSize;
+
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Entity
-@Table(name = "help_requests")
+@Table(name = "help_requests", indexes = {
+        @Index(name = "idx_help_requests_change_version", columnList = "changeVersion"),
+        @Index(name = "idx_help_requests_created_at", columnList = "createdAt, id")
+})
 @Data
 public class HelpRequest {
+    // Sequence ids (pooled-lo) let Hibernate batch inserts; bulk imports reserve blocks from the same table
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "help_requests_seq")
+    @SequenceGenerator(name = "help_requests_seq", sequenceName = "help_requests_seq", allocationSize = 50)
     private Long id;
 
     private String name;
@@ -17,9 +25,21 @@ public class HelpRequest {
     private double latitude;
     private double longitude;
 
+    // Loaded for a whole page of requests at once rather than one query per row
+    @BatchSize(size = 64)
     @ElementCollection
     private List<String> needs;
 
     @Column(length = 1000)
     private String details;
+
+    // Set by the server when the request is accepted; requests saved before this column existed have none
+    private LocalDateTime createdAt;
+
+    // Set for requests accepted in surge mode; lets a replayed journal entry recognise it was already saved
+    @Column(length = 36, unique = true)
+    private String trackingId;
+
+    // Bumped on every write; /api/sync returns rows changed after a client's last version
+    private Long changeVersion;
 }
\ No newline at end of file
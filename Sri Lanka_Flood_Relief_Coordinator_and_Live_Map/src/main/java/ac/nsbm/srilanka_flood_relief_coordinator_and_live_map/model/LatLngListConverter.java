@@ -0,0 +1,34 @@
+package ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.model;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Stores [lat, lng] points as "lat,lng;lat,lng;..." in one TEXT column
+@Converter
+public class LatLngListConverter implements AttributeConverter<List<List<Double>>, String> {
+
+    @Override
+    public String convertToDatabaseColumn(List<List<Double>> points) {
+        if (points == null || points.isEmpty()) return null;
+        StringBuilder text = new StringBuilder();
+        for (List<Double> point : points) {
+            if (!text.isEmpty()) text.append(';');
+            text.append(point.get(0)).append(',').append(point.get(1));
+        }
+        return text.toString();
+    }
+
+    @Override
+    public List<List<Double>> convertToEntityAttribute(String text) {
+        if (text == null || text.isBlank()) return null;
+        List<List<Double>> points = new ArrayList<>();
+        for (String pair : text.split(";")) {
+            String[] parts = pair.split(",");
+            points.add(List.of(Double.parseDouble(parts[0]), Double.parseDouble(parts[1])));
+        }
+        return points;
+    }
+}
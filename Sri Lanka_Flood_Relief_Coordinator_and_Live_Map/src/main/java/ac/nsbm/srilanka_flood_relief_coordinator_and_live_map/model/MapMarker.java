@@ -3,13 +3,27 @@ package ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.model;
 import jakarta.persistence.*;
 import lombok.Data;
 import java.time.LocalDateTime;
+import java.util.Locale;
+import java.util.Set;
 
 @Entity
-@Table(name = "map_markers")
+// Schema and indexes are owned by the Flyway migrations in db/migration; the index list here mirrors them
+@Table(name = "map_markers", indexes = {
+        @Index(name = "idx_map_markers_change_version", columnList = "changeVersion"),
+        @Index(name = "idx_map_markers_status_timestamp", columnList = "status, timestamp, id"),
+        @Index(name = "idx_map_markers_submitted_by", columnList = "submittedBy, timestamp")
+})
 @Data
 public class MapMarker {
+    // The values of the ENUM columns; anything else is rejected before it reaches MySQL
+    public static final Set<String> TYPES = Set.of("flood", "landslide", "road-block", "safe-zone", "rescue-needed", "medical", "other");
+    public static final Set<String> SEVERITIES = Set.of("low", "medium", "high", "critical");
+    public static final Set<String> STATUSES = Set.of("pending", "approved", "rejected");
+
+    // Sequence ids (pooled-lo) let Hibernate batch inserts; bulk imports reserve blocks from the same table
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "map_markers_seq")
+    @SequenceGenerator(name = "map_markers_seq", sequenceName = "map_markers_seq", allocationSize = 50)
     private Long id;
 
     private String type; // "flood", "safe-zone", etc.
@@ -27,4 +41,33 @@ public class MapMarker {
 
     private Integer capacity;
     private String contact;
+
+    // Reports merged into this marker, including the first
+    private Integer corroborations = 1;
+
+    // Bumped on every write; /api/sync returns rows changed after a client's last version
+    private Long changeVersion;
+
+    /**
+     * Lower-cased type, or IllegalArgumentException if it is not one of TYPES.
+     */
+    public static String checkType(String type) {
+        String value = type == null ? null : type.trim().toLowerCase(Locale.ROOT);
+        if (value == null || !TYPES.contains(value)) {
+            throw new IllegalArgumentException("type must be one of " + String.join(", ", TYPES.stream().sorted().toList()));
+        }
+        return value;
+    }
+
+    /**
+     * Lower-cased severity (null stays null), or IllegalArgumentException if it is not one of SEVERITIES.
+     */
+    public static String checkSeverity(String severity) {
+        if (severity == null || severity.isBlank()) return null;
+        String value = severity.trim().toLowerCase(Locale.ROOT);
+        if (!SEVERITIES.contains(value)) {
+            throw new IllegalArgumentException("severity must be low, medium, high or critical");
+        }
+        return value;
+    }
 }
\ No newline at end of file
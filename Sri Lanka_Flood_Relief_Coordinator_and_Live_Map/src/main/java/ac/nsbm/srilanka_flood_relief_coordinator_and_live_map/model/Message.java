@@ -5,7 +5,11 @@ import lombok.Data;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "messages")
+@Table(name = "messages", indexes = {
+        @Index(name = "idx_messages_conversation", columnList = "sender, recipient, timestamp, id"),
+        @Index(name = "idx_messages_recipient_unread", columnList = "recipient, isRead, sender"),
+        @Index(name = "idx_messages_timestamp", columnList = "timestamp, id")
+})
 @Data
 public class Message {
     @Id
@@ -1,11 +1,12 @@
 package ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.Data;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "reports")
+@Table(name = "reports", indexes = @Index(name = "idx_reports_timestamp", columnList = "timestamp, id"))
 @Data
 public class Report {
     @Id
@@ -20,7 +21,14 @@ public class Report {
 
     private String fileName;
     private String fileType;
+    private Long fileSize;
 
+    // SHA-256 of the attachment in the AttachmentStore
+    @Column(length = 64)
+    private String attachmentHash;
+
+    // Legacy inline copy; AttachmentMigrationService moves these into the store and clears them
+    @JsonIgnore
     @Lob
     @Column(columnDefinition = "LONGBLOB")
     private byte[] data;
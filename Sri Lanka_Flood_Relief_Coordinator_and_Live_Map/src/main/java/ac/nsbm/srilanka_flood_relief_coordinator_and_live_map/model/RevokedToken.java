@@ -0,0 +1,27 @@
+package ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import org.springframework.data.domain.Persistable;
+
+import java.time.LocalDateTime;
+
+// A token id that must no longer be accepted. Kept until the token would have expired anyway.
+@Entity
+@Table(name = "revoked_tokens", indexes = @Index(name = "idx_revoked_tokens_expires_at", columnList = "expiresAt"))
+@Data
+public class RevokedToken implements Persistable<String> {
+    @Id
+    @Column(length = 36)
+    private String id;
+
+    private String username;
+    private LocalDateTime expiresAt;
+    private LocalDateTime revokedAt;
+
+    // Always an insert, so revoking the same token twice fails on the primary key instead of merging
+    @Override
+    public boolean isNew() {
+        return true;
+    }
+}
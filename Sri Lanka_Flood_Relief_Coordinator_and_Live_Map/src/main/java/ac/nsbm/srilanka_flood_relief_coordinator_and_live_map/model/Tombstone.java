@@ -0,0 +1,24 @@
+package ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import java.time.LocalDateTime;
+
+// Record of a deleted row, so /api/sync can tell clients to drop it
+@Entity
+@Table(name = "tombstones", indexes = @Index(name = "idx_tombstones_change_version", columnList = "changeVersion"))
+@Data
+public class Tombstone {
+    public static final String MARKER = "marker";
+    public static final String ALERT = "alert";
+    public static final String HELP_REQUEST = "helpRequest";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    private String entityType;
+    private Long entityId;
+    private Long changeVersion;
+    private LocalDateTime deletedAt;
+}
@@ -0,0 +1,14 @@
+package ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.moderation;
+
+import java.util.List;
+
+/**
+ * Markers to approve or reject in one go: either ids, or a filter of bbox (west,south,east,north)
+ * and/or types. Only markers currently in status from (default "pending") are touched.
+ *
+ * asOfVersion is the sync version the admin's list reflects. A marker written after it is
+ * reported as a conflict instead of being changed, so two admins cannot overrule each other
+ * unseen. Omit it to skip the check.
+ */
+public record BulkModerationRequest(List<Long> ids, String bbox, List<String> types, String from, Long asOfVersion) {
+}
@@ -0,0 +1,15 @@
+package ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.moderation;
+
+import java.util.List;
+
+/**
+ * Outcome of a bulk approve/reject. All changed markers share one change version.
+ * A conflict is a marker that was selected but had already been moderated or edited;
+ * it carries the marker's current status and version so the client can refresh it.
+ */
+public record BulkModerationResult(String status, long version, List<Long> changed,
+                                   List<Conflict> conflicts, List<Long> notFound) {
+
+    public record Conflict(Long id, String status, Long changeVersion) {
+    }
+}
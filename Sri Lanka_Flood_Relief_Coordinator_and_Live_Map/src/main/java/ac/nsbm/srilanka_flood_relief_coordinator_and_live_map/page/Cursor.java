@@ -0,0 +1,36 @@
+package ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.page;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Position in a list ordered by (timestamp DESC, id DESC): the key of the last row a client has seen.
+ * Sent to clients as an opaque URL-safe token. timestamp is null when that row has none.
+ */
+public record Cursor(LocalDateTime timestamp, Long id) {
+
+    public String encode() {
+        String raw = (timestamp == null ? "" : timestamp.toString()) + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Null or blank tokens mean "first page" and decode to null.
+     *
+     * @throws IllegalArgumentException if the token was not produced by {@link #encode()}
+     */
+    public static Cursor decode(String token) {
+        if (token == null || token.isBlank()) return null;
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int bar = raw.indexOf('|');
+            if (bar < 0) throw new IllegalArgumentException("Malformed cursor");
+            LocalDateTime timestamp = bar == 0 ? null : LocalDateTime.parse(raw.substring(0, bar));
+            return new Cursor(timestamp, Long.parseLong(raw.substring(bar + 1)));
+        } catch (DateTimeParseException | NumberFormatException e) {
+            throw new IllegalArgumentException("Malformed cursor", e);
+        }
+    }
+}
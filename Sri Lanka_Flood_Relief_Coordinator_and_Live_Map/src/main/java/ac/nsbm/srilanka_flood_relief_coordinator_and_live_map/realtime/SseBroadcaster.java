@@ -0,0 +1,242 @@
+package ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.realtime;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Fans pre-rendered server-sent events out to many open connections.
+ *
+ * Every client owns a bounded buffer that is drained on a shared writer pool, so a slow
+ * connection only delays itself. A client whose buffer overflows, or whose write is still
+ * blocked at the pool's deadline, is dropped; the browser's EventSource reconnects on its
+ * own and starts again from a fresh snapshot.
+ */
+public class SseBroadcaster {
+
+    private static final Logger log = LoggerFactory.getLogger(SseBroadcaster.class);
+
+    /**
+     * Told about every event frame written to a client, with the time since the frame was built.
+     */
+    @FunctionalInterface
+    public interface DeliveryListener {
+        void delivered(Frame frame, long nanosSinceCreated);
+    }
+
+    private final String name;
+    private final int bufferSize;
+    private final SseWriterPool writers;
+    private final DeliveryListener deliveryListener;
+
+    private final Map<String, Set<Client>> clientsByKey = new ConcurrentHashMap<>();
+    private final AtomicLong droppedClients = new AtomicLong();
+
+    public SseBroadcaster(String name, int bufferSize, SseWriterPool writers) {
+        this(name, bufferSize, writers, null);
+    }
+
+    public SseBroadcaster(String name, int bufferSize, SseWriterPool writers, DeliveryListener deliveryListener) {
+        this.name = name;
+        this.bufferSize = bufferSize;
+        this.writers = writers;
+        this.deliveryListener = deliveryListener;
+    }
+
+    /**
+     * Opens a stream for the given key (a username, or any id the caller routes by).
+     * The client is registered before the initial frames are produced, so nothing
+     * broadcast in between is lost; those frames are queued in front of it.
+     */
+    public SseEmitter register(String key, long timeoutMillis, Supplier<List<Frame>> initialFrames) {
+        return register(key, timeoutMillis, initialFrames, null);
+    }
+
+    // As above; onClose runs once when this client goes away, however it goes
+    public SseEmitter register(String key, long timeoutMillis, Supplier<List<Frame>> initialFrames, Runnable onClose) {
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Client client = new Client(key, emitter, onClose);
+
+        emitter.onCompletion(() -> remove(client));
+        emitter.onTimeout(() -> remove(client));
+        emitter.onError(e -> remove(client));
+
+        clientsByKey.computeIfAbsent(key, k -> ConcurrentHashMap.newKeySet()).add(client);
+        client.prepend(initialFrames.get());
+        return emitter;
+    }
+
+    public void broadcast(Frame frame) {
+        for (Set<Client> clients : clientsByKey.values()) {
+            for (Client client : clients) {
+                client.enqueue(frame);
+            }
+        }
+    }
+
+    public void sendTo(String key, Frame frame) {
+        if (key == null) return;
+        Set<Client> clients = clientsByKey.get(key);
+        if (clients == null) return;
+        for (Client client : clients) {
+            client.enqueue(frame);
+        }
+    }
+
+    public boolean isConnected(String key) {
+        if (key == null) return false;
+        Set<Client> clients = clientsByKey.get(key);
+        return clients != null && !clients.isEmpty();
+    }
+
+    public int getClientCount() {
+        int count = 0;
+        for (Set<Client> clients : clientsByKey.values()) {
+            count += clients.size();
+        }
+        return count;
+    }
+
+    public long getDroppedClients() {
+        return droppedClients.get();
+    }
+
+    private void remove(Client client) {
+        client.closed = true;
+        clientsByKey.computeIfPresent(client.key, (k, clients) -> {
+            clients.remove(client);
+            return clients.isEmpty() ? null : clients;
+        });
+        if (client.onClose != null && client.closeHandled.compareAndSet(false, true)) {
+            client.onClose.run();
+        }
+    }
+
+    /**
+     * One SSE message, rendered once and shared by every client it is sent to.
+     */
+    public record Frame(String name, Set<DataWithMediaType> parts, long createdNanos) {
+
+        public static Frame event(String eventName, long id, String json) {
+            return new Frame(eventName, SseEmitter.event()
+                    .id(Long.toString(id))
+                    .name(eventName)
+                    .data(json, MediaType.APPLICATION_JSON)
+                    .build(), System.nanoTime());
+        }
+
+        public static Frame comment(String text) {
+            return new Frame(null, SseEmitter.event().comment(text).build(), System.nanoTime());
+        }
+    }
+
+    private final class Client {
+        private final String key;
+        private final SseEmitter emitter;
+        private final Runnable onClose;
+        private final ArrayDeque<Frame> buffer = new ArrayDeque<>();
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private final AtomicBoolean closeHandled = new AtomicBoolean();
+        private volatile boolean closed;
+
+        private Client(String key, SseEmitter emitter, Runnable onClose) {
+            this.key = key;
+            this.emitter = emitter;
+            this.onClose = onClose;
+        }
+
+        void prepend(List<Frame> frames) {
+            synchronized (buffer) {
+                for (int i = frames.size() - 1; i >= 0; i--) {
+                    buffer.addFirst(frames.get(i));
+                }
+            }
+            scheduleDrain();
+        }
+
+        void enqueue(Frame frame) {
+            boolean overflow = false;
+            synchronized (buffer) {
+                if (closed) return;
+                if (buffer.size() >= bufferSize) {
+                    buffer.clear();
+                    closed = true;
+                    overflow = true;
+                } else {
+                    buffer.addLast(frame);
+                }
+            }
+            if (overflow) {
+                droppedClients.incrementAndGet();
+                log.debug("Dropping slow {} client '{}'", name, key);
+                remove(this);
+                emitter.complete();
+                return;
+            }
+            scheduleDrain();
+        }
+
+        // Runs on the pool's watchdog while the write is still blocked, so the emitter is left alone
+        // here; the writer completes it if the write ever returns
+        void stalled() {
+            synchronized (buffer) {
+                buffer.clear();
+                closed = true;
+            }
+            droppedClients.incrementAndGet();
+            log.debug("Dropping stalled {} client '{}'", name, key);
+            remove(this);
+        }
+
+        private void scheduleDrain() {
+            if (draining.compareAndSet(false, true)) {
+                writers.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            try {
+                while (true) {
+                    Frame next;
+                    synchronized (buffer) {
+                        next = buffer.pollFirst();
+                        if (next == null) {
+                            draining.set(false);
+                            return;
+                        }
+                    }
+                    SseWriterPool.Write write = writers.begin(this::stalled);
+                    try {
+                        emitter.send(next.parts());
+                    } finally {
+                        writers.end(write);
+                    }
+                    if (closed) {
+                        draining.set(false);
+                        emitter.complete();
+                        return;
+                    }
+                    if (deliveryListener != null && next.name() != null) {
+                        deliveryListener.delivered(next, System.nanoTime() - next.createdNanos());
+                    }
+                }
+            } catch (IOException | IllegalStateException e) {
+                // Connection went away mid-write; the container will also fire onError
+                draining.set(false);
+                remove(this);
+            }
+        }
+    }
+}
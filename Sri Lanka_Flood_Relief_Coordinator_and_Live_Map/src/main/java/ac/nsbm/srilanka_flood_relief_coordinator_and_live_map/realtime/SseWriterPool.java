@@ -0,0 +1,129 @@
+package ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.realtime;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Threads that write SSE frames, with a deadline on every write.
+ *
+ * A servlet write blocks until the client's socket takes the bytes, which for a stalled or
+ * half-open connection is only when the container's own timeout ends it. A watchdog looks
+ * at the writes in progress; one past the deadline has its client dropped (so nothing more
+ * is queued for it) and its thread written off: the pool starts a replacement, so the other
+ * clients keep being served while the stuck write waits for the container to give up. The
+ * replacements go away again as stuck writes return, and are capped at maxThreads.
+ */
+public class SseWriterPool implements Executor {
+
+    private static final Logger log = LoggerFactory.getLogger(SseWriterPool.class);
+
+    private final int threads;
+    private final int maxThreads;
+    private final long deadlineNanos;
+    private final ThreadPoolExecutor executor;
+    private final ScheduledExecutorService watchdog;
+
+    private final Set<Write> writes = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger stalled = new AtomicInteger();
+    private final AtomicLong stalledTotal = new AtomicLong();
+
+    public SseWriterPool(int threads, int maxThreads, long deadlineMillis) {
+        this.threads = threads;
+        this.maxThreads = Math.max(threads, maxThreads);
+        this.deadlineNanos = TimeUnit.MILLISECONDS.toNanos(deadlineMillis);
+        AtomicInteger count = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, this.maxThreads, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), r -> {
+            Thread thread = new Thread(r, "sse-writer-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.watchdog = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "sse-writer-watchdog");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long period = Math.max(50, deadlineMillis / 4);
+        watchdog.scheduleWithFixedDelay(this::checkDeadlines, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        executor.execute(task);
+    }
+
+    // Brackets one blocking write; onStall runs on the watchdog if the write passes the deadline
+    Write begin(Runnable onStall) {
+        Write write = new Write(System.nanoTime(), onStall);
+        writes.add(write);
+        return write;
+    }
+
+    void end(Write write) {
+        writes.remove(write);
+        synchronized (write) {
+            write.done = true;
+            if (write.stalled) resize(stalled.decrementAndGet());
+        }
+    }
+
+    public int getStalledWrites() {
+        return stalled.get();
+    }
+
+    public long getStalledWritesTotal() {
+        return stalledTotal.get();
+    }
+
+    public void shutdown() {
+        watchdog.shutdownNow();
+        executor.shutdownNow();
+    }
+
+    void checkDeadlines() {
+        long now = System.nanoTime();
+        for (Write write : writes) {
+            if (now - write.startedNanos <= deadlineNanos) continue;
+            synchronized (write) {
+                if (write.done || write.stalled) continue;
+                write.stalled = true;
+                stalledTotal.incrementAndGet();
+                resize(stalled.incrementAndGet());
+            }
+            try {
+                write.onStall.run();
+            } catch (RuntimeException e) {
+                log.warn("Dropping a stalled SSE client failed", e);
+            }
+        }
+    }
+
+    // One extra thread for each write stuck past the deadline
+    private void resize(int stuck) {
+        synchronized (executor) {
+            executor.setCorePoolSize(Math.min(threads + stuck, maxThreads));
+        }
+    }
+
+    static final class Write {
+        private final long startedNanos;
+        private final Runnable onStall;
+        private boolean done;
+        private boolean stalled;
+
+        private Write(long startedNanos, Runnable onStall) {
+            this.startedNanos = startedNanos;
+            this.onStall = onStall;
+        }
+    }
+}
@@ -1,9 +1,27 @@
 package ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.repository;
 
 import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.model.Alert;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface AlertRepository extends JpaRepository<Alert, Long> {
     List<Alert> findAllByOrderByTimestampDesc();
-}
\ No newline at end of file
+
+    List<Alert> findAllByOrderByTimestampDescIdDesc(Limit limit);
+
+    @Query("SELECT a FROM Alert a WHERE a.timestamp < :timestamp OR (a.timestamp = :timestamp AND a.id < :id) " +
+            "ORDER BY a.timestamp DESC, a.id DESC")
+    List<Alert> findAfter(LocalDateTime timestamp, Long id, Limit limit);
+
+    // Delta sync: rows written in (since, upTo]
+    List<Alert> findByChangeVersionGreaterThanAndChangeVersionLessThanEqualOrderByChangeVersionAsc(long since, long upTo);
+
+    boolean existsByChangeVersionGreaterThanAndChangeVersionLessThanEqual(long since, long upTo);
+
+    @Query("SELECT COALESCE(MAX(a.changeVersion), 0) FROM Alert a")
+    long findMaxChangeVersion();
+}
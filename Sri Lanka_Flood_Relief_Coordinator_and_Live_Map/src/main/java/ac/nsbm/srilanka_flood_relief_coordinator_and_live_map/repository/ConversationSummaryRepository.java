@@ -0,0 +1,34 @@
+package ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.repository;
+
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.model.ConversationSummary;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface ConversationSummaryRepository extends JpaRepository<ConversationSummary, Long> {
+
+    List<ConversationSummary> findByUsername(String username);
+
+    // Creates the thread or moves it forward in one statement, so instances never overwrite each
+    // other's counts. The preview only changes for a message at least as new as the current one.
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO conversation_summaries (username, partner, last_activity, last_message_preview, unread) " +
+            "VALUES (:username, :partner, :lastActivity, :preview, :unread) ON DUPLICATE KEY UPDATE " +
+            "last_message_preview = IF(last_activity IS NULL OR VALUES(last_activity) >= last_activity, " +
+            "VALUES(last_message_preview), last_message_preview), " +
+            "last_activity = GREATEST(COALESCE(last_activity, VALUES(last_activity)), VALUES(last_activity)), " +
+            "unread = unread + VALUES(unread)", nativeQuery = true)
+    int recordActivity(String username, String partner, LocalDateTime lastActivity, String preview, long unread);
+
+    // Takes off exactly the messages just marked read; one that arrived meanwhile still counts
+    @Modifying
+    @Transactional
+    @Query("UPDATE ConversationSummary s SET s.unread = CASE WHEN s.unread > :read THEN s.unread - :read ELSE 0 END " +
+            "WHERE s.username = :username AND s.partner = :partner")
+    int markRead(String username, String partner, long read);
+}
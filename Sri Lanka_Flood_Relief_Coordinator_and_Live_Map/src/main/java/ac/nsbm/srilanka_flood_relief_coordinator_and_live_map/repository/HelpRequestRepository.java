@@ -1,7 +1,52 @@
 package ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.repository;
 
 import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.model.HelpRequest;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 
 public interface HelpRequestRepository extends JpaRepository<HelpRequest, Long> {
-}
\ No newline at end of file
+
+    // Fetches needs in the same query, so the results stay usable outside a session
+    @Query("SELECT DISTINCT h FROM HelpRequest h LEFT JOIN FETCH h.needs")
+    List<HelpRequest> findAllWithNeeds();
+
+    // Newest first by (created_at, id). Pooled-lo ids are handed out in blocks per node, so the id alone
+    // is not creation order. Rows from before created_at existed sort last (MySQL puts NULLs last in DESC).
+    List<HelpRequest> findAllByOrderByCreatedAtDescIdDesc(Limit limit);
+
+    @Query("SELECT h FROM HelpRequest h WHERE h.createdAt < :createdAt " +
+            "OR (h.createdAt = :createdAt AND h.id < :id) OR h.createdAt IS NULL " +
+            "ORDER BY h.createdAt DESC, h.id DESC")
+    List<HelpRequest> findAfter(LocalDateTime createdAt, Long id, Limit limit);
+
+    // Past the last dated row: the undated ones, by id
+    @Query("SELECT h FROM HelpRequest h WHERE h.createdAt IS NULL AND h.id < :id ORDER BY h.id DESC")
+    List<HelpRequest> findUndatedAfter(Long id, Limit limit);
+
+    // Delta sync: rows written in (since, upTo]
+    List<HelpRequest> findByChangeVersionGreaterThanAndChangeVersionLessThanEqualOrderByChangeVersionAsc(long since, long upTo);
+
+    @Query("SELECT COALESCE(MAX(h.changeVersion), 0) FROM HelpRequest h")
+    long findMaxChangeVersion();
+
+    Optional<HelpRequest> findByTrackingId(String trackingId);
+
+    // Analytics backfill: how often each need was asked for, without loading any request
+    @Query("SELECT n, COUNT(h) FROM HelpRequest h JOIN h.needs n GROUP BY n")
+    List<Object[]> countByNeed();
+
+    // Analytics backfill: requests per hour as (year, month, day, hour, count)
+    @Query("SELECT year(h.createdAt), month(h.createdAt), day(h.createdAt), hour(h.createdAt), COUNT(h) FROM HelpRequest h " +
+            "WHERE h.createdAt IS NOT NULL " +
+            "GROUP BY year(h.createdAt), month(h.createdAt), day(h.createdAt), hour(h.createdAt)")
+    List<Object[]> countByHour();
+
+    @Query("SELECT h.trackingId FROM HelpRequest h WHERE h.trackingId IN :trackingIds")
+    List<String> findExistingTrackingIds(Collection<String> trackingIds);
+}
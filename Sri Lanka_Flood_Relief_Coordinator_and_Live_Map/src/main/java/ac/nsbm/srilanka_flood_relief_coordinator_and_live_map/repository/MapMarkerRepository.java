@@ -1,13 +1,74 @@
 package ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.repository;
 
 import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.model.MapMarker;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 public interface MapMarkerRepository extends JpaRepository<MapMarker, Long> {
     // Fetch verified markers for the public map
     List<MapMarker> findByStatus(String status);
 
+    // Moderation backlog gauge
+    long countByStatus(String status);
+
+    // Analytics backfill: one row per (status, type, severity) combination with its count
+    @Query("SELECT m.status, m.type, m.severity, COUNT(m) FROM MapMarker m GROUP BY m.status, m.type, m.severity")
+    List<Object[]> countByStatusTypeAndSeverity();
+
+    // Analytics backfill: reports per hour as (year, month, day, hour, count)
+    @Query("SELECT year(m.timestamp), month(m.timestamp), day(m.timestamp), hour(m.timestamp), COUNT(m) FROM MapMarker m " +
+            "WHERE m.timestamp IS NOT NULL " +
+            "GROUP BY year(m.timestamp), month(m.timestamp), day(m.timestamp), hour(m.timestamp)")
+    List<Object[]> countReportsByHour();
+
+    // Dedup index warm-up: reports still inside the window
+    List<MapMarker> findByStatusInAndTimestampAfter(Collection<String> statuses, LocalDateTime since);
+
+    // A duplicate report: one atomic increment, so concurrent duplicates are all counted
+    @Modifying(clearAutomatically = true)
+    @Transactional
+    @Query("UPDATE MapMarker m SET m.corroborations = COALESCE(m.corroborations, 1) + 1, m.changeVersion = :version " +
+            "WHERE m.id = :id AND m.status <> 'rejected'")
+    int addCorroboration(Long id, long version);
+
+    // Bulk moderation: ids of markers in one status inside a box, optionally of the given types only
+    @Query("SELECT m.id FROM MapMarker m WHERE m.status = :status " +
+            "AND m.lat BETWEEN :minLat AND :maxLat AND m.lng BETWEEN :minLng AND :maxLng " +
+            "AND (:anyType = true OR m.type IN :types) ORDER BY m.id")
+    List<Long> findIdsByStatusInBox(String status, double minLat, double maxLat, double minLng, double maxLng,
+                                    boolean anyType, Collection<String> types, Limit limit);
+
+    // Bulk moderation: one statement for the whole batch. A row that left status from, or was
+    // written after the caller's asOf version, is left alone and reported as a conflict.
+    @Modifying(clearAutomatically = true)
+    @Transactional
+    @Query("UPDATE MapMarker m SET m.status = :to, m.changeVersion = :version " +
+            "WHERE m.id IN :ids AND m.status = :from AND COALESCE(m.changeVersion, 0) <= :asOf")
+    int updateStatus(Collection<Long> ids, String from, String to, long asOf, long version);
+
+    List<MapMarker> findByChangeVersion(long version);
+
     // Fetch a specific user's markers (to show them their pending reports)
     List<MapMarker> findBySubmittedBy(String submittedBy);
-}
\ No newline at end of file
+
+    // Keyset pages of the moderation lists, newest first
+    List<MapMarker> findByStatusOrderByTimestampDescIdDesc(String status, Limit limit);
+
+    @Query("SELECT m FROM MapMarker m WHERE m.status = :status AND " +
+            "(m.timestamp < :timestamp OR (m.timestamp = :timestamp AND m.id < :id)) " +
+            "ORDER BY m.timestamp DESC, m.id DESC")
+    List<MapMarker> findByStatusAfter(String status, LocalDateTime timestamp, Long id, Limit limit);
+
+    // Delta sync: rows written in (since, upTo]
+    List<MapMarker> findByChangeVersionGreaterThanAndChangeVersionLessThanEqualOrderByChangeVersionAsc(long since, long upTo);
+
+    @Query("SELECT COALESCE(MAX(m.changeVersion), 0) FROM MapMarker m")
+    long findMaxChangeVersion();
+}
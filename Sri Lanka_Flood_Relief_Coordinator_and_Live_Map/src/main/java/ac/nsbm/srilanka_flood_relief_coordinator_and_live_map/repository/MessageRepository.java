@@ -1,10 +1,14 @@
 package ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.repository;
 
 import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.model.Message;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 public interface MessageRepository extends JpaRepository<Message, Long> {
@@ -15,16 +19,52 @@ public interface MessageRepository extends JpaRepository<Message, Long> {
             "ORDER BY m.timestamp ASC")
     List<Message> findConversation(String user1, String user2);
 
+    // Keyset pages of a conversation, newest first; the cursor walks back in time
+    @Query("SELECT m FROM Message m WHERE " +
+            "((m.sender = :user1 AND m.recipient = :user2) OR " +
+            "(m.sender = :user2 AND m.recipient = :user1)) " +
+            "ORDER BY m.timestamp DESC, m.id DESC")
+    List<Message> findConversationLatest(String user1, String user2, Limit limit);
+
+    @Query("SELECT m FROM Message m WHERE " +
+            "((m.sender = :user1 AND m.recipient = :user2) OR " +
+            "(m.sender = :user2 AND m.recipient = :user1)) AND " +
+            "(m.timestamp < :timestamp OR (m.timestamp = :timestamp AND m.id < :id)) " +
+            "ORDER BY m.timestamp DESC, m.id DESC")
+    List<Message> findConversationBefore(String user1, String user2, LocalDateTime timestamp, Long id, Limit limit);
+
+    // Polling: what arrived since the client's newest message, oldest first
+    @Query("SELECT m FROM Message m WHERE " +
+            "((m.sender = :user1 AND m.recipient = :user2) OR " +
+            "(m.sender = :user2 AND m.recipient = :user1)) AND m.id > :id " +
+            "ORDER BY m.id ASC")
+    List<Message> findConversationAfter(String user1, String user2, Long id, Limit limit);
+
+    // Candidates for the cold archive. Unread messages stay, so unread counts and markMessagesAsRead keep working.
+    @Query("SELECT m FROM Message m WHERE m.timestamp < :cutoff AND m.isRead = true " +
+            "AND m.sender IS NOT NULL AND m.recipient IS NOT NULL ORDER BY m.timestamp ASC, m.id ASC")
+    List<Message> findArchivable(LocalDateTime cutoff, Limit limit);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM Message m WHERE m.id IN :ids")
+    int deleteByIdIn(Collection<Long> ids);
+
     @Query("SELECT m FROM Message m WHERE m.sender = :user OR m.recipient = :user")
     List<Message> findAllMessagesByUser(String user);
 
-    // Used to sort chats by most recent activity
+    // Used once to backfill conversation_summaries on an existing database
     List<Message> findAllByOrderByTimestampDesc();
 
     long countByRecipientAndIsReadFalse(String recipient);
 
+    // Seeds the in-memory unread counters at startup: rows of [recipient, count]
+    @Query("SELECT m.recipient, COUNT(m) FROM Message m WHERE m.isRead = false AND m.recipient IS NOT NULL GROUP BY m.recipient")
+    List<Object[]> countUnreadGroupedByRecipient();
+
+    // Returns how many messages were flipped to read
     @Modifying
     @Transactional
-    @Query("UPDATE Message m SET m.isRead = true WHERE m.sender = :partner AND m.recipient = :currentUser")
-    void markMessagesAsRead(String partner, String currentUser);
+    @Query("UPDATE Message m SET m.isRead = true WHERE m.sender = :partner AND m.recipient = :currentUser AND m.isRead = false")
+    int markMessagesAsRead(String partner, String currentUser);
 }
\ No newline at end of file
@@ -1,9 +1,27 @@
 package ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.repository;
 
 import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.model.Report;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface ReportRepository extends JpaRepository<Report, Long> {
-    List<Report> findAllByOrderByTimestampDesc();
-}
\ No newline at end of file
+
+    String SUMMARY = "SELECT new ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.repository.ReportSummary(" +
+            "r.id, r.title, r.description, r.submittedBy, r.timestamp, r.fileName, r.fileType, r.fileSize) FROM Report r ";
+
+    // Never selects the data column
+    @Query(SUMMARY + "ORDER BY r.timestamp DESC, r.id DESC")
+    List<ReportSummary> findSummaries();
+
+    @Query(SUMMARY + "ORDER BY r.timestamp DESC, r.id DESC")
+    List<ReportSummary> findSummaries(Limit limit);
+
+    // Keyset: rows strictly after (timestamp, id) in (timestamp DESC, id DESC) order
+    @Query(SUMMARY + "WHERE r.timestamp < :timestamp OR (r.timestamp = :timestamp AND r.id < :id) " +
+            "ORDER BY r.timestamp DESC, r.id DESC")
+    List<ReportSummary> findSummariesAfter(LocalDateTime timestamp, Long id, Limit limit);
+}
@@ -0,0 +1,10 @@
+package ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Report without its attachment, for list views.
+ */
+public record ReportSummary(Long id, String title, String description, String submittedBy,
+                            LocalDateTime timestamp, String fileName, String fileType, Long fileSize) {
+}
@@ -0,0 +1,16 @@
+package ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.repository;
+
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.model.Tombstone;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
+
+public interface TombstoneRepository extends JpaRepository<Tombstone, Long> {
+    List<Tombstone> findByChangeVersionGreaterThanAndChangeVersionLessThanEqualOrderByChangeVersionAsc(long since, long upTo);
+
+    boolean existsByEntityTypeAndChangeVersionGreaterThanAndChangeVersionLessThanEqual(String entityType, long since, long upTo);
+
+    @Query("SELECT COALESCE(MAX(t.changeVersion), 0) FROM Tombstone t")
+    long findMaxChangeVersion();
+}
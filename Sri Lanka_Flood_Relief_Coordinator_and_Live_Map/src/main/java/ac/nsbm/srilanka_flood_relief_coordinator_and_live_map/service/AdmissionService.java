@@ -0,0 +1,164 @@
+package ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.service;
+
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.admission.AdaptiveLimit;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.admission.AdmissionRejectedException;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.admission.AdmissionStats;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.admission.PriorityClass;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.admission.TokenBucket;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Admission control for API requests, per PriorityClass. A request is admitted when
+ *  1. the caller's token bucket for its class has a token (else 429),
+ *  2. its class is below its adaptive concurrency limit (else 503), and
+ *  3. the server as a whole is below the class's share of app.admission.global-concurrency (else 503).
+ *
+ * Rejections are immediate rather than queued, so a shed request costs almost nothing and
+ * the threads and connections stay with the classes that are admitted.
+ */
+@Service
+public class AdmissionService {
+
+    private static final long IDLE_BUCKET_NANOS = TimeUnit.MINUTES.toNanos(10);
+
+    @Autowired
+    private Environment environment;
+
+    @Value("${app.admission.enabled:true}")
+    private boolean enabled;
+
+    // Kept below Tomcat's 200 worker threads so a few are always free
+    @Value("${app.admission.global-concurrency:150}")
+    private int globalConcurrency;
+
+    @Value("${app.admission.retry-after-seconds:1}")
+    private long retryAfterSeconds;
+
+    private final Map<PriorityClass, ClassState> classes = new EnumMap<>(PriorityClass.class);
+    private final AtomicInteger globalInFlight = new AtomicInteger();
+
+    private static final class ClassState {
+        final PriorityClass priorityClass;
+        final int maxConcurrency;
+        final double ratePerSecond;
+        final int burst;
+        final int globalBudget;
+        final AdaptiveLimit limit;
+        final AtomicInteger inFlight = new AtomicInteger();
+        final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+        final LongAdder admitted = new LongAdder();
+        final LongAdder shed = new LongAdder();
+        final LongAdder rateLimited = new LongAdder();
+        final LongAdder latencyNanos = new LongAdder();
+
+        ClassState(PriorityClass priorityClass, int minConcurrency, int maxConcurrency,
+                   double ratePerSecond, int burst, int globalBudget, long maxLatencyMillis) {
+            this.priorityClass = priorityClass;
+            this.maxConcurrency = maxConcurrency;
+            this.ratePerSecond = ratePerSecond;
+            this.burst = burst;
+            this.globalBudget = globalBudget;
+            this.limit = new AdaptiveLimit(minConcurrency, maxConcurrency, TimeUnit.MILLISECONDS.toNanos(maxLatencyMillis));
+        }
+    }
+
+    // A slot held by an admitted request; release it exactly once when the request is done
+    public final class Ticket {
+        private final ClassState state;
+        private final long started = System.nanoTime();
+
+        private Ticket(ClassState state) {
+            this.state = state;
+        }
+
+        public void release(boolean failed) {
+            long rtt = System.nanoTime() - started;
+            int inFlight = state.inFlight.getAndDecrement();
+            globalInFlight.decrementAndGet();
+            state.latencyNanos.add(rtt);
+            state.limit.onSample(rtt, inFlight, failed);
+        }
+    }
+
+    @PostConstruct
+    void configure() {
+        for (PriorityClass c : PriorityClass.values()) {
+            String prefix = "app.admission." + c.getPropertyKey() + ".";
+            int max = environment.getProperty(prefix + "max-concurrency", Integer.class, c.getMaxConcurrency());
+            int min = Math.min(max, environment.getProperty(prefix + "min-concurrency", Integer.class, c.getMinConcurrency()));
+            double rate = environment.getProperty(prefix + "rate-per-second", Double.class, c.getRatePerSecond());
+            int burst = environment.getProperty(prefix + "burst", Integer.class, c.getBurst());
+            double share = environment.getProperty(prefix + "global-share", Double.class, c.getGlobalShare());
+            long maxLatency = environment.getProperty(prefix + "max-latency-ms", Long.class, c.getMaxLatencyMillis());
+            classes.put(c, new ClassState(c, min, max, rate, burst, (int) Math.ceil(globalConcurrency * share), maxLatency));
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * @throws AdmissionRejectedException with 429 when the caller is over its rate, or 503 when
+     *                                    the class or the server has no capacity to spare
+     */
+    public Ticket admit(PriorityClass priorityClass, String caller) {
+        ClassState state = classes.get(priorityClass);
+
+        long now = System.nanoTime();
+        long wait = state.buckets.computeIfAbsent(caller, k -> new TokenBucket(state.ratePerSecond, state.burst, now)).tryAcquire(now);
+        if (wait > 0) {
+            state.rateLimited.increment();
+            throw new AdmissionRejectedException(429, Math.max(1, TimeUnit.NANOSECONDS.toSeconds(wait) + 1),
+                    "Too many requests, slow down");
+        }
+
+        if (state.inFlight.incrementAndGet() > state.limit.getLimit()) {
+            state.inFlight.decrementAndGet();
+            state.shed.increment();
+            throw new AdmissionRejectedException(503, retryAfterSeconds, "Server busy, try again shortly");
+        }
+        if (globalInFlight.incrementAndGet() > state.globalBudget) {
+            globalInFlight.decrementAndGet();
+            state.inFlight.decrementAndGet();
+            state.shed.increment();
+            throw new AdmissionRejectedException(503, retryAfterSeconds, "Server busy, try again shortly");
+        }
+        state.admitted.increment();
+        return new Ticket(state);
+    }
+
+    public List<AdmissionStats> getStats() {
+        List<AdmissionStats> stats = new ArrayList<>();
+        for (ClassState s : classes.values()) {
+            long admitted = s.admitted.sum();
+            stats.add(new AdmissionStats(s.priorityClass.name(), s.limit.getLimit(), s.maxConcurrency, s.inFlight.get(),
+                    admitted, s.shed.sum(), s.rateLimited.sum(),
+                    admitted == 0 ? 0 : s.latencyNanos.sum() / 1_000_000.0 / admitted, s.buckets.size()));
+        }
+        return stats;
+    }
+
+    // Forget callers that have been quiet long enough for their bucket to be full again
+    @Scheduled(fixedDelay = 60_000)
+    public void evictIdleBuckets() {
+        long now = System.nanoTime();
+        for (ClassState s : classes.values()) {
+            s.buckets.values().removeIf(bucket -> now - bucket.getLastUsed() > IDLE_BUCKET_NANOS);
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.service;
+
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.event.AlertChangedEvent;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.index.BoundingBox;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.index.SubscriberAreaIndex;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.index.TargetArea;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.metrics.Counter;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.metrics.Histogram;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.metrics.MetricRegistry;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.model.Alert;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.realtime.SseBroadcaster;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.realtime.SseBroadcaster.Frame;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.realtime.SseWriterPool;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import tools.jackson.databind.ObjectMapper;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Live alert stream. A subscriber may register its location or the map viewport it is
+ * looking at; an alert with a target area is pushed only to subscribers located inside it
+ * or looking at part of it, an alert without one to everyone connected.
+ */
+@Service
+public class AlertFeedService {
+
+    private static final long STREAM_TIMEOUT_MS = 30 * 60 * 1000L;
+    // Matching is in-memory, so these buckets go well below a millisecond
+    private static final double[] MATCH_BUCKETS = {0.0001, 0.00025, 0.0005, 0.001, 0.0025, 0.005, 0.01, 0.025, 0.05, 0.1};
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MetricRegistry registry;
+
+    private final SseBroadcaster broadcaster;
+    private final SubscriberAreaIndex areas = new SubscriberAreaIndex();
+    private final AtomicLong sequence = new AtomicLong();
+
+    private Counter pushedTargeted;
+    private Counter pushedEveryone;
+    private Counter recipients;
+    private Counter deliveries;
+    private Histogram matchSeconds;
+    private Histogram deliverySeconds;
+
+    public AlertFeedService(SseWriterPool sseWriterPool,
+                            @Value("${app.realtime.client-buffer:256}") int clientBuffer) {
+        this.broadcaster = new SseBroadcaster("alert-feed", clientBuffer, sseWriterPool, this::onDelivered);
+    }
+
+    @PostConstruct
+    void registerMetrics() {
+        pushedTargeted = registry.counter("flood_alerts_pushed_total", "Alerts pushed on the live stream", "target", "area");
+        pushedEveryone = registry.counter("flood_alerts_pushed_total", "Alerts pushed on the live stream", "target", "everyone");
+        recipients = registry.counter("flood_alert_recipients_total", "Alert frames queued for subscribers");
+        deliveries = registry.counter("flood_alert_deliveries_total", "Alert frames written to subscribers");
+        matchSeconds = registry.histogram("flood_alert_match_seconds",
+                "Time to find the subscribers inside an alert's target area", MATCH_BUCKETS);
+        deliverySeconds = registry.histogram("flood_alert_delivery_seconds",
+                "Time from an alert being saved to it being written to a subscriber", MetricRegistry.LATENCY_BUCKETS);
+        registry.gauge("flood_alert_subscribers", "Open alert streams", broadcaster::getClientCount);
+        registry.gauge("flood_alert_subscribers_located", "Open alert streams with a location or viewport", areas::size);
+    }
+
+    /**
+     * Opens a stream. The first event, "subscribed", carries the id to update the location with.
+     *
+     * @throws IllegalArgumentException if the location or viewport is malformed
+     */
+    public SseEmitter subscribe(Double lat, Double lng, String bbox) {
+        String id = UUID.randomUUID().toString();
+        // Placed before registering, so the close callback always finds the entry to remove
+        place(id, lat, lng, bbox);
+        return broadcaster.register(id, STREAM_TIMEOUT_MS,
+                () -> List.of(Frame.event("subscribed", sequence.get(), objectMapper.writeValueAsString(Map.of("id", id)))),
+                () -> areas.remove(id));
+    }
+
+    /**
+     * Moves an open subscription to a new location or viewport; both null clears it.
+     *
+     * @return false if no stream with that id is open
+     * @throws IllegalArgumentException if the location or viewport is malformed
+     */
+    public boolean updateArea(String id, Double lat, Double lng, String bbox) {
+        if (!broadcaster.isConnected(id)) return false;
+        place(id, lat, lng, bbox);
+        // Closed while we were placing it: its close callback may already have run
+        if (!broadcaster.isConnected(id)) {
+            areas.remove(id);
+            return false;
+        }
+        return true;
+    }
+
+    @EventListener
+    public void onAlertChanged(AlertChangedEvent event) {
+        if (event.isDeleted()) {
+            broadcaster.broadcast(Frame.event("remove", sequence.incrementAndGet(),
+                    objectMapper.writeValueAsString(Map.of("id", event.alertId()))));
+            return;
+        }
+
+        Alert alert = event.alert();
+        Frame frame = Frame.event("alert", sequence.incrementAndGet(), objectMapper.writeValueAsString(alert));
+        TargetArea area = TargetArea.of(alert);
+        if (area == null) {
+            recipients.add(broadcaster.getClientCount());
+            broadcaster.broadcast(frame);
+            pushedEveryone.increment();
+            return;
+        }
+
+        long started = System.nanoTime();
+        List<String> matched = areas.match(area);
+        matchSeconds.observeNanos(System.nanoTime() - started);
+        for (String id : matched) {
+            broadcaster.sendTo(id, frame);
+        }
+        recipients.add(matched.size());
+        pushedTargeted.increment();
+    }
+
+    // Keeps idle connections open through proxies and flushes out dead ones
+    @Scheduled(fixedDelayString = "${app.realtime.heartbeat-ms:25000}")
+    public void heartbeat() {
+        broadcaster.broadcast(Frame.comment("ping"));
+    }
+
+    public int getSubscriberCount() {
+        return broadcaster.getClientCount();
+    }
+
+    private void onDelivered(Frame frame, long nanosSinceCreated) {
+        if (!"alert".equals(frame.name())) return;
+        deliveries.increment();
+        deliverySeconds.observeNanos(nanosSinceCreated);
+    }
+
+    private void place(String id, Double lat, Double lng, String bbox) {
+        if (bbox != null && !bbox.isBlank()) {
+            if (lat != null || lng != null) throw new IllegalArgumentException("give either lat/lng or bbox, not both");
+            areas.placeViewport(id, BoundingBox.parse(bbox));
+        } else if (lat != null || lng != null) {
+            if (lat == null || lng == null || !(lat >= -90 && lat <= 90 && lng >= -180 && lng <= 180)) {
+                throw new IllegalArgumentException("lat and lng must both be given and in range");
+            }
+            areas.placeAt(id, lat, lng);
+        } else {
+            areas.remove(id);
+        }
+    }
+}
@@ -1,8 +1,16 @@
 package ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.service;
 
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.datasource.ReplicaRead;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.event.AlertChangedEvent;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.index.TargetArea;
 import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.model.Alert;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.model.Tombstone;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.page.Cursor;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.page.CursorPage;
 import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.repository.AlertRepository;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.repository.TombstoneRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import java.time.LocalDateTime;
 import java.util.List;
@@ -13,21 +21,57 @@ public class AlertService {
     @Autowired
     private AlertRepository alertRepository;
 
+    @Autowired
+    private TombstoneRepository tombstoneRepository;
+
+    @Autowired
+    private ChangeVersionService changeVersionService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    // Primary: FeedSnapshotService rebuilds its cached feed from this right after an alert changes
     public List<Alert> getAllAlerts() {
         return alertRepository.findAllByOrderByTimestampDesc();
     }
 
+    @ReplicaRead
+    public CursorPage<Alert> getAlertPage(String cursor, int limit) {
+        Cursor after = Cursor.decode(cursor);
+        List<Alert> rows = after == null
+                ? alertRepository.findAllByOrderByTimestampDescIdDesc(CursorPage.fetchLimit(limit))
+                : alertRepository.findAfter(after.timestamp(), after.id(), CursorPage.fetchLimit(limit));
+        return CursorPage.of(rows, limit, a -> new Cursor(a.getTimestamp(), a.getId()));
+    }
+
+    // Throws IllegalArgumentException for an incomplete or out-of-range target area
     public Alert createAlert(Alert alert) {
+        TargetArea.of(alert);
         if (alert.getTimestamp() == null) {
             alert.setTimestamp(LocalDateTime.now());
         }
-        return alertRepository.save(alert);
+        Alert saved = changeVersionService.write(version -> {
+            alert.setChangeVersion(version);
+            return alertRepository.save(alert);
+        });
+        eventPublisher.publishEvent(new AlertChangedEvent(saved.getId(), saved));
+        return saved;
     }
 
     // --- ADDED THIS METHOD ---
     public void deleteAlert(Long id) {
         if (alertRepository.existsById(id)) {
-            alertRepository.deleteById(id);
+            // One transaction: the alert never disappears without the tombstone that tells clients to drop it
+            changeVersionService.write(version -> {
+                alertRepository.deleteById(id);
+                Tombstone tombstone = new Tombstone();
+                tombstone.setEntityType(Tombstone.ALERT);
+                tombstone.setEntityId(id);
+                tombstone.setChangeVersion(version);
+                tombstone.setDeletedAt(LocalDateTime.now());
+                return tombstoneRepository.save(tombstone);
+            });
+            eventPublisher.publishEvent(new AlertChangedEvent(id, null));
         } else {
             throw new RuntimeException("Alert not found with id: " + id);
         }
@@ -0,0 +1,167 @@
+package ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.service;
+
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.analytics.AnalyticsSummary;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.analytics.TimeBucket;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.event.HelpRequestSubmittedEvent;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.event.MarkerChangedEvent;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.model.HelpRequest;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.model.MapMarker;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.repository.HelpRequestRepository;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.repository.MapMarkerRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Running totals for the analysis dashboard. Built from a few GROUP BY queries at startup and
+ * then kept current from marker and help request events, so a summary never reads a row.
+ * Markers are never edited other than by status changes, which is all the incident counts track.
+ */
+@Service
+public class AnalyticsService {
+
+    private static final Set<String> HIGH_RISK = Set.of("high", "critical");
+
+    @Autowired
+    private MapMarkerRepository mapMarkerRepository;
+
+    @Autowired
+    private HelpRequestRepository helpRequestRepository;
+
+    // All guarded by this; updates are a few map increments and summaries copy a few dozen entries
+    private final Map<String, Long> markersByStatus = new HashMap<>();
+    private final Map<String, Long> incidentsByType = new HashMap<>();
+    private final Map<String, Long> incidentsBySeverity = new HashMap<>();
+    private final Map<String, Long> needs = new HashMap<>();
+    private long helpRequests;
+    // Hour start -> {markers reported, help requests}; about 9k entries per year of activity
+    private final NavigableMap<LocalDateTime, long[]> hourly = new TreeMap<>();
+
+    @PostConstruct
+    synchronized void load() {
+        for (Object[] row : mapMarkerRepository.countByStatusTypeAndSeverity()) {
+            String status = (String) row[0];
+            long count = (Long) row[3];
+            add(markersByStatus, statusKey(status), count);
+            if ("approved".equals(status)) {
+                add(incidentsByType, typeKey((String) row[1]), count);
+                add(incidentsBySeverity, severityKey((String) row[2]), count);
+            }
+        }
+        for (Object[] row : mapMarkerRepository.countReportsByHour()) {
+            bucket(hourOf(row))[0] += (Long) row[4];
+        }
+
+        helpRequests = helpRequestRepository.count();
+        for (Object[] row : helpRequestRepository.countByNeed()) {
+            add(needs, needKey((String) row[0]), (Long) row[1]);
+        }
+        for (Object[] row : helpRequestRepository.countByHour()) {
+            bucket(hourOf(row))[1] += (Long) row[4];
+        }
+    }
+
+    @EventListener
+    public synchronized void onMarkerChanged(MarkerChangedEvent event) {
+        MapMarker marker = event.marker();
+        String previous = event.previousStatus();
+        if (previous == null && marker.getTimestamp() != null) {
+            bucket(marker.getTimestamp().truncatedTo(ChronoUnit.HOURS))[0]++;
+        }
+        if (!Objects.equals(previous, marker.getStatus())) {
+            if (previous != null) add(markersByStatus, statusKey(previous), -1);
+            add(markersByStatus, statusKey(marker.getStatus()), 1);
+        }
+        long delta = event.isApproved() == event.wasApproved() ? 0 : event.isApproved() ? 1 : -1;
+        if (delta != 0) {
+            add(incidentsByType, typeKey(marker.getType()), delta);
+            add(incidentsBySeverity, severityKey(marker.getSeverity()), delta);
+        }
+    }
+
+    @EventListener
+    public synchronized void onHelpRequestSubmitted(HelpRequestSubmittedEvent event) {
+        HelpRequest request = event.request();
+        helpRequests++;
+        if (request.getNeeds() != null) {
+            for (String need : request.getNeeds()) add(needs, needKey(need), 1);
+        }
+        if (request.getCreatedAt() != null) {
+            bucket(request.getCreatedAt().truncatedTo(ChronoUnit.HOURS))[1]++;
+        }
+    }
+
+    /**
+     * @param hours how many hourly buckets to return, ending with the current hour
+     * @param days  how many daily buckets to return, ending with today
+     */
+    public synchronized AnalyticsSummary getSummary(int hours, int days) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime thisHour = now.truncatedTo(ChronoUnit.HOURS);
+        List<TimeBucket> hourlyBuckets = new ArrayList<>(hours);
+        for (LocalDateTime start = thisHour.minusHours(hours - 1); !start.isAfter(thisHour); start = start.plusHours(1)) {
+            long[] counts = hourly.getOrDefault(start, new long[2]);
+            hourlyBuckets.add(new TimeBucket(start, counts[0], counts[1]));
+        }
+
+        LocalDateTime today = now.truncatedTo(ChronoUnit.DAYS);
+        List<TimeBucket> dailyBuckets = new ArrayList<>(days);
+        for (LocalDateTime start = today.minusDays(days - 1); !start.isAfter(today); start = start.plusDays(1)) {
+            long reported = 0, requested = 0;
+            for (long[] counts : hourly.subMap(start, true, start.plusDays(1), false).values()) {
+                reported += counts[0];
+                requested += counts[1];
+            }
+            dailyBuckets.add(new TimeBucket(start, reported, requested));
+        }
+
+        long highRisk = 0;
+        for (String severity : HIGH_RISK) highRisk += incidentsBySeverity.getOrDefault(severity, 0L);
+        return new AnalyticsSummary(markersByStatus.getOrDefault("approved", 0L), highRisk,
+                Map.copyOf(incidentsByType), Map.copyOf(incidentsBySeverity), Map.copyOf(markersByStatus),
+                helpRequests, Map.copyOf(needs), hourlyBuckets, dailyBuckets, now);
+    }
+
+    private long[] bucket(LocalDateTime hour) {
+        return hourly.computeIfAbsent(hour, h -> new long[2]);
+    }
+
+    private static LocalDateTime hourOf(Object[] row) {
+        return LocalDateTime.of(((Number) row[0]).intValue(), ((Number) row[1]).intValue(),
+                ((Number) row[2]).intValue(), ((Number) row[3]).intValue(), 0);
+    }
+
+    // Zero counts are dropped so a category disappears once its last marker is rejected
+    private static void add(Map<String, Long> counts, String key, long delta) {
+        counts.merge(key, delta, (a, b) -> a + b == 0 ? null : a + b);
+    }
+
+    private static String statusKey(String status) {
+        return status == null ? "unknown" : status;
+    }
+
+    private static String typeKey(String type) {
+        return type == null || type.isBlank() ? "other" : type;
+    }
+
+    private static String needKey(String need) {
+        return need == null || need.isBlank() ? "general" : need;
+    }
+
+    private static String severityKey(String severity) {
+        return severity == null || severity.isBlank() ? "unspecified" : severity.toLowerCase(Locale.ROOT);
+    }
+}
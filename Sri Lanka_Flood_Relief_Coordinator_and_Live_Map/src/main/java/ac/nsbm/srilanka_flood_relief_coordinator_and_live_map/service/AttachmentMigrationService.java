@@ -0,0 +1,79 @@
+package ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.service;
+
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.storage.AttachmentStore;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.storage.StoredAttachment;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.List;
+
+/**
+ * Moves attachments still held in reports.data into the AttachmentStore, one row at a time,
+ * then clears the column. Safe to rerun: only rows without an attachment_hash are touched,
+ * and the store dedupes. Downloads fall back to the inline copy until a row is migrated.
+ * Once no rows are left the data column can be dropped.
+ */
+@Service
+public class AttachmentMigrationService {
+
+    private static final Logger log = LoggerFactory.getLogger(AttachmentMigrationService.class);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private AttachmentStore attachmentStore;
+
+    @Value("${app.attachments.migrate-legacy:true}")
+    private boolean enabled;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrateOnStartup() {
+        if (!enabled) return;
+        int migrated = migrateLegacyBlobs();
+        if (migrated > 0) {
+            log.info("Moved {} report attachments from reports.data into the attachment store", migrated);
+        }
+    }
+
+    public int migrateLegacyBlobs() {
+        List<Long> ids = jdbcTemplate.queryForList(
+                "SELECT id FROM reports WHERE data IS NOT NULL AND attachment_hash IS NULL", Long.class);
+
+        int migrated = 0;
+        for (Long id : ids) {
+            try {
+                if (migrate(id)) migrated++;
+            } catch (RuntimeException e) {
+                log.warn("Could not migrate attachment of report {}", id, e);
+            }
+        }
+        return migrated;
+    }
+
+    private boolean migrate(Long id) {
+        // Read the blob as a stream so only this row's bytes pass through the store
+        StoredAttachment stored = jdbcTemplate.query("SELECT data FROM reports WHERE id = ?", rs -> {
+            if (!rs.next()) return null;
+            try (InputStream in = rs.getBinaryStream(1)) {
+                return in == null ? null : attachmentStore.save(in);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, id);
+        if (stored == null) return false;
+
+        return jdbcTemplate.update(
+                "UPDATE reports SET attachment_hash = ?, file_size = ?, data = NULL WHERE id = ? AND attachment_hash IS NULL",
+                stored.sha256(), stored.size(), id) == 1;
+    }
+}
@@ -0,0 +1,167 @@
+package ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.service;
+
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.bulk.BulkInserts;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.bulk.IdBlockAllocator;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.bulk.ImportFormat;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.bulk.ImportReport;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.bulk.ImportRow;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.bulk.ImportRows;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.bulk.RowReader;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.event.HelpRequestSubmittedEvent;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.event.MarkerChangedEvent;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.model.HelpRequest;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.model.MapMarker;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import tools.jackson.databind.ObjectMapper;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Streams NDJSON/CSV uploads into help_requests and map_markers.
+ *
+ * Rows are validated one at a time and written in batches of BATCH_SIZE: ids for a batch are
+ * reserved from the entities' sequence tables in one round trip, then the rows go out as JDBC
+ * batch inserts in a single transaction. A failing batch is reported against each of its rows
+ * and the import carries on with the next one.
+ */
+@Service
+public class BulkImportService {
+
+    static final int BATCH_SIZE = 500;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    // Also guarantees the schema exists before the sequences are aligned below
+    @Autowired
+    private ChangeVersionService changeVersionService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private IdBlockAllocator helpRequestIds;
+    private IdBlockAllocator markerIds;
+    private BulkInserts inserts;
+    private TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    void init() throws SQLException {
+        helpRequestIds = new IdBlockAllocator(dataSource, "help_requests_seq", "help_requests");
+        markerIds = new IdBlockAllocator(dataSource, "map_markers_seq", "map_markers");
+        // Existing rows were numbered by AUTO_INCREMENT; start the sequences after them
+        helpRequestIds.alignWithExistingRows();
+        markerIds.alignWithExistingRows();
+        inserts = new BulkInserts(jdbcTemplate);
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public ImportReport importHelpRequests(InputStream in, ImportFormat format) throws IOException {
+        return run(in, format, ImportRows::toHelpRequest, batch -> {
+            long firstId = reserve(helpRequestIds, batch.size());
+            for (int i = 0; i < batch.size(); i++) batch.get(i).setId(firstId + i);
+            changeVersionService.write(v -> {
+                batch.forEach(r -> r.setChangeVersion(v));
+                transactionTemplate.executeWithoutResult(status -> inserts.insertHelpRequests(batch));
+                return v;
+            });
+            batch.forEach(r -> eventPublisher.publishEvent(new HelpRequestSubmittedEvent(r)));
+        });
+    }
+
+    public ImportReport importMarkers(InputStream in, ImportFormat format, String submittedBy) throws IOException {
+        return run(in, format, row -> ImportRows.toMarker(row, submittedBy), batch -> {
+            long firstId = reserve(markerIds, batch.size());
+            for (int i = 0; i < batch.size(); i++) batch.get(i).setId(firstId + i);
+            changeVersionService.write(v -> {
+                batch.forEach(m -> m.setChangeVersion(v));
+                transactionTemplate.executeWithoutResult(status -> inserts.insertMarkers(batch));
+                return v;
+            });
+            batch.forEach(m -> eventPublisher.publishEvent(new MarkerChangedEvent(m, null)));
+        });
+    }
+
+    private <T> ImportReport run(InputStream in, ImportFormat format,
+                                 Function<ImportRow, T> mapper, Consumer<List<T>> store) throws IOException {
+        long started = System.nanoTime();
+        long received = 0, imported = 0, rejected = 0;
+        List<ImportReport.RowError> errors = new ArrayList<>();
+
+        List<T> batch = new ArrayList<>(BATCH_SIZE);
+        List<Long> batchRows = new ArrayList<>(BATCH_SIZE);
+
+        try (RowReader reader = RowReader.open(format, in, objectMapper)) {
+            ImportRow row;
+            while (true) {
+                row = reader.next();
+                if (row != null) {
+                    received++;
+                    try {
+                        batch.add(mapper.apply(row));
+                        batchRows.add(row.number());
+                    } catch (IllegalArgumentException e) {
+                        rejected++;
+                        addError(errors, row.number(), e.getMessage());
+                    }
+                }
+                if (batch.size() == BATCH_SIZE || (row == null && !batch.isEmpty())) {
+                    try {
+                        store.accept(batch);
+                        imported += batch.size();
+                    } catch (RuntimeException e) {
+                        rejected += batch.size();
+                        String message = "Batch not saved: " + rootMessage(e);
+                        for (Long number : batchRows) addError(errors, number, message);
+                    }
+                    batch = new ArrayList<>(BATCH_SIZE);
+                    batchRows.clear();
+                }
+                if (row == null) break;
+            }
+        }
+
+        long millis = (System.nanoTime() - started) / 1_000_000;
+        double rowsPerSecond = millis == 0 ? imported : imported * 1000.0 / millis;
+        return new ImportReport(received, imported, rejected, millis, rowsPerSecond,
+                errors, rejected > errors.size());
+    }
+
+    private static void addError(List<ImportReport.RowError> errors, long row, String message) {
+        if (errors.size() < ImportReport.MAX_ERRORS) errors.add(new ImportReport.RowError(row, message));
+    }
+
+    private static long reserve(IdBlockAllocator allocator, int count) {
+        try {
+            return allocator.reserve(count);
+        } catch (SQLException e) {
+            throw new RuntimeException("Could not reserve ids: " + e.getMessage(), e);
+        }
+    }
+
+    private static String rootMessage(Throwable e) {
+        while (e.getCause() != null && e.getCause() != e) e = e.getCause();
+        return e.getMessage() == null ? e.getClass().getSimpleName() : e.getMessage();
+    }
+}
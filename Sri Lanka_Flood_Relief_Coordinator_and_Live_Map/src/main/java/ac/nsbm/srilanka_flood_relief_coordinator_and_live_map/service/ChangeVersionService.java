@@ -0,0 +1,146 @@
+package ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.service;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.function.LongFunction;
+
+/**
+ * Hands out the global, monotonically increasing change versions used by /api/sync.
+ *
+ * Versions come from the change_version_seq row, shared by every instance. Taking one is a
+ * short transaction of its own, like IdBlockAllocator's reservations: it advances the row and
+ * records the version in change_version_lease, then commits, so writes never wait on each
+ * other's saves. The write deletes its lease in the transaction that saves its rows; a write
+ * that rolls back deletes it afterwards, and its version is never used.
+ *
+ * Writes therefore commit out of version order. The safe version is one below the oldest lease
+ * still open, on any instance: every version under it has committed or never will. A lease left
+ * behind by an instance that died mid-write is swept after app.sync.lease-timeout-ms, which must
+ * be longer than any versioned write takes.
+ */
+@Service
+public class ChangeVersionService {
+
+    private static final Logger log = LoggerFactory.getLogger(ChangeVersionService.class);
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${app.sync.lease-timeout-ms:60000}")
+    private long leaseTimeoutMillis;
+
+    private TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Runs a write with a fresh version, in a transaction that commits the write and closes the
+     * version's lease together (or joins the caller's). The write has committed when this
+     * returns, unless the caller's transaction is still open.
+     */
+    public <T> T write(LongFunction<T> write) {
+        long version = lease();
+        try {
+            return transactionTemplate.execute(status -> {
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCompletion(int completion) {
+                        if (completion != STATUS_COMMITTED) release(version);
+                    }
+                });
+                jdbcTemplate.update("DELETE FROM change_version_lease WHERE version = ?", version);
+                return write.apply(version);
+            });
+        } catch (RuntimeException | Error e) {
+            // Covers a failure before the synchronization was registered; releasing twice is harmless
+            release(version);
+            throw e;
+        }
+    }
+
+    // Highest version at or below which every write has committed or been abandoned, on any instance
+    public long getSafeVersion() {
+        return jdbcTemplate.queryForObject("SELECT COALESCE((SELECT MIN(version) FROM change_version_lease), " +
+                "(SELECT next_val FROM change_version_seq)) - 1", Long.class);
+    }
+
+    // Leases of writes that never finished (their instance died) would hold the safe version back for good
+    @Scheduled(fixedDelayString = "${app.sync.lease-sweep-ms:10000}")
+    public void sweepExpiredLeases() {
+        int swept = jdbcTemplate.update("DELETE FROM change_version_lease WHERE leased_at_ms < ?",
+                System.currentTimeMillis() - leaseTimeoutMillis);
+        if (swept > 0) {
+            log.warn("Dropped {} change version lease(s) older than {} ms; their writes never finished", swept, leaseTimeoutMillis);
+        }
+    }
+
+    // Own connection, committed at once: the sequence row is locked only for this
+    private long lease() {
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try {
+                long version;
+                try (Statement statement = connection.createStatement();
+                     ResultSet rs = statement.executeQuery("SELECT next_val FROM change_version_seq FOR UPDATE")) {
+                    if (!rs.next()) throw new SQLException("change_version_seq has no row");
+                    version = rs.getLong(1);
+                }
+                try (PreparedStatement update = connection.prepareStatement("UPDATE change_version_seq SET next_val = ?");
+                     PreparedStatement insert = connection.prepareStatement(
+                             "INSERT INTO change_version_lease (version, leased_at_ms) VALUES (?, ?)")) {
+                    update.setLong(1, version + 1);
+                    update.executeUpdate();
+                    insert.setLong(1, version);
+                    insert.setLong(2, System.currentTimeMillis());
+                    insert.executeUpdate();
+                }
+                connection.commit();
+                return version;
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            throw new DataAccessResourceFailureException("Could not take a change version", e);
+        }
+    }
+
+    // Failing here only delays the safe version until the sweep
+    private void release(long version) {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement delete = connection.prepareStatement("DELETE FROM change_version_lease WHERE version = ?")) {
+            connection.setAutoCommit(true);
+            delete.setLong(1, version);
+            delete.executeUpdate();
+        } catch (SQLException e) {
+            log.warn("Could not release change version {}; it holds the sync version back until swept", version, e);
+        }
+    }
+}
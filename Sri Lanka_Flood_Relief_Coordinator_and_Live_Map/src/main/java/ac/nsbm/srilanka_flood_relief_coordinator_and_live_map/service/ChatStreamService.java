@@ -0,0 +1,76 @@
+package ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.service;
+
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.event.MessageSentEvent;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.event.UnreadCountChangedEvent;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.model.Message;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.realtime.SseBroadcaster;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.realtime.SseBroadcaster.Frame;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.realtime.SseWriterPool;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import tools.jackson.databind.ObjectMapper;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Pushes new chat messages and unread totals to every open tab of the users involved
+@Service
+public class ChatStreamService {
+
+    private static final long STREAM_TIMEOUT_MS = 30 * 60 * 1000L;
+
+    @Autowired
+    private MessageService messageService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final SseBroadcaster broadcaster;
+    private final AtomicLong sequence = new AtomicLong();
+
+    public ChatStreamService(SseWriterPool sseWriterPool,
+                             @Value("${app.realtime.client-buffer:256}") int clientBuffer) {
+        this.broadcaster = new SseBroadcaster("chat", clientBuffer, sseWriterPool);
+    }
+
+    public SseEmitter subscribe(String username) {
+        return broadcaster.register(username, STREAM_TIMEOUT_MS,
+                () -> List.of(unreadFrame(messageService.getUnreadCount(username))));
+    }
+
+    @EventListener
+    public void onMessageSent(MessageSentEvent event) {
+        Message message = event.message();
+        Frame frame = Frame.event("message", sequence.incrementAndGet(), objectMapper.writeValueAsString(message));
+
+        // Sender gets it too, so their other open tabs stay in sync
+        broadcaster.sendTo(message.getSender(), frame);
+        if (message.getRecipient() != null && !message.getRecipient().equals(message.getSender())) {
+            broadcaster.sendTo(message.getRecipient(), frame);
+            broadcaster.sendTo(message.getRecipient(), unreadFrame(event.recipientUnread()));
+        }
+    }
+
+    @EventListener
+    public void onUnreadCountChanged(UnreadCountChangedEvent event) {
+        broadcaster.sendTo(event.username(), unreadFrame(event.unread()));
+    }
+
+    @Scheduled(fixedDelayString = "${app.realtime.heartbeat-ms:25000}")
+    public void heartbeat() {
+        broadcaster.broadcast(Frame.comment("ping"));
+    }
+
+    public int getActiveSessionCount() {
+        return broadcaster.getClientCount();
+    }
+
+    private Frame unreadFrame(long unread) {
+        return Frame.event("unread", sequence.incrementAndGet(), objectMapper.writeValueAsString(Map.of("count", unread)));
+    }
+}
@@ -0,0 +1,150 @@
+package ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.service;
+
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.model.ConversationSummary;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.model.Message;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.repository.ConversationSummaryRepository;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.repository.MessageRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Materialized chat partner list. Rows live in conversation_summaries, so listing a user's
+ * partners costs O(partners) instead of a scan of every message.
+ *
+ * Rows are only changed by single atomic statements, run in the caller's transaction (the one
+ * that saves or marks the messages), so every instance can write them. A user's list is cached
+ * here for app.chat.partners-cache-ms; local writes drop it at once, other instances' writes
+ * show once it expires.
+ */
+@Service
+public class ConversationSummaryService {
+
+    private static final int PREVIEW_LENGTH = 120;
+
+    private static final Comparator<ConversationSummary> MOST_RECENT_FIRST =
+            Comparator.comparing(ConversationSummary::getLastActivity,
+                    Comparator.nullsLast(Comparator.reverseOrder()));
+
+    @Autowired
+    private ConversationSummaryRepository summaryRepository;
+
+    @Autowired
+    private MessageRepository messageRepository;
+
+    @Value("${app.chat.partners-cache-ms:2000}")
+    private long cacheMillis;
+
+    // username -> that user's threads, most recent first, as last read from the table
+    private final Map<String, Cached> cache = new ConcurrentHashMap<>();
+
+    private record Cached(List<ConversationSummary> threads, long loadedAt) {
+    }
+
+    @PostConstruct
+    void load() {
+        if (summaryRepository.count() == 0 && messageRepository.count() > 0) {
+            backfillFromMessages();
+        }
+    }
+
+    // Both sides of the thread move to the top; only the recipient's unread grows
+    public void recordMessage(Message message) {
+        if (message.getSender() == null || message.getRecipient() == null) return;
+
+        touch(message.getSender(), message.getRecipient(), message, false);
+        if (!message.getRecipient().equals(message.getSender())) {
+            touch(message.getRecipient(), message.getSender(), message, true);
+        }
+    }
+
+    // read: how many of partner's messages were just marked read, in the caller's transaction
+    public void markRead(String username, String partner, long read) {
+        if (read <= 0) return;
+        summaryRepository.markRead(username, partner, read);
+        evict(username);
+    }
+
+    /**
+     * Partners of the given user, most recent activity first.
+     * A null size returns every partner.
+     */
+    public List<ConversationSummary> getPartners(String username, int page, Integer size) {
+        Cached cached = cache.get(username);
+        if (cached == null || System.currentTimeMillis() - cached.loadedAt() >= cacheMillis) {
+            long loadedAt = System.currentTimeMillis();
+            List<ConversationSummary> threads = new ArrayList<>(summaryRepository.findByUsername(username));
+            threads.sort(MOST_RECENT_FIRST);
+            cached = new Cached(List.copyOf(threads), loadedAt);
+            cache.put(username, cached);
+        }
+
+        List<ConversationSummary> sorted = cached.threads();
+        if (size == null) return sorted;
+        int pageSize = Math.max(size, 0);
+        int from = Math.min(Math.max(page, 0) * pageSize, sorted.size());
+        int to = Math.min(from + pageSize, sorted.size());
+        return sorted.subList(from, to);
+    }
+
+    private void touch(String username, String partner, Message message, boolean incoming) {
+        summaryRepository.recordActivity(username, partner, message.getTimestamp(),
+                preview(message.getContent()), incoming ? 1 : 0);
+        evict(username);
+    }
+
+    // Now, and again once the caller's transaction commits, so a reload in between is not kept
+    private void evict(String username) {
+        cache.remove(username);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    cache.remove(username);
+                }
+            });
+        }
+    }
+
+    // One-off rebuild for databases that already had messages before this table existed
+    private void backfillFromMessages() {
+        Map<String, ConversationSummary> byKey = new HashMap<>();
+
+        for (Message m : messageRepository.findAllByOrderByTimestampDesc()) {
+            if (m.getSender() == null || m.getRecipient() == null) continue;
+
+            backfill(byKey, m.getSender(), m.getRecipient(), m, false);
+            if (!m.getRecipient().equals(m.getSender())) {
+                backfill(byKey, m.getRecipient(), m.getSender(), m, !m.isRead());
+            }
+        }
+        summaryRepository.saveAll(byKey.values());
+    }
+
+    private void backfill(Map<String, ConversationSummary> byKey, String username, String partner,
+                          Message m, boolean unread) {
+        // Messages arrive newest first, so the first one seen sets the activity and preview
+        ConversationSummary summary = byKey.computeIfAbsent(username + '\u0000' + partner, k -> {
+            ConversationSummary created = new ConversationSummary();
+            created.setUsername(username);
+            created.setPartner(partner);
+            created.setLastActivity(m.getTimestamp());
+            created.setLastMessagePreview(preview(m.getContent()));
+            return created;
+        });
+        if (unread) {
+            summary.setUnread(summary.getUnread() + 1);
+        }
+    }
+
+    private static String preview(String content) {
+        if (content == null) return null;
+        return content.length() <= PREVIEW_LENGTH ? content : content.substring(0, PREVIEW_LENGTH - 3) + "...";
+    }
+}
@@ -0,0 +1,127 @@
+package ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.service;
+
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.cache.CacheStats;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.cache.VersionedCache;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.codec.CompactFeedCodec;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.event.AlertChangedEvent;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.event.MarkerChangedEvent;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.model.Tombstone;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.repository.AlertRepository;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.repository.TombstoneRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import tools.jackson.databind.ObjectMapper;
+
+import java.util.List;
+
+/**
+ * Pre-encoded (and pre-gzipped) snapshots of the public feeds, as JSON and in the compact format.
+ * A snapshot is rebuilt on the first request after its data changed, so repeat requests are a
+ * single buffer write and revalidations a 304.
+ *
+ * Snapshots are versioned by the safe change version at which their data last changed, which
+ * every instance reads from the database: refresh runs after each local write and every
+ * app.feed.refresh-ms for other instances' writes. A write still in flight holds the safe
+ * version back, so a feed can be that much behind under an unchanged ETag.
+ */
+@Service
+public class FeedSnapshotService {
+
+    @Autowired
+    private MapMarkerService mapMarkerService;
+
+    @Autowired
+    private AlertService alertService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MarkerIndexService markerIndexService;
+
+    @Autowired
+    private ChangeVersionService changeVersionService;
+
+    @Autowired
+    private AlertRepository alertRepository;
+
+    @Autowired
+    private TombstoneRepository tombstoneRepository;
+
+    // Alert writes at or below this change version are reflected in the alert snapshots' version
+    private long alertsCheckedUpTo;
+
+    private final VersionedCache<Snapshot> markersJson = new VersionedCache<>("markers",
+            () -> Snapshot.of(objectMapper.writeValueAsBytes(mapMarkerService.getApprovedMarkers())));
+    private final VersionedCache<Snapshot> markersCompact = new VersionedCache<>("markers-compact",
+            () -> Snapshot.of(CompactFeedCodec.encodeMarkers(mapMarkerService.getApprovedMarkers())));
+    private final VersionedCache<Snapshot> alertsJson = new VersionedCache<>("alerts",
+            () -> Snapshot.of(objectMapper.writeValueAsBytes(alertService.getAllAlerts())));
+    private final VersionedCache<Snapshot> alertsCompact = new VersionedCache<>("alerts-compact",
+            () -> Snapshot.of(CompactFeedCodec.encodeAlerts(alertService.getAllAlerts())));
+
+    @PostConstruct
+    void init() {
+        long markers = markerIndexService.getApprovedVersion();
+        markersJson.advanceTo(markers);
+        markersCompact.advanceTo(markers);
+        alertsCheckedUpTo = changeVersionService.getSafeVersion();
+        alertsJson.advanceTo(alertsCheckedUpTo);
+        alertsCompact.advanceTo(alertsCheckedUpTo);
+    }
+
+    @Scheduled(fixedDelayString = "${app.feed.refresh-ms:2000}")
+    public synchronized void refresh() {
+        long upTo = changeVersionService.getSafeVersion();
+        long markers = markerIndexService.catchUp(upTo);
+        markersJson.advanceTo(markers);
+        markersCompact.advanceTo(markers);
+
+        if (upTo <= alertsCheckedUpTo) return;
+        if (alertRepository.existsByChangeVersionGreaterThanAndChangeVersionLessThanEqual(alertsCheckedUpTo, upTo)
+                || tombstoneRepository.existsByEntityTypeAndChangeVersionGreaterThanAndChangeVersionLessThanEqual(
+                        Tombstone.ALERT, alertsCheckedUpTo, upTo)) {
+            alertsJson.advanceTo(upTo);
+            alertsCompact.advanceTo(upTo);
+        }
+        alertsCheckedUpTo = upTo;
+    }
+
+    public VersionedCache.Entry<Snapshot> getApprovedMarkers(boolean compact) {
+        return (compact ? markersCompact : markersJson).get();
+    }
+
+    public VersionedCache.Entry<Snapshot> getAlerts(boolean compact) {
+        return (compact ? alertsCompact : alertsJson).get();
+    }
+
+    public List<CacheStats> getCacheStats() {
+        return List.of(markersJson.getStats(), markersCompact.getStats(), alertsJson.getStats(), alertsCompact.getStats());
+    }
+
+    // The marker snapshots are built from MarkerIndexService, so refresh only once it has the change
+    @EventListener
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    public void onMarkerChanged(MarkerChangedEvent event) {
+        if (event.isApproved() || event.wasApproved()) {
+            refresh();
+        }
+    }
+
+    @EventListener
+    public void onAlertChanged(AlertChangedEvent event) {
+        refresh();
+    }
+
+    public record Snapshot(byte[] raw, byte[] gzipped) {
+
+        static Snapshot of(byte[] raw) {
+            return new Snapshot(raw, CompactFeedCodec.gzip(raw));
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.service;
+
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.event.HelpRequestSubmittedEvent;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.index.HelpRequestIndex;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.index.NearbyHelpRequest;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.model.HelpRequest;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.repository.HelpRequestRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.List;
+
+// Keeps every located help request in a nearest-neighbour index for responder queries
+@Service
+public class HelpRequestIndexService {
+
+    @Autowired
+    private HelpRequestRepository helpRequestRepository;
+
+    private final HelpRequestIndex index = new HelpRequestIndex();
+
+    @PostConstruct
+    void load() {
+        for (HelpRequest request : helpRequestRepository.findAllWithNeeds()) {
+            add(request);
+        }
+    }
+
+    @EventListener
+    public void onHelpRequestSubmitted(HelpRequestSubmittedEvent event) {
+        add(event.request());
+    }
+
+    public List<NearbyHelpRequest> findNearest(double lat, double lng, int k, Collection<String> needs) {
+        return index.nearest(lat, lng, k, needs);
+    }
+
+    public int getIndexedCount() {
+        return index.size();
+    }
+
+    private void add(HelpRequest request) {
+        // The help form sends 0,0 when the browser refused geolocation
+        if (request.getLatitude() == 0 && request.getLongitude() == 0) return;
+        index.add(request);
+    }
+}
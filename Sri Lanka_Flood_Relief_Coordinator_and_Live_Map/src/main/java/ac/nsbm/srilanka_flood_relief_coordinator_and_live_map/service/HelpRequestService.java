@@ -1,18 +1,87 @@
 package ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.service;
 
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.event.HelpRequestSubmittedEvent;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.index.NearbyHelpRequest;
 import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.model.HelpRequest;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.page.Cursor;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.page.CursorPage;
 import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.repository.HelpRequestRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
 @Service
 public class HelpRequestService {
 
+    // Column sizes of help_requests and help_request_needs
+    private static final int TEXT = 255;
+    private static final int LONG_TEXT = 1000;
+
     @Autowired
     private HelpRequestRepository helpRequestRepository;
 
+    @Autowired
+    private HelpRequestIndexService helpRequestIndexService;
+
+    @Autowired
+    private ChangeVersionService changeVersionService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     public HelpRequest submitHelpRequest(HelpRequest request) {
-        // Business Logic: You could add validation or SMS notifications here later
-        return helpRequestRepository.save(request);
+        validate(request);
+        request.setCreatedAt(LocalDateTime.now());
+        HelpRequest saved = changeVersionService.write(version -> {
+            request.setChangeVersion(version);
+            return helpRequestRepository.save(request);
+        });
+        eventPublisher.publishEvent(new HelpRequestSubmittedEvent(saved));
+        return saved;
+    }
+
+    /**
+     * Rejects what MySQL would refuse to store, before the request is accepted.
+     *
+     * @throws IllegalArgumentException naming the first field that is too long
+     */
+    public void validate(HelpRequest request) {
+        checkLength("name", request.getName(), TEXT);
+        checkLength("phone", request.getPhone(), TEXT);
+        checkLength("details", request.getDetails(), LONG_TEXT);
+        if (request.getNeeds() != null) {
+            for (String need : request.getNeeds()) checkLength("A need", need, TEXT);
+        }
+    }
+
+    public List<HelpRequest> getAllHelpRequests() {
+        return helpRequestRepository.findAll();
+    }
+
+    public CursorPage<HelpRequest> getHelpRequestPage(String cursor, int limit) {
+        Cursor after = Cursor.decode(cursor);
+        List<HelpRequest> rows;
+        if (after == null) {
+            rows = helpRequestRepository.findAllByOrderByCreatedAtDescIdDesc(CursorPage.fetchLimit(limit));
+        } else if (after.timestamp() == null) {
+            rows = helpRequestRepository.findUndatedAfter(after.id(), CursorPage.fetchLimit(limit));
+        } else {
+            rows = helpRequestRepository.findAfter(after.timestamp(), after.id(), CursorPage.fetchLimit(limit));
+        }
+        return CursorPage.of(rows, limit, h -> new Cursor(h.getCreatedAt(), h.getId()));
+    }
+
+    public List<NearbyHelpRequest> findNearest(double lat, double lng, int k, Collection<String> needs) {
+        return helpRequestIndexService.findNearest(lat, lng, k, needs);
+    }
+
+    private static void checkLength(String field, String value, int maxLength) {
+        if (value != null && value.length() > maxLength) {
+            throw new IllegalArgumentException(field + " is longer than " + maxLength + " characters");
+        }
     }
-}
\ No newline at end of file
+}
@@ -1,52 +1,252 @@
 package ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.service;
 
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.datasource.ReplicaRead;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.event.MarkerChangedEvent;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.index.BoundingBox;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.index.MarkerCluster;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.index.RecentReportIndex;
 import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.model.MapMarker;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.moderation.BulkModerationRequest;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.moderation.BulkModerationResult;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.page.Cursor;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.page.CursorPage;
 import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.repository.MapMarkerRepository;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 @Service
 public class MapMarkerService {
 
+    // How long a duplicate waits for its canonical marker's first save before saving its own row
+    private static final long CANONICAL_WAIT_SECONDS = 5;
+    // Keeps the id list of one UPDATE well under MySQL's placeholder limit
+    public static final int MAX_BULK_MARKERS = 10_000;
+
     @Autowired
     private MapMarkerRepository mapMarkerRepository;
 
+    @Autowired
+    private MarkerIndexService markerIndexService;
+
+    @Autowired
+    private ChangeVersionService changeVersionService;
+
+    @Autowired
+    private MarkerDedupService markerDedupService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    // Served from the in-memory index, which mirrors findByStatus("approved")
     public List<MapMarker> getApprovedMarkers() {
-        return mapMarkerRepository.findByStatus("approved");
+        return markerIndexService.findApproved(null, null, null);
     }
 
+    // Null arguments mean "no restriction"
+    public List<MapMarker> getApprovedMarkers(BoundingBox bbox, Collection<String> types, Collection<String> severities) {
+        return markerIndexService.findApproved(bbox, types, severities);
+    }
+
+    public List<MarkerCluster> getApprovedClusters(int zoom, BoundingBox bbox) {
+        return markerIndexService.findApprovedClusters(zoom, bbox);
+    }
+
+    @ReplicaRead
     public List<MapMarker> getPendingMarkers() {
         return mapMarkerRepository.findByStatus("pending");
     }
 
+    @ReplicaRead
     public List<MapMarker> getRejectedMarkers() {
         return mapMarkerRepository.findByStatus("rejected");
     }
 
+    // Keyset page of one moderation list, newest first
+    @ReplicaRead
+    public CursorPage<MapMarker> getMarkerPage(String status, String cursor, int limit) {
+        Cursor after = Cursor.decode(cursor);
+        List<MapMarker> rows = after == null
+                ? mapMarkerRepository.findByStatusOrderByTimestampDescIdDesc(status, CursorPage.fetchLimit(limit))
+                : mapMarkerRepository.findByStatusAfter(status, after.timestamp(), after.id(), CursorPage.fetchLimit(limit));
+        return CursorPage.of(rows, limit, m -> new Cursor(m.getTimestamp(), m.getId()));
+    }
+
+    // Primary: users look for a report here right after sending it
     public List<MapMarker> getUserMarkers(String username) {
         return mapMarkerRepository.findBySubmittedBy(username);
     }
 
+    // A report of the same type close to a recent pending or approved marker is merged into
+    // that marker and the canonical marker is returned; otherwise a new pending marker is saved
     public MapMarker reportIssue(MapMarker marker) {
+        marker.setType(MapMarker.checkType(marker.getType()));
+        marker.setSeverity(MapMarker.checkSeverity(marker.getSeverity()));
         // Automatically set status to pending and capture time
         marker.setStatus("pending");
         marker.setTimestamp(LocalDateTime.now());
-        return mapMarkerRepository.save(marker);
+        marker.setCorroborations(1);
+        if (!markerDedupService.isEnabled()) {
+            return create(marker);
+        }
+
+        RecentReportIndex.Claim claim = markerDedupService.claim(marker);
+        if (claim.isNew()) {
+            try {
+                MapMarker saved = create(marker);
+                claim.complete(saved.getId());
+                return saved;
+            } catch (RuntimeException e) {
+                claim.abandon();
+                throw e;
+            }
+        }
+
+        Long canonicalId = claim.markerId(CANONICAL_WAIT_SECONDS, TimeUnit.SECONDS);
+        if (canonicalId != null) {
+            MapMarker canonical = corroborate(canonicalId);
+            if (canonical != null) return canonical;
+            markerDedupService.forget(canonicalId);
+        }
+        return create(marker);
     }
 
-    public void approveMarker(Long id) {
-        MapMarker marker = mapMarkerRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Marker not found"));
-        marker.setStatus("approved");
-        mapMarkerRepository.save(marker);
+    private MapMarker create(MapMarker marker) {
+        MapMarker saved = changeVersionService.write(version -> {
+            marker.setChangeVersion(version);
+            return mapMarkerRepository.save(marker);
+        });
+        eventPublisher.publishEvent(new MarkerChangedEvent(saved, null));
+        return saved;
     }
 
-    public void rejectMarker(Long id) {
+    // Null if the canonical marker has been rejected or is gone
+    private MapMarker corroborate(Long id) {
+        int updated = changeVersionService.write(version -> mapMarkerRepository.addCorroboration(id, version));
+        if (updated == 0) return null;
+        MapMarker canonical = mapMarkerRepository.findById(id).orElse(null);
+        if (canonical != null) {
+            // Same status before and after: listeners treat it as an edit, not a new report
+            eventPublisher.publishEvent(new MarkerChangedEvent(canonical, canonical.getStatus()));
+        }
+        return canonical;
+    }
+
+    // asOfVersion: the change version the admin saw the marker at, or null to check the status only
+    public void approveMarker(Long id, Long asOfVersion) {
+        changeStatus(id, "approved", asOfVersion);
+    }
+
+    public void rejectMarker(Long id, Long asOfVersion) {
+        changeStatus(id, "rejected", asOfVersion);
+    }
+
+    /**
+     * Moves the selected markers from request.from() (default pending) to status with one UPDATE.
+     * Markers that had already left that status, or were written after asOfVersion, are
+     * returned as conflicts and left unchanged.
+     */
+    public BulkModerationResult moderate(BulkModerationRequest request, String status) {
+        String from = request.from() == null || request.from().isBlank() ? "pending" : request.from().trim();
+        if (!MapMarker.STATUSES.contains(from)) {
+            throw new IllegalArgumentException("from must be pending, approved or rejected");
+        }
+        if (from.equals(status)) {
+            throw new IllegalArgumentException("markers are already " + status);
+        }
+        Set<Long> ids = selectForModeration(request, from);
+        long asOf = request.asOfVersion() == null ? Long.MAX_VALUE : request.asOfVersion();
+
+        // UPDATE and read-back in one transaction, so every changed row is seen with this batch's version
+        List<MapMarker> changed = ids.isEmpty() ? List.of() : changeVersionService.write(version ->
+                transactionTemplate.execute(tx -> {
+                    int updated = mapMarkerRepository.updateStatus(ids, from, status, asOf, version);
+                    return updated == 0 ? List.<MapMarker>of() : mapMarkerRepository.findByChangeVersion(version);
+                }));
+
+        List<Long> changedIds = new ArrayList<>(changed.size());
+        for (MapMarker marker : changed) {
+            changedIds.add(marker.getId());
+            eventPublisher.publishEvent(new MarkerChangedEvent(marker, from));
+        }
+
+        Set<Long> missed = new HashSet<>(ids);
+        changedIds.forEach(missed::remove);
+        List<BulkModerationResult.Conflict> conflicts = new ArrayList<>();
+        if (!missed.isEmpty()) {
+            for (MapMarker marker : mapMarkerRepository.findAllById(missed)) {
+                conflicts.add(new BulkModerationResult.Conflict(marker.getId(), marker.getStatus(), marker.getChangeVersion()));
+                missed.remove(marker.getId());
+            }
+        }
+        long version = changed.isEmpty() ? 0 : changed.get(0).getChangeVersion();
+        return new BulkModerationResult(status, version, changedIds, conflicts, List.copyOf(missed));
+    }
+
+    private Set<Long> selectForModeration(BulkModerationRequest request, String from) {
+        Set<Long> ids;
+        if (request.ids() != null) {
+            if (request.bbox() != null || request.types() != null) {
+                throw new IllegalArgumentException("send either ids or a bbox/types filter, not both");
+            }
+            ids = new LinkedHashSet<>(request.ids());
+            ids.remove(null);
+        } else if (request.bbox() != null || request.types() != null) {
+            BoundingBox box = request.bbox() == null ? new BoundingBox(-180, -90, 180, 90) : BoundingBox.parse(request.bbox());
+            boolean anyType = request.types() == null || request.types().isEmpty();
+            List<String> types = anyType ? List.of("other") : request.types().stream().map(MapMarker::checkType).toList();
+            ids = new LinkedHashSet<>(mapMarkerRepository.findIdsByStatusInBox(from,
+                    box.minLat(), box.maxLat(), box.minLng(), box.maxLng(),
+                    anyType, types, Limit.of(MAX_BULK_MARKERS + 1)));
+        } else {
+            throw new IllegalArgumentException("send ids or a bbox/types filter");
+        }
+        if (ids.size() > MAX_BULK_MARKERS) {
+            throw new IllegalArgumentException("at most " + MAX_BULK_MARKERS + " markers per request");
+        }
+        return ids;
+    }
+
+    // The same conditional UPDATE as moderate, from the status just read, so a marker someone
+    // else moderated in the meantime is a conflict rather than overwritten
+    private void changeStatus(Long id, String status, Long asOfVersion) {
         MapMarker marker = mapMarkerRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Marker not found"));
-        marker.setStatus("rejected");
-        mapMarkerRepository.save(marker);
+        String from = marker.getStatus();
+        if (status.equals(from)) return;
+        long asOf = asOfVersion == null ? Long.MAX_VALUE : asOfVersion;
+
+        List<MapMarker> changed = changeVersionService.write(version ->
+                transactionTemplate.execute(tx -> {
+                    int updated = mapMarkerRepository.updateStatus(List.of(id), from, status, asOf, version);
+                    return updated == 0 ? List.<MapMarker>of() : mapMarkerRepository.findByChangeVersion(version);
+                }));
+        if (changed.isEmpty()) {
+            throw new OptimisticLockingFailureException("marker " + id + " was changed by someone else; reload it");
+        }
+        eventPublisher.publishEvent(new MarkerChangedEvent(changed.get(0), from));
     }
-}
\ No newline at end of file
+}
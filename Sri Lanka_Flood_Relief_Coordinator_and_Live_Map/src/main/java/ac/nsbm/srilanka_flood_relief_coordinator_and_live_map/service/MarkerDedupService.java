@@ -0,0 +1,72 @@
+package ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.service;
+
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.event.MarkerChangedEvent;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.index.RecentReportIndex;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.model.MapMarker;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.repository.MapMarkerRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+
+// Remembers pending and approved reports from the last dedup window, so a new report of the
+// same type close by can be merged into the existing marker instead of becoming another row
+@Service
+public class MarkerDedupService {
+
+    @Autowired
+    private MapMarkerRepository mapMarkerRepository;
+
+    @Value("${app.dedup.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.dedup.radius-meters:150}")
+    private double radiusMeters;
+
+    @Value("${app.dedup.window-minutes:120}")
+    private long windowMinutes;
+
+    private RecentReportIndex index;
+
+    @PostConstruct
+    void load() {
+        index = new RecentReportIndex(radiusMeters, windowMinutes * 60_000);
+        if (!enabled) return;
+        LocalDateTime since = LocalDateTime.now().minusMinutes(windowMinutes);
+        for (MapMarker marker : mapMarkerRepository.findByStatusInAndTimestampAfter(List.of("pending", "approved"), since)) {
+            index.add(marker.getId(), marker.getType(), marker.getLat(), marker.getLng(), epochMillis(marker.getTimestamp()));
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public RecentReportIndex.Claim claim(MapMarker report) {
+        return index.claim(report.getType(), report.getLat(), report.getLng(), epochMillis(report.getTimestamp()));
+    }
+
+    public void forget(Long markerId) {
+        index.remove(markerId);
+    }
+
+    public int getTrackedCount() {
+        return index.size();
+    }
+
+    @EventListener
+    public void onMarkerChanged(MarkerChangedEvent event) {
+        if ("rejected".equals(event.marker().getStatus())) {
+            index.remove(event.marker().getId());
+        }
+    }
+
+    private static long epochMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
@@ -0,0 +1,72 @@
+package ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.service;
+
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.event.MarkerChangedEvent;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.model.MapMarker;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.realtime.SseBroadcaster;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.realtime.SseBroadcaster.Frame;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.realtime.SseWriterPool;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import tools.jackson.databind.ObjectMapper;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Live feed of the public (approved) marker set: one snapshot on connect, then add/update/remove deltas
+@Service
+public class MarkerFeedService {
+
+    private static final long STREAM_TIMEOUT_MS = 30 * 60 * 1000L;
+
+    @Autowired
+    private MapMarkerService mapMarkerService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final SseBroadcaster broadcaster;
+    private final AtomicLong sequence = new AtomicLong();
+
+    public MarkerFeedService(SseWriterPool sseWriterPool,
+                             @Value("${app.realtime.client-buffer:256}") int clientBuffer) {
+        this.broadcaster = new SseBroadcaster("marker-feed", clientBuffer, sseWriterPool);
+    }
+
+    public SseEmitter subscribe() {
+        // Public stream, so every connection gets its own key
+        return broadcaster.register(UUID.randomUUID().toString(), STREAM_TIMEOUT_MS, () -> {
+            List<MapMarker> approved = mapMarkerService.getApprovedMarkers();
+            return List.of(Frame.event("snapshot", sequence.get(), objectMapper.writeValueAsString(approved)));
+        });
+    }
+
+    @EventListener
+    public void onMarkerChanged(MarkerChangedEvent event) {
+        MapMarker marker = event.marker();
+
+        if (event.isApproved()) {
+            String op = event.wasApproved() ? "update" : "add";
+            broadcaster.broadcast(Frame.event(op, sequence.incrementAndGet(), objectMapper.writeValueAsString(marker)));
+        } else if (event.wasApproved()) {
+            broadcaster.broadcast(Frame.event("remove", sequence.incrementAndGet(),
+                    objectMapper.writeValueAsString(Map.of("id", marker.getId()))));
+        }
+        // Pending/rejected transitions never touch the public set
+    }
+
+    // Keeps idle connections open through proxies and flushes out dead ones
+    @Scheduled(fixedDelayString = "${app.realtime.heartbeat-ms:25000}")
+    public void heartbeat() {
+        broadcaster.broadcast(Frame.comment("ping"));
+    }
+
+    public int getSubscriberCount() {
+        return broadcaster.getClientCount();
+    }
+}
@@ -0,0 +1,113 @@
+package ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.service;
+
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.event.MarkerChangedEvent;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.index.BoundingBox;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.index.MarkerCluster;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.index.MarkerClusterIndex;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.index.MarkerSpatialIndex;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.model.MapMarker;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.repository.MapMarkerRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Keeps the approved marker set in a spatial index and a cluster hierarchy,
+ * so public map reads never hit MySQL.
+ *
+ * This instance's changes arrive as events. Other instances' are read back by catchUp, which
+ * FeedSnapshotService runs on a timer: every marker row written up to the safe change version.
+ */
+@Service
+public class MarkerIndexService {
+
+    @Autowired
+    private MapMarkerRepository mapMarkerRepository;
+
+    @Autowired
+    private ChangeVersionService changeVersionService;
+
+    private final MarkerSpatialIndex approvedIndex = new MarkerSpatialIndex();
+    private final MarkerClusterIndex approvedClusters = new MarkerClusterIndex();
+
+    // Every marker write at or below this change version, from any instance, is in the index
+    private long indexedUpTo;
+    // The change version the approved set last changed at, as far as catchUp has seen
+    private volatile long approvedVersion;
+
+    @PostConstruct
+    void load() {
+        // Taken first: a write landing during the load is read again by the next catchUp
+        indexedUpTo = changeVersionService.getSafeVersion();
+        approvedVersion = indexedUpTo;
+        for (MapMarker marker : mapMarkerRepository.findByStatus("approved")) {
+            approvedIndex.upsert(marker);
+            approvedClusters.upsert(marker);
+        }
+    }
+
+    // Runs before every other listener, so anything they read from the index already has this change
+    @EventListener
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void onMarkerChanged(MarkerChangedEvent event) {
+        if (event.isApproved()) {
+            upsert(event.marker());
+        } else if (event.wasApproved()) {
+            remove(event.marker().getId());
+        }
+    }
+
+    /**
+     * Applies the marker rows written after the last call, up to upTo (a safe change version),
+     * and returns the change version the approved set last changed at.
+     */
+    public synchronized long catchUp(long upTo) {
+        if (upTo <= indexedUpTo) return approvedVersion;
+        boolean changed = false;
+        for (MapMarker marker : mapMarkerRepository
+                .findByChangeVersionGreaterThanAndChangeVersionLessThanEqualOrderByChangeVersionAsc(indexedUpTo, upTo)) {
+            if ("approved".equals(marker.getStatus())) {
+                upsert(marker);
+                changed = true;
+            } else {
+                changed |= remove(marker.getId());
+            }
+        }
+        indexedUpTo = upTo;
+        if (changed) approvedVersion = upTo;
+        return approvedVersion;
+    }
+
+    public long getApprovedVersion() {
+        return approvedVersion;
+    }
+
+    private void upsert(MapMarker marker) {
+        approvedIndex.upsert(marker);
+        approvedClusters.upsert(marker);
+    }
+
+    private boolean remove(Long id) {
+        boolean removed = approvedIndex.remove(id);
+        approvedClusters.remove(id);
+        return removed;
+    }
+
+    public List<MapMarker> findApproved(BoundingBox bbox, Collection<String> types, Collection<String> severities) {
+        return approvedIndex.query(bbox, types, severities);
+    }
+
+    public List<MarkerCluster> findApprovedClusters(int zoom, BoundingBox bbox) {
+        return approvedClusters.query(zoom, bbox);
+    }
+
+    public int getApprovedCount() {
+        return approvedIndex.size();
+    }
+}
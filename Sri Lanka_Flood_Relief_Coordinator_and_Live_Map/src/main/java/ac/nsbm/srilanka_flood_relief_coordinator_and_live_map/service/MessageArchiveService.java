@@ -0,0 +1,130 @@
+package ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.service;
+
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.archive.MessageArchive;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.model.Message;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.repository.MessageRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Moves read chat messages older than app.chat.archive.after-hours out of the messages table
+ * into compressed segment files (see MessageArchive), and serves them back to MessageService
+ * when a conversation is scrolled that far.
+ *
+ * A batch is written to its segment and synced before its rows are deleted, so a crash in
+ * between leaves the messages in both places rather than in neither.
+ *
+ * Single instance only, hence off by default: segments live in a local directory that each
+ * instance scans once at startup, so messages one instance archived would vanish from the
+ * others' conversations, and two instances would archive the same rows.
+ */
+@Service
+public class MessageArchiveService {
+
+    private static final Logger log = LoggerFactory.getLogger(MessageArchiveService.class);
+
+    @Autowired
+    private MessageRepository messageRepository;
+
+    @Value("${app.chat.archive.enabled:false}")
+    private boolean enabled;
+
+    @Value("${app.chat.archive.dir:data/chat-archive}")
+    private String dir;
+
+    @Value("${app.chat.archive.after-hours:72}")
+    private long afterHours;
+
+    @Value("${app.chat.archive.batch-size:5000}")
+    private int batchSize;
+
+    @Value("${app.chat.archive.block-messages:500}")
+    private int blockMessages;
+
+    @Value("${app.chat.archive.cached-blocks:256}")
+    private int cachedBlocks;
+
+    private MessageArchive archive;
+
+    // Opened even when archiving is off, so segments written earlier stay readable
+    @PostConstruct
+    void open() throws IOException {
+        archive = new MessageArchive(Path.of(dir), cachedBlocks);
+        for (Path segment : archive.getUnreadableSegments()) {
+            log.warn("Chat archive segment {} is unreadable; its messages will not be served", segment);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.chat.archive.interval-ms:600000}", initialDelayString = "${app.chat.archive.interval-ms:600000}")
+    public void archiveOldMessages() {
+        if (!enabled) return;
+        LocalDateTime cutoff = LocalDateTime.now().minusHours(afterHours);
+        long total = 0;
+        while (true) {
+            List<Message> batch = messageRepository.findArchivable(cutoff, Limit.of(batchSize));
+            if (batch.isEmpty()) break;
+            try {
+                archive.write(batch, blockMessages);
+            } catch (IOException e) {
+                log.warn("Could not write chat archive segment; {} messages stay in the table for now", batch.size(), e);
+                break;
+            }
+            messageRepository.deleteByIdIn(batch.stream().map(Message::getId).toList());
+            total += batch.size();
+            if (batch.size() < batchSize) break;
+        }
+        if (total > 0) {
+            log.info("Archived {} chat messages older than {}", total, cutoff);
+        }
+    }
+
+    /**
+     * Archived messages before (timestamp, id), newest first; see MessageArchive.before.
+     * Cold history that cannot be read is logged and left out rather than failing the chat.
+     */
+    public List<Message> before(String user1, String user2, LocalDateTime timestamp, Long id, int count, Message floor) {
+        try {
+            return archive.before(user1, user2, timestamp, id, count, floor);
+        } catch (IOException e) {
+            log.warn("Could not read archived messages of {} and {}", user1, user2, e);
+            return List.of();
+        }
+    }
+
+    public List<Message> after(String user1, String user2, long afterId, int count) {
+        try {
+            return archive.after(user1, user2, afterId, count);
+        } catch (IOException e) {
+            log.warn("Could not read archived messages of {} and {}", user1, user2, e);
+            return List.of();
+        }
+    }
+
+    public List<Message> all(String user1, String user2) {
+        try {
+            return archive.all(user1, user2);
+        } catch (IOException e) {
+            log.warn("Could not read archived messages of {} and {}", user1, user2, e);
+            return List.of();
+        }
+    }
+
+    public long getArchivedCount() {
+        return archive.getArchivedCount();
+    }
+
+    public int getSegmentCount() {
+        return archive.getSegmentCount();
+    }
+}
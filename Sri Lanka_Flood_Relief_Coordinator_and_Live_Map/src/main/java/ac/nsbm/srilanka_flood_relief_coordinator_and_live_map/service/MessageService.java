@@ -1,11 +1,25 @@
 package ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.service;
 
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.archive.MessageArchive;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.datasource.ReplicaRead;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.event.MessageSentEvent;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.event.UnreadCountChangedEvent;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.model.ConversationSummary;
 import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.model.Message;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.page.Cursor;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.page.CursorPage;
 import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.repository.MessageRepository;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Service
 public class MessageService {
@@ -13,71 +27,146 @@ public class MessageService {
     @Autowired
     private MessageRepository messageRepository;
 
+    @Autowired
+    private ConversationSummaryService conversationSummaryService;
+
+    @Autowired
+    private MessageArchiveService messageArchiveService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transactionTemplate;
+
+    // Unread totals per recipient, so badge checks never touch the database
+    private final Map<String, AtomicLong> unreadByRecipient = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        for (Object[] row : messageRepository.countUnreadGroupedByRecipient()) {
+            unreadByRecipient.put((String) row[0], new AtomicLong((Long) row[1]));
+        }
+    }
+
     public Message sendMessage(Message message) {
         message.setTimestamp(LocalDateTime.now());
         message.setRead(false);
-        return messageRepository.save(message);
+        // The thread summaries commit with the message or not at all
+        Message saved = transactionTemplate.execute(status -> {
+            Message m = messageRepository.save(message);
+            conversationSummaryService.recordMessage(m);
+            return m;
+        });
+
+        long recipientUnread = 0;
+        if (saved.getRecipient() != null) {
+            recipientUnread = unreadCounter(saved.getRecipient()).incrementAndGet();
+        }
+        eventPublisher.publishEvent(new MessageSentEvent(saved, recipientUnread));
+        return saved;
     }
 
     // --- UPDATED: Returns list of objects with name and unread count, sorted by activity ---
     public List<Map<String, Object>> getChatPartners(String currentUser, boolean isAdmin) {
+        return getChatPartners(currentUser, isAdmin, 0, null);
+    }
+
+    // Paged variant; a null size returns every partner
+    public List<Map<String, Object>> getChatPartners(String currentUser, boolean isAdmin, int page, Integer size) {
         if (!isAdmin) {
             // For members, they only talk to ADMIN.
-            long unread = messageRepository.countByRecipientAndIsReadFalse(currentUser);
+            long unread = getUnreadCount(currentUser);
             Map<String, Object> adminMap = new HashMap<>();
             adminMap.put("name", "ADMIN");
             adminMap.put("unread", unread);
             return Collections.singletonList(adminMap);
         }
 
-        // For Admin: Get all messages sorted NEWEST first
-        // This ensures the partners who sent/received messages recently appear first
-        List<Message> messages = messageRepository.findAllByOrderByTimestampDesc();
-
-        // Use LinkedHashSet to preserve insertion order (Most recent partners first)
-        Set<String> uniquePartners = new LinkedHashSet<>();
-        Map<String, Integer> unreadMap = new HashMap<>();
-
-        for (Message m : messages) {
-            String partner = null;
-
-            // Identify the conversation partner
-            if (m.getSender().equals(currentUser)) {
-                partner = m.getRecipient();
-            } else if (m.getRecipient() != null && m.getRecipient().equals(currentUser)) {
-                partner = m.getSender();
-                // If I am the recipient and it's not read, increment count
-                if (!m.isRead()) {
-                    unreadMap.put(partner, unreadMap.getOrDefault(partner, 0) + 1);
-                }
-            }
-
-            if (partner != null) {
-                uniquePartners.add(partner);
-            }
-        }
-
-        // Build the result list from the sorted set
+        // For Admin: read the materialized summaries, most recent activity first
         List<Map<String, Object>> result = new ArrayList<>();
-        for (String name : uniquePartners) {
+        for (ConversationSummary summary : conversationSummaryService.getPartners(currentUser, page, size)) {
             Map<String, Object> entry = new HashMap<>();
-            entry.put("name", name);
-            entry.put("unread", unreadMap.getOrDefault(name, 0));
+            entry.put("name", summary.getPartner());
+            entry.put("unread", summary.getUnread());
+            entry.put("lastActivity", summary.getLastActivity());
+            entry.put("preview", summary.getLastMessagePreview());
             result.add(entry);
         }
 
         return result;
     }
 
+    // Whole history, archived part included. On the primary: it is read right after
+    // markConversationAsRead, and must show the messages as read
     public List<Message> getConversation(String user1, String user2) {
-        return messageRepository.findConversation(user1, user2);
+        List<Message> hot = messageRepository.findConversation(user1, user2);
+        return merge(hot, messageArchiveService.all(user1, user2), MessageArchive.ORDER, Integer.MAX_VALUE);
+    }
+
+    // Newest messages first; nextCursor leads further back in the conversation, into the archive if need be
+    @ReplicaRead
+    public CursorPage<Message> getConversationPage(String user1, String user2, String cursor, int limit) {
+        Cursor from = Cursor.decode(cursor);
+        Limit fetch = CursorPage.fetchLimit(limit);
+        // The table is read before the archive: a row archived in between is then found in the archive
+        List<Message> hot = from == null
+                ? messageRepository.findConversationLatest(user1, user2, fetch)
+                : messageRepository.findConversationBefore(user1, user2, from.timestamp(), from.id(), fetch);
+        // A full page from the table means archived blocks older than all of it cannot make the page
+        Message floor = hot.size() == fetch.max() ? hot.get(hot.size() - 1) : null;
+        List<Message> cold = messageArchiveService.before(user1, user2,
+                from == null ? null : from.timestamp(), from == null ? null : from.id(), fetch.max(), floor);
+        List<Message> rows = cold.isEmpty() ? hot : merge(hot, cold, MessageArchive.ORDER.reversed(), fetch.max());
+        return CursorPage.of(rows, limit, m -> new Cursor(m.getTimestamp(), m.getId()));
+    }
+
+    // Polling: messages with an id above afterId, oldest first. Primary: a message still on its
+    // way to the replica would have an id below the client's next afterId and never be fetched
+    public List<Message> getConversationAfter(String user1, String user2, long afterId, int limit) {
+        List<Message> hot = messageRepository.findConversationAfter(user1, user2, afterId, Limit.of(limit));
+        List<Message> cold = messageArchiveService.after(user1, user2, afterId, limit);
+        return cold.isEmpty() ? hot : merge(hot, cold, Comparator.comparing(Message::getId), limit);
     }
 
     public long getUnreadCount(String username) {
-        return messageRepository.countByRecipientAndIsReadFalse(username);
+        AtomicLong counter = unreadByRecipient.get(username);
+        return counter == null ? 0 : counter.get();
     }
 
     public void markConversationAsRead(String currentUser, String partner) {
-        messageRepository.markMessagesAsRead(partner, currentUser);
+        int marked = transactionTemplate.execute(status -> {
+            int read = messageRepository.markMessagesAsRead(partner, currentUser);
+            conversationSummaryService.markRead(currentUser, partner, read);
+            return read;
+        });
+        if (marked == 0) return;
+
+        long unread = unreadCounter(currentUser).updateAndGet(n -> Math.max(0, n - marked));
+        eventPublisher.publishEvent(new UnreadCountChangedEvent(currentUser, unread));
+    }
+
+    // Table and archive rows in one order, up to max; a message in both (archived, not yet deleted) is kept once
+    private static List<Message> merge(List<Message> hot, List<Message> cold, Comparator<Message> order, int max) {
+        List<Message> all = new ArrayList<>(hot.size() + cold.size());
+        all.addAll(hot);
+        all.addAll(cold);
+        all.sort(order);
+        List<Message> merged = new ArrayList<>(Math.min(all.size(), max));
+        Long previous = null;
+        for (Message m : all) {
+            if (m.getId().equals(previous)) continue;
+            merged.add(m);
+            previous = m.getId();
+            if (merged.size() == max) break;
+        }
+        return merged;
+    }
+
+    private AtomicLong unreadCounter(String username) {
+        return unreadByRecipient.computeIfAbsent(username, k -> new AtomicLong());
     }
 }
\ No newline at end of file
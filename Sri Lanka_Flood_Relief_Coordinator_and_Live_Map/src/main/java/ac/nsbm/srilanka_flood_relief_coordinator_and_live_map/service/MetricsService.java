@@ -0,0 +1,104 @@
+package ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.service;
+
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.event.HelpRequestSubmittedEvent;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.event.MarkerChangedEvent;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.metrics.Counter;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.metrics.Histogram;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.metrics.HourlyWindow;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.metrics.MetricRegistry;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.repository.MapMarkerRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Domain and Hibernate metrics for the Prometheus scrape. Request, repository and connection
+ * pool metrics are recorded by the instrumentation in MetricsConfig.
+ */
+@Service
+public class MetricsService {
+
+    // Moderation happens in minutes to days, not milliseconds
+    private static final double[] MODERATION_BUCKETS = {60, 300, 900, 1800, 3600, 7200, 14400, 43200, 86400, 172800};
+
+    @Autowired
+    private MetricRegistry registry;
+
+    @Autowired
+    private MapMarkerRepository mapMarkerRepository;
+
+    @Autowired
+    private ChatStreamService chatStreamService;
+
+    @Autowired
+    private MessageArchiveService messageArchiveService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private final HourlyWindow helpRequestsLastHour = new HourlyWindow();
+    private Counter helpRequestsSubmitted;
+    private Counter uploads;
+    private Counter uploadBytes;
+
+    @PostConstruct
+    void registerMetrics() {
+        registry.gauge("flood_markers_pending", "Reported markers waiting for moderation",
+                () -> mapMarkerRepository.countByStatus("pending"));
+        registry.gauge("flood_chat_sessions_active", "Open chat streams",
+                chatStreamService::getActiveSessionCount);
+        registry.gauge("flood_chat_messages_archived", "Chat messages moved to archive segments",
+                messageArchiveService::getArchivedCount);
+        helpRequestsSubmitted = registry.counter("flood_help_requests_submitted_total", "Help requests saved");
+        registry.gauge("flood_help_requests_last_hour", "Help requests saved in the last 60 minutes",
+                () -> helpRequestsLastHour.count(System.currentTimeMillis()));
+        uploads = registry.counter("flood_report_uploads_total", "Report attachments stored");
+        uploadBytes = registry.counter("flood_report_upload_bytes_total", "Bytes of report attachments stored");
+
+        Statistics stats = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        registry.functionCounter("flood_hibernate_queries_total", "HQL and native queries executed", stats::getQueryExecutionCount);
+        registry.functionCounter("flood_hibernate_statements_total", "JDBC statements prepared", stats::getPrepareStatementCount);
+        registry.functionCounter("flood_hibernate_entities_total", "Entity operations", stats::getEntityLoadCount, "operation", "load");
+        registry.functionCounter("flood_hibernate_entities_total", "Entity operations", stats::getEntityInsertCount, "operation", "insert");
+        registry.functionCounter("flood_hibernate_entities_total", "Entity operations", stats::getEntityUpdateCount, "operation", "update");
+        registry.functionCounter("flood_hibernate_entities_total", "Entity operations", stats::getEntityDeleteCount, "operation", "delete");
+        registry.functionCounter("flood_hibernate_transactions_total", "Transactions completed", stats::getTransactionCount);
+        registry.functionCounter("flood_hibernate_sessions_opened_total", "Sessions opened", stats::getSessionOpenCount);
+        registry.gauge("flood_hibernate_query_max_seconds", "Slowest query execution since startup",
+                () -> stats.getQueryExecutionMaxTime() / 1000.0);
+        registry.gauge("flood_hibernate_slow_statements", "Distinct SQL statements slower than hibernate.log_slow_query",
+                () -> stats.getSlowQueries().size());
+    }
+
+    @EventListener
+    public void onMarkerChanged(MarkerChangedEvent event) {
+        String status = event.marker().getStatus();
+        LocalDateTime reported = event.marker().getTimestamp();
+        if (!"pending".equals(event.previousStatus()) || "pending".equals(status) || reported == null) return;
+        Histogram moderation = registry.histogram("flood_marker_moderation_seconds",
+                "Time from report to approval or rejection", MODERATION_BUCKETS, "decision", status);
+        moderation.observe(Math.max(0, Duration.between(reported, LocalDateTime.now()).toMillis() / 1000.0));
+    }
+
+    @EventListener
+    public void onHelpRequestSubmitted(HelpRequestSubmittedEvent event) {
+        helpRequestsSubmitted.increment();
+        helpRequestsLastHour.record(System.currentTimeMillis());
+    }
+
+    public void recordUpload(long bytes) {
+        uploads.increment();
+        uploadBytes.add(bytes);
+    }
+
+    public String scrape() {
+        return registry.scrape();
+    }
+}
@@ -1,12 +1,19 @@
 package ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.service;
 
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.datasource.ReplicaRead;
 import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.model.Report;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.page.Cursor;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.page.CursorPage;
 import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.repository.ReportRepository;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.repository.ReportSummary;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.storage.AttachmentStore;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.storage.StoredAttachment;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -16,6 +23,12 @@ public class ReportService {
     @Autowired
     private ReportRepository reportRepository;
 
+    @Autowired
+    private AttachmentStore attachmentStore;
+
+    @Autowired
+    private MetricsService metricsService;
+
     public Report saveReport(String title, String description, String username, MultipartFile file) throws IOException {
         Report report = new Report();
         report.setTitle(title);
@@ -24,20 +37,37 @@ public class ReportService {
         report.setTimestamp(LocalDateTime.now());
 
         if (file != null && !file.isEmpty()) {
+            StoredAttachment stored;
+            try (InputStream in = file.getInputStream()) {
+                stored = attachmentStore.save(in);
+            }
             report.setFileName(file.getOriginalFilename());
             report.setFileType(file.getContentType());
-            report.setData(file.getBytes());
+            report.setFileSize(stored.size());
+            report.setAttachmentHash(stored.sha256());
+            metricsService.recordUpload(stored.size());
         }
 
         return reportRepository.save(report);
     }
 
-    public List<Report> getAllReports() {
-        return reportRepository.findAllByOrderByTimestampDesc();
+    @ReplicaRead
+    public List<ReportSummary> getAllReports() {
+        return reportRepository.findSummaries();
+    }
+
+    @ReplicaRead
+    public CursorPage<ReportSummary> getReportPage(String cursor, int limit) {
+        Cursor after = Cursor.decode(cursor);
+        List<ReportSummary> rows = after == null
+                ? reportRepository.findSummaries(CursorPage.fetchLimit(limit))
+                : reportRepository.findSummariesAfter(after.timestamp(), after.id(), CursorPage.fetchLimit(limit));
+        return CursorPage.of(rows, limit, r -> new Cursor(r.timestamp(), r.id()));
     }
 
+    @ReplicaRead
     public Report getReport(Long id) {
         return reportRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Report not found with id " + id));
     }
-}
\ No newline at end of file
+}
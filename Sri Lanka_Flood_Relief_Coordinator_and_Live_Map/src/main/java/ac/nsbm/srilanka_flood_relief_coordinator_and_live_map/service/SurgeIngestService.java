@@ -0,0 +1,353 @@
+package ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.service;
+
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.event.HelpRequestSubmittedEvent;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.ingest.IngestStats;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.ingest.QueuedSubmission;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.ingest.SubmissionJournal;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.ingest.SubmissionReceipt;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.model.HelpRequest;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.repository.HelpRequestRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Surge mode for help requests (app.surge.enabled). A submission is appended to the local
+ * journal, fsynced, and acknowledged with a tracking id without touching MySQL; one worker
+ * then saves queued requests in batches. If MySQL is unavailable the worker keeps retrying
+ * and nothing is dropped. A batch MySQL rejects for its contents is retried app.surge.max-attempts
+ * times, then split in half until the offending request is alone; that one is appended to
+ * dead-letter.ndjson in the journal directory instead of holding up everything behind it.
+ *
+ * Entries still in the journal at startup are queued again. Each saved row carries its
+ * tracking id, so entries that were saved just before a crash are skipped when they come round again.
+ */
+@Service
+public class SurgeIngestService {
+
+    private static final Logger log = LoggerFactory.getLogger(SurgeIngestService.class);
+
+    private static final int RECENT_RECEIPTS = 100_000;
+    private static final long MAX_RETRY_DELAY_MS = 5_000;
+
+    @Value("${app.surge.enabled:false}")
+    private boolean enabled;
+
+    @Value("${app.surge.journal-dir:data/journal}")
+    private String journalDir;
+
+    @Value("${app.surge.queue-capacity:20000}")
+    private int capacity;
+
+    @Value("${app.surge.batch-size:200}")
+    private int batchSize;
+
+    @Value("${app.surge.journal-timeout-ms:5000}")
+    private long journalTimeoutMillis;
+
+    @Value("${app.surge.max-attempts:5}")
+    private int maxAttempts;
+
+    @Autowired
+    private HelpRequestService helpRequestService;
+
+    @Autowired
+    private HelpRequestRepository helpRequestRepository;
+
+    @Autowired
+    private ChangeVersionService changeVersionService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private record Queued(QueuedSubmission submission, long segment) {
+    }
+
+    private record DeadLetter(QueuedSubmission submission, String error) {
+    }
+
+    private final LinkedBlockingQueue<Queued> queue = new LinkedBlockingQueue<>();
+    // Bounded separately from the queue so capacity is claimed before the journal write
+    private final AtomicInteger depth = new AtomicInteger();
+    private final Set<String> queued = ConcurrentHashMap.newKeySet();
+    // Since startup only; the dead-letter file is the lasting record
+    private final Set<String> deadLettered = ConcurrentHashMap.newKeySet();
+    private final Map<String, Long> recentlySaved = new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+            return size() > RECENT_RECEIPTS;
+        }
+    };
+
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder saved = new LongAdder();
+    private final LongAdder flushFailures = new LongAdder();
+    private final LongAdder deadLetters = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder batchNanos = new LongAdder();
+    private final LongAdder endToEndMillis = new LongAdder();
+    private final AtomicLong maxEndToEndMillis = new AtomicLong();
+
+    private SubmissionJournal journal;
+    private Path deadLetterFile;
+    private TransactionTemplate transactionTemplate;
+    private Thread worker;
+    private volatile boolean running;
+
+    @PostConstruct
+    void open() throws IOException {
+        if (!enabled) return;
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        journal = new SubmissionJournal(Path.of(journalDir), 16L * 1024 * 1024);
+        deadLetterFile = Path.of(journalDir, "dead-letter.ndjson");
+
+        int replayed = 0;
+        for (SubmissionJournal.Record record : journal.replay()) {
+            QueuedSubmission submission = objectMapper.readValue(record.payload(), QueuedSubmission.class);
+            enqueue(new Queued(submission, record.segment()));
+            replayed++;
+        }
+        if (replayed > 0) log.info("Replaying {} help requests from the surge journal", replayed);
+    }
+
+    // Draining starts once the rest of the application (listeners, indexes) is up
+    @EventListener(ApplicationReadyEvent.class)
+    public void startWorker() {
+        if (!enabled) return;
+        running = true;
+        worker = new Thread(this::drainLoop, "surge-ingest");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @PreDestroy
+    void close() throws IOException {
+        if (!enabled) return;
+        running = false;
+        if (worker != null) {
+            try {
+                // Let the current batch finish; only cut it short if MySQL is hanging
+                worker.join(10_000);
+                if (worker.isAlive()) worker.interrupt();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        // Anything still queued stays in the journal for the next start
+        journal.close();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Journals the request and returns once it is durable.
+     *
+     * @throws IllegalArgumentException if the request could never be saved
+     * @throws IllegalStateException if the queue is full or the journal cannot be written
+     */
+    public SubmissionReceipt submit(HelpRequest request) {
+        // Checked before it is journaled; the worker can only retry, not answer the client
+        helpRequestService.validate(request);
+        if (depth.incrementAndGet() > capacity) {
+            depth.decrementAndGet();
+            rejected.increment();
+            throw new IllegalStateException("Surge queue is full");
+        }
+        QueuedSubmission submission = new QueuedSubmission(UUID.randomUUID().toString(), System.currentTimeMillis(), request);
+        request.setId(null);
+        request.setTrackingId(submission.trackingId());
+        request.setCreatedAt(LocalDateTime.now());
+
+        long segment;
+        try {
+            segment = journal.append(objectMapper.writeValueAsBytes(submission), journalTimeoutMillis);
+        } catch (IOException e) {
+            depth.decrementAndGet();
+            rejected.increment();
+            throw new IllegalStateException("Could not journal the request: " + e.getMessage(), e);
+        }
+        queued.add(submission.trackingId());
+        queue.add(new Queued(submission, segment));
+        accepted.increment();
+        return new SubmissionReceipt(submission.trackingId(), SubmissionReceipt.QUEUED, null);
+    }
+
+    public Optional<SubmissionReceipt> getReceipt(String trackingId) {
+        if (queued.contains(trackingId)) {
+            return Optional.of(new SubmissionReceipt(trackingId, SubmissionReceipt.QUEUED, null));
+        }
+        if (deadLettered.contains(trackingId)) {
+            return Optional.of(new SubmissionReceipt(trackingId, SubmissionReceipt.FAILED, null));
+        }
+        Long id;
+        synchronized (recentlySaved) {
+            id = recentlySaved.get(trackingId);
+        }
+        if (id == null) {
+            id = helpRequestRepository.findByTrackingId(trackingId).map(HelpRequest::getId).orElse(null);
+        }
+        return id == null ? Optional.empty() : Optional.of(new SubmissionReceipt(trackingId, SubmissionReceipt.SAVED, id));
+    }
+
+    public IngestStats getStats() {
+        long savedCount = saved.sum(), batchCount = batches.sum();
+        return new IngestStats(enabled, depth.get(), capacity,
+                accepted.sum(), rejected.sum(), savedCount, flushFailures.sum(), deadLetters.sum(),
+                journal == null ? 0 : journal.getSegmentCount(),
+                journal == null ? 0 : journal.getFsyncCount(),
+                journal == null ? 0 : journal.getAverageFsyncMillis(),
+                batchCount, batchCount == 0 ? 0 : batchNanos.sum() / 1_000_000.0 / batchCount,
+                savedCount == 0 ? 0 : (double) endToEndMillis.sum() / savedCount, maxEndToEndMillis.get());
+    }
+
+    private void enqueue(Queued entry) {
+        depth.incrementAndGet();
+        queued.add(entry.submission().trackingId());
+        queue.add(entry);
+    }
+
+    private void drainLoop() {
+        List<Queued> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                Queued first = queue.poll(500, TimeUnit.MILLISECONDS);
+                if (first == null) continue;
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                flushWithRetry(batch);
+            } catch (InterruptedException e) {
+                break;
+            }
+            batch.clear();
+        }
+    }
+
+    private void flushWithRetry(List<Queued> batch) throws InterruptedException {
+        long delay = 100;
+        int rejectedAttempts = 0;
+        while (true) {
+            try {
+                flush(batch);
+                return;
+            } catch (RuntimeException e) {
+                flushFailures.increment();
+                // Only a rejected row counts towards giving up; an unreachable database is waited out
+                if (e instanceof DataIntegrityViolationException && ++rejectedAttempts >= maxAttempts) {
+                    if (batch.size() == 1) {
+                        deadLetter(batch.get(0), e);
+                        return;
+                    }
+                    int half = batch.size() / 2;
+                    flushWithRetry(new ArrayList<>(batch.subList(0, half)));
+                    flushWithRetry(new ArrayList<>(batch.subList(half, batch.size())));
+                    return;
+                }
+                log.warn("Saving {} queued help requests failed, retrying in {} ms: {}", batch.size(), delay, e.getMessage());
+                if (!running) throw new InterruptedException();
+                Thread.sleep(delay);
+                delay = Math.min(MAX_RETRY_DELAY_MS, delay * 2);
+            }
+        }
+    }
+
+    private void flush(List<Queued> batch) {
+        long started = System.nanoTime();
+
+        // Replayed entries, and any attempt whose commit succeeded but reported a failure, are already saved
+        Set<String> alreadySaved = new HashSet<>(helpRequestRepository.findExistingTrackingIds(
+                batch.stream().map(q -> q.submission().trackingId()).toList()));
+        List<HelpRequest> requests = new ArrayList<>(batch.size());
+        for (Queued q : batch) {
+            if (alreadySaved.contains(q.submission().trackingId())) continue;
+            HelpRequest request = q.submission().request();
+            // A failed attempt may have assigned an id that was rolled back
+            request.setId(null);
+            request.setTrackingId(q.submission().trackingId());
+            requests.add(request);
+        }
+
+        List<HelpRequest> stored = requests.isEmpty() ? List.of() : changeVersionService.write(version -> {
+            requests.forEach(r -> r.setChangeVersion(version));
+            return transactionTemplate.execute(status -> helpRequestRepository.saveAll(requests));
+        });
+
+        long now = System.currentTimeMillis();
+        batches.increment();
+        batchNanos.add(System.nanoTime() - started);
+        for (Queued q : batch) {
+            long waited = now - q.submission().acceptedAtMillis();
+            endToEndMillis.add(waited);
+            maxEndToEndMillis.accumulateAndGet(waited, Math::max);
+            queued.remove(q.submission().trackingId());
+            journal.markFlushed(q.segment());
+        }
+        synchronized (recentlySaved) {
+            for (HelpRequest r : stored) recentlySaved.put(r.getTrackingId(), r.getId());
+        }
+        depth.addAndGet(-batch.size());
+        saved.add(stored.size());
+
+        for (HelpRequest r : stored) eventPublisher.publishEvent(new HelpRequestSubmittedEvent(r));
+    }
+
+    // Either way the request leaves the queue and reports FAILED
+    private void deadLetter(Queued entry, RuntimeException cause) {
+        String trackingId = entry.submission().trackingId();
+        try {
+            byte[] line = (objectMapper.writeValueAsString(new DeadLetter(entry.submission(), cause.getMessage())) + "\n")
+                    .getBytes(StandardCharsets.UTF_8);
+            Files.write(deadLetterFile, line, StandardOpenOption.CREATE, StandardOpenOption.APPEND, StandardOpenOption.SYNC);
+            log.error("Help request {} was rejected {} times and moved to {}: {}",
+                    trackingId, maxAttempts, deadLetterFile, cause.getMessage());
+            journal.markFlushed(entry.segment());
+            deadLetters.increment();
+        } catch (IOException | RuntimeException e) {
+            // Left in the journal, so it is tried again after the next restart
+            log.error("Help request {} was rejected and could not be dead-lettered: {}", trackingId, e.getMessage());
+        }
+        deadLettered.add(trackingId);
+        queued.remove(trackingId);
+        depth.decrementAndGet();
+    }
+}
@@ -0,0 +1,66 @@
+package ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.service;
+
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.model.Alert;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.model.HelpRequest;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.model.MapMarker;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.model.Tombstone;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.repository.AlertRepository;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.repository.HelpRequestRepository;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.repository.MapMarkerRepository;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.repository.TombstoneRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+@Service
+public class SyncService {
+
+    @Autowired
+    private ChangeVersionService changeVersionService;
+
+    @Autowired
+    private MapMarkerRepository mapMarkerRepository;
+
+    @Autowired
+    private AlertRepository alertRepository;
+
+    @Autowired
+    private HelpRequestRepository helpRequestRepository;
+
+    @Autowired
+    private TombstoneRepository tombstoneRepository;
+
+    /**
+     * Everything written after since, up to the returned version. since <= 0, or a since the
+     * server has never handed out, gets a full snapshot instead (full = true): the client should
+     * replace its state rather than merge.
+     */
+    public ChangeSet getChangesSince(long since) {
+        long upTo = changeVersionService.getSafeVersion();
+
+        if (since <= 0 || since > upTo) {
+            return new ChangeSet(upTo, true,
+                    mapMarkerRepository.findAll(),
+                    alertRepository.findAllByOrderByTimestampDesc(),
+                    helpRequestRepository.findAllWithNeeds(),
+                    List.of());
+        }
+        return new ChangeSet(upTo, false,
+                mapMarkerRepository.findByChangeVersionGreaterThanAndChangeVersionLessThanEqualOrderByChangeVersionAsc(since, upTo),
+                alertRepository.findByChangeVersionGreaterThanAndChangeVersionLessThanEqualOrderByChangeVersionAsc(since, upTo),
+                helpRequestRepository.findByChangeVersionGreaterThanAndChangeVersionLessThanEqualOrderByChangeVersionAsc(since, upTo),
+                tombstoneRepository.findByChangeVersionGreaterThanAndChangeVersionLessThanEqualOrderByChangeVersionAsc(since, upTo));
+    }
+
+    public long getCurrentVersion() {
+        return changeVersionService.getSafeVersion();
+    }
+
+    /**
+     * version is what the client sends as since next time.
+     */
+    public record ChangeSet(long version, boolean full, List<MapMarker> markers, List<Alert> alerts,
+                            List<HelpRequest> helpRequests, List<Tombstone> deleted) {
+    }
+}
@@ -0,0 +1,163 @@
+package ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.service;
+
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.model.RevokedToken;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.model.User;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.repository.RevokedTokenRepository;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.repository.UserRepository;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.token.TokenClaims;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.token.TokenCodec;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.token.TokenPair;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.stereotype.Service;
+import tools.jackson.databind.ObjectMapper;
+
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Base64;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Token mode: short-lived signed access tokens that any instance can verify on its own, and
+ * single-use refresh tokens that are exchanged for a new pair. Revoked token ids are stored in
+ * the database and every instance polls them into memory, so a revocation reaches the whole
+ * cluster within app.auth.token.revocation-poll-ms without a lookup per request.
+ */
+@Service
+public class TokenService {
+
+    private static final Logger log = LoggerFactory.getLogger(TokenService.class);
+
+    // Base64 HMAC key shared by every instance; at least 32 bytes
+    @Value("${app.auth.token.secret:}")
+    private String secret;
+
+    @Value("${app.auth.token.access-ttl-seconds:900}")
+    private long accessTtlSeconds;
+
+    @Value("${app.auth.token.refresh-ttl-seconds:1209600}")
+    private long refreshTtlSeconds;
+
+    @Autowired
+    private RevokedTokenRepository revokedTokenRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private TokenCodec codec;
+    // Revoked token id -> its expiry (epoch seconds); expired ids are pruned on each poll
+    private final Map<String, Long> revoked = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void init() {
+        byte[] key;
+        if (secret == null || secret.isBlank()) {
+            key = new byte[32];
+            new SecureRandom().nextBytes(key);
+            log.warn("app.auth.token.secret is not set; using a random key, so tokens die with this instance and other instances reject them");
+        } else {
+            key = Base64.getDecoder().decode(secret.trim());
+        }
+        codec = new TokenCodec(key, objectMapper);
+        reloadRevocations();
+    }
+
+    // Role comes from the authority CustomUserDetailsService granted, e.g. ROLE_ADMIN
+    public TokenPair issue(Authentication authentication) {
+        String role = authentication.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .map(a -> a.startsWith("ROLE_") ? a.substring(5) : a)
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("User has no role"));
+        return issue(authentication.getName(), role);
+    }
+
+    public TokenPair issue(String username, String role) {
+        long now = Instant.now().getEpochSecond();
+        String access = codec.encode(new TokenClaims(UUID.randomUUID().toString(), username, role,
+                TokenClaims.Type.ACCESS, now, now + accessTtlSeconds));
+        String refresh = codec.encode(new TokenClaims(UUID.randomUUID().toString(), username, role,
+                TokenClaims.Type.REFRESH, now, now + refreshTtlSeconds));
+        return new TokenPair(access, refresh, "Bearer", accessTtlSeconds, username, role);
+    }
+
+    /**
+     * @throws IllegalArgumentException if the token is not a valid, unexpired, unrevoked access token
+     */
+    public TokenClaims verifyAccessToken(String token) {
+        TokenClaims claims = codec.decode(token, Instant.now().getEpochSecond());
+        if (claims.type() != TokenClaims.Type.ACCESS) throw new IllegalArgumentException("Not an access token");
+        if (revoked.containsKey(claims.id())) throw new IllegalArgumentException("Token has been revoked");
+        return claims;
+    }
+
+    /**
+     * Exchanges a refresh token for a new pair and revokes it. The role is read again, so role
+     * changes and deleted accounts take effect at the next refresh.
+     *
+     * @throws IllegalArgumentException if the refresh token is invalid, revoked or already used
+     */
+    public TokenPair refresh(String refreshToken) {
+        TokenClaims claims = codec.decode(refreshToken, Instant.now().getEpochSecond());
+        if (claims.type() != TokenClaims.Type.REFRESH) throw new IllegalArgumentException("Not a refresh token");
+        if (revoked.containsKey(claims.id())) throw new IllegalArgumentException("Token has been revoked");
+        User user = userRepository.findByUsername(claims.username())
+                .orElseThrow(() -> new IllegalArgumentException("User no longer exists"));
+        if (!store(claims)) throw new IllegalArgumentException("Token has already been used");
+        return issue(user.getUsername(), user.getRole().name());
+    }
+
+    // Logout: an expired or foreign token has nothing left to revoke
+    public void revoke(String token) {
+        TokenClaims claims;
+        try {
+            claims = codec.decode(token, Instant.now().getEpochSecond());
+        } catch (IllegalArgumentException e) {
+            return;
+        }
+        store(claims);
+    }
+
+    // False when the id was already revoked, possibly by a concurrent refresh on another instance
+    private boolean store(TokenClaims claims) {
+        RevokedToken row = new RevokedToken();
+        row.setId(claims.id());
+        row.setUsername(claims.username());
+        row.setExpiresAt(LocalDateTime.ofEpochSecond(claims.expiresAt(), 0, ZoneOffset.UTC));
+        row.setRevokedAt(LocalDateTime.now(ZoneOffset.UTC));
+        try {
+            revokedTokenRepository.saveAndFlush(row);
+            return true;
+        } catch (DataIntegrityViolationException e) {
+            return false;
+        } finally {
+            revoked.put(claims.id(), claims.expiresAt());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.auth.token.revocation-poll-ms:10000}", initialDelayString = "${app.auth.token.revocation-poll-ms:10000}")
+    public void reloadRevocations() {
+        LocalDateTime now = LocalDateTime.now(ZoneOffset.UTC);
+        for (RevokedToken row : revokedTokenRepository.findByExpiresAtAfter(now)) {
+            revoked.put(row.getId(), row.getExpiresAt().toEpochSecond(ZoneOffset.UTC));
+        }
+        long nowSeconds = now.toEpochSecond(ZoneOffset.UTC);
+        revoked.values().removeIf(expiresAt -> expiresAt <= nowSeconds);
+        // Every instance prunes; the statement is idempotent
+        revokedTokenRepository.deleteExpired(now);
+    }
+}
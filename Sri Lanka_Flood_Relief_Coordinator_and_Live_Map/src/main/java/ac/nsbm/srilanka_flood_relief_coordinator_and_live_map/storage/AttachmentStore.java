@@ -0,0 +1,31 @@
+package ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.Path;
+import java.util.Optional;
+
+/**
+ * Content-addressed storage for report attachments. Content is keyed by its SHA-256,
+ * so storing the same bytes twice keeps a single copy.
+ */
+public interface AttachmentStore {
+
+    /**
+     * Streams the content into the store while hashing it. Never buffers the whole upload.
+     */
+    StoredAttachment save(InputStream content) throws IOException;
+
+    boolean exists(String sha256);
+
+    SeekableByteChannel open(String sha256) throws IOException;
+
+    /**
+     * The file holding the content, when it lives on this machine's filesystem.
+     * Lets downloads hand the file to the servlet container's sendfile support.
+     */
+    default Optional<Path> localPath(String sha256) {
+        return Optional.empty();
+    }
+}
@@ -0,0 +1,120 @@
+package ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.FileSystemException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Optional;
+
+/**
+ * Keeps attachments under a root directory as ab/cd/abcd...ef, named by SHA-256.
+ *
+ * Uploads are written to a temp file in the root while hashed, then linked into place.
+ * If the target already exists the temp file is discarded, which is what dedupes.
+ */
+public class LocalAttachmentStore implements AttachmentStore {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Path root;
+    private final Path incoming;
+
+    public LocalAttachmentStore(Path root) throws IOException {
+        this.root = root.toAbsolutePath().normalize();
+        // Same filesystem as the final location, so the move can be atomic
+        this.incoming = Files.createDirectories(this.root.resolve("incoming"));
+    }
+
+    @Override
+    public StoredAttachment save(InputStream content) throws IOException {
+        Path temp = Files.createTempFile(incoming, "upload-", ".part");
+        try {
+            MessageDigest digest = sha256();
+            long size;
+            try (OutputStream out = new DigestOutputStream(Files.newOutputStream(temp), digest)) {
+                size = copy(content, out);
+            }
+            String hash = HexFormat.of().formatHex(digest.digest());
+
+            Path target = pathFor(hash);
+            if (Files.exists(target)) {
+                return new StoredAttachment(hash, size, true);
+            }
+            Files.createDirectories(target.getParent());
+            // Another upload of the same content may have placed it since the check
+            return new StoredAttachment(hash, size, !place(temp, target));
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    @Override
+    public boolean exists(String sha256) {
+        return Files.exists(pathFor(sha256));
+    }
+
+    @Override
+    public SeekableByteChannel open(String sha256) throws IOException {
+        return FileChannel.open(pathFor(sha256), StandardOpenOption.READ);
+    }
+
+    @Override
+    public Optional<Path> localPath(String sha256) {
+        Path path = pathFor(sha256);
+        return Files.exists(path) ? Optional.of(path) : Optional.empty();
+    }
+
+    // A rename silently replaces an existing target on POSIX; a link fails instead, so only one upload places the file
+    private static boolean place(Path temp, Path target) throws IOException {
+        try {
+            Files.createLink(target, temp);
+            return true;
+        } catch (FileAlreadyExistsException e) {
+            return false;
+        } catch (UnsupportedOperationException | FileSystemException e) {
+            // No hard links here: a plain move, which also refuses an existing target
+            try {
+                Files.move(temp, target);
+                return true;
+            } catch (FileAlreadyExistsException raced) {
+                return false;
+            }
+        }
+    }
+
+    private Path pathFor(String sha256) {
+        if (sha256 == null || !sha256.matches("[0-9a-f]{64}")) {
+            throw new IllegalArgumentException("Not a SHA-256 key: " + sha256);
+        }
+        return root.resolve(sha256.substring(0, 2)).resolve(sha256.substring(2, 4)).resolve(sha256);
+    }
+
+    private static long copy(InputStream in, OutputStream out) throws IOException {
+        byte[] buffer = new byte[BUFFER_SIZE];
+        long total = 0;
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+            total += read;
+        }
+        return total;
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.storage;
+
+/**
+ * Result of storing an attachment: the lowercase hex SHA-256 of its bytes and their count.
+ * deduplicated is true when identical content was already stored.
+ */
+public record StoredAttachment(String sha256, long size, boolean deduplicated) {
+}
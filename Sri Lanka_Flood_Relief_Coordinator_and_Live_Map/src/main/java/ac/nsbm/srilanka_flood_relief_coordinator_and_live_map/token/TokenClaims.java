@@ -0,0 +1,9 @@
+package ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.token;
+
+/**
+ * What a signed token says. Times are epoch seconds; role is the Role name without a ROLE_ prefix.
+ */
+public record TokenClaims(String id, String username, String role, Type type, long issuedAt, long expiresAt) {
+
+    public enum Type { ACCESS, REFRESH }
+}
@@ -0,0 +1,100 @@
+package ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.token;
+
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.ObjectMapper;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Compact tokens in JWT form (HS256): base64url header, claims and HMAC-SHA256 signature joined by dots.
+ * Only the fixed header this codec writes is accepted, so "alg": "none" and algorithm switching
+ * are rejected before the signature is even checked.
+ */
+public class TokenCodec {
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+    private static final String HEADER = ENCODER.encodeToString("{\"alg\":\"HS256\",\"typ\":\"JWT\"}".getBytes(StandardCharsets.US_ASCII));
+    private static final String ALGORITHM = "HmacSHA256";
+
+    private final SecretKeySpec key;
+    // Mac instances are not thread-safe and are relatively costly to create
+    private final ThreadLocal<Mac> macs;
+    private final ObjectMapper objectMapper;
+
+    public TokenCodec(byte[] secret, ObjectMapper objectMapper) {
+        if (secret.length < 32) throw new IllegalArgumentException("Token secret must be at least 32 bytes");
+        this.key = new SecretKeySpec(secret, ALGORITHM);
+        this.objectMapper = objectMapper;
+        this.macs = ThreadLocal.withInitial(() -> {
+            try {
+                Mac mac = Mac.getInstance(ALGORITHM);
+                mac.init(key);
+                return mac;
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("HMAC-SHA256 is not available", e);
+            }
+        });
+    }
+
+    public String encode(TokenClaims claims) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("jti", claims.id());
+        body.put("sub", claims.username());
+        body.put("role", claims.role());
+        body.put("typ", claims.type().name().toLowerCase(Locale.ROOT));
+        body.put("iat", claims.issuedAt());
+        body.put("exp", claims.expiresAt());
+        String signingInput = HEADER + "." + ENCODER.encodeToString(objectMapper.writeValueAsBytes(body));
+        return signingInput + "." + ENCODER.encodeToString(sign(signingInput));
+    }
+
+    /**
+     * @throws IllegalArgumentException if the token is malformed, not signed with this key or expired
+     */
+    public TokenClaims decode(String token, long nowSeconds) {
+        if (token == null) throw new IllegalArgumentException("Token is missing");
+        int first = token.indexOf('.');
+        int second = token.indexOf('.', first + 1);
+        if (first < 0 || second < 0 || token.indexOf('.', second + 1) >= 0) {
+            throw new IllegalArgumentException("Token is malformed");
+        }
+        if (!HEADER.equals(token.substring(0, first))) throw new IllegalArgumentException("Unsupported token header");
+
+        byte[] signature;
+        JsonNode body;
+        try {
+            signature = DECODER.decode(token.substring(second + 1));
+            if (!MessageDigest.isEqual(signature, sign(token.substring(0, second)))) {
+                throw new IllegalArgumentException("Token signature is invalid");
+            }
+            body = objectMapper.readTree(DECODER.decode(token.substring(first + 1, second)));
+        } catch (JacksonException e) {
+            throw new IllegalArgumentException("Token is malformed");
+        }
+
+        long expiresAt = body.path("exp").asLong();
+        if (expiresAt <= nowSeconds) throw new IllegalArgumentException("Token has expired");
+        TokenClaims.Type type;
+        try {
+            type = TokenClaims.Type.valueOf(body.path("typ").asString("").toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Token type is unknown");
+        }
+        return new TokenClaims(body.path("jti").asString(null), body.path("sub").asString(null),
+                body.path("role").asString(null), type, body.path("iat").asLong(), expiresAt);
+    }
+
+    private byte[] sign(String signingInput) {
+        return macs.get().doFinal(signingInput.getBytes(StandardCharsets.US_ASCII));
+    }
+}
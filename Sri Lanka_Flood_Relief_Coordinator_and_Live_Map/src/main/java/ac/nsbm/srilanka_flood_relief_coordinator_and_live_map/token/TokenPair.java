@@ -0,0 +1,6 @@
+package ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.token;
+
+// Answer to a token login or refresh; expiresIn is the access token's lifetime in seconds
+public record TokenPair(String accessToken, String refreshToken, String tokenType, long expiresIn,
+                        String username, String role) {
+}
@@ -0,0 +1,80 @@
+-- The schema as spring.jpa.hibernate.ddl-auto=update left it before migrations were introduced.
+-- A database that already has these tables is baselined at version 1 (spring.flyway.baseline-on-migrate)
+-- and starts from V2; an empty one is built from here. Everything added since lives in V2 and later.
+
+CREATE TABLE users (
+    id       BIGINT       NOT NULL AUTO_INCREMENT,
+    username VARCHAR(255) NOT NULL,
+    email    VARCHAR(255) NOT NULL,
+    password VARCHAR(255) NOT NULL,
+    role     ENUM ('ADMIN', 'MEMBER'),
+    PRIMARY KEY (id),
+    CONSTRAINT uk_users_username UNIQUE (username),
+    CONSTRAINT uk_users_email UNIQUE (email)
+) ENGINE = InnoDB;
+
+CREATE TABLE map_markers (
+    id           BIGINT NOT NULL AUTO_INCREMENT,
+    type         VARCHAR(255),
+    lat          DOUBLE NOT NULL,
+    lng          DOUBLE NOT NULL,
+    name         VARCHAR(255),
+    description  VARCHAR(1000),
+    severity     VARCHAR(255),
+    status       VARCHAR(255),
+    submitted_by VARCHAR(255),
+    timestamp    DATETIME(6),
+    capacity     INT,
+    contact      VARCHAR(255),
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE help_requests (
+    id        BIGINT NOT NULL AUTO_INCREMENT,
+    name      VARCHAR(255),
+    phone     VARCHAR(255),
+    latitude  DOUBLE NOT NULL,
+    longitude DOUBLE NOT NULL,
+    details   VARCHAR(1000),
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE help_request_needs (
+    help_request_id BIGINT NOT NULL,
+    needs           VARCHAR(255),
+    CONSTRAINT fk_help_request_needs_help_request FOREIGN KEY (help_request_id) REFERENCES help_requests (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE alerts (
+    id        BIGINT NOT NULL AUTO_INCREMENT,
+    severity  VARCHAR(255),
+    title     VARCHAR(255),
+    content   VARCHAR(1000),
+    source    VARCHAR(255),
+    timestamp DATETIME(6),
+    icon      VARCHAR(255),
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE messages (
+    id        BIGINT  NOT NULL AUTO_INCREMENT,
+    sender    VARCHAR(255),
+    recipient VARCHAR(255),
+    content   VARCHAR(255),
+    role      VARCHAR(255),
+    timestamp DATETIME(6),
+    is_read   BOOLEAN NOT NULL DEFAULT FALSE,
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE reports (
+    id           BIGINT NOT NULL AUTO_INCREMENT,
+    title        VARCHAR(255),
+    description  VARCHAR(1000),
+    submitted_by VARCHAR(255),
+    timestamp    DATETIME(6),
+    file_name    VARCHAR(255),
+    file_type    VARCHAR(255),
+    data         LONGBLOB,
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
@@ -0,0 +1,71 @@
+-- Tables, columns and sequences the application gained while the schema was still generated by
+-- ddl-auto=update. A database baselined at V1 has none of them; rows it already holds keep NULL in
+-- the new columns, which every reader treats as "from before the column existed".
+
+-- Chat partner list (ConversationSummaryService backfills it from messages on first start)
+CREATE TABLE conversation_summaries (
+    id                   BIGINT NOT NULL AUTO_INCREMENT,
+    username             VARCHAR(255),
+    partner              VARCHAR(255),
+    last_activity        DATETIME(6),
+    last_message_preview VARCHAR(120),
+    unread               BIGINT NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_conversation_summaries_username_partner UNIQUE (username, partner)
+) ENGINE = InnoDB;
+
+-- Report attachments moved to the content-addressed store (AttachmentMigrationService moves old blobs)
+ALTER TABLE reports
+    ADD COLUMN file_size       BIGINT,
+    ADD COLUMN attachment_hash VARCHAR(64);
+UPDATE reports SET file_size = LENGTH(data) WHERE data IS NOT NULL;
+
+-- Delta sync: every write takes a change version; deletions leave a tombstone
+ALTER TABLE map_markers
+    ADD COLUMN corroborations INT,
+    ADD COLUMN change_version BIGINT,
+    ADD INDEX idx_map_markers_change_version (change_version);
+
+ALTER TABLE alerts
+    ADD COLUMN change_version BIGINT,
+    ADD INDEX idx_alerts_change_version (change_version);
+
+ALTER TABLE help_requests
+    ADD COLUMN created_at     DATETIME(6),
+    ADD COLUMN tracking_id    VARCHAR(36),
+    ADD COLUMN change_version BIGINT,
+    ADD CONSTRAINT uk_help_requests_tracking_id UNIQUE (tracking_id),
+    ADD INDEX idx_help_requests_change_version (change_version);
+
+CREATE TABLE tombstones (
+    id             BIGINT NOT NULL AUTO_INCREMENT,
+    entity_type    VARCHAR(255),
+    entity_id      BIGINT,
+    change_version BIGINT,
+    deleted_at     DATETIME(6),
+    PRIMARY KEY (id),
+    INDEX idx_tombstones_change_version (change_version)
+) ENGINE = InnoDB;
+
+-- Token mode: revoked refresh tokens until they would have expired anyway
+CREATE TABLE revoked_tokens (
+    id         VARCHAR(36) NOT NULL,
+    username   VARCHAR(255),
+    expires_at DATETIME(6),
+    revoked_at DATETIME(6),
+    PRIMARY KEY (id),
+    INDEX idx_revoked_tokens_expires_at (expires_at)
+) ENGINE = InnoDB;
+
+-- Table-backed sequences for batched inserts (MySQL has no sequences); next_val is the first
+-- unreserved id, so it starts past the rows AUTO_INCREMENT created. The id columns keep
+-- AUTO_INCREMENT, which is unused once the application supplies the ids.
+CREATE TABLE map_markers_seq (
+    next_val BIGINT
+) ENGINE = InnoDB;
+INSERT INTO map_markers_seq SELECT COALESCE(MAX(id), 0) + 1 FROM map_markers;
+
+CREATE TABLE help_requests_seq (
+    next_val BIGINT
+) ENGINE = InnoDB;
+INSERT INTO help_requests_seq SELECT COALESCE(MAX(id), 0) + 1 FROM help_requests;
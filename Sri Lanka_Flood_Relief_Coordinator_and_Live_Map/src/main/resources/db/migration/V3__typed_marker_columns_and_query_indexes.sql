@@ -0,0 +1,36 @@
+-- Marker status, severity and type become ENUM columns (one byte per row instead of a VARCHAR(255)),
+-- and each repository query that filters or sorts gets an index whose leading columns match it.
+-- QueryPlanTest runs EXPLAIN over these queries and fails on a full scan.
+
+-- MODIFY rejects values outside the new lists, so normalise what free-text columns collected first
+UPDATE map_markers SET status = LOWER(TRIM(status)) WHERE status IS NOT NULL;
+UPDATE map_markers SET status = 'pending' WHERE status IS NULL OR status NOT IN ('pending', 'approved', 'rejected');
+
+UPDATE map_markers SET severity = LOWER(TRIM(severity)) WHERE severity IS NOT NULL;
+UPDATE map_markers SET severity = NULL WHERE severity NOT IN ('low', 'medium', 'high', 'critical');
+
+UPDATE map_markers SET type = LOWER(TRIM(type)) WHERE type IS NOT NULL;
+UPDATE map_markers SET type = 'other'
+WHERE type IS NULL OR type NOT IN ('flood', 'landslide', 'road-block', 'safe-zone', 'rescue-needed', 'medical', 'other');
+
+UPDATE map_markers SET corroborations = 1 WHERE corroborations IS NULL;
+
+ALTER TABLE map_markers
+    MODIFY type ENUM ('flood', 'landslide', 'road-block', 'safe-zone', 'rescue-needed', 'medical', 'other') NOT NULL,
+    MODIFY severity ENUM ('low', 'medium', 'high', 'critical'),
+    MODIFY status ENUM ('pending', 'approved', 'rejected') NOT NULL DEFAULT 'pending',
+    MODIFY corroborations INT NOT NULL DEFAULT 1,
+    -- findByStatus, countByStatus, moderation keyset pages, dedup warm-up, bulk moderation filter
+    ADD INDEX idx_map_markers_status_timestamp (status, timestamp, id),
+    -- findBySubmittedBy (a member's own reports)
+    ADD INDEX idx_map_markers_submitted_by (submitted_by, timestamp);
+
+ALTER TABLE messages
+    -- findConversation* (either direction of a thread) and markMessagesAsRead
+    ADD INDEX idx_messages_conversation (sender, recipient, timestamp, id),
+    -- countByRecipientAndIsReadFalse; with the index above, findAllMessagesByUser's OR becomes an index merge
+    ADD INDEX idx_messages_recipient_unread (recipient, is_read, sender);
+
+-- Keyset pages, newest first
+ALTER TABLE alerts ADD INDEX idx_alerts_timestamp (timestamp, id);
+ALTER TABLE reports ADD INDEX idx_reports_timestamp (timestamp, id);
@@ -0,0 +1,2 @@
+-- findArchivable: the oldest messages, walked in (timestamp, id) order by the chat archiver
+ALTER TABLE messages ADD INDEX idx_messages_timestamp (timestamp, id);
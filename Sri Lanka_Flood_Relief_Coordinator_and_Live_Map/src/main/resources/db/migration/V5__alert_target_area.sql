@@ -0,0 +1,6 @@
+-- Optional geofence for live alert delivery: a circle, or a polygon stored as "lat,lng;lat,lng;..."
+ALTER TABLE alerts
+    ADD COLUMN target_lat           DOUBLE,
+    ADD COLUMN target_lng           DOUBLE,
+    ADD COLUMN target_radius_meters DOUBLE,
+    ADD COLUMN target_polygon       TEXT;
@@ -0,0 +1,8 @@
+-- Heartbeat for the read replica's lag check: the application writes the time here on the
+-- primary and reads it back from the replica (see ReplicaLagMonitor)
+CREATE TABLE replica_heartbeat (
+    id         INT    NOT NULL PRIMARY KEY,
+    beat_at_ms BIGINT NOT NULL
+);
+
+INSERT INTO replica_heartbeat (id, beat_at_ms) VALUES (1, 0);
@@ -0,0 +1,2 @@
+-- Help request pages: newest first by (created_at, id); pooled-lo ids are not in creation order
+ALTER TABLE help_requests ADD INDEX idx_help_requests_created_at (created_at, id);
@@ -0,0 +1,12 @@
+-- Change versions for /api/sync come from this row rather than a counter in each instance, so
+-- several instances never hand out the same version (see ChangeVersionService)
+CREATE TABLE change_version_seq (
+    next_val BIGINT NOT NULL
+) ENGINE = InnoDB;
+
+INSERT INTO change_version_seq
+SELECT GREATEST(
+    (SELECT COALESCE(MAX(change_version), 0) FROM map_markers),
+    (SELECT COALESCE(MAX(change_version), 0) FROM alerts),
+    (SELECT COALESCE(MAX(change_version), 0) FROM help_requests),
+    (SELECT COALESCE(MAX(change_version), 0) FROM tombstones)) + 1;
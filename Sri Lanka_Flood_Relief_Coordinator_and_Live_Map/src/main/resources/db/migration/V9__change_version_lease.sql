@@ -0,0 +1,7 @@
+-- Versions handed out whose writes have not committed yet (see ChangeVersionService). The
+-- oldest one caps the version /api/sync advertises, on every instance.
+CREATE TABLE change_version_lease (
+    version      BIGINT NOT NULL,
+    leased_at_ms BIGINT NOT NULL,
+    PRIMARY KEY (version)
+) ENGINE = InnoDB;
@@ -7,6 +7,9 @@ class AdminManager {
         this.rejectedReports = []; // Added rejected array
         this.alerts = [];
         this.helpRequests = [];
+        // nextCursor of each paged list; null once the last page is loaded
+        this.cursors = {};
+        this.sync = new SyncClient(changes => this.applyChanges(changes));
         this.incidentChart = null;
         this.needsChart = null;
         this.init();
@@ -19,7 +22,7 @@ class AdminManager {
             return;
         }
 
-        this.loadAllData();
+        this.loadAllData().then(() => this.sync.start(AdminManager.SYNC_INTERVAL_MS));
         this.setupEventListeners();
     }
 
@@ -59,14 +62,15 @@ class AdminManager {
 
     async loadAllData() {
         try {
-            // 1. Fetch Help Requests
-            const helpRes = await fetch('http://localhost:8080/api/help-requests', { credentials: 'include' });
-            this.helpRequests = await helpRes.json();
+            // 0. Remember where the change log stands before reading, so later syncs miss nothing
+            await this.sync.fetchVersion();
+
+            // 1. Fetch Help Requests (first page; more on demand)
+            this.helpRequests = await this.fetchFirstPage('helpRequests');
             this.renderHelpRequests();
 
             // 2. Fetch Pending Reports
-            const pendingRes = await fetch('http://localhost:8080/api/markers/pending', { credentials: 'include' });
-            this.pendingReports = await pendingRes.json();
+            this.pendingReports = await this.fetchFirstPage('pendingReports');
             this.renderPendingReports();
 
             // 3. Fetch Approved Reports (For Analytics)
@@ -74,13 +78,11 @@ class AdminManager {
             this.approvedReports = await approvedRes.json();
 
             // 4. Fetch Rejected Reports
-            const rejectedRes = await fetch('http://localhost:8080/api/markers/rejected', { credentials: 'include' });
-            this.rejectedReports = await rejectedRes.json();
+            this.rejectedReports = await this.fetchFirstPage('rejectedReports');
             this.renderRejectedReports();
 
             // 5. Fetch Alerts
-            const alertsRes = await fetch('http://localhost:8080/api/alerts', { credentials: 'include' });
-            this.alerts = await alertsRes.json();
+            this.alerts = await this.fetchFirstPage('alerts');
             this.renderAlerts();
 
             // Update Dashboard UI
@@ -92,26 +94,133 @@ class AdminManager {
         }
     }
 
+    // --- PAGED LISTS ---
+
+    static PAGE_SIZE = 50;
+
+    static PAGED_LISTS = {
+        helpRequests: { url: 'http://localhost:8080/api/help-requests', render: 'renderHelpRequests' },
+        pendingReports: { url: 'http://localhost:8080/api/markers/pending', render: 'renderPendingReports' },
+        rejectedReports: { url: 'http://localhost:8080/api/markers/rejected', render: 'renderRejectedReports' },
+        alerts: { url: 'http://localhost:8080/api/alerts', render: 'renderAlerts' }
+    };
+
+    async fetchPage(list, cursor) {
+        const params = new URLSearchParams({ limit: AdminManager.PAGE_SIZE });
+        if (cursor) params.set('cursor', cursor);
+        const res = await fetch(`${AdminManager.PAGED_LISTS[list].url}?${params}`, { credentials: 'include' });
+        const page = await res.json();
+        this.cursors[list] = page.nextCursor;
+        return page.items;
+    }
+
+    fetchFirstPage(list) {
+        return this.fetchPage(list, null);
+    }
+
+    async loadMore(list) {
+        const cursor = this.cursors[list];
+        if (!cursor) return;
+        try {
+            const items = await this.fetchPage(list, cursor);
+            this[list] = this[list].concat(items);
+            this[AdminManager.PAGED_LISTS[list].render]();
+            this.updateStats();
+            this.renderCharts();
+        } catch (err) {
+            console.error("Error loading more items:", err);
+        }
+    }
+
+    appendLoadMore(container, list) {
+        if (!this.cursors[list]) return;
+        const btn = document.createElement('button');
+        btn.className = 'btn btn-secondary';
+        btn.style.cssText = 'display:block; margin:10px auto;';
+        btn.textContent = 'Load more';
+        btn.addEventListener('click', () => {
+            btn.disabled = true;
+            this.loadMore(list);
+        });
+        container.appendChild(btn);
+    }
+
+    // Shows "50+" while more pages are left on the server
+    countLabel(list) {
+        return this[list].length + (this.cursors[list] ? '+' : '');
+    }
+
+    // --- DELTA SYNC ---
+
+    static SYNC_INTERVAL_MS = 30000;
+
+    // Refresh after our own actions without reloading every list
+    syncChanges() {
+        return this.sync.poll().catch(err => console.error("Sync error:", err));
+    }
+
+    applyChanges(changes) {
+        const listByStatus = { pending: 'pendingReports', approved: 'approvedReports', rejected: 'rejectedReports' };
+
+        if (changes.full) {
+            this.helpRequests = changes.helpRequests;
+            this.alerts = changes.alerts;
+            Object.entries(listByStatus).forEach(([status, list]) => {
+                this[list] = changes.markers.filter(m => m.status === status);
+            });
+            this.cursors = {};
+        } else {
+            changes.helpRequests.forEach(req => SyncClient.upsert(this.helpRequests, req));
+            changes.alerts.forEach(alert => SyncClient.upsert(this.alerts, alert));
+            // A status change moves a marker from one list to another
+            changes.markers.forEach(marker => {
+                Object.values(listByStatus).forEach(list => {
+                    this[list] = this[list].filter(m => m.id !== marker.id);
+                });
+                const target = listByStatus[marker.status];
+                if (target) this[target].unshift(marker);
+            });
+            changes.deleted.forEach(t => {
+                if (t.entityType === 'alert') this.alerts = this.alerts.filter(a => a.id !== t.entityId);
+                if (t.entityType === 'helpRequest') this.helpRequests = this.helpRequests.filter(r => r.id !== t.entityId);
+                if (t.entityType === 'marker') {
+                    Object.values(listByStatus).forEach(list => {
+                        this[list] = this[list].filter(m => m.id !== t.entityId);
+                    });
+                }
+            });
+            const changed = changes.helpRequests.length + changes.alerts.length + changes.markers.length + changes.deleted.length;
+            if (changed === 0) return;
+        }
+
+        this.renderHelpRequests();
+        this.renderPendingReports();
+        this.renderRejectedReports();
+        this.renderAlerts();
+        this.updateStats();
+        this.renderCharts();
+    }
+
     // --- ANALYTICS & CHARTS ---
 
     updateStats() {
         const totalIncidents = this.approvedReports.length;
-        const totalRequests = this.helpRequests.length;
+        const totalRequests = this.countLabel('helpRequests');
         const highRisk = this.approvedReports.filter(i =>
             i.severity && (i.severity.toLowerCase() === 'critical' || i.severity.toLowerCase() === 'high')
         ).length;
 
         const pendingCount = document.getElementById('pending-count');
-        if (pendingCount) pendingCount.textContent = this.pendingReports.length;
+        if (pendingCount) pendingCount.textContent = this.countLabel('pendingReports');
 
         const approvedCount = document.getElementById('approved-count');
         if (approvedCount) approvedCount.textContent = this.approvedReports.length;
 
         const rejectedCount = document.getElementById('rejected-count');
-        if (rejectedCount) rejectedCount.textContent = this.rejectedReports.length;
+        if (rejectedCount) rejectedCount.textContent = this.countLabel('rejectedReports');
 
         const alertsCount = document.getElementById('alerts-count');
-        if (alertsCount) alertsCount.textContent = this.alerts.length;
+        if (alertsCount) alertsCount.textContent = this.countLabel('alerts');
 
         // Also update dashboard summary cards if they exist
         const dashTotal = document.getElementById('total-incidents');
@@ -257,7 +366,7 @@ class AdminManager {
             .then(res => {
                 if (res.ok) {
                     alert('Report Approved!');
-                    this.loadAllData();
+                    this.syncChanges();
                 } else {
                     alert('Failed to approve report');
                 }
@@ -270,13 +379,37 @@ class AdminManager {
             .then(res => {
                 if (res.ok) {
                     alert('Report Rejected');
-                    this.loadAllData();
+                    this.syncChanges();
                 } else {
                     alert('Failed to reject report');
                 }
             });
     }
 
+    // Approve or reject every pending report on screen with one request. Reports changed by
+    // someone else since our last sync come back as conflicts and are left as they are.
+    bulkModerate(action) {
+        const ids = this.pendingReports.map(r => r.id);
+        if (ids.length === 0) return;
+        if (!confirm(`${action === 'approve' ? 'Approve' : 'Reject'} all ${ids.length} pending reports shown?`)) return;
+        fetch(`http://localhost:8080/api/markers/bulk/${action}`, {
+            method: 'PUT',
+            credentials: 'include',
+            headers: { 'Content-Type': 'application/json' },
+            body: JSON.stringify({ ids, asOfVersion: this.sync.version })
+        })
+            .then(async res => {
+                if (!res.ok) {
+                    alert('Bulk update failed: ' + await res.text());
+                    return;
+                }
+                const result = await res.json();
+                const skipped = result.conflicts.length + result.notFound.length;
+                alert(`${result.changed.length} reports updated` + (skipped ? `, ${skipped} skipped (changed by someone else)` : ''));
+                this.syncChanges();
+            });
+    }
+
     // --- UPDATED DELETE ALERT FUNCTION ---
     deleteAlert(id) {
         if (!confirm('Are you sure you want to delete this alert?')) return;
@@ -288,7 +421,7 @@ class AdminManager {
             .then(async res => {
                 if (res.ok) {
                     // Success: Reload data to remove the alert from the list
-                    this.loadAllData();
+                    this.syncChanges();
                 } else {
                     const errorText = await res.text();
                     alert('Failed to delete alert: ' + errorText);
@@ -309,6 +442,13 @@ class AdminManager {
             source: document.getElementById('alert-location').value || "Government",
             icon: "⚠️"
         };
+        // Leave these empty to push the alert to everyone
+        const targetLat = document.getElementById('alert-target-lat');
+        if (targetLat && targetLat.value !== '') {
+            alertData.targetLat = parseFloat(targetLat.value);
+            alertData.targetLng = parseFloat(document.getElementById('alert-target-lng').value);
+            alertData.targetRadiusMeters = parseFloat(document.getElementById('alert-target-radius').value) * 1000;
+        }
 
         fetch('http://localhost:8080/api/alerts', {
             method: 'POST',
@@ -319,10 +459,10 @@ class AdminManager {
             if (res.ok) {
                 alert('Alert Created Successfully');
                 this.closeAlertModal();
-                this.loadAllData();
+                this.syncChanges();
                 e.target.reset();
             } else {
-                alert('Failed to create alert');
+                res.text().then(text => alert('Failed to create alert: ' + text));
             }
         });
     }
@@ -367,6 +507,7 @@ class AdminManager {
             `;
             container.appendChild(card);
         });
+        this.appendLoadMore(container, 'helpRequests');
     }
 
     renderPendingReports() {
@@ -379,6 +520,16 @@ class AdminManager {
             return;
         }
 
+        if (this.pendingReports.length > 1) {
+            const bar = document.createElement('div');
+            bar.style.cssText = 'display:flex; gap:10px; justify-content:flex-end; margin-bottom:10px;';
+            bar.innerHTML = `
+                <button class="btn btn-secondary" onclick="window.adminManager.bulkModerate('approve')"><i class="fas fa-check-double"></i> Accept all (${this.pendingReports.length})</button>
+                <button class="btn btn-secondary" onclick="window.adminManager.bulkModerate('reject')"><i class="fas fa-times"></i> Reject all (${this.pendingReports.length})</button>
+            `;
+            container.appendChild(bar);
+        }
+
         this.pendingReports.forEach(report => {
             const card = document.createElement('div');
             card.className = `report-card ${report.type}`;
@@ -400,6 +551,7 @@ class AdminManager {
                 <div class="report-description">${report.description}</div>
                 <div class="report-severity">Severity: <strong>${report.severity}</strong></div>
                 <div class="report-submitted">Submitted by: ${report.submittedBy}</div>
+                ${report.corroborations > 1 ? `<div class="report-submitted">Reported ${report.corroborations} times</div>` : ''}
                 
                 <div class="report-actions" style="margin-top: 15px; display: flex; gap: 15px;">
                     <button style="${btnApproveStyle}" onclick="window.adminManager.approveReport(${report.id})"><i class="fas fa-check"></i> Accept</button>
@@ -408,6 +560,7 @@ class AdminManager {
             `;
             container.appendChild(card);
         });
+        this.appendLoadMore(container, 'pendingReports');
     }
 
     renderRejectedReports() {
@@ -442,6 +595,7 @@ class AdminManager {
             `;
             container.appendChild(card);
         });
+        this.appendLoadMore(container, 'rejectedReports');
     }
 
     renderAlerts() {
@@ -472,6 +626,7 @@ class AdminManager {
             `;
             container.appendChild(card);
         });
+        this.appendLoadMore(container, 'alerts');
     }
 
     openAlertModal() { document.getElementById('alert-modal').style.display = 'block'; }
@@ -9,6 +9,9 @@ class AlertsManager {
         // Load alerts from Backend
         this.loadAlerts();
 
+        // New alerts are pushed; those aimed at an area only if we are in it
+        this.connectAlertStream();
+
         // Render initial state
         this.renderAlerts();
 
@@ -89,6 +92,33 @@ class AlertsManager {
             });
     }
 
+    connectAlertStream() {
+        if (!window.EventSource) return;
+
+        const open = (coords) => {
+            const query = coords ? `?lat=${coords.latitude}&lng=${coords.longitude}` : '';
+            this.stream = new EventSource('http://localhost:8080/api/alerts/stream' + query);
+            this.stream.addEventListener('alert', (e) => {
+                const alert = JSON.parse(e.data);
+                this.alerts = [alert, ...(this.alerts || []).filter(a => a.id !== alert.id)];
+                this.renderAlerts();
+            });
+            this.stream.addEventListener('remove', (e) => {
+                const id = JSON.parse(e.data).id;
+                this.alerts = (this.alerts || []).filter(a => a.id !== id);
+                this.renderAlerts();
+            });
+            this.stream.onerror = () => console.warn("Alert stream interrupted, reconnecting...");
+        };
+
+        // Without a location only alerts for everyone arrive
+        if (!navigator.geolocation) return open(null);
+        navigator.geolocation.getCurrentPosition(
+            (pos) => open(pos.coords),
+            () => open(null),
+            { timeout: 10000, maximumAge: 300000 });
+    }
+
     renderAlerts() {
         const alertList = document.querySelector('.alert-list');
         if (!alertList) return;
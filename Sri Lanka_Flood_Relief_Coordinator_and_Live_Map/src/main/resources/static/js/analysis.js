@@ -1,7 +1,6 @@
 class AnalysisManager {
     constructor() {
-        this.incidents = [];
-        this.helpRequests = [];
+        this.summary = null;
         this.init();
     }
 
@@ -20,13 +19,10 @@ class AnalysisManager {
 
     async loadData() {
         try {
-            // Fetch Verified Incidents
-            const incidentsRes = await fetch('http://localhost:8080/api/markers/approved');
-            this.incidents = await incidentsRes.json();
-
-            // Fetch Help Requests (Requires Auth)
-            const requestsRes = await fetch('http://localhost:8080/api/help-requests', { credentials: 'include' });
-            this.helpRequests = await requestsRes.json();
+            // Counts are aggregated on the server, so this stays a few KB however many markers and requests exist
+            const res = await fetch('http://localhost:8080/api/analytics/summary', { credentials: 'include' });
+            if (!res.ok) throw new Error(`HTTP ${res.status}`);
+            this.summary = await res.json();
 
             this.updateStats();
             this.renderCharts();
@@ -38,30 +34,28 @@ class AnalysisManager {
     }
 
     updateStats() {
-        document.getElementById('total-incidents').textContent = this.incidents.length;
-        document.getElementById('total-requests').textContent = this.helpRequests.length;
-
-        // Calculate High Risk (Severity = Critical or High)
-        const highRisk = this.incidents.filter(i =>
-            i.severity && (i.severity.toLowerCase() === 'critical' || i.severity.toLowerCase() === 'high')
-        ).length;
-        document.getElementById('high-risk-count').textContent = highRisk;
+        document.getElementById('total-incidents').textContent = this.summary.approvedIncidents;
+        document.getElementById('total-requests').textContent = this.summary.helpRequests;
+
+        // High Risk = Severity Critical or High
+        document.getElementById('high-risk-count').textContent = this.summary.highRiskIncidents;
+    }
+
+    // Largest first, as [label, count] pairs
+    static sorted(counts) {
+        return Object.entries(counts).sort((a, b) => b[1] - a[1]);
     }
 
     renderCharts() {
         // 1. Incident Type Chart
-        const typeCounts = {};
-        this.incidents.forEach(i => {
-            const type = i.type || 'Other';
-            typeCounts[type] = (typeCounts[type] || 0) + 1;
-        });
+        const types = AnalysisManager.sorted(this.summary.incidentsByType);
 
         new Chart(document.getElementById('incidentChart'), {
             type: 'doughnut',
             data: {
-                labels: Object.keys(typeCounts).map(s => s.toUpperCase().replace('-', ' ')),
+                labels: types.map(([type]) => type.toUpperCase().replace('-', ' ')),
                 datasets: [{
-                    data: Object.values(typeCounts),
+                    data: types.map(([, count]) => count),
                     backgroundColor: ['#2196F3', '#FF9800', '#9E9E9E', '#4CAF50', '#F44336'],
                     borderWidth: 0
                 }]
@@ -75,26 +69,15 @@ class AnalysisManager {
         });
 
         // 2. Help Needs Chart
-        const needCounts = {};
-        this.helpRequests.forEach(req => {
-            if (req.needs && Array.isArray(req.needs)) {
-                req.needs.forEach(need => {
-                    needCounts[need] = (needCounts[need] || 0) + 1;
-                });
-            } else {
-                // Handle legacy data or single string
-                const need = req.needs || "General";
-                needCounts[need] = (needCounts[need] || 0) + 1;
-            }
-        });
+        const needs = AnalysisManager.sorted(this.summary.needs);
 
         new Chart(document.getElementById('needsChart'), {
             type: 'bar',
             data: {
-                labels: Object.keys(needCounts),
+                labels: needs.map(([need]) => need),
                 datasets: [{
                     label: 'Requests',
-                    data: Object.values(needCounts),
+                    data: needs.map(([, count]) => count),
                     backgroundColor: '#FFD700',
                     borderRadius: 5
                 }]
@@ -113,8 +96,10 @@ class AnalysisManager {
     }
 
     generatePDF() {
+        if (!this.summary) return;
         const { jsPDF } = window.jspdf;
         const doc = new jsPDF();
+        const summary = this.summary;
 
         // Title
         doc.setFontSize(22);
@@ -124,41 +109,34 @@ class AnalysisManager {
         // Date
         doc.setFontSize(12);
         doc.setTextColor(100);
-        doc.text(`Generated on: ${new Date().toLocaleString()}`, 14, 30);
+        doc.text(`Generated on: ${new Date(summary.generatedAt).toLocaleString()}`, 14, 30);
 
         // Summary Stats
         doc.setFillColor(240, 240, 240);
         doc.rect(14, 35, 180, 25, 'F');
         doc.setFontSize(14);
         doc.setTextColor(0);
-        doc.text(`Total Incidents: ${this.incidents.length}`, 20, 50);
-        doc.text(`Active Help Requests: ${this.helpRequests.length}`, 100, 50);
+        doc.text(`Verified Incidents: ${summary.approvedIncidents}`, 20, 46);
+        doc.text(`High Risk: ${summary.highRiskIncidents}`, 20, 55);
+        doc.text(`Help Requests: ${summary.helpRequests}`, 100, 46);
+        doc.text(`Pending Reports: ${summary.markersByStatus.pending || 0}`, 100, 55);
 
-        // --- Section 1: Help Requests Table ---
+        // --- Section 1: Needs ---
         doc.setFontSize(16);
         doc.setTextColor(41, 128, 185);
-        doc.text("Emergency Help Requests", 14, 75);
-
-        const requestRows = this.helpRequests.map(req => [
-            req.name,
-            req.phone,
-            (Array.isArray(req.needs) ? req.needs.join(", ") : req.needs) || "General",
-            req.details || "No details"
-        ]);
+        doc.text("Help Requested, by Need", 14, 75);
 
         doc.autoTable({
             startY: 80,
-            head: [['Name', 'Phone', 'Needs', 'Details']],
-            body: requestRows,
+            head: [['Need', 'Requests']],
+            body: AnalysisManager.sorted(summary.needs),
             theme: 'grid',
             headStyles: { fillColor: [244, 67, 54] } // Red header for emergency
         });
 
-        // --- Section 2: Flood Incidents Table ---
-        let finalY = doc.lastAutoTable.finalY + 15; // Start below previous table
-
-        // Check if we need a new page
-        if (finalY > 250) {
+        // --- Section 2: Verified incidents by type and severity ---
+        let finalY = doc.lastAutoTable.finalY + 15;
+        if (finalY > 230) {
             doc.addPage();
             finalY = 20;
         }
@@ -167,20 +145,43 @@ class AnalysisManager {
         doc.setTextColor(41, 128, 185);
         doc.text("Verified Flood Incidents", 14, finalY);
 
-        const incidentRows = this.incidents.map(inc => [
-            inc.name,
-            inc.type.toUpperCase(),
-            inc.severity ? inc.severity.toUpperCase() : 'N/A',
-            inc.description
-        ]);
-
         doc.autoTable({
             startY: finalY + 5,
-            head: [['Location', 'Type', 'Severity', 'Description']],
-            body: incidentRows,
+            head: [['Type', 'Incidents']],
+            body: AnalysisManager.sorted(summary.incidentsByType).map(([type, count]) => [type.toUpperCase(), count]),
             theme: 'striped',
+            margin: { right: 110 },
             headStyles: { fillColor: [76, 175, 80] } // Green header
         });
+        doc.autoTable({
+            startY: finalY + 5,
+            head: [['Severity', 'Incidents']],
+            body: AnalysisManager.sorted(summary.incidentsBySeverity).map(([severity, count]) => [severity.toUpperCase(), count]),
+            theme: 'striped',
+            margin: { left: 110 },
+            headStyles: { fillColor: [76, 175, 80] }
+        });
+
+        // --- Section 3: Daily activity ---
+        finalY = doc.lastAutoTable.finalY + 15;
+        if (finalY > 230) {
+            doc.addPage();
+            finalY = 20;
+        }
+
+        doc.setFontSize(16);
+        doc.setTextColor(41, 128, 185);
+        doc.text("Daily Activity (last 30 days)", 14, finalY);
+
+        doc.autoTable({
+            startY: finalY + 5,
+            head: [['Day', 'Reports', 'Help Requests']],
+            body: summary.daily
+                .filter(d => d.markersReported > 0 || d.helpRequests > 0)
+                .map(d => [d.start.substring(0, 10), d.markersReported, d.helpRequests]),
+            theme: 'grid',
+            headStyles: { fillColor: [41, 128, 185] }
+        });
 
         // Save
         doc.save("Flood_Relief_Situation_Report.pdf");
@@ -2,6 +2,10 @@ class ChatManager {
     constructor() {
         this.currentUser = null;
         this.currentPartner = null;
+        // Open conversation, oldest first; olderCursor pages further back (null once the start is reached)
+        this.messages = [];
+        this.olderCursor = null;
+        this.loadingOlder = false;
         this.chatBox = document.getElementById('chat-box');
         this.chatList = document.getElementById('chat-list');
         this.init();
@@ -17,15 +21,30 @@ class ChatManager {
         this.loadPartners();
 
         document.getElementById('send-btn').addEventListener('click', () => this.sendMessage());
+        this.chatBox.addEventListener('scroll', () => {
+            if (this.chatBox.scrollTop < 50) this.loadOlder();
+        });
         document.getElementById('message-input').addEventListener('keypress', (e) => {
             if (e.key === 'Enter') this.sendMessage();
         });
 
-        // Poll for updates (Messages AND Sidebar Order)
+        // Live updates pushed through main.js's chat stream
+        if (window.floodApp && window.floodApp.chatStream) {
+            window.addEventListener('chat-message', (e) => {
+                const msg = e.detail;
+                if (this.currentPartner && (msg.sender === this.currentPartner || msg.recipient === this.currentPartner)) {
+                    this.loadNewer();
+                }
+                this.loadPartners();
+            });
+            return;
+        }
+
+        // Fallback: Poll for updates (Messages AND Sidebar Order)
         setInterval(() => {
             // Refresh active conversation if one is open
             if (this.currentPartner) {
-                this.loadConversation(this.currentPartner, false);
+                this.loadNewer();
             }
             // Refresh sidebar to reorder chats and update notification badges
             this.loadPartners();
@@ -83,7 +102,7 @@ class ChatManager {
                         <h4 style="margin:0;">${name}</h4>
                         ${badgeHtml}
                     </div>
-                    <p style="margin:4px 0 0; color:#aaa; font-size:0.8rem;">Click to chat</p>
+                    <p style="margin:4px 0 0; color:#aaa; font-size:0.8rem;">${partnerObj.preview || 'Click to chat'}</p>
                 </div>
             `;
             this.chatList.appendChild(div);
@@ -91,6 +110,10 @@ class ChatManager {
     }
 
     selectPartner(partnerName) {
+        if (this.currentPartner !== partnerName) {
+            this.messages = [];
+            this.olderCursor = null;
+        }
         this.currentPartner = partnerName;
 
         document.getElementById('current-chat-name').textContent = partnerName;
@@ -113,22 +136,73 @@ class ChatManager {
 
     // --- Message Area Logic ---
 
+    conversationUrl(partner, query) {
+        return `http://localhost:8080/api/messages/conversation?partner=${encodeURIComponent(partner)}&${query}`;
+    }
+
+    // Latest page only; older messages are fetched as the user scrolls up
     async loadConversation(partner, forceScroll) {
         try {
-            const res = await fetch(`http://localhost:8080/api/messages/conversation?partner=${partner}`, { credentials: 'include' });
-            if (res.ok) {
-                const messages = await res.json();
-                this.renderMessages(messages, forceScroll);
+            const res = await fetch(this.conversationUrl(partner, 'limit=50'), { credentials: 'include' });
+            if (res.ok && partner === this.currentPartner) {
+                const page = await res.json();
+                this.messages = page.items.reverse();
+                this.olderCursor = page.nextCursor;
+                this.renderMessages(forceScroll);
+
+                // Update the global notification badge (in the bottom nav); pushed when streaming
+                if(window.floodApp && !window.floodApp.chatStream) window.floodApp.checkUnreadMessages();
+            }
+        } catch (err) {
+            console.error("Error loading messages:", err);
+        }
+    }
 
-                // Update the global notification badge (in the bottom nav)
-                if(window.floodApp) window.floodApp.checkUnreadMessages();
+    // Only what arrived after the newest message on screen
+    async loadNewer() {
+        const partner = this.currentPartner;
+        if (this.messages.length === 0) return this.loadConversation(partner, false);
+        const lastId = this.messages[this.messages.length - 1].id;
+        try {
+            const res = await fetch(this.conversationUrl(partner, `after=${lastId}`), { credentials: 'include' });
+            if (res.ok && partner === this.currentPartner) {
+                const fresh = (await res.json()).filter(m => m.id > this.messages[this.messages.length - 1].id);
+                if (fresh.length === 0) return;
+                this.messages.push(...fresh);
+                this.renderMessages(false);
+
+                if(window.floodApp && !window.floodApp.chatStream) window.floodApp.checkUnreadMessages();
             }
         } catch (err) {
             console.error("Error loading messages:", err);
         }
     }
 
-    renderMessages(messages, forceScroll) {
+    // Scrolled to the top: prepend the previous page, which may come from the archive
+    async loadOlder() {
+        const partner = this.currentPartner;
+        if (!partner || !this.olderCursor || this.loadingOlder) return;
+        this.loadingOlder = true;
+        try {
+            const res = await fetch(this.conversationUrl(partner, `limit=50&cursor=${this.olderCursor}`), { credentials: 'include' });
+            if (res.ok && partner === this.currentPartner) {
+                const page = await res.json();
+                const heightBefore = this.chatBox.scrollHeight;
+                this.messages = page.items.reverse().concat(this.messages);
+                this.olderCursor = page.nextCursor;
+                this.renderMessages(false);
+                // Keep the message the user was looking at in place
+                this.chatBox.scrollTop += this.chatBox.scrollHeight - heightBefore;
+            }
+        } catch (err) {
+            console.error("Error loading older messages:", err);
+        } finally {
+            this.loadingOlder = false;
+        }
+    }
+
+    renderMessages(forceScroll) {
+        const messages = this.messages;
         const isAtBottom = this.chatBox.scrollHeight - this.chatBox.scrollTop <= this.chatBox.clientHeight + 150;
 
         this.chatBox.innerHTML = '';
@@ -177,7 +251,7 @@ class ChatManager {
         }).then(res => {
             if (res.ok) {
                 input.value = '';
-                this.loadConversation(this.currentPartner, true);
+                this.loadNewer().then(() => { this.chatBox.scrollTop = this.chatBox.scrollHeight; });
                 // Also refresh sidebar to ensure this active chat stays at top
                 this.loadPartners();
             }
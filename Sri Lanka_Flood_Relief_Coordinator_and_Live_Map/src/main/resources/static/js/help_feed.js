@@ -1,5 +1,9 @@
 class HelpFeedManager {
+    static SYNC_INTERVAL_MS = 30000;
+
     constructor() {
+        this.requests = [];
+        this.sync = new SyncClient(changes => this.applyChanges(changes));
         this.init();
     }
 
@@ -7,49 +11,71 @@ class HelpFeedManager {
         this.loadRequests();
     }
 
-    loadRequests() {
+    async loadRequests() {
         const container = document.getElementById('help-feed-list');
         if (!container) return;
 
-        // FIXED: Added { credentials: 'include' } to send the login session cookie
-        fetch('http://localhost:8080/api/help-requests', {
-            credentials: 'include'
-        })
-            .then(res => {
-                // Check if the request was successful (e.g., not 401 Unauthorized)
-                if (!res.ok) {
-                    throw new Error(`Server returned ${res.status} ${res.statusText}`);
-                }
-                return res.json();
-            })
-            .then(data => {
-                container.innerHTML = '';
+        try {
+            // Taken before the list, so the first sync covers anything submitted meanwhile
+            await this.sync.fetchVersion();
 
-                if (data.length === 0) {
-                    container.innerHTML = `
-                        <div style="text-align: center; padding: 40px; color: #ccc;">
-                            <i class="fas fa-hands-helping" style="font-size: 3rem; margin-bottom: 15px;"></i>
-                            <p>No active help requests found.</p>
-                        </div>`;
-                    return;
-                }
+            // FIXED: Added { credentials: 'include' } to send the login session cookie
+            const res = await fetch('http://localhost:8080/api/help-requests', {
+                credentials: 'include'
+            });
+            // Check if the request was successful (e.g., not 401 Unauthorized)
+            if (!res.ok) {
+                throw new Error(`Server returned ${res.status} ${res.statusText}`);
+            }
+            this.requests = await res.json();
+            this.render();
 
-                // Sort newest first (by ID descending)
-                data.sort((a, b) => b.id - a.id);
+            // From now on only fetch what changed
+            this.sync.start(HelpFeedManager.SYNC_INTERVAL_MS);
+        } catch (err) {
+            console.error("Feed Error:", err);
+            container.innerHTML = `
+                <div style="text-align:center; color:#F44336; margin-top: 20px;">
+                    <p>Failed to load requests.</p>
+                    <small style="color:#aaa;">(Please ensure you are logged in and the backend is running)</small>
+                </div>`;
+        }
+    }
 
-                data.forEach(req => {
-                    const card = this.createCard(req);
-                    container.appendChild(card);
-                });
-            })
-            .catch(err => {
-                console.error("Feed Error:", err);
-                container.innerHTML = `
-                    <div style="text-align:center; color:#F44336; margin-top: 20px;">
-                        <p>Failed to load requests.</p>
-                        <small style="color:#aaa;">(Please ensure you are logged in and the backend is running)</small>
-                    </div>`;
-            });
+    applyChanges(changes) {
+        if (changes.full) {
+            this.requests = changes.helpRequests;
+        } else {
+            if (changes.helpRequests.length === 0 && !changes.deleted.some(t => t.entityType === 'helpRequest')) return;
+            changes.helpRequests.forEach(req => SyncClient.upsert(this.requests, req));
+            changes.deleted
+                .filter(t => t.entityType === 'helpRequest')
+                .forEach(t => { this.requests = this.requests.filter(r => r.id !== t.entityId); });
+        }
+        this.render();
+    }
+
+    render() {
+        const container = document.getElementById('help-feed-list');
+        if (!container) return;
+        container.innerHTML = '';
+
+        if (this.requests.length === 0) {
+            container.innerHTML = `
+                <div style="text-align: center; padding: 40px; color: #ccc;">
+                    <i class="fas fa-hands-helping" style="font-size: 3rem; margin-bottom: 15px;"></i>
+                    <p>No active help requests found.</p>
+                </div>`;
+            return;
+        }
+
+        // Sort newest first (by ID descending)
+        this.requests.sort((a, b) => b.id - a.id);
+
+        this.requests.forEach(req => {
+            const card = this.createCard(req);
+            container.appendChild(card);
+        });
     }
 
     createCard(req) {
@@ -37,7 +37,22 @@ class FloodReliefApp {
     // --- NOTIFICATION SYSTEM START ---
 
     startNotificationService() {
-        // Check immediately upon load
+        // Preferred: server pushes unread totals and new messages as they happen
+        if (window.EventSource) {
+            this.chatStream = new EventSource('http://localhost:8080/api/messages/stream', { withCredentials: true });
+
+            this.chatStream.addEventListener('unread', (e) => {
+                this.updateChatBadge(JSON.parse(e.data).count);
+            });
+
+            // chat.js listens for this to refresh the open conversation
+            this.chatStream.addEventListener('message', (e) => {
+                window.dispatchEvent(new CustomEvent('chat-message', { detail: JSON.parse(e.data) }));
+            });
+            return;
+        }
+
+        // Fallback: Check immediately upon load
         this.checkUnreadMessages();
         // Then check every 3 seconds
         setInterval(() => this.checkUnreadMessages(), 3000);
@@ -455,7 +470,9 @@ class FloodReliefApp {
                     throw new Error("Failed to submit");
                 })
                 .then(data => {
-                    alert('Help Request Sent Successfully! Rescue teams have been notified.');
+                    // Surge mode answers 202 with a tracking id; the request is saved shortly after
+                    const reference = data.trackingId ? `\nReference: ${data.trackingId}` : '';
+                    alert('Help Request Sent Successfully! Rescue teams have been notified.' + reference);
                     e.target.reset();
                 })
                 .catch(err => {
@@ -4,11 +4,14 @@ class MapController {
         this.map = null;
         this.markers = []; // Store active markers
         this.tempMarker = null; // Track user's clicked location
+        this.alertAreas = {}; // Alert id -> circle/polygon drawn for it
         this.init();
     }
 
     init() {
         this.initializeMap();
+        this.connectLiveFeed(); // Approved markers arrive as a live stream
+        this.connectAlertStream();
         this.loadMapData(); // Load data immediately
         this.locateUser();
     }
@@ -84,25 +87,105 @@ class MapController {
         }
     }
 
-    // Clear existing markers before reloading
-    clearMarkers() {
+    // Clear existing markers before reloading (optionally only those matching a filter)
+    clearMarkers(filter = () => true) {
         this.markers.forEach(obj => {
-            this.map.removeLayer(obj.marker);
+            if (filter(obj)) this.map.removeLayer(obj.marker);
         });
-        this.markers = [];
+        this.markers = this.markers.filter(obj => !filter(obj));
+    }
+
+    removeMarker(id) {
+        this.clearMarkers(obj => !obj.isPending && obj.id === id);
+    }
+
+    // --- LIVE FEED: server pushes a snapshot, then only the changes ---
+    connectLiveFeed() {
+        if (!window.EventSource) return;
+
+        this.liveFeed = new EventSource('http://localhost:8080/api/markers/stream');
+
+        this.liveFeed.addEventListener('snapshot', (e) => {
+            this.clearMarkers(obj => !obj.isPending);
+            JSON.parse(e.data).forEach(place => this.addMarker(place, false));
+        });
+
+        const upsert = (e) => {
+            const place = JSON.parse(e.data);
+            this.removeMarker(place.id);
+            // A report of mine that just got approved should drop its pending pin
+            this.clearMarkers(obj => obj.isPending && obj.id === place.id);
+            this.addMarker(place, false);
+        };
+        this.liveFeed.addEventListener('add', upsert);
+        this.liveFeed.addEventListener('update', upsert);
+        this.liveFeed.addEventListener('remove', (e) => this.removeMarker(JSON.parse(e.data).id));
+
+        // EventSource reconnects by itself and the server re-sends a snapshot
+        this.liveFeed.onerror = () => console.warn("Live map feed interrupted, reconnecting...");
+    }
+
+    // --- ALERTS: pushed when aimed at an area overlapping the part of the map in view ---
+    connectAlertStream() {
+        if (!window.EventSource) return;
+
+        const bbox = () => this.map.getBounds().toBBoxString();
+        this.alertStream = new EventSource(`http://localhost:8080/api/alerts/stream?bbox=${bbox()}`);
+
+        const moveArea = () => {
+            if (!this.alertStreamId) return;
+            fetch(`http://localhost:8080/api/alerts/stream/${this.alertStreamId}/area?bbox=${bbox()}`, { method: 'PUT' })
+                .catch(err => console.warn("Could not update alert area:", err));
+        };
+        // A reconnect opens a new stream with the original URL, so send where the map is now
+        this.alertStream.addEventListener('subscribed', (e) => {
+            this.alertStreamId = JSON.parse(e.data).id;
+            moveArea();
+        });
+        this.map.on('moveend', moveArea);
+
+        this.alertStream.addEventListener('alert', (e) => this.showAlertArea(JSON.parse(e.data)));
+        this.alertStream.addEventListener('remove', (e) => this.removeAlertArea(JSON.parse(e.data).id));
+        this.alertStream.onerror = () => console.warn("Alert stream interrupted, reconnecting...");
+    }
+
+    showAlertArea(alert) {
+        this.removeAlertArea(alert.id);
+        const color = this.getSeverityColor(alert.severity);
+        let layer;
+        if (alert.targetRadiusMeters) {
+            layer = L.circle([alert.targetLat, alert.targetLng], { radius: alert.targetRadiusMeters, color: color });
+        } else if (alert.targetPolygon && alert.targetPolygon.length) {
+            layer = L.polygon(alert.targetPolygon, { color: color });
+        } else {
+            return;
+        }
+        layer.bindPopup(`<b>${alert.title || 'Alert'}</b><br>${alert.content || ''}`).addTo(this.map).openPopup();
+        this.alertAreas[alert.id] = layer;
+    }
+
+    removeAlertArea(id) {
+        if (!this.alertAreas[id]) return;
+        this.map.removeLayer(this.alertAreas[id]);
+        delete this.alertAreas[id];
     }
 
     // Load Public Approved Data + User's Pending Data
     loadMapData() {
-        this.clearMarkers();
-
-        // 1. Fetch Public Approved Markers
-        fetch('http://localhost:8080/api/markers/approved')
-            .then(res => res.json())
-            .then(data => {
-                data.forEach(place => this.addMarker(place, false));
-            })
-            .catch(err => console.error("Error loading approved markers:", err));
+        if (this.liveFeed) {
+            // Approved markers are kept current by the live feed
+            this.clearMarkers(obj => obj.isPending);
+        } else {
+            this.clearMarkers();
+
+            // 1. Fetch Public Approved Markers
+            fetch('http://localhost:8080/api/markers/approved')
+                .then(res => res.json())
+                .then(data => {
+                    data.forEach(place => this.addMarker(place, false));
+                })
+                .catch(err => console.error("Error loading approved markers:", err));
+        }
 
         // 2. Fetch My Pending Markers (if logged in)
         if (window.authManager && window.authManager.isAuthenticated()) {
@@ -154,7 +237,7 @@ class MapController {
             </div>
         `);
 
-        this.markers.push({ id: place.id, marker: marker, data: place });
+        this.markers.push({ id: place.id, marker: marker, data: place, isPending: isPending });
     }
 
     // --- HELPER: Centralized Icon Creation ---
@@ -0,0 +1,45 @@
+// Delta sync against /api/sync: each poll returns only what changed since the last one
+
+class SyncClient {
+    constructor(onChanges) {
+        this.version = 0;
+        this.onChanges = onChanges;
+        this.timer = null;
+    }
+
+    // Start from the server's current version, for pages that load their first view another way.
+    // Call before that first load, so nothing written in between is missed.
+    async fetchVersion() {
+        const res = await fetch('http://localhost:8080/api/sync/version', { credentials: 'include' });
+        if (!res.ok) throw new Error(`Server returned ${res.status}`);
+        this.version = (await res.json()).version;
+    }
+
+    async poll() {
+        const res = await fetch(`http://localhost:8080/api/sync?since=${this.version}`, { credentials: 'include' });
+        if (!res.ok) throw new Error(`Server returned ${res.status}`);
+        const changes = await res.json();
+        this.version = changes.version;
+        this.onChanges(changes);
+        return changes;
+    }
+
+    start(intervalMs) {
+        this.stop();
+        this.timer = setInterval(() => {
+            this.poll().catch(err => console.error("Sync error:", err));
+        }, intervalMs);
+    }
+
+    stop() {
+        if (this.timer) clearInterval(this.timer);
+        this.timer = null;
+    }
+
+    // Replaces the item with the same id, or adds it at the front
+    static upsert(list, item) {
+        const index = list.findIndex(x => x.id === item.id);
+        if (index >= 0) list[index] = item;
+        else list.unshift(item);
+    }
+}
@@ -0,0 +1,85 @@
+package ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.admission;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class AdaptiveLimitTest {
+
+    private static final long MAX_LATENCY = TimeUnit.SECONDS.toNanos(1);
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(10);
+
+    @Test
+    void startsFullyOpen() {
+        assertEquals(100, new AdaptiveLimit(4, 100, MAX_LATENCY).getLimit());
+    }
+
+    @Test
+    void failureCutsTheLimitByATenthOncePerRoundTrip() {
+        AdaptiveLimit limit = new AdaptiveLimit(4, 100, MAX_LATENCY);
+        long slow = TimeUnit.SECONDS.toNanos(2);
+        limit.onSample(slow, 50, false);
+        assertEquals(90, limit.getLimit());
+
+        // Within the same (two second) round trip: one cut is enough
+        limit.onSample(slow, 50, false);
+        limit.onSample(FAST, 50, true);
+        assertEquals(90, limit.getLimit());
+    }
+
+    @Test
+    void backoffStopsAtTheMinimum() {
+        AdaptiveLimit limit = new AdaptiveLimit(4, 100, MAX_LATENCY);
+        // A zero round trip lets every failure back off
+        for (int i = 0; i < 100; i++) {
+            limit.onSample(0, 1, true);
+        }
+        assertEquals(4, limit.getLimit());
+    }
+
+    @Test
+    void growsBackWhileLatencyStaysAtTheNoLoadLevel() {
+        AdaptiveLimit limit = new AdaptiveLimit(4, 100, MAX_LATENCY);
+        limit.onSample(FAST, 1, false);
+        limit.onSample(0, 1, true);
+        assertEquals(90, limit.getLimit());
+
+        for (int i = 0; i < 5; i++) {
+            limit.onSample(FAST, limit.getLimit(), false);
+        }
+        assertEquals(95, limit.getLimit());
+        for (int i = 0; i < 50; i++) {
+            limit.onSample(FAST, limit.getLimit(), false);
+        }
+        assertEquals(100, limit.getLimit());
+    }
+
+    @Test
+    void shrinksWhileRequestsQueue() {
+        AdaptiveLimit limit = new AdaptiveLimit(4, 100, MAX_LATENCY);
+        limit.onSample(FAST, 1, false);
+
+        // Four times the no-load latency: about three quarters of the limit is queueing
+        for (int i = 0; i < 2000; i++) {
+            limit.onSample(4 * FAST, limit.getLimit(), false);
+        }
+        assertEquals(8, limit.getLimit());
+    }
+
+    @Test
+    void lightLoadTeachesNoLoadLatencyWithoutMovingTheLimit() {
+        AdaptiveLimit limit = new AdaptiveLimit(4, 100, MAX_LATENCY);
+        for (int i = 0; i < 100; i++) {
+            limit.onSample(FAST, 2, false);
+        }
+        assertEquals(100, limit.getLimit());
+
+        // Hardly used: slow answers at low concurrency say nothing about the limit
+        for (int i = 0; i < 100; i++) {
+            limit.onSample(50 * FAST, 20, false);
+        }
+        assertEquals(100, limit.getLimit());
+    }
+}
@@ -0,0 +1,43 @@
+package ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.admission;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class EndpointClassifierTest {
+
+    // An empty class means the request bypasses admission control
+    @ParameterizedTest(name = "{0} {1} -> {2}")
+    @CsvSource({
+            "POST,   /api/help-requests,                   LIFE_SAFETY",
+            "POST,   /api/markers/report,                  LIFE_SAFETY",
+            "POST,   /api/alerts,                          LIFE_SAFETY",
+            "GET,    /api/help-requests/nearest,           LIFE_SAFETY",
+            "GET,    /api/help-requests/submissions/abc,   LIFE_SAFETY",
+            "GET,    /api/analytics/summary,               ANALYTICS",
+            "GET,    /api/cache/stats,                     ANALYTICS",
+            "GET,    /api/help-requests/queue,             ANALYTICS",
+            "GET,    /api/messages/conversation,           CHAT",
+            "POST,   /api/messages,                        CHAT",
+            "POST,   /api/alerts/stream/location,          PUBLIC_READ",
+            "PUT,    /api/markers/7/approve,               MODERATION",
+            "PUT,    /api/markers/bulk/reject,             MODERATION",
+            "GET,    /api/markers/pending,                 MODERATION",
+            "POST,   /api/import/markers,                  MODERATION",
+            "DELETE, /api/alerts/3,                        MODERATION",
+            "GET,    /api/markers/approved,                PUBLIC_READ",
+            "HEAD,   /api/alerts,                          PUBLIC_READ",
+            "GET,    /api/sync,                            PUBLIC_READ",
+            "GET,    /api/help-requests,                   PUBLIC_READ",
+            "POST,   /api/auth/login,                      STANDARD",
+            "GET,    /api/markers/stream,                  ",
+            "GET,    /api/alerts/stream,                   ",
+            "GET,    /api/messages/stream,                 ",
+            "GET,    /index.html,                          ",
+            "GET,    /js/map.js,                           ",
+    })
+    void classifies(String method, String path, PriorityClass expected) {
+        assertEquals(expected, EndpointClassifier.classify(method, path));
+    }
+}
@@ -0,0 +1,54 @@
+package ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.admission;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TokenBucketTest {
+
+    private static final long T0 = 1_000_000_000_000L;
+    private static final long MS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    @Test
+    void burstThenTellsHowLongUntilTheNextToken() {
+        TokenBucket bucket = new TokenBucket(2, 3, T0);
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, bucket.tryAcquire(T0));
+        }
+        // Two a second: the next one is half a second away, less whatever has refilled
+        assertEquals(500 * MS, bucket.tryAcquire(T0), 1);
+        assertEquals(250 * MS, bucket.tryAcquire(T0 + 250 * MS), 1);
+    }
+
+    @Test
+    void refillsAtTheRate() {
+        TokenBucket bucket = new TokenBucket(2, 3, T0);
+        for (int i = 0; i < 3; i++) bucket.tryAcquire(T0);
+
+        assertEquals(0, bucket.tryAcquire(T0 + 500 * MS));
+        assertEquals(500 * MS, bucket.tryAcquire(T0 + 500 * MS), 1);
+        assertEquals(0, bucket.tryAcquire(T0 + 1000 * MS));
+        assertEquals(T0 + 1000 * MS, bucket.getLastUsed());
+    }
+
+    @Test
+    void refillStopsAtTheBurst() {
+        TokenBucket bucket = new TokenBucket(2, 3, T0);
+        bucket.tryAcquire(T0);
+
+        long hourLater = T0 + TimeUnit.HOURS.toNanos(1);
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, bucket.tryAcquire(hourLater));
+        }
+        assertEquals(500 * MS, bucket.tryAcquire(hourLater), 1);
+    }
+
+    @Test
+    void slowRateWaitsLongerThanASecond() {
+        TokenBucket bucket = new TokenBucket(0.5, 1, T0);
+        assertEquals(0, bucket.tryAcquire(T0));
+        assertEquals(2000 * MS, bucket.tryAcquire(T0), 1);
+    }
+}
@@ -0,0 +1,218 @@
+package ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.archive;
+
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.model.Message;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.page.Cursor;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.page.CursorPage;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.repository.MessageRepository;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.service.MessageArchiveService;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.service.MessageService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Walks a conversation split between the messages table and archive segments page by page,
+ * the way the chat does, and compares the result with one sorted list. Messages share
+ * timestamps, blocks are small and some messages sit in two blocks and in the table at once,
+ * so every cursor lands on a block or table/archive boundary somewhere.
+ */
+class MessageArchiveTest {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2025, 11, 27, 6, 0);
+
+    @TempDir
+    Path dir;
+
+    private final Random random = new Random(11);
+    private final List<Message> conversation = new ArrayList<>();
+    private final List<Message> table = new ArrayList<>();
+
+    @Test
+    void pagesAcrossTableAndArchiveMatchOneSortedList() throws IOException {
+        seed(600);
+        MessageArchive archive = new MessageArchive(dir, 4);
+        // The oldest 400 in three runs, then 380..419 again: a run that crashed before deleting its rows
+        archive.write(withNoise(conversation.subList(0, 150)), 7);
+        archive.write(withNoise(conversation.subList(150, 320)), 7);
+        archive.write(conversation.subList(320, 400), 7);
+        archive.write(conversation.subList(380, 420), 7);
+        table.addAll(conversation.subList(380, 600));
+
+        MessageService service = service(archive);
+        List<Message> newestFirst = new ArrayList<>(conversation);
+        newestFirst.sort(MessageArchive.ORDER.reversed());
+        for (int limit : new int[]{1, 7, 50, 200}) {
+            assertEquals(ids(newestFirst), ids(walk(service, limit)), "limit " + limit);
+        }
+    }
+
+    @Test
+    void beforeSkipsNothingAtBlockBoundaries() throws IOException {
+        seed(300);
+        MessageArchive archive = new MessageArchive(dir, 2);
+        archive.write(conversation.subList(0, 200), 5);
+        archive.write(conversation.subList(150, 300), 5);
+
+        List<Message> newestFirst = new ArrayList<>(conversation);
+        newestFirst.sort(MessageArchive.ORDER.reversed());
+        for (int i = 0; i < newestFirst.size(); i++) {
+            Message cursor = newestFirst.get(i);
+            int count = 1 + random.nextInt(12);
+            List<Message> expected = newestFirst.subList(i + 1, Math.min(newestFirst.size(), i + 1 + count));
+            assertEquals(ids(expected), ids(archive.before("ann", "ben", cursor.getTimestamp(), cursor.getId(), count, null)),
+                    "before " + cursor.getId() + " count " + count);
+
+            // A floor only stops the search early; what lies above it must not change
+            Message floor = newestFirst.get(Math.min(newestFirst.size() - 1, i + 1 + random.nextInt(20)));
+            List<Message> aboveFloor = new ArrayList<>();
+            for (Message m : archive.before("ann", "ben", cursor.getTimestamp(), cursor.getId(), count, floor)) {
+                if (MessageArchive.ORDER.compare(m, floor) > 0) aboveFloor.add(m);
+            }
+            List<Message> expectedAboveFloor = expected.stream().filter(m -> MessageArchive.ORDER.compare(m, floor) > 0).toList();
+            assertEquals(ids(expectedAboveFloor), ids(aboveFloor), "floor " + floor.getId());
+        }
+        assertEquals(newestFirst.size(), archive.before("ben", "ann", null, null, 1000, null).size());
+    }
+
+    @Test
+    void afterReturnsEachNewerMessageOnceOldestFirst() throws IOException {
+        seed(120);
+        MessageArchive archive = new MessageArchive(dir, 8);
+        archive.write(conversation.subList(0, 80), 6);
+        archive.write(conversation.subList(60, 120), 6);
+
+        for (long afterId = 0; afterId <= 130; afterId += 13) {
+            long from = afterId;
+            List<Long> expected = conversation.stream().map(Message::getId).filter(id -> id > from).sorted().limit(25).toList();
+            assertEquals(expected, ids(archive.after("ann", "ben", afterId, 25)), "after " + afterId);
+        }
+    }
+
+    @Test
+    void reopenedArchiveServesTheSameMessages() throws IOException {
+        seed(90);
+        MessageArchive archive = new MessageArchive(dir, 8);
+        archive.write(conversation.subList(0, 50), 4);
+        archive.write(conversation.subList(40, 90), 4);
+        // A segment whose writer died before moving it into place
+        Path stray = Files.write(dir.resolve("messages-0000000099.tmp"), new byte[]{1, 2, 3});
+
+        MessageArchive reopened = new MessageArchive(dir, 8);
+        assertFalse(Files.exists(stray));
+        assertTrue(reopened.getUnreadableSegments().isEmpty());
+        assertEquals(ids(archive.all("ann", "ben")), ids(reopened.all("ann", "ben")));
+        assertEquals(90, reopened.all("ben", "ann").size());
+        Message middle = conversation.get(45);
+        assertEquals(ids(archive.before("ann", "ben", middle.getTimestamp(), middle.getId(), 30, null)),
+                ids(reopened.before("ann", "ben", middle.getTimestamp(), middle.getId(), 30, null)));
+
+        // New segments continue after the loaded ones instead of replacing them
+        List<Message> more = new ArrayList<>();
+        for (int i = 0; i < 10; i++) more.add(message(1000 + i, BASE.plusHours(1), i % 2 == 0));
+        reopened.write(more, 4);
+        assertEquals(100, new MessageArchive(dir, 8).all("ann", "ben").size());
+    }
+
+    // The conversation pages a client sees, following nextCursor until it runs out
+    private List<Message> walk(MessageService service, int limit) {
+        List<Message> seen = new ArrayList<>();
+        Set<String> cursors = new HashSet<>();
+        String cursor = null;
+        do {
+            CursorPage<Message> page = service.getConversationPage("ann", "ben", cursor, limit);
+            assertTrue(page.items().size() <= limit);
+            seen.addAll(page.items());
+            cursor = page.nextCursor();
+            assertTrue(cursor == null || cursors.add(cursor), "cursor repeated: " + cursor);
+        } while (cursor != null);
+        return seen;
+    }
+
+    // MessageService over the archive and a table that is the list above, queried like the repository does
+    private MessageService service(MessageArchive archive) {
+        MessageRepository repository = mock(MessageRepository.class);
+        when(repository.findConversationLatest(anyString(), anyString(), any(Limit.class)))
+                .thenAnswer(call -> tableBefore(null, call.getArgument(2)));
+        when(repository.findConversationBefore(anyString(), anyString(), any(LocalDateTime.class), any(Long.class), any(Limit.class)))
+                .thenAnswer(call -> tableBefore(new Cursor(call.getArgument(2), call.getArgument(3)), call.getArgument(4)));
+
+        MessageArchiveService archiveService = new MessageArchiveService();
+        ReflectionTestUtils.setField(archiveService, "archive", archive);
+        MessageService service = new MessageService();
+        ReflectionTestUtils.setField(service, "messageRepository", repository);
+        ReflectionTestUtils.setField(service, "messageArchiveService", archiveService);
+        return service;
+    }
+
+    private List<Message> tableBefore(Cursor cursor, Limit limit) {
+        Stream<Message> rows = table.stream();
+        if (cursor != null) {
+            Message key = new Message();
+            key.setTimestamp(cursor.timestamp());
+            key.setId(cursor.id());
+            rows = rows.filter(m -> MessageArchive.ORDER.compare(m, key) < 0);
+        }
+        return rows.sorted(MessageArchive.ORDER.reversed()).limit(limit.max()).toList();
+    }
+
+    // count messages between ann and ben, four to a timestamp, ids not in timestamp order within one
+    private void seed(int count) {
+        List<Long> ids = new ArrayList<>();
+        for (long id = 1; id <= count; id++) ids.add(id);
+        for (int from = 0; from < count; from += 4) {
+            Collections.shuffle(ids.subList(from, Math.min(count, from + 4)), random);
+        }
+        for (int i = 0; i < count; i++) {
+            conversation.add(message(ids.get(i), BASE.plusSeconds(i / 4), random.nextBoolean()));
+        }
+    }
+
+    // The same messages mixed with another conversation's, which must never show up in ann and ben's
+    private List<Message> withNoise(List<Message> messages) {
+        List<Message> mixed = new ArrayList<>(messages);
+        for (Message m : messages) {
+            Message other = message(100_000 + m.getId(), m.getTimestamp(), true);
+            other.setRecipient("cat");
+            mixed.add(other);
+        }
+        Collections.shuffle(mixed, random);
+        return mixed;
+    }
+
+    private static Message message(long id, LocalDateTime timestamp, boolean fromAnn) {
+        Message m = new Message();
+        m.setId(id);
+        m.setSender(fromAnn ? "ann" : "ben");
+        m.setRecipient(fromAnn ? "ben" : "ann");
+        m.setContent("message " + id);
+        m.setRole("MEMBER");
+        m.setTimestamp(timestamp);
+        m.setRead(true);
+        return m;
+    }
+
+    private static List<Long> ids(List<Message> messages) {
+        return messages.stream().map(Message::getId).toList();
+    }
+}
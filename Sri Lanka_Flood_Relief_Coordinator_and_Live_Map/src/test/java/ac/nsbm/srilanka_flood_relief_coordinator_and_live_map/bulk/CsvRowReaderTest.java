@@ -0,0 +1,91 @@
+package ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.bulk;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class CsvRowReaderTest {
+
+    @Test
+    void headerNamesAreMatchedLoosely() throws IOException {
+        CsvRowReader reader = read("\uFEFFSubmitted By,LAT,lng,needs\nalice,7.5,80.1,water; food |medicine\n");
+
+        ImportRow row = reader.next();
+        assertEquals(1, row.number());
+        assertNull(row.parseError());
+        assertEquals("alice", row.get("submittedBy"));
+        assertEquals("alice", row.get("submitted_by"));
+        assertEquals("7.5", row.get("lat"));
+        assertEquals(List.of("water", "food", "medicine"), row.getList("needs"));
+        assertNull(row.get("phone"));
+        assertNull(reader.next());
+    }
+
+    @Test
+    void quotedCellsKeepCommasQuotesAndNewlines() throws IOException {
+        CsvRowReader reader = read("name,details\r\n" +
+                "\"Perera, A.\",\"said \"\"help\"\"\nsecond line\"\r\n" +
+                "\"\",  \n");
+
+        ImportRow row = reader.next();
+        assertEquals("Perera, A.", row.get("name"));
+        assertEquals("said \"help\"\nsecond line", row.get("details"));
+
+        ImportRow blank = reader.next();
+        assertEquals(2, blank.number());
+        assertNull(blank.get("name"));
+        assertNull(blank.get("details"));
+        assertNull(reader.next());
+    }
+
+    @Test
+    void blankLinesAreSkippedAndShortRowsReadAsMissing() throws IOException {
+        CsvRowReader reader = read("name,phone\n\nfirst\n\n\nsecond,077\n");
+
+        ImportRow first = reader.next();
+        assertEquals(1, first.number());
+        assertEquals("first", first.get("name"));
+        assertNull(first.get("phone"));
+
+        ImportRow second = reader.next();
+        assertEquals(2, second.number());
+        assertEquals("077", second.get("phone"));
+        assertNull(reader.next());
+    }
+
+    @Test
+    void lastRowNeedsNoNewline() throws IOException {
+        CsvRowReader reader = read("name\nlast");
+
+        assertEquals("last", reader.next().get("name"));
+        assertNull(reader.next());
+    }
+
+    @Test
+    void unterminatedQuoteEndsTheFileWithAnErrorRow() throws IOException {
+        CsvRowReader reader = read("name,details\nok,fine\nbad,\"never closed\nmore");
+
+        assertEquals("ok", reader.next().get("name"));
+        ImportRow broken = reader.next();
+        assertEquals(2, broken.number());
+        assertEquals("Unterminated quoted cell", broken.parseError());
+        assertNull(broken.get("name"));
+        assertNull(reader.next());
+    }
+
+    @Test
+    void emptyInputHasNoRows() throws IOException {
+        assertNull(read("").next());
+        assertNull(read("name,phone\n").next());
+    }
+
+    private static CsvRowReader read(String csv) throws IOException {
+        return new CsvRowReader(new BufferedReader(new StringReader(csv)));
+    }
+}
@@ -0,0 +1,91 @@
+package ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.bulk;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class IdBlockAllocatorTest {
+
+    private HikariDataSource dataSource;
+    private JdbcTemplate jdbc;
+    private IdBlockAllocator allocator;
+
+    @BeforeEach
+    void createSchema() {
+        dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl("jdbc:h2:mem:ids;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000");
+        dataSource.setMaximumPoolSize(10);
+        jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("CREATE TABLE things (id BIGINT PRIMARY KEY)");
+        jdbc.execute("CREATE TABLE things_seq (next_val BIGINT)");
+        allocator = new IdBlockAllocator(dataSource, "things_seq", "things");
+    }
+
+    @AfterEach
+    void dropSchema() {
+        jdbc.execute("DROP ALL OBJECTS");
+        dataSource.close();
+    }
+
+    @Test
+    void reserveNeedsTheSequenceRow() {
+        assertThrows(SQLException.class, () -> allocator.reserve(10));
+    }
+
+    @Test
+    void alignStartsPastExistingRowsAndNeverMovesBack() throws SQLException {
+        jdbc.update("INSERT INTO things VALUES (1), (2), (40)");
+        allocator.alignWithExistingRows();
+        assertEquals(41, allocator.reserve(5));
+
+        // Already ahead (Hibernate reserved more than was inserted): left alone
+        allocator.alignWithExistingRows();
+        assertEquals(46, allocator.reserve(1));
+
+        // Behind (rows inserted without the sequence): moved past them
+        jdbc.update("INSERT INTO things VALUES (100)");
+        allocator.alignWithExistingRows();
+        assertEquals(101, allocator.reserve(1));
+    }
+
+    @Test
+    void concurrentReservationsNeverOverlap() throws Exception {
+        allocator.alignWithExistingRows();
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        List<Future<long[]>> blocks = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            int count = 1 + i % 7;
+            blocks.add(pool.submit(() -> new long[]{allocator.reserve(count), count}));
+        }
+
+        BitSet taken = new BitSet();
+        int total = 0;
+        for (Future<long[]> block : blocks) {
+            long[] firstAndCount = block.get();
+            for (long id = firstAndCount[0]; id < firstAndCount[0] + firstAndCount[1]; id++) {
+                assertFalse(taken.get((int) id), "id " + id + " handed out twice");
+                taken.set((int) id);
+            }
+            total += (int) firstAndCount[1];
+        }
+        pool.shutdown();
+        // No gaps either: blocks tile the range from the first free id
+        assertEquals(total, taken.cardinality());
+        assertEquals(1, taken.nextSetBit(0));
+        assertEquals(total + 1, taken.nextClearBit(1));
+    }
+}
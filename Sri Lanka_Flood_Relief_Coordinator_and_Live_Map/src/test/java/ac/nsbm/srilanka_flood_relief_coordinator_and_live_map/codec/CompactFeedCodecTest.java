@@ -0,0 +1,297 @@
+package ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.codec;
+
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.model.Alert;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.model.MapMarker;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Decodes what CompactFeedCodec writes, following the layout in its Javadoc, and pins that
+ * layout byte for byte so a change to it cannot go unnoticed by clients.
+ */
+class CompactFeedCodecTest {
+
+    // Flood warning in Sinhala and in Tamil
+    private static final String SINHALA = "\u0d9c\u0d82\u0dc0\u0dad\u0dd4\u0dbb \u0d85\u0db1\u0dad\u0dd4\u0dbb\u0dd4 \u0d87\u0d9f\u0dc0\u0dd3\u0db8";
+    private static final String TAMIL = "\u0bb5\u0bc6\u0bb3\u0bcd\u0bb3 \u0b8e\u0b9a\u0bcd\u0b9a\u0bb0\u0bbf\u0b95\u0bcd\u0b95\u0bc8";
+
+    @Test
+    void markerLayoutIsPinned() {
+        MapMarker first = marker(1L, 0.000001, -0.000002);
+        first.setType("a");
+        first.setStatus("b");
+        first.setName("\u00e9");
+        MapMarker second = marker(300L, 0.000001, -0.000002);
+        second.setType("b");
+        second.setTimestamp(LocalDateTime.of(1970, 1, 1, 0, 1));
+        second.setCapacity(-1);
+
+        // Given out of order: the feed is sorted by id
+        assertArrayEquals(bytes(
+                        'F', 'R', 'M', 1,
+                        2,                                  // markers
+                        2, 1, 'a', 1, 'b',                  // dictionary
+                        2, 2, 3,                            // id +1, lat +1, lng -2
+                        1, 0, 2,                            // type a, no severity, status b
+                        0x04, 2, 0xC3, 0xA9,                // name "\u00e9" (two UTF-8 bytes)
+                        0xD6, 0x04, 0, 0,                   // id +299 as a two-byte varint, same place
+                        2, 0, 0,                            // type b
+                        0x03, 0x78, 1),                     // timestamp 60, capacity -1
+                CompactFeedCodec.encodeMarkers(List.of(second, first)));
+    }
+
+    @Test
+    void alertLayoutIsPinned() {
+        Alert alert = new Alert();
+        alert.setId(5L);
+        alert.setSeverity("high");
+        alert.setTitle("x");
+
+        assertArrayEquals(bytes(
+                        'F', 'R', 'A', 1,
+                        1,                                  // alerts
+                        1, 4, 'h', 'i', 'g', 'h',           // dictionary
+                        0x0A,                               // id +5
+                        1, 0, 0,                            // severity high, no source, no icon
+                        0x40, 1, 'x'),                      // title "x"
+                CompactFeedCodec.encodeAlerts(List.of(alert)));
+    }
+
+    @Test
+    void emptyFeedsAreJustTheHeader() {
+        assertArrayEquals(bytes('F', 'R', 'M', 1, 0, 0), CompactFeedCodec.encodeMarkers(List.of()));
+        assertArrayEquals(bytes('F', 'R', 'A', 1, 0, 0), CompactFeedCodec.encodeAlerts(List.of()));
+    }
+
+    @Test
+    void markersRoundTrip() {
+        MapMarker colombo = marker(12L, 6.927079, 79.861244);
+        colombo.setType("flood");
+        colombo.setSeverity("high");
+        colombo.setStatus("approved");
+        colombo.setName(SINHALA);
+        colombo.setDescription("Water \ud83c\udf0a at the ground floor");
+        colombo.setSubmittedBy("ann");
+        colombo.setContact("+94 77 123 4567");
+        colombo.setTimestamp(LocalDateTime.of(2025, 11, 27, 6, 30, 15));
+        colombo.setCapacity(250);
+
+        // Every field that may be null is, so every flag is clear
+        MapMarker bare = marker(13L, 6.0, 80.0);
+
+        // South and west of the one before and older: negative lat, lng and timestamp deltas
+        MapMarker jaffna = marker(4000L, -9.661498, -80.025547);
+        jaffna.setType("safe-zone");
+        jaffna.setStatus("approved");
+        jaffna.setName(TAMIL);
+        jaffna.setTimestamp(LocalDateTime.of(1969, 12, 31, 23, 59, 59));
+        jaffna.setCapacity(-5);
+
+        MapMarker far = marker(Long.MAX_VALUE / 2, 89.999999, -179.999999);
+        far.setType("flood");
+        far.setTimestamp(LocalDateTime.of(2025, 11, 27, 6, 30, 15));
+
+        List<MapMarker> markers = List.of(far, jaffna, colombo, bare);
+        assertEquals(byId(markers), decodeMarkers(CompactFeedCodec.encodeMarkers(markers)));
+    }
+
+    @Test
+    void randomMarkersRoundTrip() {
+        Random random = new Random(6);
+        String[] types = {"flood", "safe-zone", "landslide", "\u0d9c\u0d82\u0dc0\u0dad\u0dd4\u0dbb", null};
+        List<MapMarker> markers = new ArrayList<>();
+        for (long id = 1; id <= 500; id += 1 + random.nextInt(40)) {
+            MapMarker m = marker(id, (random.nextInt(180_000_001) - 90_000_000) / 1e6,
+                    (random.nextInt(360_000_001) - 180_000_000) / 1e6);
+            m.setType(types[random.nextInt(types.length)]);
+            m.setSeverity(random.nextBoolean() ? null : types[random.nextInt(types.length)]);
+            if (random.nextBoolean()) {
+                m.setTimestamp(LocalDateTime.ofEpochSecond(random.nextInt() * 4L, 0, ZoneOffset.UTC));
+            }
+            if (random.nextBoolean()) m.setCapacity(random.nextInt());
+            if (random.nextBoolean()) m.setName("marker " + id + " " + TAMIL.substring(0, random.nextInt(TAMIL.length())));
+            markers.add(m);
+        }
+        assertEquals(markers, decodeMarkers(CompactFeedCodec.encodeMarkers(markers)));
+    }
+
+    @Test
+    void alertsRoundTripNewestFirst() {
+        Alert newest = alert(900L, "high", LocalDateTime.of(2025, 11, 27, 8, 0));
+        newest.setTitle(SINHALA);
+        newest.setContent(TAMIL + " \u2014 move to higher ground \u26a0");
+        newest.setSource("DMC");
+        newest.setIcon("warning");
+
+        // Ids and timestamps both fall from here on
+        Alert older = alert(40L, "medium", LocalDateTime.of(2025, 11, 26, 21, 15, 30));
+        older.setTitle("Kelani river rising");
+        older.setSource("DMC");
+
+        Alert bare = alert(3L, null, null);
+
+        Alert oldest = alert(1L, "low", LocalDateTime.of(1969, 7, 20, 20, 17));
+        oldest.setContent("");
+
+        List<Alert> alerts = List.of(newest, older, bare, oldest);
+        assertEquals(alerts, decodeAlerts(CompactFeedCodec.encodeAlerts(alerts)));
+    }
+
+    @Test
+    void gzipInflatesToTheRawFeed() throws IOException {
+        MapMarker m = marker(1L, 6.9, 79.8);
+        m.setName(SINHALA.repeat(20));
+        byte[] raw = CompactFeedCodec.encodeMarkers(List.of(m));
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(CompactFeedCodec.gzip(raw)))) {
+            assertArrayEquals(raw, in.readAllBytes());
+        }
+    }
+
+    private static List<MapMarker> decodeMarkers(byte[] encoded) {
+        Reader in = new Reader(encoded);
+        in.header('M');
+        int count = (int) in.varint();
+        List<String> dictionary = in.dictionary();
+        List<MapMarker> markers = new ArrayList<>();
+        long id = 0, lat = 0, lng = 0, time = 0;
+        for (int i = 0; i < count; i++) {
+            id += in.svarint();
+            lat += in.svarint();
+            lng += in.svarint();
+            MapMarker m = marker(id, lat / 1e6, lng / 1e6);
+            m.setType(in.ref(dictionary));
+            m.setSeverity(in.ref(dictionary));
+            m.setStatus(in.ref(dictionary));
+            long flags = in.varint();
+            if ((flags & 1) != 0) {
+                time += in.svarint();
+                m.setTimestamp(LocalDateTime.ofEpochSecond(time, 0, ZoneOffset.UTC));
+            }
+            if ((flags & 1 << 1) != 0) m.setCapacity((int) in.svarint());
+            if ((flags & 1 << 2) != 0) m.setName(in.string());
+            if ((flags & 1 << 3) != 0) m.setDescription(in.string());
+            if ((flags & 1 << 4) != 0) m.setSubmittedBy(in.string());
+            if ((flags & 1 << 5) != 0) m.setContact(in.string());
+            markers.add(m);
+        }
+        in.assertConsumed();
+        return markers;
+    }
+
+    private static List<Alert> decodeAlerts(byte[] encoded) {
+        Reader in = new Reader(encoded);
+        in.header('A');
+        int count = (int) in.varint();
+        List<String> dictionary = in.dictionary();
+        List<Alert> alerts = new ArrayList<>();
+        long id = 0, time = 0;
+        for (int i = 0; i < count; i++) {
+            id += in.svarint();
+            Alert a = new Alert();
+            a.setId(id);
+            a.setSeverity(in.ref(dictionary));
+            a.setSource(in.ref(dictionary));
+            a.setIcon(in.ref(dictionary));
+            long flags = in.varint();
+            if ((flags & 1) != 0) {
+                time += in.svarint();
+                a.setTimestamp(LocalDateTime.ofEpochSecond(time, 0, ZoneOffset.UTC));
+            }
+            if ((flags & 1 << 6) != 0) a.setTitle(in.string());
+            if ((flags & 1 << 7) != 0) a.setContent(in.string());
+            alerts.add(a);
+        }
+        in.assertConsumed();
+        return alerts;
+    }
+
+    private static final class Reader {
+        private final byte[] data;
+        private int position;
+
+        Reader(byte[] data) {
+            this.data = data;
+        }
+
+        void header(char feed) {
+            assertArrayEquals(bytes('F', 'R', feed, 1), new byte[]{data[0], data[1], data[2], data[3]});
+            position = 4;
+        }
+
+        long varint() {
+            long value = 0;
+            for (int shift = 0; ; shift += 7) {
+                int b = data[position++] & 0xFF;
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) return value;
+            }
+        }
+
+        long svarint() {
+            long raw = varint();
+            return (raw >>> 1) ^ -(raw & 1);
+        }
+
+        String string() {
+            int length = (int) varint();
+            String value = new String(data, position, length, StandardCharsets.UTF_8);
+            position += length;
+            return value;
+        }
+
+        List<String> dictionary() {
+            int count = (int) varint();
+            List<String> values = new ArrayList<>();
+            for (int i = 0; i < count; i++) values.add(string());
+            return values;
+        }
+
+        String ref(List<String> dictionary) {
+            int ref = (int) varint();
+            return ref == 0 ? null : dictionary.get(ref - 1);
+        }
+
+        void assertConsumed() {
+            assertEquals(data.length, position, "trailing bytes");
+        }
+    }
+
+    private static MapMarker marker(long id, double lat, double lng) {
+        MapMarker m = new MapMarker();
+        m.setId(id);
+        m.setLat(lat);
+        m.setLng(lng);
+        return m;
+    }
+
+    private static Alert alert(long id, String severity, LocalDateTime timestamp) {
+        Alert a = new Alert();
+        a.setId(id);
+        a.setSeverity(severity);
+        a.setTimestamp(timestamp);
+        return a;
+    }
+
+    private static List<MapMarker> byId(List<MapMarker> markers) {
+        return markers.stream().sorted(Comparator.comparing(MapMarker::getId)).toList();
+    }
+
+    private static byte[] bytes(int... values) {
+        byte[] out = new byte[values.length];
+        for (int i = 0; i < values.length; i++) out[i] = (byte) values[i];
+        return out;
+    }
+}
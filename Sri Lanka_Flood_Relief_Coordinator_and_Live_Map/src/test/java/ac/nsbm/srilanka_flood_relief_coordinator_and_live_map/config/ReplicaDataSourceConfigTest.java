@@ -0,0 +1,61 @@
+package ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.jdbc.autoconfigure.DataSourceProperties;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The replica pool's credentials: each of username and password left empty is taken from
+ * the primary, independently of the other.
+ */
+class ReplicaDataSourceConfigTest {
+
+    private static final String URL = "jdbc:h2:mem:replica-config";
+
+    private final ReplicaDataSourceConfig config = new ReplicaDataSourceConfig();
+
+    @Test
+    void emptyCredentialsAreThePrimarys() {
+        try (HikariDataSource replica = config.replicaDataSource(primary(), URL, "", "")) {
+            assertEquals("app", replica.getUsername());
+            assertEquals("primary-secret", replica.getPassword());
+        }
+    }
+
+    @Test
+    void replicaUserWithoutPasswordKeepsThePrimarysPassword() {
+        try (HikariDataSource replica = config.replicaDataSource(primary(), URL, "reader", "")) {
+            assertEquals("reader", replica.getUsername());
+            assertEquals("primary-secret", replica.getPassword());
+        }
+    }
+
+    @Test
+    void replicaPasswordWithoutUserKeepsThePrimarysUser() {
+        try (HikariDataSource replica = config.replicaDataSource(primary(), URL, "", "replica-secret")) {
+            assertEquals("app", replica.getUsername());
+            assertEquals("replica-secret", replica.getPassword());
+        }
+    }
+
+    @Test
+    void replicaCredentialsAreUsedAsGiven() {
+        try (HikariDataSource replica = config.replicaDataSource(primary(), URL, "reader", "replica-secret")) {
+            assertEquals("reader", replica.getUsername());
+            assertEquals("replica-secret", replica.getPassword());
+            assertEquals(URL, replica.getJdbcUrl());
+            assertTrue(replica.isReadOnly());
+        }
+    }
+
+    private static DataSourceProperties primary() {
+        DataSourceProperties properties = new DataSourceProperties();
+        properties.setUrl("jdbc:h2:mem:primary-config");
+        properties.setUsername("app");
+        properties.setPassword("primary-secret");
+        return properties;
+    }
+}
@@ -0,0 +1,333 @@
+package ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.controller;
+
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.model.Report;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.storage.AttachmentStore;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.storage.LocalAttachmentStore;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.storage.StoredAttachment;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Drives AttachmentDownloads.write with mock requests over a 100-byte attachment whose
+ * byte i is i, so every body shows exactly which range was sent.
+ */
+class AttachmentDownloadsTest {
+
+    private static final int SIZE = 100;
+    private static final byte[] CONTENT = new byte[SIZE];
+
+    static {
+        for (int i = 0; i < SIZE; i++) CONTENT[i] = (byte) i;
+    }
+
+    @TempDir
+    Path root;
+
+    private LocalAttachmentStore store;
+    private Report report;
+    private String etag;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        store = new LocalAttachmentStore(root);
+        StoredAttachment stored = store.save(new ByteArrayInputStream(CONTENT));
+        report = new Report();
+        report.setId(7L);
+        report.setFileName("gauge.bin");
+        report.setFileType("application/x-gauge");
+        report.setAttachmentHash(stored.sha256());
+        etag = "\"" + stored.sha256() + "\"";
+    }
+
+    @Test
+    void noRangeSendsTheWholeFile() throws IOException {
+        MockHttpServletResponse response = download(request());
+
+        assertEquals(200, response.getStatus());
+        assertEquals(etag, response.getHeader(HttpHeaders.ETAG));
+        assertEquals("bytes", response.getHeader(HttpHeaders.ACCEPT_RANGES));
+        assertEquals("application/x-gauge", response.getContentType());
+        assertEquals(SIZE, response.getContentLengthLong());
+        assertNull(response.getHeader(HttpHeaders.CONTENT_RANGE));
+        assertArrayEquals(CONTENT, response.getContentAsByteArray());
+    }
+
+    @Test
+    void closedRange() throws IOException {
+        assertPartial(download(ranged("bytes=10-19")), 10, 19);
+    }
+
+    @Test
+    void openEndedRange() throws IOException {
+        assertPartial(download(ranged("bytes=90-")), 90, 99);
+    }
+
+    @Test
+    void endPastTheFileIsClamped() throws IOException {
+        assertPartial(download(ranged("bytes=95-5000")), 95, 99);
+    }
+
+    @Test
+    void suffixRangeSendsTheLastBytes() throws IOException {
+        assertPartial(download(ranged("bytes=-5")), 95, 99);
+    }
+
+    @Test
+    void suffixLongerThanTheFileSendsAllOfIt() throws IOException {
+        assertPartial(download(ranged("bytes=-500")), 0, 99);
+    }
+
+    @Test
+    void emptySuffixIsUnsatisfiable() throws IOException {
+        assertUnsatisfiable(download(ranged("bytes=-0")));
+    }
+
+    @Test
+    void startAtOrPastTheEndIsUnsatisfiable() throws IOException {
+        assertUnsatisfiable(download(ranged("bytes=100-")));
+        assertUnsatisfiable(download(ranged("bytes=250-300")));
+    }
+
+    @Test
+    void endBeforeStartIsIgnored() throws IOException {
+        assertWhole(download(ranged("bytes=20-10")));
+    }
+
+    @Test
+    void severalRangesFallBackToTheWholeFile() throws IOException {
+        assertWhole(download(ranged("bytes=0-9,20-29")));
+    }
+
+    @Test
+    void malformedRangesAreIgnored() throws IOException {
+        assertWhole(download(ranged("bytes=ten-20")));
+        assertWhole(download(ranged("bytes=10")));
+        assertWhole(download(ranged("bytes=-")));
+        assertWhole(download(ranged("items=0-9")));
+    }
+
+    @Test
+    void ifRangeMatchingTheEtagHonoursTheRange() throws IOException {
+        MockHttpServletRequest request = ranged("bytes=0-3");
+        request.addHeader(HttpHeaders.IF_RANGE, etag);
+        assertPartial(download(request), 0, 3);
+    }
+
+    // The client's partial copy is of other content, so it gets the current file whole
+    @Test
+    void ifRangeMismatchSendsTheWholeFile() throws IOException {
+        MockHttpServletRequest request = ranged("bytes=0-3");
+        request.addHeader(HttpHeaders.IF_RANGE, "\"" + "0".repeat(64) + "\"");
+        assertWhole(download(request));
+
+        MockHttpServletRequest dated = ranged("bytes=0-3");
+        dated.addHeader(HttpHeaders.IF_RANGE, "Wed, 26 Nov 2025 06:00:00 GMT");
+        assertWhole(download(dated));
+    }
+
+    @Test
+    void ifNoneMatchRevalidatesWithoutABody() throws IOException {
+        for (String ifNoneMatch : new String[]{etag, "W/" + etag, "\"other\", " + etag, "*"}) {
+            MockHttpServletRequest request = ranged("bytes=0-3");
+            request.addHeader(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+            MockHttpServletResponse response = download(request);
+
+            assertEquals(304, response.getStatus(), ifNoneMatch);
+            assertEquals(etag, response.getHeader(HttpHeaders.ETAG));
+            assertEquals(0, response.getContentAsByteArray().length);
+        }
+
+        MockHttpServletRequest stale = request();
+        stale.addHeader(HttpHeaders.IF_NONE_MATCH, "\"other\"");
+        assertWhole(download(stale));
+    }
+
+    @Test
+    void headSendsHeadersOnly() throws IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("HEAD", "/api/reports/7/file");
+        request.addHeader(HttpHeaders.RANGE, "bytes=10-19");
+        MockHttpServletResponse response = download(request);
+
+        assertEquals(206, response.getStatus());
+        assertEquals("bytes 10-19/100", response.getHeader(HttpHeaders.CONTENT_RANGE));
+        assertEquals(10, response.getContentLengthLong());
+        assertEquals(0, response.getContentAsByteArray().length);
+    }
+
+    // The connector writes [start, end) from the file once the servlet returns
+    @Test
+    void sendfileHandsTheRangeToTheConnector() throws IOException {
+        MockHttpServletRequest request = ranged("bytes=10-19");
+        request.setAttribute("org.apache.tomcat.sendfile.support", Boolean.TRUE);
+        MockHttpServletResponse response = download(request);
+
+        assertEquals(206, response.getStatus());
+        assertEquals(10, response.getContentLengthLong());
+        assertEquals(0, response.getContentAsByteArray().length);
+        assertEquals(store.localPath(report.getAttachmentHash()).orElseThrow().toString(),
+                request.getAttribute("org.apache.tomcat.sendfile.filename"));
+        assertEquals(10L, request.getAttribute("org.apache.tomcat.sendfile.start"));
+        assertEquals(20L, request.getAttribute("org.apache.tomcat.sendfile.end"));
+    }
+
+    @Test
+    void withoutSendfileSupportTheBodyIsWritten() throws IOException {
+        MockHttpServletRequest request = ranged("bytes=10-19");
+        request.setAttribute("org.apache.tomcat.sendfile.support", Boolean.FALSE);
+        assertPartial(download(request), 10, 19);
+        assertNull(request.getAttribute("org.apache.tomcat.sendfile.filename"));
+    }
+
+    // A store without local files hands out channels that are not FileChannels
+    @Test
+    void nonFileChannelsAreCopiedThroughABuffer() throws IOException {
+        AttachmentStore remote = new AttachmentStore() {
+            @Override
+            public StoredAttachment save(InputStream content) throws IOException {
+                return store.save(content);
+            }
+
+            @Override
+            public boolean exists(String sha256) {
+                return store.exists(sha256);
+            }
+
+            @Override
+            public SeekableByteChannel open(String sha256) throws IOException {
+                return wrap(store.open(sha256));
+            }
+        };
+        MockHttpServletRequest request = ranged("bytes=-30");
+        request.setAttribute("org.apache.tomcat.sendfile.support", Boolean.TRUE);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        AttachmentDownloads.write(request, response, report, remote);
+
+        assertPartial(response, 70, 99);
+        assertNull(request.getAttribute("org.apache.tomcat.sendfile.filename"));
+    }
+
+    @Test
+    void missingAttachmentIsNotFound() throws IOException {
+        report.setAttachmentHash("ab".repeat(32));
+        assertEquals(404, download(ranged("bytes=0-3")).getStatus());
+    }
+
+    @Test
+    void legacyRowsServeTheirInlineCopy() throws IOException {
+        report.setAttachmentHash(null);
+        report.setFileName(null);
+        report.setData(new byte[]{1, 2, 3});
+        MockHttpServletResponse response = download(ranged("bytes=0-0"));
+
+        assertEquals(200, response.getStatus());
+        assertArrayEquals(new byte[]{1, 2, 3}, response.getContentAsByteArray());
+        assertTrue(response.getHeader(HttpHeaders.CONTENT_DISPOSITION).endsWith("filename*=UTF-8''report-7"));
+
+        report.setData(null);
+        assertEquals(404, download(request()).getStatus());
+    }
+
+    private MockHttpServletResponse download(MockHttpServletRequest request) throws IOException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        AttachmentDownloads.write(request, response, report, store);
+        return response;
+    }
+
+    private static MockHttpServletRequest request() {
+        return new MockHttpServletRequest("GET", "/api/reports/7/file");
+    }
+
+    private static MockHttpServletRequest ranged(String range) {
+        MockHttpServletRequest request = request();
+        request.addHeader(HttpHeaders.RANGE, range);
+        return request;
+    }
+
+    private static void assertPartial(MockHttpServletResponse response, int start, int end) {
+        assertEquals(206, response.getStatus());
+        assertEquals("bytes " + start + "-" + end + "/" + SIZE, response.getHeader(HttpHeaders.CONTENT_RANGE));
+        assertEquals(end - start + 1, response.getContentLengthLong());
+        assertArrayEquals(Arrays.copyOfRange(CONTENT, start, end + 1), response.getContentAsByteArray());
+    }
+
+    private static void assertWhole(MockHttpServletResponse response) {
+        assertEquals(200, response.getStatus());
+        assertNull(response.getHeader(HttpHeaders.CONTENT_RANGE));
+        assertArrayEquals(CONTENT, response.getContentAsByteArray());
+    }
+
+    private static void assertUnsatisfiable(MockHttpServletResponse response) {
+        assertEquals(416, response.getStatus());
+        assertEquals("bytes */" + SIZE, response.getHeader(HttpHeaders.CONTENT_RANGE));
+        assertEquals(0, response.getContentAsByteArray().length);
+    }
+
+    // Reads in small steps, the way a network-backed channel might
+    private static SeekableByteChannel wrap(SeekableByteChannel file) {
+        return new SeekableByteChannel() {
+            @Override
+            public int read(ByteBuffer dst) throws IOException {
+                if (dst.remaining() > 7) {
+                    ByteBuffer slice = dst.slice().limit(7);
+                    int read = file.read(slice);
+                    if (read > 0) dst.position(dst.position() + read);
+                    return read;
+                }
+                return file.read(dst);
+            }
+
+            @Override
+            public int write(ByteBuffer src) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public long position() throws IOException {
+                return file.position();
+            }
+
+            @Override
+            public SeekableByteChannel position(long newPosition) throws IOException {
+                file.position(newPosition);
+                return this;
+            }
+
+            @Override
+            public long size() throws IOException {
+                return file.size();
+            }
+
+            @Override
+            public SeekableByteChannel truncate(long size) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public boolean isOpen() {
+                return file.isOpen();
+            }
+
+            @Override
+            public void close() throws IOException {
+                file.close();
+            }
+        };
+    }
+}
@@ -0,0 +1,309 @@
+package ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.datasource;
+
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.metrics.MetricRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.servlet.http.Cookie;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.orm.jpa.EntityManagerFactoryUtils;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.annotation.AnnotationTransactionAttributeSource;
+import org.springframework.transaction.interceptor.DefaultTransactionAttribute;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Routing with two in-memory H2 databases standing in for the primary and the replica, each
+ * with a one-row "probe" table naming it, so a query shows which one served a transaction.
+ * Transactions go through ReplicaRoutingTransactionManager and a Hibernate EntityManager, as
+ * in the application. Replication is simulated by copying the heartbeat row across whenever
+ * the replica hands out a connection, so each check finds it caught up to that moment.
+ * Requests run through ReplicaPinFilter on pooled threads, the cookie standing in for a
+ * client that may reach another instance next.
+ */
+class ReadWriteRoutingDataSourceTest {
+
+    private static final long MAX_LAG_MS = 5000;
+    private static final AtomicInteger DATABASES = new AtomicInteger();
+
+    private DataSource primary;
+    private ReplicaStandIn replica;
+    private ReplicaLagMonitor monitor;
+    private LocalContainerEntityManagerFactoryBean entityManagerFactory;
+    private ReplicaRoutingTransactionManager transactionManager;
+
+    private TransactionDefinition replicaRead;
+    private final DefaultTransactionAttribute plainReadOnly = new DefaultTransactionAttribute();
+    private final DefaultTransactionAttribute readWrite = new DefaultTransactionAttribute();
+
+    private final ExecutorService pooledThread = Executors.newSingleThreadExecutor();
+    private final ExecutorService otherThread = Executors.newSingleThreadExecutor();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        ReplicaRouting.clear();
+        int n = DATABASES.incrementAndGet();
+        primary = database("primary-" + n, "primary");
+        replica = new ReplicaStandIn(database("replica-" + n, "replica"));
+        monitor = new ReplicaLagMonitor(primary, replica, MAX_LAG_MS);
+
+        entityManagerFactory = new LocalContainerEntityManagerFactoryBean();
+        entityManagerFactory.setDataSource(new ReadWriteRoutingDataSource(primary, replica, monitor, new MetricRegistry()));
+        entityManagerFactory.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+        entityManagerFactory.setPackagesToScan(getClass().getPackageName());
+        entityManagerFactory.setJpaPropertyMap(Map.of(AvailableSettings.CONNECTION_HANDLING,
+                PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION));
+        entityManagerFactory.afterPropertiesSet();
+
+        transactionManager = new ReplicaRoutingTransactionManager();
+        transactionManager.setEntityManagerFactory(entityManagerFactory.getObject());
+        transactionManager.afterPropertiesSet();
+
+        replicaRead = new AnnotationTransactionAttributeSource()
+                .getTransactionAttribute(Reads.class.getMethod("list"), Reads.class);
+        plainReadOnly.setReadOnly(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        entityManagerFactory.destroy();
+        pooledThread.shutdown();
+        otherThread.shutdown();
+        ReplicaRouting.clear();
+    }
+
+    @Test
+    void replicaReadGoesToReplicaOnceTheCheckPasses() {
+        assertEquals("primary", servedBy(replicaRead));
+        monitor.check();
+        assertTrue(monitor.isUsable());
+        assertEquals("replica", servedBy(replicaRead));
+    }
+
+    @Test
+    void otherTransactionsStayOnPrimary() {
+        monitor.check();
+        // Like the repositories' own read-only transactions
+        assertEquals("primary", servedBy(plainReadOnly));
+        assertEquals("primary", servedBy(readWrite));
+    }
+
+    @Test
+    void laggingReplicaIsSkippedUntilItCatchesUp() {
+        replica.replicating = false;
+        monitor.check();
+        assertFalse(monitor.isUsable());
+        assertTrue(monitor.getLagMillis() > MAX_LAG_MS);
+        assertEquals("primary", servedBy(replicaRead));
+
+        replica.replicating = true;
+        monitor.check();
+        assertEquals("replica", servedBy(replicaRead));
+    }
+
+    @Test
+    void unreachableReplicaFallsBackToPrimary() {
+        monitor.check();
+        replica.down = true;
+        // Between checks: the failed connection itself takes the replica out
+        assertEquals("primary", servedBy(replicaRead));
+        assertFalse(monitor.isUsable());
+
+        monitor.check();
+        assertFalse(monitor.isUsable());
+
+        replica.down = false;
+        monitor.check();
+        assertEquals("replica", servedBy(replicaRead));
+    }
+
+    @Test
+    void readAfterWriteOnTheSameThreadStaysOnPrimary() {
+        monitor.check();
+        servedBy(readWrite);
+        assertEquals("primary", servedBy(replicaRead));
+
+        // Until a check shows the replica has caught up with the write
+        nextMillisecond();
+        monitor.check();
+        assertEquals("replica", servedBy(replicaRead));
+    }
+
+    @Test
+    void clientWhoWroteReadsFromPrimaryInTheirNextRequests() throws Exception {
+        monitor.check();
+        Cookie pin = inRequest(pooledThread, null, readWrite).pin();
+        assertNotNull(pin);
+
+        assertEquals("primary", inRequest(otherThread, pin, replicaRead).servedBy());
+        assertEquals("replica", inRequest(otherThread, null, replicaRead).servedBy());
+
+        nextMillisecond();
+        monitor.check();
+        assertEquals("replica", inRequest(otherThread, pin, replicaRead).servedBy());
+    }
+
+    @Test
+    void requestDoesNotInheritThePinOfTheLastOneOnItsThread() throws Exception {
+        monitor.check();
+        inRequest(pooledThread, null, readWrite);
+        assertEquals("replica", inRequest(pooledThread, null, replicaRead).servedBy());
+    }
+
+    @Test
+    void pinOutlastsAReplicaThatHasNotCaughtUp() throws Exception {
+        monitor.check();
+        replica.replicating = false;
+        Cookie pin = inRequest(pooledThread, null, readWrite).pin();
+
+        // Still usable, but the heartbeat it returns is older than the write
+        nextMillisecond();
+        monitor.check();
+        assertTrue(monitor.isUsable());
+        assertEquals("primary", inRequest(otherThread, pin, replicaRead).servedBy());
+        assertEquals("replica", inRequest(otherThread, null, replicaRead).servedBy());
+
+        replica.replicating = true;
+        monitor.check();
+        assertEquals("replica", inRequest(otherThread, pin, replicaRead).servedBy());
+    }
+
+    @Test
+    void onlyCommittedWritesPin() throws Exception {
+        monitor.check();
+        assertNull(inRequest(pooledThread, null, plainReadOnly).pin());
+
+        Served rolledBack = pooledThread.submit(() -> request(null, () -> {
+            TransactionStatus status = transactionManager.getTransaction(readWrite);
+            transactionManager.rollback(status);
+            return servedBy(replicaRead);
+        })).get();
+        assertEquals("replica", rolledBack.servedBy());
+        assertNull(rolledBack.pin());
+    }
+
+    @Test
+    void replicaReadJoiningAWriteStaysOnItsConnection() {
+        monitor.check();
+        TransactionStatus outer = transactionManager.getTransaction(readWrite);
+        try {
+            assertEquals("primary", servedBy(replicaRead));
+        } finally {
+            transactionManager.commit(outer);
+        }
+    }
+
+    private String servedBy(TransactionDefinition definition) {
+        TransactionStatus status = transactionManager.getTransaction(definition);
+        try {
+            EntityManager entityManager = EntityManagerFactoryUtils.getTransactionalEntityManager(entityManagerFactory.getObject());
+            return (String) entityManager.createNativeQuery("SELECT name FROM probe").getSingleResult();
+        } finally {
+            transactionManager.commit(status);
+        }
+    }
+
+    private Served inRequest(ExecutorService thread, Cookie pin, TransactionDefinition definition) throws Exception {
+        return thread.submit(() -> request(pin, () -> servedBy(definition))).get();
+    }
+
+    // One request through ReplicaPinFilter, with the client's pin if it has one
+    private Served request(Cookie pin, Callable<String> work) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/markers");
+        if (pin != null) request.setCookies(pin);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        String[] servedBy = new String[1];
+        new ReplicaPinFilter(MAX_LAG_MS, 1000).doFilter(request, response, (req, res) -> {
+            try {
+                servedBy[0] = work.call();
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        return new Served(servedBy[0], response.getCookie(ReplicaPinFilter.COOKIE));
+    }
+
+    private record Served(String servedBy, Cookie pin) {
+    }
+
+    // Writes and heartbeats are compared to the millisecond, and a tie keeps the pin
+    private static void nextMillisecond() {
+        long now = System.currentTimeMillis();
+        while (System.currentTimeMillis() == now) {
+            Thread.onSpinWait();
+        }
+    }
+
+    private static DataSource database(String name, String probe) throws SQLException {
+        DataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1", "sa", "");
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE probe (name VARCHAR(20))");
+            statement.execute("INSERT INTO probe VALUES ('" + probe + "')");
+            statement.execute("CREATE TABLE replica_heartbeat (id INT NOT NULL PRIMARY KEY, beat_at_ms BIGINT NOT NULL)");
+            statement.execute("INSERT INTO replica_heartbeat (id, beat_at_ms) VALUES (1, 0)");
+        }
+        return dataSource;
+    }
+
+    static class Reads {
+        @ReplicaRead
+        public void list() {
+        }
+    }
+
+    // The replica's database, which can be cut off or stop replicating
+    private class ReplicaStandIn extends DelegatingDataSource {
+
+        volatile boolean down;
+        volatile boolean replicating = true;
+
+        ReplicaStandIn(DataSource target) {
+            super(target);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            if (down) throw new SQLException("replica unreachable");
+            Connection connection = super.getConnection();
+            if (replicating) copyHeartbeat(connection);
+            return connection;
+        }
+
+        private void copyHeartbeat(Connection to) throws SQLException {
+            try (Connection from = primary.getConnection();
+                 Statement select = from.createStatement();
+                 ResultSet rs = select.executeQuery("SELECT beat_at_ms FROM replica_heartbeat WHERE id = 1");
+                 PreparedStatement update = to.prepareStatement("UPDATE replica_heartbeat SET beat_at_ms = ? WHERE id = 1")) {
+                rs.next();
+                update.setLong(1, rs.getLong(1));
+                update.executeUpdate();
+            }
+        }
+    }
+}
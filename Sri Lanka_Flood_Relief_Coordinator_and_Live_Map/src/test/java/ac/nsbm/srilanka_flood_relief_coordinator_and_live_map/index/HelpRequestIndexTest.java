@@ -0,0 +1,97 @@
+package ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.index;
+
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.model.HelpRequest;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compares the ring search with sorting every request by haversine distance.
+ */
+class HelpRequestIndexTest {
+
+    private static final String[] NEEDS = {"food", "water", "medicine", "shelter", "rescue"};
+
+    private final Random random = new Random(3);
+    private final HelpRequestIndex index = new HelpRequestIndex();
+    private final List<HelpRequest> all = new ArrayList<>();
+
+    @Test
+    void nearestMatchesBruteForce() {
+        // Dense around Colombo, sparse over the rest of the island, a few far away
+        for (long id = 1; id <= 3000; id++) add(id, 6.9 + random.nextGaussian() * 0.05, 79.86 + random.nextGaussian() * 0.05, randomNeeds());
+        for (long id = 3001; id <= 4000; id++) add(id, 5.9 + random.nextDouble() * 3.9, 79.6 + random.nextDouble() * 2.3, randomNeeds());
+        add(4001, 1.35, 103.8, List.of("rescue"));
+        add(4002, 28.6, 77.2, List.of("food"));
+
+        for (int i = 0; i < 300; i++) {
+            double lat = 5.5 + random.nextDouble() * 5;
+            double lng = 79.0 + random.nextDouble() * 3;
+            int k = 1 + random.nextInt(i % 10 == 0 ? 200 : 20);
+            List<String> needs = i % 3 == 0 ? List.of(NEEDS[random.nextInt(NEEDS.length)].toUpperCase(Locale.ROOT)) : null;
+            check(lat, lng, k, needs);
+        }
+        // Far from everything, and asking for more than there are
+        check(-30, 150, 5, null);
+        check(7.0, 80.0, 5000, List.of("rescue"));
+    }
+
+    @Test
+    void needsPastTheBitmaskAreComparedByName() {
+        for (int i = 0; i < 80; i++) {
+            add(i + 1, 7.0 + i * 0.001, 80.0, List.of("need-" + i));
+        }
+        for (int i = 60; i < 80; i++) {
+            List<NearbyHelpRequest> found = index.nearest(7.0, 80.0, 10, List.of("need-" + i));
+            assertEquals(1, found.size(), "need-" + i);
+            assertEquals(i + 1, found.get(0).request().getId());
+        }
+        assertTrue(index.nearest(7.0, 80.0, 10, List.of("nothing-like-it")).isEmpty());
+    }
+
+    private void check(double lat, double lng, int k, List<String> needs) {
+        List<NearbyHelpRequest> actual = index.nearest(lat, lng, k, needs);
+
+        List<HelpRequest> candidates = new ArrayList<>();
+        for (HelpRequest request : all) {
+            if (needs == null || request.getNeeds().stream().anyMatch(n -> n.equalsIgnoreCase(needs.get(0)))) {
+                candidates.add(request);
+            }
+        }
+        candidates.sort(Comparator.comparingDouble(r -> HelpRequestIndex.haversineKm(lat, lng, r.getLatitude(), r.getLongitude())));
+        List<HelpRequest> expected = candidates.subList(0, Math.min(k, candidates.size()));
+
+        String query = "(" + lat + ", " + lng + ") k=" + k + " needs=" + needs;
+        assertEquals(expected.size(), actual.size(), query);
+        for (int i = 0; i < expected.size(); i++) {
+            HelpRequest want = expected.get(i);
+            double distance = HelpRequestIndex.haversineKm(lat, lng, want.getLatitude(), want.getLongitude());
+            assertEquals(distance, actual.get(i).distanceKm(), 1e-9, query + " #" + i);
+        }
+    }
+
+    private List<String> randomNeeds() {
+        List<String> needs = new ArrayList<>();
+        for (String need : NEEDS) {
+            if (random.nextInt(3) == 0) needs.add(need);
+        }
+        return needs;
+    }
+
+    private void add(long id, double lat, double lng, List<String> needs) {
+        HelpRequest request = new HelpRequest();
+        request.setId(id);
+        request.setLatitude(lat);
+        request.setLongitude(lng);
+        request.setNeeds(needs);
+        all.add(request);
+        index.add(request);
+    }
+}
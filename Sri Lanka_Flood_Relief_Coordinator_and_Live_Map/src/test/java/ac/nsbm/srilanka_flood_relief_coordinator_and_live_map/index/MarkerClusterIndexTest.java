@@ -0,0 +1,134 @@
+package ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.index;
+
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.model.MapMarker;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The cluster cells keep running sums, so the checks here compare an index that went through
+ * updates and removals with one built from scratch out of the surviving markers.
+ */
+class MarkerClusterIndexTest {
+
+    private static final String[] TYPES = {"flood", "landslide", "medical", null};
+    private static final String[] SEVERITIES = {"low", "medium", "high", "critical", null};
+
+    private final Random random = new Random(11);
+
+    @Test
+    void incrementalUpdatesMatchAFreshBuild() {
+        MarkerClusterIndex index = new MarkerClusterIndex();
+        Map<Long, MapMarker> live = new HashMap<>();
+        for (long id = 1; id <= 2000; id++) put(index, live, id);
+        for (int i = 0; i < 1500; i++) put(index, live, 1 + random.nextInt(2000));
+        for (int i = 0; i < 700; i++) {
+            long id = 1 + random.nextInt(2000);
+            assertEquals(live.remove(id) != null, index.remove(id));
+        }
+
+        MarkerClusterIndex fresh = new MarkerClusterIndex();
+        live.values().forEach(fresh::upsert);
+
+        for (int zoom = MarkerClusterIndex.MIN_ZOOM; zoom <= MarkerClusterIndex.MAX_ZOOM; zoom++) {
+            List<MarkerCluster> actual = sorted(index.query(zoom, null));
+            List<MarkerCluster> expected = sorted(fresh.query(zoom, null));
+            assertEquals(expected.size(), actual.size(), "clusters at zoom " + zoom);
+            int total = 0;
+            for (int i = 0; i < expected.size(); i++) {
+                assertSameCluster(expected.get(i), actual.get(i));
+                total += actual.get(i).count();
+            }
+            assertEquals(live.size(), total, "markers at zoom " + zoom);
+        }
+    }
+
+    @Test
+    void boxQueryReturnsClustersWhoseCentroidIsInside() {
+        MarkerClusterIndex index = new MarkerClusterIndex();
+        Map<Long, MapMarker> live = new HashMap<>();
+        for (long id = 1; id <= 1500; id++) put(index, live, id);
+
+        for (int i = 0; i < 200; i++) {
+            int zoom = random.nextInt(MarkerClusterIndex.MAX_ZOOM + 1);
+            double south = 5.8 + random.nextDouble() * 4.0, west = 79.5 + random.nextDouble() * 2.4;
+            double span = i % 2 == 0 ? 0.1 : 3.0;
+            BoundingBox bbox = new BoundingBox(west, south, west + span, south + span);
+
+            List<MarkerCluster> expected = new ArrayList<>();
+            for (MarkerCluster cluster : index.query(zoom, null)) {
+                if (bbox.contains(cluster.lat(), cluster.lng())) expected.add(cluster);
+            }
+            assertEquals(sorted(expected), sorted(index.query(zoom, bbox)), "zoom " + zoom + ", bbox " + bbox);
+        }
+    }
+
+    @Test
+    void clusterSummarisesItsMembers() {
+        MarkerClusterIndex index = new MarkerClusterIndex();
+        index.upsert(marker(1, 7.00, 80.00, "flood", "low"));
+        index.upsert(marker(2, 7.01, 80.01, "flood", "critical"));
+        index.upsert(marker(3, 7.02, 80.02, "medical", "medium"));
+
+        List<MarkerCluster> world = index.query(0, null);
+        assertEquals(1, world.size());
+        MarkerCluster cluster = world.get(0);
+        assertEquals(3, cluster.count());
+        assertEquals(7.01, cluster.lat(), 1e-9);
+        assertEquals(80.01, cluster.lng(), 1e-9);
+        assertEquals(Map.of("flood", 2, "medical", 1), cluster.types());
+        assertEquals("critical", cluster.worstSeverity());
+        assertNull(cluster.markerId());
+
+        // Taking the worst one out leaves the next worst, and a lone marker is identified
+        index.remove(2L);
+        index.remove(1L);
+        cluster = index.query(0, null).get(0);
+        assertEquals("medium", cluster.worstSeverity());
+        assertEquals(3L, cluster.markerId());
+
+        index.remove(3L);
+        assertTrue(index.query(0, null).isEmpty());
+    }
+
+    private void put(MarkerClusterIndex index, Map<Long, MapMarker> live, long id) {
+        MapMarker marker = marker(id, 5.9 + random.nextDouble() * 3.9, 79.6 + random.nextDouble() * 2.3,
+                TYPES[random.nextInt(TYPES.length)], SEVERITIES[random.nextInt(SEVERITIES.length)]);
+        live.put(id, marker);
+        index.upsert(marker);
+    }
+
+    private static void assertSameCluster(MarkerCluster expected, MarkerCluster actual) {
+        assertEquals(expected.count(), actual.count());
+        assertEquals(expected.lat(), actual.lat(), 1e-6);
+        assertEquals(expected.lng(), actual.lng(), 1e-6);
+        assertEquals(expected.types(), actual.types());
+        assertEquals(expected.worstSeverity(), actual.worstSeverity());
+        assertEquals(expected.markerId(), actual.markerId());
+    }
+
+    private static List<MarkerCluster> sorted(List<MarkerCluster> clusters) {
+        List<MarkerCluster> copy = new ArrayList<>(clusters);
+        copy.sort(Comparator.comparingDouble(MarkerCluster::lat).thenComparingDouble(MarkerCluster::lng));
+        return copy;
+    }
+
+    private static MapMarker marker(long id, double lat, double lng, String type, String severity) {
+        MapMarker marker = new MapMarker();
+        marker.setId(id);
+        marker.setLat(lat);
+        marker.setLng(lng);
+        marker.setType(type);
+        marker.setSeverity(severity);
+        return marker;
+    }
+}
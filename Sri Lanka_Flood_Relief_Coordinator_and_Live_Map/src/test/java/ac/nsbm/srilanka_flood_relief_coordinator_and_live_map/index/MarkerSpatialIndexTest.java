@@ -0,0 +1,115 @@
+package ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.index;
+
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.model.MapMarker;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks the grid index against a brute-force filter over the same markers, through inserts,
+ * moves and removals, for small viewports (cell walk) and wide ones (occupied-cell walk).
+ */
+class MarkerSpatialIndexTest {
+
+    private static final String[] TYPES = {"flood", "landslide", "road-block", "safe-zone", null};
+    private static final String[] SEVERITIES = {"low", "medium", "high", "critical", null};
+
+    private final Random random = new Random(7);
+    private final MarkerSpatialIndex index = new MarkerSpatialIndex();
+    private final Map<Long, MapMarker> expected = new HashMap<>();
+
+    @Test
+    void matchesBruteForceThroughInsertsMovesAndRemovals() {
+        for (long id = 1; id <= 3000; id++) put(id);
+        checkQueries(300);
+
+        // Move some markers, delete others, then refill the freed slots
+        for (int i = 0; i < 1000; i++) put(1 + random.nextInt(3000));
+        for (int i = 0; i < 800; i++) {
+            long id = 1 + random.nextInt(3000);
+            assertEquals(expected.remove(id) != null, index.remove(id));
+        }
+        for (long id = 3001; id <= 3500; id++) put(id);
+        assertEquals(expected.size(), index.size());
+        checkQueries(300);
+    }
+
+    @Test
+    void filtersAreCaseInsensitiveAndUnknownValuesMatchNothing() {
+        index.upsert(marker(1, 7.0, 80.0, "Flood", "HIGH"));
+        index.upsert(marker(2, 7.0, 80.0, "landslide", null));
+
+        assertEquals(List.of(1L), ids(index.query(null, List.of(" flood "), null)));
+        assertEquals(List.of(1L), ids(index.query(null, null, List.of("high"))));
+        assertTrue(index.query(null, List.of("volcano"), null).isEmpty());
+        assertTrue(index.query(null, List.of(), null).isEmpty());
+    }
+
+    @Test
+    void clearEmptiesTheIndex() {
+        for (long id = 1; id <= 50; id++) put(id);
+        index.clear();
+        assertEquals(0, index.size());
+        assertTrue(index.query(null, null, null).isEmpty());
+        assertFalse(index.remove(1L));
+    }
+
+    private void checkQueries(int count) {
+        for (int i = 0; i < count; i++) {
+            BoundingBox bbox = i % 10 == 0 ? null : randomBox(i % 3 == 0 ? 4.0 : 0.2);
+            List<String> types = random.nextBoolean() ? null : List.of(TYPES[random.nextInt(TYPES.length - 1)]);
+            List<String> severities = random.nextInt(3) == 0 ? List.of("high", "critical") : null;
+
+            List<Long> actual = ids(index.query(bbox, types, severities));
+            List<Long> wanted = ids(expected.values().stream()
+                    .filter(m -> bbox == null || bbox.contains(m.getLat(), m.getLng()))
+                    .filter(m -> matches(types, m.getType()) && matches(severities, m.getSeverity()))
+                    .toList());
+            assertEquals(wanted, actual, "bbox " + bbox + ", types " + types + ", severities " + severities);
+        }
+    }
+
+    private static boolean matches(Collection<String> filter, String value) {
+        return filter == null || (value != null && filter.contains(value.toLowerCase(Locale.ROOT)));
+    }
+
+    private void put(long id) {
+        MapMarker marker = marker(id, 5.9 + random.nextDouble() * 3.9, 79.6 + random.nextDouble() * 2.3,
+                TYPES[random.nextInt(TYPES.length)], SEVERITIES[random.nextInt(SEVERITIES.length)]);
+        expected.put(id, marker);
+        index.upsert(marker);
+    }
+
+    private BoundingBox randomBox(double span) {
+        double south = 5.8 + random.nextDouble() * 4.0;
+        double west = 79.5 + random.nextDouble() * 2.4;
+        return new BoundingBox(west, south, west + random.nextDouble() * span, south + random.nextDouble() * span);
+    }
+
+    private static MapMarker marker(long id, double lat, double lng, String type, String severity) {
+        MapMarker marker = new MapMarker();
+        marker.setId(id);
+        marker.setLat(lat);
+        marker.setLng(lng);
+        marker.setType(type);
+        marker.setSeverity(severity);
+        return marker;
+    }
+
+    private static List<Long> ids(Collection<MapMarker> markers) {
+        Set<Long> ids = new TreeSet<>();
+        for (MapMarker marker : markers) ids.add(marker.getId());
+        return List.copyOf(ids);
+    }
+}
@@ -0,0 +1,159 @@
+package ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.index;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compares claim() with checking every report ever made, using the same distance approximation.
+ */
+class RecentReportIndexTest {
+
+    private static final double RADIUS = 200;
+    private static final long WINDOW = 10 * 60_000;
+    private static final String[] TYPES = {"flood", "landslide", "road-block"};
+
+    private static final class Known {
+        final long id;
+        final String type;
+        final double lat;
+        final double lng;
+        long lastSeen;
+        boolean removed;
+
+        Known(long id, String type, double lat, double lng, long lastSeen) {
+            this.id = id;
+            this.type = type;
+            this.lat = lat;
+            this.lng = lng;
+            this.lastSeen = lastSeen;
+        }
+    }
+
+    private final Random random = new Random(11);
+    private final RecentReportIndex index = new RecentReportIndex(RADIUS, WINDOW);
+    private final List<Known> all = new ArrayList<>();
+
+    @Test
+    void claimMatchesBruteForce() {
+        long now = 0;
+        long nextId = 1;
+        for (int i = 0; i < 6000; i++) {
+            now += random.nextInt(400);
+            if (i % 20 == 19 && !all.isEmpty()) {
+                Known victim = all.get(random.nextInt(all.size()));
+                boolean removed = index.remove(victim.id);
+                // An expired report may or may not have been evicted yet
+                if (victim.removed) assertFalse(removed);
+                else if (victim.lastSeen >= now - WINDOW) assertTrue(removed, "live report " + victim.id);
+                victim.removed = true;
+                continue;
+            }
+            // Clustered so most reports have neighbours, some far out, one at the pole
+            String type = TYPES[random.nextInt(TYPES.length)];
+            double lat = i == 100 ? 90 : 6.9 + random.nextGaussian() * (i % 10 == 0 ? 0.5 : 0.01);
+            double lng = 79.86 + random.nextGaussian() * 0.01;
+
+            Known expected = bruteForce(type, lat, lng, now);
+            RecentReportIndex.Claim claim = index.claim(" " + type.toUpperCase() + " ", lat, lng, now);
+            if (expected == null) {
+                assertTrue(claim.isNew(), "missed nothing at #" + i);
+                long id = nextId++;
+                claim.complete(id);
+                all.add(new Known(id, type, lat, lng, now));
+            } else {
+                assertFalse(claim.isNew(), "missed report " + expected.id + " at #" + i);
+                assertEquals(expected.id, claim.markerId(0, TimeUnit.MILLISECONDS), "#" + i);
+                expected.lastSeen = Math.max(expected.lastSeen, now);
+            }
+        }
+
+        long cutoff = now - WINDOW;
+        long live = all.stream().filter(k -> !k.removed && k.lastSeen >= cutoff).count();
+        long notRemoved = all.stream().filter(k -> !k.removed).count();
+        assertTrue(index.size() >= live && index.size() <= notRemoved, "size " + index.size());
+    }
+
+    @Test
+    void simultaneousReportsShareOneMarker() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Long>> results = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            double offset = i * 0.00001;
+            results.add(pool.submit(() -> {
+                start.await();
+                RecentReportIndex.Claim claim = index.claim("flood", 7.0 + offset, 80.0, 1_000);
+                if (!claim.isNew()) return claim.markerId(5, TimeUnit.SECONDS);
+                // The canonical row takes a moment to save; the duplicates wait for it
+                Thread.sleep(50);
+                claim.complete(42L);
+                return -42L;
+            }));
+        }
+        start.countDown();
+
+        int created = 0;
+        for (Future<Long> result : results) {
+            long id = result.get();
+            if (id == -42L) created++;
+            else assertEquals(42L, id);
+        }
+        pool.shutdown();
+        assertEquals(1, created);
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    void abandonedClaimFreesTheSpot() {
+        RecentReportIndex.Claim first = index.claim("flood", 7.0, 80.0, 1_000);
+        RecentReportIndex.Claim duplicate = index.claim("flood", 7.0, 80.0, 1_001);
+        assertTrue(first.isNew());
+        assertFalse(duplicate.isNew());
+
+        first.abandon();
+        assertNull(duplicate.markerId(1, TimeUnit.SECONDS));
+        assertTrue(index.claim("flood", 7.0, 80.0, 1_002).isNew());
+    }
+
+    @Test
+    void reportsExpireAfterTheWindowUnlessSeenAgain() {
+        index.add(1L, "flood", 7.0, 80.0, 0);
+        index.add(2L, "flood", 8.0, 80.0, 0);
+
+        // Corroborating the first keeps it alive past the second's expiry
+        assertFalse(index.claim("flood", 7.0, 80.0, WINDOW - 1).isNew());
+        assertTrue(index.claim("flood", 8.0, 80.0, WINDOW + 1).isNew());
+        assertFalse(index.claim("flood", 7.0, 80.0, WINDOW + 2).isNew());
+        assertEquals(2, index.size());
+    }
+
+    private Known bruteForce(String type, double lat, double lng, long now) {
+        double cosLat = Math.max(0.01, Math.cos(Math.toRadians(lat)));
+        Known best = null;
+        double bestDistance = RADIUS * RADIUS;
+        for (Known k : all) {
+            if (k.removed || !k.type.equals(type) || k.lastSeen < now - WINDOW) continue;
+            double dy = (k.lat - lat) * 111_320.0;
+            double dx = (k.lng - lng) * 111_320.0 * cosLat;
+            double distance = dx * dx + dy * dy;
+            if (distance <= bestDistance) {
+                best = k;
+                bestDistance = distance;
+            }
+        }
+        return best;
+    }
+}
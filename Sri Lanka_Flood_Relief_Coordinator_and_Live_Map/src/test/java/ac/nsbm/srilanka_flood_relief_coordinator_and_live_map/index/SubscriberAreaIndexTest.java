@@ -0,0 +1,115 @@
+package ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.index;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compares the grid match with checking every subscriber against the area.
+ */
+class SubscriberAreaIndexTest {
+
+    private final Random random = new Random(5);
+    private final SubscriberAreaIndex index = new SubscriberAreaIndex();
+    // Id -> a point as a zero-size box, or the viewport
+    private final Map<String, BoundingBox> all = new LinkedHashMap<>();
+    private final Map<String, Boolean> isPoint = new LinkedHashMap<>();
+
+    @Test
+    void matchMatchesBruteForce() {
+        // Crowds in town centres, people spread over the island, and viewports of every size
+        for (int i = 0; i < 3000; i++) point("p" + i, 6.9 + random.nextGaussian() * 0.03, 79.86 + random.nextGaussian() * 0.03);
+        for (int i = 0; i < 1500; i++) point("q" + i, 5.9 + random.nextDouble() * 3.9, 79.6 + random.nextDouble() * 2.3);
+        for (int i = 0; i < 800; i++) viewport("s" + i, 0.005 + random.nextDouble() * 0.2);
+        for (int i = 0; i < 300; i++) viewport("m" + i, 0.2 + random.nextDouble() * 2);
+        for (int i = 0; i < 40; i++) viewport("w" + i, 3 + random.nextDouble() * 10);
+        point("far", 51.5, -0.12);
+
+        // Moving and leaving, the way streams do while the index is in use
+        for (int i = 0; i < 1000; i++) point("p" + random.nextInt(3000), 6.9 + random.nextGaussian() * 0.2, 79.86 + random.nextGaussian() * 0.2);
+        for (int i = 0; i < 200; i++) viewport("s" + random.nextInt(800), 0.01 + random.nextDouble() * 4);
+        for (int i = 0; i < 600; i++) {
+            String id = List.of("p", "q", "s", "m").get(random.nextInt(4)) + random.nextInt(300);
+            assertEquals(all.remove(id) != null, index.remove(id), id);
+            isPoint.remove(id);
+        }
+        assertEquals(all.size(), index.size());
+
+        for (int i = 0; i < 300; i++) {
+            double lat = 5.8 + random.nextDouble() * 4;
+            double lng = 79.5 + random.nextDouble() * 2.5;
+            check(new TargetArea.Circle(lat, lng, Math.exp(random.nextDouble() * Math.log(300_000)) + 50));
+            check(polygon(lat, lng, 0.01 + random.nextDouble() * (i % 10 == 0 ? 3 : 0.3)));
+        }
+        // Areas where nobody is, and one taking in everyone on the island
+        check(new TargetArea.Circle(-30, 150, 5000));
+        check(new TargetArea.Circle(7.8, 80.7, 1_000_000));
+    }
+
+    @Test
+    void removedAndMovedSubscribersAreNotMatched() {
+        index.placeAt("a", 6.93, 79.85);
+        index.placeViewport("b", new BoundingBox(79.8, 6.9, 79.9, 7.0));
+        TargetArea colombo = new TargetArea.Circle(6.93, 79.85, 2000);
+        assertEquals(List.of("a", "b"), index.match(colombo).stream().sorted().toList());
+
+        index.placeAt("a", 9.66, 80.02);
+        index.placeViewport("b", new BoundingBox(70, 0, 90, 20));
+        assertEquals(List.of("b"), index.match(colombo));
+        assertTrue(index.remove("b"));
+        assertFalse(index.remove("b"));
+        assertFalse(index.contains("b"));
+        assertTrue(index.match(colombo).isEmpty());
+        assertEquals(1, index.size());
+    }
+
+    private void check(TargetArea area) {
+        List<String> actual = index.match(area);
+        assertEquals(actual.size(), new HashSet<>(actual).size(), "reported twice: " + area.bounds());
+
+        List<String> expected = new ArrayList<>();
+        all.forEach((id, box) -> {
+            boolean inside = isPoint.get(id) ? area.contains(box.minLat(), box.minLng()) : area.intersects(box);
+            if (inside) expected.add(id);
+        });
+        assertEquals(expected.stream().sorted().toList(), actual.stream().sorted().toList(), area.bounds().toString());
+    }
+
+    // A star around the centre, so concave as often as not
+    private TargetArea polygon(double lat, double lng, double size) {
+        int n = 3 + random.nextInt(10);
+        double[] lats = new double[n];
+        double[] lngs = new double[n];
+        for (int i = 0; i < n; i++) {
+            double angle = 2 * Math.PI * i / n;
+            double r = size * (0.3 + random.nextDouble() * 0.7);
+            lats[i] = lat + r * Math.sin(angle);
+            lngs[i] = lng + r * Math.cos(angle);
+        }
+        return new TargetArea.Polygon(lats, lngs);
+    }
+
+    private void point(String id, double lat, double lng) {
+        index.placeAt(id, lat, lng);
+        all.put(id, new BoundingBox(lng, lat, lng, lat));
+        isPoint.put(id, true);
+    }
+
+    private void viewport(String id, double size) {
+        double lat = 5.5 + random.nextDouble() * 4.5;
+        double lng = 79.3 + random.nextDouble() * 2.8;
+        BoundingBox box = new BoundingBox(lng, lat, lng + size * 1.6, lat + size);
+        index.placeViewport(id, box);
+        all.put(id, box);
+        isPoint.put(id, false);
+    }
+}
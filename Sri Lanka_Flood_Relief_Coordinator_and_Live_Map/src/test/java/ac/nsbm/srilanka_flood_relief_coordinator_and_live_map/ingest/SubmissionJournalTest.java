@@ -0,0 +1,131 @@
+package ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.ingest;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SubmissionJournalTest {
+
+    private static final long SEGMENT_BYTES = 1024 * 1024;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void tornTailIsDroppedAndTheRestReplayed() throws IOException {
+        long segment = write("first", "second", "third");
+        // A crash halfway through the next record: full header, part of the payload
+        appendRaw(segment, ByteBuffer.allocate(15).putInt(100).putInt(12345).put("partial".getBytes(StandardCharsets.UTF_8)).array());
+
+        try (SubmissionJournal journal = new SubmissionJournal(dir, SEGMENT_BYTES)) {
+            assertEquals(List.of("first", "second", "third"), payloads(journal.replay()));
+            assertTrue(journal.replay().stream().allMatch(r -> r.segment() == segment));
+
+            // New records never go after the torn tail
+            assertTrue(journal.append(bytes("fourth"), 5_000) > segment);
+
+            // Once everything replayed is saved, the old segment goes
+            for (int i = 0; i < 3; i++) journal.markFlushed(segment);
+            assertFalse(Files.exists(segmentFile(segment)));
+        }
+    }
+
+    @Test
+    void tornHeaderIsDropped() throws IOException {
+        long segment = write("only");
+        appendRaw(segment, new byte[]{0, 0});
+
+        try (SubmissionJournal journal = new SubmissionJournal(dir, SEGMENT_BYTES)) {
+            assertEquals(List.of("only"), payloads(journal.replay()));
+        }
+    }
+
+    @Test
+    void replayStopsAtACorruptRecord() throws IOException {
+        long segment = write("good", "flipped", "after");
+        byte[] file = Files.readAllBytes(segmentFile(segment));
+        // Second record starts after the first one's 8-byte header and 4-byte payload
+        file[8 + 4 + 8] ^= 1;
+        Files.write(segmentFile(segment), file);
+
+        try (SubmissionJournal journal = new SubmissionJournal(dir, SEGMENT_BYTES)) {
+            assertEquals(List.of("good"), payloads(journal.replay()));
+        }
+    }
+
+    @Test
+    void appendsThatTimedOutAreNeverWritten() throws Exception {
+        // A zero timeout races every append against the writer: each must end up on disk
+        // exactly when it reported success
+        Set<String> acknowledged = ConcurrentHashMap.newKeySet();
+        try (SubmissionJournal journal = new SubmissionJournal(dir, SEGMENT_BYTES)) {
+            ExecutorService pool = Executors.newFixedThreadPool(8);
+            List<Future<?>> appends = new ArrayList<>();
+            for (int i = 0; i < 2_000; i++) {
+                String payload = "record-" + i;
+                appends.add(pool.submit(() -> {
+                    try {
+                        journal.append(bytes(payload), 0);
+                        acknowledged.add(payload);
+                    } catch (IOException timedOut) {
+                        // Not acknowledged, so it must not come back on replay
+                    }
+                }));
+            }
+            for (Future<?> append : appends) append.get();
+            pool.shutdown();
+        }
+
+        try (SubmissionJournal journal = new SubmissionJournal(dir, SEGMENT_BYTES)) {
+            List<String> replayed = payloads(journal.replay());
+            assertEquals(acknowledged.size(), replayed.size());
+            assertEquals(acknowledged, new HashSet<>(replayed));
+        }
+    }
+
+    private long write(String... payloads) throws IOException {
+        try (SubmissionJournal journal = new SubmissionJournal(dir, SEGMENT_BYTES)) {
+            for (String payload : payloads) journal.append(bytes(payload), 5_000);
+        }
+        try (Stream<Path> files = Files.list(dir)) {
+            List<Path> segments = files.sorted().toList();
+            String name = segments.get(segments.size() - 1).getFileName().toString();
+            return Long.parseLong(name.replaceAll("\\D", ""));
+        }
+    }
+
+    private void appendRaw(long segment, byte[] bytes) throws IOException {
+        Files.write(segmentFile(segment), bytes, StandardOpenOption.APPEND);
+    }
+
+    private Path segmentFile(long segment) {
+        return dir.resolve(String.format("submissions-%010d.log", segment));
+    }
+
+    private static byte[] bytes(String payload) {
+        return payload.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static List<String> payloads(List<SubmissionJournal.Record> records) {
+        return records.stream().map(r -> new String(r.payload(), StandardCharsets.UTF_8)).toList();
+    }
+}
@@ -0,0 +1,66 @@
+package ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.realtime;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SseWriterPoolTest {
+
+    private final SseWriterPool pool = new SseWriterPool(1, 2, 100);
+
+    @AfterEach
+    void shutdown() {
+        pool.shutdown();
+    }
+
+    @Test
+    void stuckWriteIsDroppedAndDoesNotHoldUpTheOthers() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch dropped = new CountDownLatch(1);
+        CountDownLatch otherRan = new CountDownLatch(1);
+
+        // The only thread blocks in a write, like a send to a half-open connection
+        pool.execute(() -> {
+            SseWriterPool.Write write = pool.begin(dropped::countDown);
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                pool.end(write);
+            }
+        });
+        pool.execute(otherRan::countDown);
+
+        assertTrue(dropped.await(2, TimeUnit.SECONDS), "stalled write was not reported");
+        assertTrue(otherRan.await(2, TimeUnit.SECONDS), "queued write waited for the stuck one");
+        assertEquals(1, pool.getStalledWrites());
+
+        release.countDown();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+        while (pool.getStalledWrites() > 0 && System.nanoTime() < deadline) Thread.sleep(10);
+        assertEquals(0, pool.getStalledWrites());
+        assertEquals(1, pool.getStalledWritesTotal());
+    }
+
+    @Test
+    void writeWithinTheDeadlineIsLeftAlone() throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(1);
+        boolean[] dropped = new boolean[1];
+        pool.execute(() -> {
+            SseWriterPool.Write write = pool.begin(() -> dropped[0] = true);
+            pool.end(write);
+            done.countDown();
+        });
+        assertTrue(done.await(2, TimeUnit.SECONDS));
+        Thread.sleep(250);
+        assertFalse(dropped[0]);
+        assertEquals(0, pool.getStalledWritesTotal());
+    }
+}
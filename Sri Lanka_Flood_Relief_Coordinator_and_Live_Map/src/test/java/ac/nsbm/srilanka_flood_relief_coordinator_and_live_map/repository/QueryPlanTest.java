@@ -0,0 +1,271 @@
+package ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.repository;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * EXPLAINs the SQL behind the hot repository queries on a MySQL schema built by the Flyway
+ * migrations, and fails if any of them reads a whole table (or a whole index without a LIMIT).
+ *
+ * Needs a MySQL server (see TestMySql); skipped when none answers. The database is wiped first.
+ *
+ * The statements are written out by hand to match what Hibernate generates for each repository
+ * method. Startup-only aggregates (the analytics backfill, findByStatus("approved") for the map
+ * index) and the revoked-token reload and purge read most of their table on purpose and are not listed.
+ */
+class QueryPlanTest {
+
+    private static final int USERS = 500;
+    private static final int MARKERS = 20_000;
+    private static final int MESSAGES = 20_000;
+    private static final int HELP_REQUESTS = 20_000;
+    // Below about 10k rows MySQL may rightly prefer sorting the table to walking an index for a LIMIT
+    private static final int ROWS = 20_000;
+    private static final String[] TYPES = {"flood", "landslide", "road-block", "safe-zone", "rescue-needed", "medical"};
+
+    private static Connection connection;
+
+    @BeforeAll
+    static void migrateAndSeed() throws SQLException {
+        connection = TestMySql.connectOrSkip();
+        Flyway flyway = TestMySql.flyway().load();
+        flyway.clean();
+        flyway.migrate();
+
+        Random random = new Random(42);
+        LocalDateTime now = LocalDateTime.now();
+        connection.setAutoCommit(false);
+        seedUsers();
+        seedMarkers(random, now);
+        seedMessages(random, now);
+        seedRest(random, now);
+        connection.commit();
+        connection.setAutoCommit(true);
+
+        // Fresh statistics, so the optimizer sees the seeded distribution rather than empty tables
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("ANALYZE TABLE users, map_markers, messages, alerts, reports, help_requests, tombstones");
+        }
+    }
+
+    @AfterAll
+    static void close() throws SQLException {
+        if (connection != null) connection.close();
+    }
+
+    static Stream<Arguments> hotQueries() {
+        return Stream.of(
+                // MapMarkerRepository
+                Arguments.of("findByStatus(pending)", "SELECT * FROM map_markers WHERE status = 'pending'"),
+                Arguments.of("countByStatus(pending)", "SELECT COUNT(*) FROM map_markers WHERE status = 'pending'"),
+                Arguments.of("findByStatusOrderByTimestampDescIdDesc",
+                        "SELECT * FROM map_markers WHERE status = 'pending' ORDER BY timestamp DESC, id DESC LIMIT 51"),
+                Arguments.of("findByStatusAfter",
+                        "SELECT * FROM map_markers WHERE status = 'rejected' AND (timestamp < NOW() - INTERVAL 3 DAY " +
+                                "OR (timestamp = NOW() - INTERVAL 3 DAY AND id < 1000)) ORDER BY timestamp DESC, id DESC LIMIT 51"),
+                Arguments.of("findBySubmittedBy", "SELECT * FROM map_markers WHERE submitted_by = 'user17'"),
+                Arguments.of("findByStatusInAndTimestampAfter",
+                        "SELECT * FROM map_markers WHERE status IN ('pending', 'approved') AND timestamp > NOW() - INTERVAL 2 HOUR"),
+                Arguments.of("findIdsByStatusInBox",
+                        "SELECT id FROM map_markers WHERE status = 'pending' AND lat BETWEEN 6.8 AND 7.0 " +
+                                "AND lng BETWEEN 79.8 AND 80.0 AND (1 = 1 OR type IN ('other')) ORDER BY id LIMIT 10001"),
+                Arguments.of("updateStatus",
+                        "UPDATE map_markers SET status = 'approved', change_version = 999999 " +
+                                "WHERE id IN (11, 12, 13) AND status = 'pending' AND COALESCE(change_version, 0) <= 999998"),
+                Arguments.of("addCorroboration",
+                        "UPDATE map_markers SET corroborations = corroborations + 1, change_version = 999999 " +
+                                "WHERE id = 42 AND status <> 'rejected'"),
+                Arguments.of("findByChangeVersion", "SELECT * FROM map_markers WHERE change_version = 500"),
+                Arguments.of("markers sync range",
+                        "SELECT * FROM map_markers WHERE change_version > 19900 AND change_version <= 20000 ORDER BY change_version"),
+                Arguments.of("findMaxChangeVersion", "SELECT COALESCE(MAX(change_version), 0) FROM map_markers"),
+
+                // MessageRepository
+                Arguments.of("findConversation",
+                        "SELECT * FROM messages WHERE (sender = 'user1' AND recipient = 'user2') " +
+                                "OR (sender = 'user2' AND recipient = 'user1') ORDER BY timestamp"),
+                Arguments.of("findConversationLatest",
+                        "SELECT * FROM messages WHERE ((sender = 'user1' AND recipient = 'user2') " +
+                                "OR (sender = 'user2' AND recipient = 'user1')) ORDER BY timestamp DESC, id DESC LIMIT 51"),
+                Arguments.of("findConversationAfter",
+                        "SELECT * FROM messages WHERE ((sender = 'user1' AND recipient = 'user2') " +
+                                "OR (sender = 'user2' AND recipient = 'user1')) AND id > 15000 ORDER BY id LIMIT 200"),
+                Arguments.of("findArchivable",
+                        "SELECT * FROM messages WHERE timestamp < NOW() - INTERVAL 3 DAY AND is_read = TRUE " +
+                                "AND sender IS NOT NULL AND recipient IS NOT NULL ORDER BY timestamp, id LIMIT 5000"),
+                Arguments.of("findAllMessagesByUser", "SELECT * FROM messages WHERE sender = 'user1' OR recipient = 'user1'"),
+                Arguments.of("countByRecipientAndIsReadFalse",
+                        "SELECT COUNT(*) FROM messages WHERE recipient = 'user1' AND is_read = FALSE"),
+                Arguments.of("markMessagesAsRead",
+                        "UPDATE messages SET is_read = TRUE WHERE sender = 'user2' AND recipient = 'user1' AND is_read = FALSE"),
+
+                // Keyset pages
+                Arguments.of("alerts first page", "SELECT * FROM alerts ORDER BY timestamp DESC, id DESC LIMIT 51"),
+                Arguments.of("AlertRepository.findAfter",
+                        "SELECT * FROM alerts WHERE timestamp < NOW() - INTERVAL 5 DAY " +
+                                "OR (timestamp = NOW() - INTERVAL 5 DAY AND id < 100) ORDER BY timestamp DESC, id DESC LIMIT 51"),
+                Arguments.of("ReportRepository.findSummariesAfter",
+                        "SELECT id, title, description, submitted_by, timestamp, file_name, file_type, file_size FROM reports " +
+                                "WHERE timestamp < NOW() - INTERVAL 5 DAY OR (timestamp = NOW() - INTERVAL 5 DAY AND id < 100) " +
+                                "ORDER BY timestamp DESC, id DESC LIMIT 51"),
+                Arguments.of("help requests first page",
+                        "SELECT * FROM help_requests ORDER BY created_at DESC, id DESC LIMIT 51"),
+                Arguments.of("HelpRequestRepository.findAfter",
+                        "SELECT * FROM help_requests WHERE created_at < NOW() - INTERVAL 1 DAY " +
+                                "OR (created_at = NOW() - INTERVAL 1 DAY AND id < 2500) OR created_at IS NULL " +
+                                "ORDER BY created_at DESC, id DESC LIMIT 51"),
+                Arguments.of("findUndatedAfter",
+                        "SELECT * FROM help_requests WHERE created_at IS NULL AND id < 2500 ORDER BY id DESC LIMIT 51"),
+
+                // Point lookups and sync
+                Arguments.of("findByTrackingId", "SELECT * FROM help_requests WHERE tracking_id = 'track-77'"),
+                Arguments.of("findByUsername", "SELECT * FROM users WHERE username = 'user17'"),
+                Arguments.of("tombstones sync range",
+                        "SELECT * FROM tombstones WHERE change_version > 1900 AND change_version <= 2000 ORDER BY change_version"),
+                Arguments.of("alerts sync range",
+                        "SELECT * FROM alerts WHERE change_version > 1900 AND change_version <= 2000 ORDER BY change_version"));
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("hotQueries")
+    void hotQueryUsesAnIndex(String query, String sql) throws SQLException {
+        List<String> plan = new ArrayList<>();
+        boolean fullScan = false;
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("EXPLAIN " + sql)) {
+            while (rs.next()) {
+                String type = rs.getString("type");
+                plan.add(rs.getString("table") + ": type=" + type + ", key=" + rs.getString("key")
+                        + ", rows=" + rs.getString("rows") + ", extra=" + rs.getString("Extra"));
+                // A whole-index walk is fine when a LIMIT stops it after one page
+                if ("ALL".equals(type) || ("index".equals(type) && !sql.contains("LIMIT"))) fullScan = true;
+            }
+        }
+        assertTrue(!fullScan, query + " scans a whole table:\n  " + String.join("\n  ", plan));
+    }
+
+    @Test
+    void markerStatusSeverityAndTypeAreEnums() throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(
+                "SELECT column_name, column_type FROM information_schema.columns " +
+                        "WHERE table_schema = DATABASE() AND table_name = 'map_markers' AND column_name IN ('status', 'severity', 'type')")) {
+            try (ResultSet rs = statement.executeQuery()) {
+                int columns = 0;
+                while (rs.next()) {
+                    columns++;
+                    assertTrue(rs.getString(2).startsWith("enum("), rs.getString(1) + " is " + rs.getString(2));
+                }
+                assertTrue(columns == 3, "expected status, severity and type columns, found " + columns);
+            }
+        }
+    }
+
+    private static void seedUsers() throws SQLException {
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO users (username, email, password, role) VALUES (?, ?, 'x', 'MEMBER')")) {
+            for (int i = 0; i < USERS; i++) {
+                insert.setString(1, "user" + i);
+                insert.setString(2, "user" + i + "@example.org");
+                insert.addBatch();
+            }
+            insert.executeBatch();
+        }
+    }
+
+    // Mostly approved, as on a live system: the moderation lists are the small end of the table
+    private static void seedMarkers(Random random, LocalDateTime now) throws SQLException {
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO map_markers (id, type, lat, lng, name, severity, status, submitted_by, timestamp, change_version) " +
+                        "VALUES (?, ?, ?, ?, ?, 'medium', ?, ?, ?, ?)")) {
+            for (int i = 1; i <= MARKERS; i++) {
+                int roll = random.nextInt(100);
+                insert.setLong(1, i);
+                insert.setString(2, TYPES[random.nextInt(TYPES.length)]);
+                insert.setDouble(3, 5.9 + random.nextDouble() * 3.9);
+                insert.setDouble(4, 79.6 + random.nextDouble() * 2.3);
+                insert.setString(5, "Marker " + i);
+                insert.setString(6, roll < 5 ? "pending" : roll < 20 ? "rejected" : "approved");
+                insert.setString(7, "user" + random.nextInt(USERS));
+                insert.setTimestamp(8, Timestamp.valueOf(now.minusMinutes(random.nextInt(30 * 24 * 60))));
+                insert.setLong(9, i);
+                insert.addBatch();
+            }
+            insert.executeBatch();
+        }
+    }
+
+    private static void seedMessages(Random random, LocalDateTime now) throws SQLException {
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO messages (sender, recipient, content, role, timestamp, is_read) VALUES (?, ?, 'hello', 'MEMBER', ?, ?)")) {
+            for (int i = 0; i < MESSAGES; i++) {
+                insert.setString(1, "user" + random.nextInt(USERS));
+                insert.setString(2, "user" + random.nextInt(USERS));
+                // The archiver keeps the table to the last three days, give or take a backlog
+                int ageSeconds = random.nextInt(50) == 0
+                        ? 3 * 24 * 3600 + random.nextInt(27 * 24 * 3600)
+                        : random.nextInt(3 * 24 * 3600);
+                insert.setTimestamp(3, Timestamp.valueOf(now.minusSeconds(ageSeconds)));
+                insert.setBoolean(4, random.nextInt(10) != 0);
+                insert.addBatch();
+            }
+            insert.executeBatch();
+        }
+    }
+
+    private static void seedRest(Random random, LocalDateTime now) throws SQLException {
+        try (PreparedStatement alerts = connection.prepareStatement(
+                "INSERT INTO alerts (severity, title, content, timestamp, change_version) VALUES ('high', 'Alert', 'Text', ?, ?)");
+             PreparedStatement reports = connection.prepareStatement(
+                     "INSERT INTO reports (title, description, submitted_by, timestamp) VALUES ('Report', 'Text', 'user1', ?)");
+             PreparedStatement tombstones = connection.prepareStatement(
+                     "INSERT INTO tombstones (entity_type, entity_id, change_version, deleted_at) VALUES ('alert', ?, ?, ?)")) {
+            for (int i = 1; i <= ROWS; i++) {
+                Timestamp at = Timestamp.valueOf(now.minusMinutes(random.nextInt(30 * 24 * 60)));
+                alerts.setTimestamp(1, at);
+                alerts.setLong(2, i);
+                alerts.addBatch();
+                reports.setTimestamp(1, at);
+                reports.addBatch();
+                tombstones.setLong(1, i);
+                tombstones.setLong(2, i);
+                tombstones.setTimestamp(3, at);
+                tombstones.addBatch();
+            }
+            alerts.executeBatch();
+            reports.executeBatch();
+            tombstones.executeBatch();
+        }
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO help_requests (id, name, latitude, longitude, created_at, tracking_id, change_version) " +
+                        "VALUES (?, 'Help', 7.0, 80.0, ?, ?, ?)")) {
+            for (int i = 1; i <= HELP_REQUESTS; i++) {
+                insert.setLong(1, i);
+                // A few from before created_at existed
+                insert.setTimestamp(2, i % 100 == 0 ? null : Timestamp.valueOf(now.minusMinutes(i)));
+                insert.setString(3, "track-" + i);
+                insert.setLong(4, i);
+                insert.addBatch();
+            }
+            insert.executeBatch();
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.repository;
+
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.model.HelpRequest;
+import ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.model.MapMarker;
+import jakarta.persistence.EntityManager;
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.output.MigrateResult;
+import org.hibernate.boot.model.naming.PhysicalNamingStrategySnakeCaseImpl;
+import org.hibernate.cfg.AvailableSettings;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.hibernate.SpringImplicitNamingStrategy;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Upgrades a database shaped like the ones ddl-auto=update created (V1 applied, no Flyway
+ * history) the way production does, with baseline-on-migrate at version 1, and checks that
+ * Hibernate's schema validation accepts every entity against the result. A database built
+ * from empty must validate the same way. Needs a MySQL server (see TestMySql).
+ */
+class SchemaMigrationTest {
+
+    private Connection connection;
+    private LocalContainerEntityManagerFactoryBean entityManagerFactory;
+
+    @BeforeEach
+    void wipe() {
+        connection = TestMySql.connectOrSkip();
+        TestMySql.flyway().load().clean();
+    }
+
+    @AfterEach
+    void close() throws SQLException {
+        if (entityManagerFactory != null) entityManagerFactory.destroy();
+        if (connection != null) connection.close();
+    }
+
+    @Test
+    void baselineDatabaseIsUpgradedToWhatTheEntitiesExpect() throws SQLException {
+        // What an installation from before migrations looks like: the V1 tables, some rows, no history table
+        TestMySql.flyway().target("1").load().migrate();
+        execute("DROP TABLE flyway_schema_history",
+                "INSERT INTO map_markers (type, lat, lng, name, severity, status, submitted_by, timestamp) " +
+                        "VALUES ('Flood', 7.0, 80.0, 'Old marker', 'HIGH', 'Approved', 'user1', NOW())",
+                "INSERT INTO map_markers (type, lat, lng, name, status, timestamp) VALUES ('tsunami', 7.1, 80.1, 'Odd', NULL, NOW())",
+                "INSERT INTO help_requests (name, latitude, longitude, details) VALUES ('Old request', 7.0, 80.0, 'Water')",
+                "INSERT INTO help_request_needs (help_request_id, needs) VALUES (1, 'water')",
+                "INSERT INTO alerts (severity, title, content, timestamp) VALUES ('high', 'Old alert', 'Text', NOW())",
+                "INSERT INTO messages (sender, recipient, content, role, timestamp, is_read) VALUES ('a', 'b', 'hi', 'MEMBER', NOW(), FALSE)",
+                "INSERT INTO reports (title, submitted_by, timestamp, file_name, data) VALUES ('Old report', 'a', NOW(), 'f.txt', 'abc')");
+
+        MigrateResult result = TestMySql.flyway().baselineOnMigrate(true).baselineVersion("1").load().migrate();
+        assertTrue(result.migrationsExecuted > 0, "nothing applied on top of the baseline");
+        assertEquals("1", Flyway.configure().dataSource(TestMySql.URL, TestMySql.USER, TestMySql.PASSWORD).load()
+                .info().applied()[0].getVersion().getVersion());
+
+        EntityManager entityManager = validate();
+
+        // Old rows come through with the columns they did not have left empty or defaulted
+        MapMarker marker = entityManager.find(MapMarker.class, 1L);
+        assertEquals("flood", marker.getType());
+        assertEquals("approved", marker.getStatus());
+        assertEquals("high", marker.getSeverity());
+        assertEquals(1, marker.getCorroborations());
+        assertNull(marker.getChangeVersion());
+        assertEquals("other", entityManager.find(MapMarker.class, 2L).getType());
+        assertEquals(List.of("water"), entityManager.find(HelpRequest.class, 1L).getNeeds());
+        assertEquals(3L, queryLong("SELECT file_size FROM reports WHERE id = 1"));
+
+        // New rows take ids from the sequences, which start past what AUTO_INCREMENT handed out
+        entityManager.getTransaction().begin();
+        HelpRequest request = new HelpRequest();
+        request.setName("New request");
+        request.setLatitude(7.0);
+        request.setLongitude(80.0);
+        entityManager.persist(request);
+        entityManager.getTransaction().commit();
+        assertTrue(request.getId() > 1, "sequence handed out an existing id: " + request.getId());
+        assertTrue(queryLong("SELECT next_val FROM map_markers_seq") > 2);
+        entityManager.close();
+    }
+
+    @Test
+    void emptyDatabaseIsBuiltToWhatTheEntitiesExpect() {
+        TestMySql.flyway().load().migrate();
+        validate().close();
+    }
+
+    // Boots Hibernate with schema validation and the application's naming and id settings
+    private EntityManager validate() {
+        entityManagerFactory = new LocalContainerEntityManagerFactoryBean();
+        entityManagerFactory.setDataSource(new DriverManagerDataSource(TestMySql.URL, TestMySql.USER, TestMySql.PASSWORD));
+        entityManagerFactory.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+        entityManagerFactory.setPackagesToScan(MapMarker.class.getPackageName());
+        entityManagerFactory.setJpaPropertyMap(Map.of(
+                AvailableSettings.HBM2DDL_AUTO, "validate",
+                AvailableSettings.PHYSICAL_NAMING_STRATEGY, PhysicalNamingStrategySnakeCaseImpl.class.getName(),
+                AvailableSettings.IMPLICIT_NAMING_STRATEGY, SpringImplicitNamingStrategy.class.getName(),
+                AvailableSettings.PREFERRED_POOLED_OPTIMIZER, "pooled-lo"));
+        entityManagerFactory.afterPropertiesSet();
+        return entityManagerFactory.getObject().createEntityManager();
+    }
+
+    private void execute(String... statements) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            for (String sql : statements) statement.execute(sql);
+        }
+    }
+
+    private long queryLong(String sql) throws SQLException {
+        try (Statement statement = connection.createStatement(); ResultSet rs = statement.executeQuery(sql)) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.repository;
+
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.configuration.FluentConfiguration;
+import org.junit.jupiter.api.Assumptions;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+
+/**
+ * The scratch MySQL database the schema tests run against. Tests using it are skipped when no
+ * server answers. Each test wipes the database before using it, so they can share one:
+ *
+ *   FLOOD_TEST_JDBC_URL="jdbc:mysql://localhost:3306/flood_plan_test?createDatabaseIfNotExist=true&rewriteBatchedStatements=true" \
+ *   FLOOD_TEST_DB_USER=root FLOOD_TEST_DB_PASSWORD=secret ./mvnw test
+ */
+final class TestMySql {
+
+    static final String URL = env("FLOOD_TEST_JDBC_URL",
+            "jdbc:mysql://localhost:3306/flood_plan_test?createDatabaseIfNotExist=true&rewriteBatchedStatements=true");
+    static final String USER = env("FLOOD_TEST_DB_USER", "root");
+    static final String PASSWORD = env("FLOOD_TEST_DB_PASSWORD", "");
+
+    private TestMySql() {
+    }
+
+    static Connection connectOrSkip() {
+        try {
+            return DriverManager.getConnection(URL, USER, PASSWORD);
+        } catch (SQLException e) {
+            Assumptions.abort("No MySQL at " + URL + ": " + e.getMessage());
+            throw new AssertionError(e);
+        }
+    }
+
+    static FluentConfiguration flyway() {
+        return Flyway.configure().dataSource(URL, USER, PASSWORD).cleanDisabled(false);
+    }
+
+    private static String env(String name, String fallback) {
+        String value = System.getenv(name);
+        return value == null || value.isBlank() ? fallback : value;
+    }
+}
@@ -0,0 +1,181 @@
+package ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.service;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Two services over one database stand in for two instances of the application.
+ */
+class ChangeVersionServiceTest {
+
+    private static final int WRITERS = 6;
+    private static final int WRITES = 40;
+
+    private HikariDataSource dataSource;
+    private JdbcTemplate jdbc;
+
+    @BeforeEach
+    void createSchema() {
+        dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl("jdbc:h2:mem:versions;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000");
+        dataSource.setMaximumPoolSize(WRITERS + 2);
+        jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("CREATE TABLE change_version_seq (next_val BIGINT NOT NULL)");
+        jdbc.execute("INSERT INTO change_version_seq VALUES (1)");
+        jdbc.execute("CREATE TABLE change_version_lease (version BIGINT NOT NULL PRIMARY KEY, leased_at_ms BIGINT NOT NULL)");
+        jdbc.execute("CREATE TABLE writes (change_version BIGINT NOT NULL)");
+    }
+
+    @AfterEach
+    void dropSchema() {
+        jdbc.execute("DROP ALL OBJECTS");
+        dataSource.close();
+    }
+
+    @Test
+    void instancesNeverShareAVersionOrAdvertiseOneStillOpen() throws Exception {
+        ChangeVersionService first = instance();
+        ChangeVersionService second = instance();
+        ExecutorService pool = Executors.newFixedThreadPool(WRITERS);
+        List<Future<?>> writers = new ArrayList<>();
+        for (int i = 0; i < WRITERS; i++) {
+            ChangeVersionService service = i % 2 == 0 ? first : second;
+            writers.add(pool.submit(() -> {
+                for (int j = 0; j < WRITES; j++) {
+                    service.write(version -> {
+                        jdbc.update("INSERT INTO writes VALUES (?)", version);
+                        // Hold the version open for a moment, as a slow save would
+                        if (ThreadLocalRandom.current().nextInt(4) == 0) sleep();
+                        return version;
+                    });
+                }
+            }));
+        }
+
+        // Every version up to the advertised one has committed, whichever instance is asked
+        while (writers.stream().anyMatch(w -> !w.isDone())) {
+            for (ChangeVersionService service : List.of(first, second)) {
+                long safe = service.getSafeVersion();
+                assertEquals(safe, count("SELECT COUNT(*) FROM writes WHERE change_version <= ?", safe));
+            }
+        }
+        for (Future<?> writer : writers) writer.get();
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(5, TimeUnit.SECONDS));
+
+        assertEquals(WRITERS * WRITES, first.getSafeVersion());
+        assertEquals(WRITERS * WRITES, count("SELECT COUNT(DISTINCT change_version) FROM writes"));
+    }
+
+    @Test
+    void slowWriteHoldsTheSafeVersionBackButNotOtherWrites() throws Exception {
+        ChangeVersionService first = instance();
+        ChangeVersionService second = instance();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch finish = new CountDownLatch(1);
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        Future<Long> slow = pool.submit(() -> first.write(version -> {
+            jdbc.update("INSERT INTO writes VALUES (?)", version);
+            started.countDown();
+            await(finish);
+            return version;
+        }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        // The other instance keeps writing while the slow one is open, but cannot advertise past it
+        for (int i = 0; i < 5; i++) {
+            second.write(version -> jdbc.update("INSERT INTO writes VALUES (?)", version));
+        }
+        assertEquals(0, first.getSafeVersion());
+        assertEquals(0, second.getSafeVersion());
+
+        finish.countDown();
+        assertEquals(1, slow.get(5, TimeUnit.SECONDS));
+        pool.shutdown();
+        assertEquals(6, second.getSafeVersion());
+    }
+
+    @Test
+    void failedWriteDoesNotHoldTheSafeVersionBack() {
+        ChangeVersionService service = instance();
+        service.write(version -> jdbc.update("INSERT INTO writes VALUES (?)", version));
+
+        assertThrows(IllegalStateException.class, () -> service.write(version -> {
+            jdbc.update("INSERT INTO writes VALUES (?)", version);
+            throw new IllegalStateException("save failed");
+        }));
+        // Version 2 is never used; nothing below the safe version is still to come
+        assertEquals(2, service.getSafeVersion());
+        assertEquals(1, count("SELECT COUNT(*) FROM writes WHERE change_version <= ?", 10));
+        assertEquals(0, count("SELECT COUNT(*) FROM change_version_lease"));
+
+        long next = service.write(version -> version);
+        assertEquals(3, next);
+    }
+
+    @Test
+    void leaseOfAnInstanceThatDiedIsSweptAfterTheTimeout() {
+        ChangeVersionService service = instance();
+        service.write(version -> jdbc.update("INSERT INTO writes VALUES (?)", version));
+        // Taken by an instance that stopped before its write finished
+        jdbc.update("UPDATE change_version_seq SET next_val = 3");
+        jdbc.update("INSERT INTO change_version_lease VALUES (2, ?)", System.currentTimeMillis() - 30_000);
+        service.write(version -> jdbc.update("INSERT INTO writes VALUES (?)", version));
+        assertEquals(1, service.getSafeVersion());
+
+        service.sweepExpiredLeases();
+        assertEquals(1, service.getSafeVersion());
+
+        ReflectionTestUtils.setField(service, "leaseTimeoutMillis", 10_000L);
+        service.sweepExpiredLeases();
+        assertEquals(3, service.getSafeVersion());
+    }
+
+    private ChangeVersionService instance() {
+        ChangeVersionService service = new ChangeVersionService();
+        ReflectionTestUtils.setField(service, "dataSource", dataSource);
+        ReflectionTestUtils.setField(service, "leaseTimeoutMillis", 60_000L);
+        ReflectionTestUtils.setField(service, "jdbcTemplate", new JdbcTemplate(dataSource));
+        ReflectionTestUtils.setField(service, "transactionManager", new DataSourceTransactionManager(dataSource));
+        service.init();
+        return service;
+    }
+
+    private long count(String sql, Object... args) {
+        return jdbc.queryForObject(sql, Long.class, args);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void sleep() {
+        try {
+            Thread.sleep(2);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
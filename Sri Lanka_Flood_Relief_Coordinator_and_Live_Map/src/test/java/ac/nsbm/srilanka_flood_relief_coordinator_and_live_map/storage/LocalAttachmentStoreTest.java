@@ -0,0 +1,144 @@
+package ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.storage;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LocalAttachmentStoreTest {
+
+    private static final byte[] CONTENT = "Water level at Kelani bridge: 7.4 m".getBytes(StandardCharsets.UTF_8);
+
+    @TempDir
+    Path root;
+
+    @Test
+    void sameContentIsStoredOnce() throws IOException {
+        LocalAttachmentStore store = new LocalAttachmentStore(root);
+
+        StoredAttachment first = store.save(new ByteArrayInputStream(CONTENT));
+        StoredAttachment second = store.save(new ByteArrayInputStream(CONTENT));
+
+        assertFalse(first.deduplicated());
+        assertTrue(second.deduplicated());
+        assertEquals(first.sha256(), second.sha256());
+        assertEquals(CONTENT.length, second.size());
+        assertEquals(1, storedFiles().size());
+        assertIncomingEmpty();
+        assertArrayEquals(CONTENT, read(store, first.sha256()));
+    }
+
+    @Test
+    void differentContentGetsItsOwnFile() throws IOException {
+        LocalAttachmentStore store = new LocalAttachmentStore(root);
+
+        StoredAttachment a = store.save(new ByteArrayInputStream(CONTENT));
+        StoredAttachment b = store.save(new ByteArrayInputStream(new byte[0]));
+
+        assertFalse(b.deduplicated());
+        assertEquals(0, b.size());
+        assertEquals("e3b0c44298fc1c149afbf4c8996fb92427ae41e4649b934ca495991b7852b855", b.sha256());
+        assertEquals(2, storedFiles().size());
+        assertArrayEquals(CONTENT, read(store, a.sha256()));
+        assertEquals(Path.of(b.sha256().substring(0, 2), b.sha256().substring(2, 4), b.sha256()),
+                root.relativize(store.localPath(b.sha256()).orElseThrow()));
+    }
+
+    // Every upload finishes hashing before any of them looks for the target, so all but one lose the race to place it
+    @Test
+    void concurrentUploadsOfTheSameContentKeepOneCopy() throws Exception {
+        LocalAttachmentStore store = new LocalAttachmentStore(root);
+        int uploads = 8;
+        CyclicBarrier hashed = new CyclicBarrier(uploads);
+        ExecutorService pool = Executors.newFixedThreadPool(uploads);
+        try {
+            List<Future<StoredAttachment>> results = new ArrayList<>();
+            for (int i = 0; i < uploads; i++) {
+                results.add(pool.submit(() -> store.save(endingTogether(hashed))));
+            }
+            int placed = 0;
+            for (Future<StoredAttachment> result : results) {
+                StoredAttachment stored = result.get(10, TimeUnit.SECONDS);
+                assertEquals(CONTENT.length, stored.size());
+                if (!stored.deduplicated()) placed++;
+            }
+            assertEquals(1, placed, "uploads that reported storing the content");
+        } finally {
+            pool.shutdownNow();
+        }
+        assertEquals(1, storedFiles().size());
+        assertIncomingEmpty();
+    }
+
+    @Test
+    void rejectsKeysThatAreNotSha256() throws IOException {
+        LocalAttachmentStore store = new LocalAttachmentStore(root);
+
+        assertThrows(IllegalArgumentException.class, () -> store.exists("../../etc/passwd"));
+        assertThrows(IllegalArgumentException.class, () -> store.open("ABC"));
+        assertThrows(IllegalArgumentException.class, () -> store.localPath(null));
+    }
+
+    // CONTENT, then a wait at end of stream until every other upload has read its copy too
+    private static InputStream endingTogether(CyclicBarrier barrier) {
+        return new ByteArrayInputStream(CONTENT) {
+            @Override
+            public synchronized int read(byte[] b, int off, int len) {
+                int read = super.read(b, off, len);
+                if (read == -1) {
+                    try {
+                        barrier.await(10, TimeUnit.SECONDS);
+                    } catch (InterruptedException | BrokenBarrierException | TimeoutException e) {
+                        throw new IllegalStateException(e);
+                    }
+                }
+                return read;
+            }
+        };
+    }
+
+    private List<Path> storedFiles() throws IOException {
+        Path incoming = root.resolve("incoming");
+        try (Stream<Path> files = Files.walk(root)) {
+            return files.filter(Files::isRegularFile).filter(p -> !p.startsWith(incoming)).toList();
+        }
+    }
+
+    private void assertIncomingEmpty() throws IOException {
+        try (Stream<Path> files = Files.list(root.resolve("incoming"))) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    private static byte[] read(AttachmentStore store, String sha256) throws IOException {
+        try (SeekableByteChannel channel = store.open(sha256)) {
+            ByteBuffer buffer = ByteBuffer.allocate((int) channel.size());
+            while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+            }
+            return buffer.array();
+        }
+    }
+}
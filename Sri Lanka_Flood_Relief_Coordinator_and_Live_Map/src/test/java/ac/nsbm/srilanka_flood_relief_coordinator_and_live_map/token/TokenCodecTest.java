@@ -0,0 +1,90 @@
+package ac.nsbm.srilanka_flood_relief_coordinator_and_live_map.token;
+
+import org.junit.jupiter.api.Test;
+import tools.jackson.databind.ObjectMapper;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class TokenCodecTest {
+
+    private static final long NOW = 1_700_000_000L;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final TokenCodec codec = new TokenCodec(secret('k'), objectMapper);
+    private final TokenClaims claims = new TokenClaims("id-1", "alice", "MEMBER", TokenClaims.Type.ACCESS, NOW, NOW + 900);
+
+    @Test
+    void roundTrips() {
+        assertEquals(claims, codec.decode(codec.encode(claims), NOW));
+        assertEquals(claims, codec.decode(codec.encode(claims), NOW + 899));
+    }
+
+    @Test
+    void rejectsExpiredTokens() {
+        String token = codec.encode(claims);
+        assertRejected("Token has expired", token, NOW + 900);
+        assertRejected("Token has expired", token, NOW + 100_000);
+    }
+
+    @Test
+    void rejectsTamperedSignature() {
+        String token = codec.encode(claims);
+        int dot = token.lastIndexOf('.');
+        byte[] signature = Base64.getUrlDecoder().decode(token.substring(dot + 1));
+        signature[0] ^= 1;
+        String tampered = token.substring(0, dot + 1) + Base64.getUrlEncoder().withoutPadding().encodeToString(signature);
+        assertRejected("Token signature is invalid", tampered, NOW);
+    }
+
+    @Test
+    void rejectsTamperedClaims() {
+        String token = codec.encode(claims);
+        String[] parts = token.split("\\.");
+        String promoted = new String(Base64.getUrlDecoder().decode(parts[1]), StandardCharsets.UTF_8)
+                .replace("\"MEMBER\"", "\"ADMIN\"");
+        String forged = parts[0] + "." + Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(promoted.getBytes(StandardCharsets.UTF_8)) + "." + parts[2];
+        assertRejected("Token signature is invalid", forged, NOW);
+    }
+
+    @Test
+    void rejectsTokensSignedWithAnotherKey() {
+        String foreign = new TokenCodec(secret('x'), objectMapper).encode(claims);
+        assertRejected("Token signature is invalid", foreign, NOW);
+    }
+
+    @Test
+    void rejectsOtherHeadersBeforeCheckingTheSignature() {
+        String token = codec.encode(claims);
+        String body = token.substring(token.indexOf('.'), token.lastIndexOf('.') + 1);
+        String none = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString("{\"alg\":\"none\",\"typ\":\"JWT\"}".getBytes(StandardCharsets.US_ASCII));
+        assertRejected("Unsupported token header", none + body, NOW);
+    }
+
+    @Test
+    void rejectsMalformedTokens() {
+        assertRejected("Token is missing", null, NOW);
+        assertRejected("Token is malformed", "no-dots", NOW);
+        assertRejected("Token is malformed", "one.dot", NOW);
+        assertRejected("Token is malformed", codec.encode(claims) + ".extra", NOW);
+    }
+
+    @Test
+    void rejectsShortSecrets() {
+        assertThrows(IllegalArgumentException.class, () -> new TokenCodec(new byte[31], objectMapper));
+    }
+
+    private void assertRejected(String message, String token, long now) {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> codec.decode(token, now));
+        assertEquals(message, e.getMessage());
+    }
+
+    private static byte[] secret(char fill) {
+        return String.valueOf(fill).repeat(32).getBytes(StandardCharsets.US_ASCII);
+    }
+}